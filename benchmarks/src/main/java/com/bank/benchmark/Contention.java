@@ -0,0 +1,15 @@
+package com.bank.benchmark;
+
+/**
+ * Defines which Bank Accounts the benchmark threads work with
+ */
+public enum Contention {
+    /**
+     * All threads use the same pair of Bank Accounts, so they wait for the same row locks
+     */
+    CONTENDED,
+    /**
+     * Every thread uses its own pair of Bank Accounts
+     */
+    UNCONTENDED
+}
@@ -0,0 +1,56 @@
+package com.bank.benchmark;
+
+import java.sql.ResultSet;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bank.dao.BankAccountDao;
+import com.bank.db.DbUtils;
+import com.bank.model.BankAccount;
+
+/**
+ * Read path of the database layer:
+ * <ul>
+ *     <li><code>executeQuery</code> - the bare {@link DbUtils#executeQuery} round trip (pooled connection, cached
+ *     statement, commit) of the primary key lookup returning one column</li>
+ *     <li><code>getBankAccountById</code> - the same lookup through {@link BankAccountDao} mapping the whole row</li>
+ * </ul>
+ * CONTENDED threads read the same row, UNCONTENDED ones read their own rows. Nothing changes the table during the
+ * run, so H2 may answer repeated queries from its query cache as it does for the real read traffic.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DaoReadBenchmark {
+    private static final String GET_BALANCE_SQL = "select balance from bank_account ba where ba.id = ?";
+
+    private final DbUtils dbUtils = DbUtils.getInstance();
+    private final BankAccountDao bankAccountDao = BankAccountDao.getInstance();
+
+    @Benchmark
+    public Object executeQuery(ThreadAccounts accounts) {
+        return dbUtils.executeQuery(GET_BALANCE_SQL, getBalance -> {
+            getBalance.setLong(1, accounts.fromAccountId);
+            try (ResultSet balanceRS = getBalance.executeQuery()) {
+                return balanceRS.next() ? balanceRS.getBigDecimal(1) : null;
+            }
+        }).getResult();
+    }
+
+    @Benchmark
+    public BankAccount getBankAccountById(ThreadAccounts accounts) {
+        return bankAccountDao.getBankAccountById(accounts.fromAccountId);
+    }
+}
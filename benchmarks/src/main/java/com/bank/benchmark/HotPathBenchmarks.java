@@ -0,0 +1,56 @@
+package com.bank.benchmark;
+
+import java.io.File;
+import java.util.Arrays;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the hot path benchmarks ({@link DaoReadBenchmark}, {@link TransactionDaoBenchmark} and
+ * {@link JsonSerializationBenchmark}) with 1 thread and with N threads (the amount of processors by default) and
+ * writes the results of every run as JSON to <code>target/jmh/hot-paths-&lt;threads&gt;t.json</code>, so they
+ * could be compared between builds.
+ * <p>
+ * Command : java -cp target/benchmarks.jar com.bank.benchmark.HotPathBenchmarks [N] [JMH options]
+ */
+public class HotPathBenchmarks {
+    private static final String[] BENCHMARKS = {
+            DaoReadBenchmark.class.getSimpleName(),
+            TransactionDaoBenchmark.class.getSimpleName(),
+            JsonSerializationBenchmark.class.getSimpleName()
+    };
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        String[] jmhArgs = args;
+        if (args.length > 0 && args[0].matches("\\d+")) {
+            threads = Integer.parseInt(args[0]);
+            jmhArgs = Arrays.copyOfRange(args, 1, args.length);
+        }
+        CommandLineOptions commandLineOptions = new CommandLineOptions(jmhArgs);
+
+        File resultDirectory = new File("target/jmh");
+        resultDirectory.mkdirs();
+
+        for (int runThreads : threads == 1 ? new int[]{1} : new int[]{1, threads}) {
+            OptionsBuilder options = new OptionsBuilder();
+            options.parent(commandLineOptions);
+            for (String benchmark : BENCHMARKS) {
+                options.include("\\." + benchmark + "\\.");
+            }
+            Options runOptions = options
+                    .threads(runThreads)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(new File(resultDirectory, "hot-paths-" + runThreads + "t.json").getPath())
+                    .build();
+
+            new Runner(runOptions).run();
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.bank.benchmark;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bank.dao.BankAccountDao;
+import com.bank.dao.TransactionDao;
+import com.bank.db.DbUtils;
+import com.bank.exceptions.ImpossibleOperationExecution;
+import com.bank.exceptions.ObjectModificationException;
+import com.bank.model.BankAccount;
+import com.bank.model.Money;
+import com.bank.model.Transaction;
+
+/**
+ * Many senders and one receiver (e.g. the merchant): every thread transfers money from its own Bank Account to the
+ * same receiver, so the receiver row is the only contended one.
+ * <ul>
+ *     <li><code>rawCredit</code> locks both rows by one <code>ORDER BY id FOR UPDATE</code> query and writes the
+ *     receiver back from its read balance (<code>LOCKED</code>) or locks the sender only and credits the receiver
+ *     by <code>balance = balance + ?</code> (<code>ATOMIC</code>) depending on <code>creditStrategy</code>
+ *     parameter</li>
+ *     <li><code>executeTransaction</code> runs the real {@link TransactionDao} create and execute calls</li>
+ *     <li><code>immediateTransaction</code> runs {@link TransactionDao#createAndExecuteTransaction(Transaction)}</li>
+ * </ul>
+ * <code>receiverPosition</code> creates the receiver before (<code>LOWEST</code> ID) or after (<code>HIGHEST</code>
+ * ID) all senders. The rows are locked in the order of their IDs, so only the receiver with the highest ID is
+ * credited right before the commit. <code>lockFailures</code> counter shows the amount of operations failed by lock
+ * timeout or deadlock. <code>contendedCredits</code> counter shows the amount of <code>rawCredit</code> operations
+ * started while another thread was holding its own connection and crediting the same receiver.
+ * <p>
+ * The threads should not outnumber the connections of the pool (<code>bank.db.maximumPoolSize</code>, 10 by
+ * default), otherwise the threads queue for the connection instead of the receiver row lock.
+ * <p>
+ * Command : java -jar target/benchmarks.jar HotReceiverBenchmark -t 32 -jvmArgsAppend -Dbank.db.maximumPoolSize=32
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class HotReceiverBenchmark {
+    private static final BigDecimal INITIAL_BALANCE = BigDecimal.valueOf(1_000_000_000L);
+    private static final int MAX_SENDERS = 256;
+    private static final long AMOUNT = Money.toMinorUnits(BigDecimal.ONE);
+
+    @Param({"LOCKED", "ATOMIC"})
+    public String creditStrategy;
+
+    @Param({"LOWEST", "HIGHEST"})
+    public String receiverPosition;
+
+    private Long receiverAccountId;
+    private final Long[] senderAccountIds = new Long[MAX_SENDERS];
+    private final AtomicInteger sendersTaken = new AtomicInteger();
+    private final AtomicInteger creditingThreads = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void createAccounts() throws ObjectModificationException {
+        if ("LOWEST".equals(receiverPosition)) {
+            receiverAccountId = createAccount("Hot Receiver");
+        }
+        for (int i = 0; i < MAX_SENDERS; i++) {
+            senderAccountIds[i] = createAccount("Hot Receiver Sender " + i);
+        }
+        if ("HIGHEST".equals(receiverPosition)) {
+            receiverAccountId = createAccount("Hot Receiver");
+        }
+    }
+
+    private static Long createAccount(String ownerName) throws ObjectModificationException {
+        return BankAccountDao.getInstance().createBankAccount(
+                new BankAccount(ownerName, INITIAL_BALANCE, BigDecimal.ZERO)).getId();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Sender {
+        public long lockFailures;
+        public long contendedCredits;
+        Long accountId;
+
+        @Setup(Level.Trial)
+        public void selectAccount(HotReceiverBenchmark benchmark) {
+            accountId = benchmark.senderAccountIds[benchmark.sendersTaken.getAndIncrement() % MAX_SENDERS];
+        }
+    }
+
+    @Benchmark
+    public void rawCredit(Sender sender) {
+        Connection con = DbUtils.getConnection();
+        if (creditingThreads.incrementAndGet() > 1) {
+            sender.contendedCredits++;
+        }
+        try {
+            if ("LOCKED".equals(creditStrategy)) {
+                lockAndWrite(con, sender.accountId);
+            } else {
+                lockSenderAndCredit(con, sender.accountId);
+            }
+
+            con.commit();
+        } catch (SQLException e) {
+            DbUtils.safeRollback(con);
+            sender.lockFailures++;
+        } finally {
+            creditingThreads.decrementAndGet();
+            DbUtils.quietlyClose(con);
+        }
+    }
+
+    @Benchmark
+    public void executeTransaction(Sender sender) {
+        TransactionDao transactionDao = TransactionDao.getInstance();
+        try {
+            Transaction transaction = transactionDao.createTransaction(
+                    new Transaction(sender.accountId, receiverAccountId, BigDecimal.ONE));
+            transactionDao.executeTransaction(transaction.getId());
+        } catch (ImpossibleOperationExecution | ObjectModificationException e) {
+            sender.lockFailures++;
+        }
+    }
+
+    @Benchmark
+    public void immediateTransaction(Sender sender) {
+        try {
+            TransactionDao.getInstance().createAndExecuteTransaction(
+                    new Transaction(sender.accountId, receiverAccountId, BigDecimal.ONE));
+        } catch (ImpossibleOperationExecution | ObjectModificationException e) {
+            sender.lockFailures++;
+        }
+    }
+
+    private void lockAndWrite(Connection con, Long senderAccountId) throws SQLException {
+        long senderBalance = 0;
+        long receiverBalance = 0;
+        try (PreparedStatement lock = con.prepareStatement(
+                String.format(BankAccountDao.GET_BANK_ACCOUNTS_FOR_UPDATE_BY_IDS_SQL, "?,?"))) {
+            lock.setLong(1, senderAccountId);
+            lock.setLong(2, receiverAccountId);
+            try (ResultSet rs = lock.executeQuery()) {
+                while (rs.next()) {
+                    long balance = Money.toMinorUnits(rs.getBigDecimal("balance"));
+                    if (rs.getLong("id") == senderAccountId) {
+                        senderBalance = balance;
+                    } else {
+                        receiverBalance = balance;
+                    }
+                }
+            }
+        }
+
+        setBalance(con, senderAccountId, senderBalance - AMOUNT);
+        setBalance(con, receiverAccountId, receiverBalance + AMOUNT);
+    }
+
+    private void lockSenderAndCredit(Connection con, Long senderAccountId) throws SQLException {
+        boolean creditFirst = receiverAccountId < senderAccountId;
+        if (creditFirst) {
+            credit(con);
+        }
+
+        long senderBalance = 0;
+        try (PreparedStatement lock = con.prepareStatement(BankAccountDao.GET_BANK_ACCOUNT_BY_ID_SQL)) {
+            lock.setLong(1, senderAccountId);
+            try (ResultSet rs = lock.executeQuery()) {
+                if (rs.next()) {
+                    senderBalance = Money.toMinorUnits(rs.getBigDecimal("balance"));
+                }
+            }
+        }
+        setBalance(con, senderAccountId, senderBalance - AMOUNT);
+
+        if (!creditFirst) {
+            credit(con);
+        }
+    }
+
+    private void credit(Connection con) throws SQLException {
+        try (PreparedStatement credit = con.prepareStatement(BankAccountDao.CREDIT_BANK_ACCOUNT_SQL)) {
+            credit.setBigDecimal(1, Money.toBigDecimal(AMOUNT));
+            credit.setLong(2, receiverAccountId);
+            credit.executeUpdate();
+        }
+    }
+
+    private static void setBalance(Connection con, Long id, long balanceMinorUnits) throws SQLException {
+        try (PreparedStatement update = con.prepareStatement(
+                "update bank_account set balance = ? where id = ?")) {
+            update.setBigDecimal(1, Money.toBigDecimal(balanceMinorUnits));
+            update.setLong(2, id);
+            update.executeUpdate();
+        }
+    }
+}
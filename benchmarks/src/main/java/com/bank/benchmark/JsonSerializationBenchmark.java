@@ -0,0 +1,78 @@
+package com.bank.benchmark;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bank.model.BankAccount;
+import com.bank.model.Transaction;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * Jackson serialization and deserialization of the API entities as done by the JSON provider of Jersey for every
+ * request and response body. Readers and writers are created once like the provider caches them.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+    private ObjectWriter writer;
+    private ObjectReader transactionReader;
+    private ObjectReader bankAccountReader;
+
+    private Transaction transaction;
+    private BankAccount bankAccount;
+    private byte[] transactionJson;
+    private byte[] bankAccountJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        writer = mapper.writer();
+        transactionReader = mapper.readerFor(Transaction.class);
+        bankAccountReader = mapper.readerFor(BankAccount.class);
+
+        transaction = new Transaction(1L, 2L, new BigDecimal("123.45"));
+        transaction.setId(42L);
+        bankAccount = new BankAccount(7L, "Benchmark Owner", new BigDecimal("1000.50"), new BigDecimal("123.45"));
+
+        transactionJson = writer.writeValueAsBytes(transaction);
+        bankAccountJson = writer.writeValueAsBytes(bankAccount);
+    }
+
+    @Benchmark
+    public byte[] writeTransaction() throws IOException {
+        return writer.writeValueAsBytes(transaction);
+    }
+
+    @Benchmark
+    public Transaction readTransaction() throws IOException {
+        return transactionReader.readValue(transactionJson);
+    }
+
+    @Benchmark
+    public byte[] writeBankAccount() throws IOException {
+        return writer.writeValueAsBytes(bankAccount);
+    }
+
+    @Benchmark
+    public BankAccount readBankAccount() throws IOException {
+        return bankAccountReader.readValue(bankAccountJson);
+    }
+}
@@ -0,0 +1,172 @@
+package com.bank.benchmark;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bank.dao.BankAccountDao;
+import com.bank.dao.TransactionDao;
+import com.bank.db.DbUtils;
+import com.bank.exceptions.ImpossibleOperationExecution;
+import com.bank.exceptions.ObjectModificationException;
+import com.bank.model.BankAccount;
+import com.bank.model.Transaction;
+
+/**
+ * Bidirectional traffic between two Bank Accounts: half of the threads transfer money from A to B and another half
+ * from B to A.
+ * <ul>
+ *     <li><code>rawLocking</code> group locks both rows the old way (one <code>SELECT ... FOR UPDATE</code> per
+ *     row, source first) or the new way (one <code>WHERE id IN (...) ORDER BY id FOR UPDATE</code> query) depending
+ *     on <code>lockStrategy</code> parameter</li>
+ *     <li><code>executeTransaction</code> group runs the real {@link TransactionDao} create and execute calls</li>
+ * </ul>
+ * <code>lockFailures</code> counter shows the amount of operations failed by lock timeout or deadlock.
+ * <code>contendedLocks</code> counter shows the amount of <code>rawLocking</code> operations started while another
+ * thread was holding its own connection and locking the same rows, so it stays 0 once the connection pool does not
+ * let the threads lock at the same time.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LockOrderingBenchmark {
+    private static final BigDecimal INITIAL_BALANCE = BigDecimal.valueOf(1_000_000_000L);
+
+    @Param({"PER_ROW", "ORDERED"})
+    public String lockStrategy;
+
+    private Long firstAccountId;
+    private Long secondAccountId;
+    private final AtomicInteger lockingThreads = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void createAccounts() throws ObjectModificationException {
+        BankAccountDao bankAccountDao = BankAccountDao.getInstance();
+        firstAccountId = bankAccountDao.createBankAccount(
+                new BankAccount("Benchmark A", INITIAL_BALANCE, BigDecimal.ZERO)).getId();
+        secondAccountId = bankAccountDao.createBankAccount(
+                new BankAccount("Benchmark B", INITIAL_BALANCE, BigDecimal.ZERO)).getId();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class LockCounters {
+        public long lockFailures;
+        public long contendedLocks;
+    }
+
+    @Benchmark
+    @Group("rawLocking")
+    @GroupThreads(2)
+    public void lockFromFirstToSecond(LockCounters counters) {
+        lockAndUpdate(firstAccountId, secondAccountId, counters);
+    }
+
+    @Benchmark
+    @Group("rawLocking")
+    @GroupThreads(2)
+    public void lockFromSecondToFirst(LockCounters counters) {
+        lockAndUpdate(secondAccountId, firstAccountId, counters);
+    }
+
+    @Benchmark
+    @Group("executeTransaction")
+    @GroupThreads(2)
+    public void executeFromFirstToSecond(LockCounters counters) {
+        createAndExecute(firstAccountId, secondAccountId, counters);
+    }
+
+    @Benchmark
+    @Group("executeTransaction")
+    @GroupThreads(2)
+    public void executeFromSecondToFirst(LockCounters counters) {
+        createAndExecute(secondAccountId, firstAccountId, counters);
+    }
+
+    private void createAndExecute(Long from, Long to, LockCounters counters) {
+        TransactionDao transactionDao = TransactionDao.getInstance();
+        try {
+            Transaction transaction = transactionDao.createTransaction(new Transaction(from, to, BigDecimal.ONE));
+            transactionDao.executeTransaction(transaction.getId());
+        } catch (ImpossibleOperationExecution | ObjectModificationException e) {
+            counters.lockFailures++;
+        }
+    }
+
+    private void lockAndUpdate(Long from, Long to, LockCounters counters) {
+        Connection con = DbUtils.getConnection();
+        if (lockingThreads.incrementAndGet() > 1) {
+            counters.contendedLocks++;
+        }
+        try {
+            if ("PER_ROW".equals(lockStrategy)) {
+                lockRow(con, from);
+                lockRow(con, to);
+            } else {
+                lockRows(con, from, to);
+            }
+
+            try (PreparedStatement update = con.prepareStatement(
+                    "update bank_account set balance = balance where id in (?, ?)")) {
+                update.setLong(1, from);
+                update.setLong(2, to);
+                update.executeUpdate();
+            }
+
+            con.commit();
+        } catch (SQLException e) {
+            DbUtils.safeRollback(con);
+            counters.lockFailures++;
+        } finally {
+            lockingThreads.decrementAndGet();
+            DbUtils.quietlyClose(con);
+        }
+    }
+
+    private static void lockRow(Connection con, Long id) throws SQLException {
+        try (PreparedStatement lock = con.prepareStatement(BankAccountDao.GET_BANK_ACCOUNT_BY_ID_SQL)) {
+            lock.setLong(1, id);
+            consume(lock);
+        }
+    }
+
+    private static void lockRows(Connection con, Long first, Long second) throws SQLException {
+        try (PreparedStatement lock = con.prepareStatement(
+                String.format(BankAccountDao.GET_BANK_ACCOUNTS_FOR_UPDATE_BY_IDS_SQL, "?,?"))) {
+            lock.setLong(1, first);
+            lock.setLong(2, second);
+            consume(lock);
+        }
+    }
+
+    private static void consume(PreparedStatement lock) throws SQLException {
+        try (ResultSet rs = lock.executeQuery()) {
+            while (rs.next()) {
+                rs.getBigDecimal("balance");
+            }
+        }
+    }
+}
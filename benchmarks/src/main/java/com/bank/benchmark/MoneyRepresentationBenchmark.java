@@ -0,0 +1,111 @@
+package com.bank.benchmark;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.bank.model.EpochMicros;
+import com.bank.model.Money;
+
+/**
+ * Money movement arithmetic of one transfer as done by {@link com.bank.dao.TransactionDao}: amount check, blocking
+ * of the amount on creation, then debit of the source account and credit of the destination account on execution,
+ * plus creation and update timestamps.
+ * <ul>
+ *     <li><code>bigDecimalAndDate</code> is the former representation with immutable <code>BigDecimal</code> amounts
+ *     and <code>java.util.Date</code> timestamps</li>
+ *     <li><code>minorUnitsAndMicros</code> is the current representation with <code>long</code> minor units and
+ *     epoch microseconds</li>
+ * </ul>
+ * Run with <code>-prof gc</code> to see the allocation rate per operation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MoneyRepresentationBenchmark {
+    private BigDecimal fromBalance;
+    private BigDecimal fromBlocked;
+    private BigDecimal toBalance;
+    private BigDecimal amount;
+
+    private long fromBalanceMinorUnits;
+    private long fromBlockedMinorUnits;
+    private long toBalanceMinorUnits;
+    private long amountMinorUnits;
+
+    @Setup
+    public void setUp() {
+        fromBalance = new BigDecimal("1000000000.0000");
+        fromBlocked = new BigDecimal("0.0000");
+        toBalance = new BigDecimal("1000000000.0000");
+        amount = new BigDecimal("12.3400");
+
+        fromBalanceMinorUnits = Money.toMinorUnits(fromBalance);
+        fromBlockedMinorUnits = Money.toMinorUnits(fromBlocked);
+        toBalanceMinorUnits = Money.toMinorUnits(toBalance);
+        amountMinorUnits = Money.toMinorUnits(amount);
+    }
+
+    @Benchmark
+    public void bigDecimalAndDate(Blackhole blackhole) {
+        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalStateException("Amount should be positive");
+        }
+        Date creationDate = new Date();
+        if (fromBalance.subtract(fromBlocked).compareTo(amount) < 0) {
+            throw new IllegalStateException("Not enough money");
+        }
+        fromBlocked = fromBlocked.add(amount);
+
+        fromBalance = fromBalance.subtract(amount);
+        fromBlocked = fromBlocked.subtract(amount);
+        toBalance = toBalance.add(amount);
+        Date updateDate = new Date();
+
+        // move the money back so the balances stay the same between invocations
+        fromBalance = fromBalance.add(amount);
+        toBalance = toBalance.subtract(amount);
+
+        blackhole.consume(creationDate);
+        blackhole.consume(updateDate);
+    }
+
+    @Benchmark
+    public void minorUnitsAndMicros(Blackhole blackhole) {
+        if (amountMinorUnits <= 0) {
+            throw new IllegalStateException("Amount should be positive");
+        }
+        long creationMicros = EpochMicros.now();
+        if (fromBalanceMinorUnits - fromBlockedMinorUnits < amountMinorUnits) {
+            throw new IllegalStateException("Not enough money");
+        }
+        fromBlockedMinorUnits += amountMinorUnits;
+
+        fromBalanceMinorUnits -= amountMinorUnits;
+        fromBlockedMinorUnits -= amountMinorUnits;
+        toBalanceMinorUnits += amountMinorUnits;
+        long updateMicros = EpochMicros.now();
+
+        // move the money back so the balances stay the same between invocations
+        fromBalanceMinorUnits += amountMinorUnits;
+        toBalanceMinorUnits -= amountMinorUnits;
+
+        blackhole.consume(creationMicros);
+        blackhole.consume(updateMicros);
+    }
+}
@@ -0,0 +1,88 @@
+package com.bank.benchmark;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bank.dao.TransactionDao;
+import com.bank.exceptions.ObjectModificationException;
+import com.bank.model.Transaction;
+import com.bank.service.AccountShardedExecutor;
+
+/**
+ * Execution of the PLANNED backlog by {@link AccountShardedExecutor} with the growing <code>parallelism</code>.
+ * The backlog of {@link #TRANSACTIONS} transactions is spread between {@link #ACCOUNT_PAIRS} independent pairs of
+ * Bank Accounts, so the shards never share a row and every worker holds its own pooled connection. The backlog is
+ * created before every invocation and its creation is not measured, the score is executed transactions per second.
+ * <p>
+ * The throughput could grow with <code>parallelism</code> only up to the amount of cores and
+ * <code>bank.db.maximumPoolSize</code> (10 by default).
+ * <p>
+ * Command : java -jar target/benchmarks.jar ShardedExecutorBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ShardedExecutorBenchmark {
+    private static final int ACCOUNT_PAIRS = 64;
+    private static final int TRANSACTIONS = 512;
+    private static final BigDecimal AMOUNT = new BigDecimal("0.0001");
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    private final TransactionDao transactionDao = TransactionDao.getInstance();
+    private final Long[] fromAccountIds = new Long[ACCOUNT_PAIRS];
+    private final Long[] toAccountIds = new Long[ACCOUNT_PAIRS];
+    private final List<Transaction> backlog = new ArrayList<>(TRANSACTIONS);
+    private AccountShardedExecutor executor;
+
+    @Setup(Level.Trial)
+    public void createAccounts() throws ObjectModificationException {
+        for (int i = 0; i < ACCOUNT_PAIRS; i++) {
+            fromAccountIds[i] = SharedAccounts.createAccount("Shard From " + i);
+            toAccountIds[i] = SharedAccounts.createAccount("Shard To " + i);
+        }
+        executor = new AccountShardedExecutor(transactionDao, parallelism);
+    }
+
+    @Setup(Level.Invocation)
+    public void createBacklog() throws ObjectModificationException {
+        backlog.clear();
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            int pair = i % ACCOUNT_PAIRS;
+            backlog.add(transactionDao.createTransaction(
+                    new Transaction(fromAccountIds[pair], toAccountIds[pair], AMOUNT)));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRANSACTIONS)
+    public void executeBacklog() {
+        executor.execute(backlog);
+    }
+}
@@ -0,0 +1,39 @@
+package com.bank.benchmark;
+
+import java.math.BigDecimal;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.bank.dao.BankAccountDao;
+import com.bank.exceptions.ObjectModificationException;
+import com.bank.model.BankAccount;
+
+/**
+ * The pair of Bank Accounts shared by all threads of the benchmark and the <code>contention</code> parameter which
+ * tells {@link ThreadAccounts} whether to use this pair or to create its own one
+ */
+@State(Scope.Benchmark)
+public class SharedAccounts {
+    static final BigDecimal INITIAL_BALANCE = BigDecimal.valueOf(1_000_000_000L);
+
+    @Param({"UNCONTENDED", "CONTENDED"})
+    public Contention contention;
+
+    Long fromAccountId;
+    Long toAccountId;
+
+    @Setup(Level.Trial)
+    public void createAccounts() throws ObjectModificationException {
+        fromAccountId = createAccount("Shared From");
+        toAccountId = createAccount("Shared To");
+    }
+
+    static Long createAccount(String ownerName) throws ObjectModificationException {
+        return BankAccountDao.getInstance().createBankAccount(
+                new BankAccount(ownerName, INITIAL_BALANCE, BigDecimal.ZERO)).getId();
+    }
+}
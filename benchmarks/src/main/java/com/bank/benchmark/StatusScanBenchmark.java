@@ -0,0 +1,186 @@
+package com.bank.benchmark;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bank.dao.BankAccountDao;
+import com.bank.dao.TransactionDao;
+import com.bank.db.DbUtils;
+import com.bank.model.TransactionStatus;
+
+/**
+ * The cost of the executor scan for the pending work against the growing history of finished transactions.
+ * The <code>transaction</code> table is filled with <code>historyRows</code> SUCCEED/FAILED transactions and
+ * {@link #PENDING_ROWS} PLANNED ones, after that the scans used by the executor are measured with
+ * <ul>
+ *     <li><code>NONE</code> - no index on <code>status_id</code> at all (the foreign key is dropped as well, since
+ *     H2 creates the index for every foreign key)</li>
+ *     <li><code>FOREIGN_KEY</code> - only the index created by H2 for the foreign key on <code>status_id</code></li>
+ *     <li><code>STATUS_ID</code> - <code>idx_transaction_status (status_id, id)</code> index added by the migration,
+ *     which also serves <code>order by id limit ?</code> of the batch and lease claims</li>
+ * </ul>
+ * The database is in memory, so the bigger sizes require the heap of the forked JVM to be increased, e.g.
+ * <code>-jvmArgsAppend -Xmx24g</code> for 50M rows.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StatusScanBenchmark {
+    private static final int PENDING_ROWS = 100;
+    private static final int CLAIM_SIZE = 50;
+    private static final int FILL_CHUNK = 100_000;
+
+    private static final String FILL_HISTORY_SQL = "insert into transaction " +
+            "(from_account_id, to_account_id, amount, creation_date, update_date, status_id) " +
+            "select ?, ?, 1, current_timestamp(), current_timestamp(), " +
+            "case when mod(x, 10) = 0 then " + TransactionStatus.FAILED.getId() +
+            " else " + TransactionStatus.SUCCEED.getId() + " end from system_range(1, ?)";
+    private static final String FILL_PENDING_SQL = "insert into transaction " +
+            "(from_account_id, to_account_id, amount, creation_date, status_id) " +
+            "select ?, ?, 1, current_timestamp(), " + TransactionStatus.PLANNED.getId() +
+            " from system_range(1, ?)";
+    private static final String[] DROP_INDEXES_SQL = {
+            "drop index if exists idx_transaction_status",
+            "drop index if exists idx_transaction_from_account",
+            "drop index if exists idx_transaction_to_account"
+    };
+    private static final String GET_STATUS_FOREIGN_KEY_SQL = "select constraint_name " +
+            "from information_schema.constraints where table_name = 'TRANSACTION' " +
+            "and constraint_type = 'REFERENTIAL' and column_list = 'STATUS_ID'";
+    private static final String CREATE_STATUS_INDEX_SQL =
+            "create index idx_transaction_status on transaction(status_id, id)";
+    private static final String TOUCH_TRANSACTION_SQL = "update transaction set update_date = current_timestamp() " +
+            "where id = (select min(id) from transaction)";
+    private static final String CLAIM_SCAN_SQL =
+            "select id from transaction trans where trans.status_id = ? order by id limit ?";
+
+    public enum StatusIndex {
+        NONE, FOREIGN_KEY, STATUS_ID
+    }
+
+    @Param({"1000000", "10000000", "50000000"})
+    public int historyRows;
+
+    @Param({"NONE", "FOREIGN_KEY", "STATUS_ID"})
+    public StatusIndex statusIndex;
+
+    private TransactionDao transactionDao;
+
+    @Setup(Level.Trial)
+    public void fillTransactions() throws SQLException {
+        transactionDao = TransactionDao.getInstance();
+
+        try (Connection con = DbUtils.getConnection()) {
+            // Filling the table is much faster without maintaining the indexes row by row
+            try (Statement statement = con.createStatement()) {
+                for (String dropIndex : DROP_INDEXES_SQL) {
+                    statement.execute(dropIndex);
+                }
+                if (statusIndex == StatusIndex.NONE) {
+                    dropStatusForeignKey(statement);
+                }
+            }
+
+            for (int filled = 0; filled < historyRows; filled += FILL_CHUNK) {
+                fill(con, FILL_HISTORY_SQL, Math.min(FILL_CHUNK, historyRows - filled));
+            }
+            fill(con, FILL_PENDING_SQL, PENDING_ROWS);
+
+            try (Statement statement = con.createStatement()) {
+                if (statusIndex == StatusIndex.STATUS_ID) {
+                    statement.execute(CREATE_STATUS_INDEX_SQL);
+                }
+                statement.execute("analyze");
+            }
+            con.commit();
+        }
+    }
+
+    private static void dropStatusForeignKey(Statement statement) throws SQLException {
+        List<String> foreignKeys = new ArrayList<>();
+        try (ResultSet foreignKeysRS = statement.executeQuery(GET_STATUS_FOREIGN_KEY_SQL)) {
+            while (foreignKeysRS.next()) {
+                foreignKeys.add(foreignKeysRS.getString(1));
+            }
+        }
+
+        for (String foreignKey : foreignKeys) {
+            statement.execute("alter table transaction drop constraint " + foreignKey);
+        }
+    }
+
+    private static void fill(Connection con, String sql, int rows) throws SQLException {
+        try (PreparedStatement fill = con.prepareStatement(sql)) {
+            fill.setLong(1, BankAccountDao.JYOTI);
+            fill.setLong(2, BankAccountDao.RANJAN);
+            fill.setInt(3, rows);
+            fill.executeUpdate();
+        }
+        con.commit();
+    }
+
+    /**
+     * H2 returns the previous result of the same query while its tables have not been modified, but the real
+     * executor always runs between the modifications of <code>transaction</code> table
+     */
+    @Setup(Level.Invocation)
+    public void touchTransactions() throws SQLException {
+        try (Connection con = DbUtils.getConnection();
+             PreparedStatement touch = con.prepareStatement(TOUCH_TRANSACTION_SQL)) {
+            touch.executeUpdate();
+            con.commit();
+        }
+    }
+
+    /**
+     * The scan of the serial and sharded executors
+     */
+    @Benchmark
+    public Collection<Long> plannedTransactionIds() {
+        return transactionDao.getAllTransactionIdsByStatus(TransactionStatus.PLANNED);
+    }
+
+    /**
+     * The shape of the batch and lease claim scans without <code>for update</code>, so the measured time is the
+     * lookup only
+     */
+    @Benchmark
+    public List<Long> claimScan() throws SQLException {
+        List<Long> ids = new ArrayList<>(CLAIM_SIZE);
+        try (Connection con = DbUtils.getConnection();
+             PreparedStatement claimScan = con.prepareStatement(CLAIM_SCAN_SQL)) {
+            claimScan.setInt(1, TransactionStatus.PLANNED.getId());
+            claimScan.setInt(2, CLAIM_SIZE);
+            try (ResultSet idsRS = claimScan.executeQuery()) {
+                while (idsRS.next()) {
+                    ids.add(idsRS.getLong(1));
+                }
+            }
+            con.commit();
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,29 @@
+package com.bank.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.bank.exceptions.ObjectModificationException;
+
+/**
+ * The pair of Bank Accounts used by one benchmark thread: the shared pair of {@link SharedAccounts} for
+ * <code>CONTENDED</code> runs or the own pair of the thread for <code>UNCONTENDED</code> ones.
+ */
+@State(Scope.Thread)
+public class ThreadAccounts {
+    Long fromAccountId;
+    Long toAccountId;
+
+    @Setup(Level.Trial)
+    public void selectAccounts(SharedAccounts shared) throws ObjectModificationException {
+        if (shared.contention == Contention.CONTENDED) {
+            fromAccountId = shared.fromAccountId;
+            toAccountId = shared.toAccountId;
+        } else {
+            fromAccountId = SharedAccounts.createAccount("Thread From");
+            toAccountId = SharedAccounts.createAccount("Thread To");
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.bank.benchmark;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bank.dao.TransactionDao;
+import com.bank.exceptions.ImpossibleOperationExecution;
+import com.bank.exceptions.ObjectModificationException;
+import com.bank.model.Transaction;
+
+/**
+ * Write path of {@link TransactionDao}:
+ * <ul>
+ *     <li><code>createTransaction</code> - locks the source Bank Account, blocks the amount and inserts PLANNED
+ *     transaction</li>
+ *     <li><code>executeTransaction</code> - executes the PLANNED transaction created before the invocation (the
+ *     creation is not measured)</li>
+ * </ul>
+ * CONTENDED threads transfer between the same pair of Bank Accounts and wait for each other's row locks,
+ * UNCONTENDED threads use their own pairs. <code>failures</code> counter shows the operations failed by lock
+ * timeout or deadlock.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransactionDaoBenchmark {
+    private static final BigDecimal AMOUNT = new BigDecimal("0.0001");
+
+    private final TransactionDao transactionDao = TransactionDao.getInstance();
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class FailureCounters {
+        public long failures;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            failures = 0;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class PlannedTransaction {
+        Long id;
+
+        @Setup(Level.Invocation)
+        public void createTransaction(ThreadAccounts accounts) throws ObjectModificationException {
+            id = TransactionDao.getInstance().createTransaction(
+                    new Transaction(accounts.fromAccountId, accounts.toAccountId, AMOUNT)).getId();
+        }
+    }
+
+    @Benchmark
+    public Transaction createTransaction(ThreadAccounts accounts, FailureCounters counters) {
+        try {
+            return transactionDao.createTransaction(
+                    new Transaction(accounts.fromAccountId, accounts.toAccountId, AMOUNT));
+        } catch (ImpossibleOperationExecution | ObjectModificationException e) {
+            counters.failures++;
+            return null;
+        }
+    }
+
+    @Benchmark
+    public void executeTransaction(PlannedTransaction planned, FailureCounters counters) {
+        try {
+            transactionDao.executeTransaction(planned.id);
+        } catch (ImpossibleOperationExecution | ObjectModificationException e) {
+            counters.failures++;
+        }
+    }
+}
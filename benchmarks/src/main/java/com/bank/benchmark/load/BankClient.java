@@ -0,0 +1,90 @@
+package com.bank.benchmark.load;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+import com.bank.model.BankAccount;
+import com.bank.model.Transaction;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Minimal HTTP client of the Bank API on top of {@link HttpURLConnection}, which keeps the connections alive
+ * between the requests of the same thread. Every method throws {@link IOException} for the responses other than
+ * 200 OK, so the caller counts them as errors.
+ */
+public class BankClient {
+    private static final String ACCOUNTS_PATH = "api/v1/accounts";
+    private static final String TRANSACTIONS_PATH = "api/v1/transactions";
+
+    private final String baseUri;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    /**
+     * @param baseUri the root of the server ending with "/", e.g. <code>http://localhost:8080/</code>
+     */
+    public BankClient(String baseUri) {
+        this.baseUri = baseUri;
+    }
+
+    public BankAccount createBankAccount(String ownerName, BigDecimal balance) throws IOException {
+        byte[] body = mapper.writeValueAsBytes(new BankAccount(ownerName, balance, BigDecimal.ZERO));
+        return mapper.readValue(request("POST", ACCOUNTS_PATH, body), BankAccount.class);
+    }
+
+    public BankAccount getBankAccount(long id) throws IOException {
+        return mapper.readValue(request("GET", ACCOUNTS_PATH + "/" + id, null), BankAccount.class);
+    }
+
+    public Transaction createTransaction(long fromId, long toId, BigDecimal amount) throws IOException {
+        byte[] body = mapper.writeValueAsBytes(new Transaction(fromId, toId, amount));
+        return mapper.readValue(request("POST", TRANSACTIONS_PATH, body), Transaction.class);
+    }
+
+    public Transaction getTransaction(long id) throws IOException {
+        return mapper.readValue(request("GET", TRANSACTIONS_PATH + "/" + id, null), Transaction.class);
+    }
+
+    private byte[] request(String method, String path, byte[] body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUri + path).openConnection();
+        connection.setRequestMethod(method);
+        connection.setRequestProperty("Accept", "application/json");
+        if (body != null) {
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/json");
+            connection.setFixedLengthStreamingMode(body.length);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body);
+            }
+        }
+
+        int status = connection.getResponseCode();
+        // the body is read till the end in both cases, otherwise the connection is not reused
+        InputStream in = status == HttpURLConnection.HTTP_OK ? connection.getInputStream()
+                : connection.getErrorStream();
+        byte[] response = readFully(in);
+        if (status != HttpURLConnection.HTTP_OK) {
+            throw new IOException(method + " " + path + " returned " + status);
+        }
+        return response;
+    }
+
+    private static byte[] readFully(InputStream in) throws IOException {
+        if (in == null) {
+            return new byte[0];
+        }
+        try (InputStream stream = in) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = stream.read(buffer)) >= 0) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+}
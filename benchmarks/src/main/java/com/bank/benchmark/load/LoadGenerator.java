@@ -0,0 +1,214 @@
+package com.bank.benchmark.load;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.glassfish.grizzly.http.server.HttpServer;
+
+import com.bank.BankTransactionApplication;
+import com.bank.config.Threads;
+import com.bank.model.Transaction;
+
+/**
+ * End to end load test of the Bank API. Starts the application by {@link BankTransactionApplication#startServer()}
+ * (unless <code>--baseUri</code> is given), creates Bank Accounts and drives the mix of
+ * <code>POST /api/v1/transactions</code> and <code>GET /api/v1/accounts/{id}</code> requests as described by
+ * {@link LoadSettings}:
+ * <ul>
+ *     <li>CLOSED mode - every client waits for the response before sending the next request, so the throughput is
+ *     defined by the server</li>
+ *     <li>OPEN mode - requests are scheduled with the fixed rate. The latency is counted from the scheduled time, not
+ *     from the actual sending, so the time the request waits for a free client is included (no coordinated
+ *     omission)</li>
+ * </ul>
+ * The report has the throughput and the latency percentiles of both request types and the settlement lag of the
+ * sampled transactions. The application settings are taken from the system properties of this JVM, e.g.
+ * <code>-Dbank.executor.eventDriven=true</code>.
+ * <p>
+ * Command : java -cp target/benchmarks.jar com.bank.benchmark.load.LoadGenerator --mode=OPEN --rate=1000
+ */
+public class LoadGenerator {
+    private static final BigDecimal INITIAL_BALANCE = BigDecimal.valueOf(1_000_000_000L);
+    private static final BigDecimal AMOUNT = new BigDecimal("0.01");
+    private static final long SETTLEMENT_TIMEOUT_MILLIS = 60_000;
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final LoadSettings settings;
+    private final BankClient client;
+    private final SettlementTracker settlementTracker;
+
+    private final LatencyHistogram transferLatency = new LatencyHistogram();
+    private final LatencyHistogram readLatency = new LatencyHistogram();
+    private final AtomicLong transferErrors = new AtomicLong();
+    private final AtomicLong readErrors = new AtomicLong();
+    private final AtomicLong transfers = new AtomicLong();
+
+    private long[] accountIds;
+    private long measureStartNanos;
+    private long endNanos;
+
+    public LoadGenerator(LoadSettings settings, BankClient client) {
+        this.settings = settings;
+        this.client = client;
+        this.settlementTracker = new SettlementTracker(client);
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadSettings settings = LoadSettings.parse(args);
+        HttpServer server = settings.getBaseUri() == null ? BankTransactionApplication.startServer() : null;
+        String baseUri = server == null ? settings.getBaseUri() : BankTransactionApplication.BASE_URI;
+
+        try {
+            LoadGenerator generator = new LoadGenerator(settings, new BankClient(baseUri));
+            generator.run();
+            generator.report(System.out);
+        } finally {
+            if (server != null) {
+                server.shutdownNow();
+            }
+        }
+        // the transaction executor of the application is not a daemon
+        System.exit(0);
+    }
+
+    public void run() throws IOException, InterruptedException {
+        accountIds = new long[settings.getAccounts()];
+        for (int i = 0; i < accountIds.length; i++) {
+            accountIds[i] = client.createBankAccount("Load " + i, INITIAL_BALANCE).getId();
+        }
+
+        Thread tracker = new Thread(settlementTracker, "settlement-tracker");
+        tracker.setDaemon(true);
+        tracker.start();
+
+        long startNanos = System.nanoTime();
+        measureStartNanos = startNanos + TimeUnit.SECONDS.toNanos(settings.getWarmupSeconds());
+        endNanos = measureStartNanos + TimeUnit.SECONDS.toNanos(settings.getDurationSeconds());
+
+        if (settings.getMode() == LoadSettings.Mode.OPEN) {
+            runOpenLoop(startNanos);
+        } else {
+            runClosedLoop();
+        }
+
+        long unsettled = settlementTracker.stop(tracker, SETTLEMENT_TIMEOUT_MILLIS);
+        if (unsettled > 0) {
+            System.out.println(unsettled + " sampled transactions have not been settled in "
+                    + SETTLEMENT_TIMEOUT_MILLIS + " ms");
+        }
+    }
+
+    public void report(PrintStream out) {
+        double seconds = settings.getDurationSeconds();
+
+        out.println("Load: " + settings);
+        out.printf("%-22s %10s %8s %12s", "operation", "count", "errors", "ops/s");
+        for (double percentile : PERCENTILES) {
+            out.printf(" %10s", "p" + (percentile == Math.rint(percentile) ? String.valueOf((long) percentile)
+                    : String.valueOf(percentile)) + " ms");
+        }
+        out.printf(" %10s%n", "max ms");
+
+        printRow(out, "POST transactions", transferLatency, transferErrors.get(), seconds);
+        printRow(out, "GET accounts/{id}", readLatency, readErrors.get(), seconds);
+        printRow(out, "settlement lag", settlementTracker.getLag(), settlementTracker.getFailed(), Double.NaN);
+        out.println("settlement lag errors are FAILED transactions, the lag is polled with 10 ms precision");
+    }
+
+    private void runClosedLoop() throws InterruptedException {
+        ThreadFactory threadFactory = Threads.factory(settings.getClientThreads(), "load-client-", false);
+        List<Thread> clients = new ArrayList<>();
+        for (int i = 0; i < settings.getConcurrency(); i++) {
+            Thread clientThread = threadFactory.newThread(() -> {
+                while (System.nanoTime() < endNanos) {
+                    perform(System.nanoTime());
+                }
+            });
+            clientThread.start();
+            clients.add(clientThread);
+        }
+        for (Thread clientThread : clients) {
+            clientThread.join();
+        }
+    }
+
+    private void runOpenLoop(long startNanos) throws InterruptedException {
+        ExecutorService clients = Executors.newFixedThreadPool(settings.getConcurrency(),
+                Threads.factory(settings.getClientThreads(), "load-client-", false));
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / settings.getRate();
+
+        for (long i = 0; ; i++) {
+            long scheduledNanos = startNanos + i * intervalNanos;
+            if (scheduledNanos >= endNanos) {
+                break;
+            }
+            long delay;
+            while ((delay = scheduledNanos - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(delay);
+            }
+            clients.execute(() -> perform(scheduledNanos));
+        }
+
+        clients.shutdown();
+        clients.awaitTermination(1, TimeUnit.HOURS);
+    }
+
+    /**
+     * Sends one request of the random type
+     *
+     * @param scheduledNanos the time the request should have been sent, the latency is counted from it
+     */
+    private void perform(long scheduledNanos) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        boolean measured = scheduledNanos >= measureStartNanos && scheduledNanos < endNanos;
+
+        if (random.nextDouble() < settings.getTransferRatio()) {
+            int from = random.nextInt(accountIds.length);
+            int to = (from + 1 + random.nextInt(accountIds.length - 1)) % accountIds.length;
+            try {
+                Transaction transaction = client.createTransaction(accountIds[from], accountIds[to], AMOUNT);
+                if (measured) {
+                    transferLatency.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduledNanos));
+                    if (transfers.incrementAndGet() % settings.getLagSampling() == 0) {
+                        settlementTracker.track(transaction.getId(), scheduledNanos);
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                if (measured) {
+                    transferErrors.incrementAndGet();
+                }
+            }
+        } else {
+            try {
+                client.getBankAccount(accountIds[random.nextInt(accountIds.length)]);
+                if (measured) {
+                    readLatency.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduledNanos));
+                }
+            } catch (IOException | RuntimeException e) {
+                if (measured) {
+                    readErrors.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    private static void printRow(PrintStream out, String operation, LatencyHistogram histogram, long errors,
+                                 double seconds) {
+        out.printf("%-22s %10d %8d %12s", operation, histogram.getCount(), errors,
+                Double.isNaN(seconds) ? "-" : String.format("%.1f", histogram.getCount() / seconds));
+        for (double percentile : PERCENTILES) {
+            out.printf(" %10.3f", histogram.getValueAtPercentile(percentile) / 1000.0);
+        }
+        out.printf(" %10.3f%n", histogram.getMax() / 1000.0);
+    }
+}
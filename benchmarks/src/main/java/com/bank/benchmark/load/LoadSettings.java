@@ -0,0 +1,139 @@
+package com.bank.benchmark.load;
+
+import com.bank.config.ThreadMode;
+
+/**
+ * Settings of the {@link LoadGenerator} given as <code>--name=value</code> arguments:
+ * <ul>
+ *     <li><code>mode</code> - OPEN sends requests with the fixed <code>rate</code> no matter how fast the server
+ *     answers, CLOSED keeps <code>concurrency</code> clients which send the next request once the previous one is
+ *     answered. CLOSED by default</li>
+ *     <li><code>rate</code> - requests per second of OPEN mode</li>
+ *     <li><code>concurrency</code> - the amount of clients of CLOSED mode and the maximum amount of requests in
+ *     flight of OPEN mode</li>
+ *     <li><code>accounts</code> - the amount of Bank Accounts created before the run</li>
+ *     <li><code>transferRatio</code> - the share of <code>POST /api/v1/transactions</code> requests, the rest are
+ *     <code>GET /api/v1/accounts/{id}</code></li>
+ *     <li><code>warmup</code> and <code>duration</code> - seconds of the load not measured and measured</li>
+ *     <li><code>lagSampling</code> - every n-th created transaction is polled until it is executed to measure the
+ *     settlement lag</li>
+ *     <li><code>clientThreads</code> - PLATFORM or VIRTUAL (JDK 21+) threads of the clients, the latter allows
+ *     tens of thousands of clients. PLATFORM by default</li>
+ *     <li><code>baseUri</code> - the server to load, the application is started locally if it is not set</li>
+ * </ul>
+ */
+public class LoadSettings {
+    public enum Mode {
+        OPEN,
+        CLOSED
+    }
+
+    private Mode mode = Mode.CLOSED;
+    private int rate = 500;
+    private int concurrency = 16;
+    private int accounts = 100;
+    private double transferRatio = 0.5;
+    private int warmupSeconds = 5;
+    private int durationSeconds = 30;
+    private int lagSampling = 10;
+    private ThreadMode clientThreads = ThreadMode.PLATFORM;
+    private String baseUri;
+
+    public static LoadSettings parse(String[] args) {
+        LoadSettings settings = new LoadSettings();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value but was " + arg);
+            }
+            String name = arg.substring(2, separator);
+            String value = arg.substring(separator + 1);
+            switch (name) {
+                case "mode":
+                    settings.mode = Mode.valueOf(value.toUpperCase());
+                    break;
+                case "rate":
+                    settings.rate = Integer.parseInt(value);
+                    break;
+                case "concurrency":
+                    settings.concurrency = Integer.parseInt(value);
+                    break;
+                case "accounts":
+                    settings.accounts = Integer.parseInt(value);
+                    break;
+                case "transferRatio":
+                    settings.transferRatio = Double.parseDouble(value);
+                    break;
+                case "warmup":
+                    settings.warmupSeconds = Integer.parseInt(value);
+                    break;
+                case "duration":
+                    settings.durationSeconds = Integer.parseInt(value);
+                    break;
+                case "lagSampling":
+                    settings.lagSampling = Integer.parseInt(value);
+                    break;
+                case "clientThreads":
+                    settings.clientThreads = ThreadMode.valueOf(value.toUpperCase());
+                    break;
+                case "baseUri":
+                    settings.baseUri = value.endsWith("/") ? value : value + "/";
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown setting " + name);
+            }
+        }
+        if (settings.accounts < 2) {
+            throw new IllegalArgumentException("At least 2 accounts are required for transfers");
+        }
+        return settings;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public int getRate() {
+        return rate;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public int getAccounts() {
+        return accounts;
+    }
+
+    public double getTransferRatio() {
+        return transferRatio;
+    }
+
+    public int getWarmupSeconds() {
+        return warmupSeconds;
+    }
+
+    public int getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public int getLagSampling() {
+        return lagSampling;
+    }
+
+    public ThreadMode getClientThreads() {
+        return clientThreads;
+    }
+
+    public String getBaseUri() {
+        return baseUri;
+    }
+
+    @Override
+    public String toString() {
+        return "mode=" + mode + (mode == Mode.OPEN ? ", rate=" + rate + "/s" : "") + ", concurrency=" + concurrency
+                + ", accounts=" + accounts + ", transferRatio=" + transferRatio + ", warmup=" + warmupSeconds
+                + "s, duration=" + durationSeconds + "s, lagSampling=" + lagSampling
+                + ", clientThreads=" + clientThreads;
+    }
+}
@@ -0,0 +1,102 @@
+package com.bank.benchmark.load;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.bank.model.Transaction;
+import com.bank.model.TransactionStatus;
+
+/**
+ * Measures the settlement lag: the time from sending <code>POST /api/v1/transactions</code> till the moment the
+ * transaction is seen SUCCEED or FAILED. Tracked transactions are polled by one thread every
+ * {@link #POLL_INTERVAL_MILLIS}, so the lag is known with this precision.
+ */
+public class SettlementTracker implements Runnable {
+    private static final long POLL_INTERVAL_MILLIS = 10;
+
+    private final BankClient client;
+    private final ConcurrentLinkedQueue<long[]> tracked = new ConcurrentLinkedQueue<>();
+    private final List<long[]> pending = new ArrayList<>();
+    private final LatencyHistogram lag = new LatencyHistogram();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong pendingCount = new AtomicLong();
+    private volatile boolean running = true;
+
+    public SettlementTracker(BankClient client) {
+        this.client = client;
+    }
+
+    /**
+     * @param transactionId the created transaction
+     * @param sentNanos     {@link System#nanoTime()} when the creation request has been sent
+     */
+    public void track(long transactionId, long sentNanos) {
+        pendingCount.incrementAndGet();
+        tracked.add(new long[]{transactionId, sentNanos});
+    }
+
+    @Override
+    public void run() {
+        while (running || pendingCount.get() > 0) {
+            long[] next;
+            while ((next = tracked.poll()) != null) {
+                pending.add(next);
+            }
+
+            for (Iterator<long[]> iterator = pending.iterator(); iterator.hasNext(); ) {
+                long[] transaction = iterator.next();
+                TransactionStatus status = getStatus(transaction[0]);
+                if (status == TransactionStatus.SUCCEED || status == TransactionStatus.FAILED) {
+                    lag.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - transaction[1]));
+                    if (status == TransactionStatus.FAILED) {
+                        failed.incrementAndGet();
+                    }
+                    iterator.remove();
+                    pendingCount.decrementAndGet();
+                }
+            }
+
+            try {
+                Thread.sleep(POLL_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Stops tracking once all tracked transactions are settled or the timeout is over
+     *
+     * @return the amount of transactions which have not been settled
+     */
+    public long stop(Thread tracker, long timeoutMillis) throws InterruptedException {
+        running = false;
+        tracker.join(timeoutMillis);
+        tracker.interrupt();
+        tracker.join();
+        return pendingCount.get();
+    }
+
+    public LatencyHistogram getLag() {
+        return lag;
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    private TransactionStatus getStatus(long id) {
+        try {
+            Transaction transaction = client.getTransaction(id);
+            return transaction.getStatus();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.bank.benchmark.load;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.bank.config.ThreadMode;
+import com.bank.config.Threads;
+
+/**
+ * Runs {@link LoadGenerator} in CLOSED mode against the application started with PLATFORM and with VIRTUAL
+ * {@link ThreadMode} for 100, 1,000 and 10,000 clients. The thread mode of the application is fixed once its
+ * executors are created, so every run is the separate JVM. The clients are virtual threads, so the client side
+ * does not limit the 10,000 clients run, and every client keeps its own HTTP connection alive.
+ * <p>
+ * The arguments are passed to every {@link LoadGenerator} run, e.g. <code>--duration=60</code>. Requires JDK 21+
+ * and the limit of the open files above the amount of clients twice (<code>ulimit -n</code>).
+ * <p>
+ * Command : java -cp target/benchmarks.jar com.bank.benchmark.load.ThreadModeComparison --duration=60
+ */
+public class ThreadModeComparison {
+    private static final int[] CLIENTS = {100, 1_000, 10_000};
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (!Threads.isVirtualThreadsSupported()) {
+            throw new IllegalStateException("Virtual threads require JDK 21+, the current one is "
+                    + System.getProperty("java.version"));
+        }
+
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        for (int clients : CLIENTS) {
+            for (ThreadMode mode : ThreadMode.values()) {
+                List<String> command = new ArrayList<>();
+                command.add(java);
+                command.add("-D" + Threads.MODE_PROPERTY + "=" + mode);
+                command.add("-Dhttp.maxConnections=" + clients);
+                command.add("-cp");
+                command.add(System.getProperty("java.class.path"));
+                command.add(LoadGenerator.class.getName());
+                command.add("--mode=CLOSED");
+                command.add("--concurrency=" + clients);
+                command.add("--clientThreads=VIRTUAL");
+                command.addAll(Arrays.asList(args));
+
+                System.out.println("=== " + mode + " threads, " + clients + " clients");
+                int exitCode = new ProcessBuilder(command).inheritIO().start().waitFor();
+                if (exitCode != 0) {
+                    System.out.println("=== The run has failed with exit code " + exitCode);
+                }
+            }
+        }
+    }
+}
@@ -1,20 +1,35 @@
 package com.bank;
 
 import org.glassfish.grizzly.http.server.HttpServer;
+import org.glassfish.grizzly.http.server.NetworkListener;
+import org.glassfish.grizzly.nio.transport.TCPNIOTransport;
+import org.glassfish.grizzly.threadpool.ThreadPoolConfig;
 import org.glassfish.jersey.grizzly2.httpserver.GrizzlyHttpServerFactory;
 import org.glassfish.jersey.server.ResourceConfig;
 import org.glassfish.jersey.server.ServerProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.bank.config.BankConfig;
+import com.bank.config.ThreadMode;
+import com.bank.config.Threads;
+import com.bank.ledger.JournalRecorder;
+import com.bank.service.BankAccountService;
+import com.bank.service.TransactionsService;
 
 import java.io.IOException;
 import java.net.URI;
 
+import javax.ws.rs.ProcessingException;
+
 /**
  * @author Jyoti Gahan
  * The Main class of the Money Transfer RESTful application provides the ability to transfer money form one
  * Bank Account to another.
- * It will start the web server on localhost:8080
+ * It will start the web server on localhost:8080 unless another address is given by {@link ServerSettings}
  */
 public class BankTransactionApplication {
+    private static final Logger log = LoggerFactory.getLogger(BankTransactionApplication.class);
 	
     public static final String BASE_URI = "http://localhost:8080/";
 
@@ -24,14 +39,57 @@ public class BankTransactionApplication {
 
         System.out.println(String.format(
                 "Jersey app started with WADL available at " + "%sapplication.wadl\nHit enter to stop it...",
-                BASE_URI));
+                ServerSettings.fromConfig(BankConfig.getInstance()).getUri()));
         System.in.read();
         server.shutdownNow();
     }
 
+    /**
+     * Starts the server defined by {@link ServerSettings} and logs the effective settings of the server and of all
+     * components started with it
+     */
     public static HttpServer startServer() {
+        JournalRecorder.startIfEnabled();
+        // Starts the transaction executor and registers its metrics before the first request
+        TransactionsService.getInstance();
+        BankAccountService.getInstance();
+
+        ServerSettings settings = ServerSettings.fromConfig(BankConfig.getInstance());
         final ResourceConfig rc = new ResourceConfig().packages("com.bank.controller");
         rc.property(ServerProperties.RESPONSE_SET_STATUS_OVER_SEND_ERROR, "true");
-        return GrizzlyHttpServerFactory.createHttpServer(URI.create(BASE_URI), rc);
+        HttpServer server = GrizzlyHttpServerFactory.createHttpServer(URI.create(settings.getUri()), rc, false);
+
+        boolean virtualThreads = Threads.getMode() == ThreadMode.VIRTUAL;
+        for (NetworkListener listener : server.getListeners()) {
+            TCPNIOTransport transport = listener.getTransport();
+            if (settings.getSelectorThreads() > 0) {
+                transport.setSelectorRunnersCount(settings.getSelectorThreads());
+            }
+            if (virtualThreads) {
+                // Every request is processed by its own virtual thread, so there is no worker pool to size
+                transport.setWorkerThreadPool(Threads.newVirtualThreadPerTaskExecutor("http-worker-"));
+            } else if (settings.getWorkerThreads() > 0) {
+                ThreadPoolConfig workerPool = transport.getWorkerThreadPoolConfig() == null
+                        ? ThreadPoolConfig.defaultConfig() : transport.getWorkerThreadPoolConfig().copy();
+                transport.setWorkerThreadPoolConfig(workerPool
+                        .setCorePoolSize(settings.getWorkerThreads())
+                        .setMaxPoolSize(settings.getWorkerThreads()));
+            }
+        }
+
+        try {
+            server.start();
+        } catch (IOException e) {
+            server.shutdownNow();
+            throw new ProcessingException("The server could not be started on " + settings.getUri(), e);
+        }
+
+        for (NetworkListener listener : server.getListeners()) {
+            TCPNIOTransport transport = listener.getTransport();
+            log.info("HTTP server listens on {} with {} selector threads and {} worker threads", settings.getUri(),
+                    transport.getSelectorRunnersCount(),
+                    virtualThreads ? "virtual" : transport.getWorkerThreadPoolConfig().getMaxPoolSize());
+        }
+        return server;
     }
 }
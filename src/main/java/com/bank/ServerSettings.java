@@ -0,0 +1,42 @@
+package com.bank;
+
+import com.bank.config.BankConfig;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Settings of the HTTP server started by {@link BankTransactionApplication}. By default all values are taken from
+ * {@link BankConfig}:
+ * <ul>
+ *     <li><code>bank.server.uri</code> - the address the server listens to</li>
+ *     <li><code>bank.server.workerThreads</code> - the amount of threads processing the requests, 0 keeps the
+ *     Grizzly default. Not used in VIRTUAL {@link com.bank.config.ThreadMode} where every request gets its own
+ *     virtual thread</li>
+ *     <li><code>bank.server.selectorThreads</code> - the amount of threads doing the network IO, 0 keeps the Grizzly
+ *     default (the amount of processors)</li>
+ * </ul>
+ */
+@Getter
+@Builder
+@ToString
+public class ServerSettings {
+    @Builder.Default
+    private String uri = BankTransactionApplication.BASE_URI;
+    private int workerThreads;
+    private int selectorThreads;
+
+    /**
+     * @return settings defined by the config
+     */
+    public static ServerSettings fromConfig(BankConfig config) {
+        ServerSettings defaults = builder().build();
+
+        return builder()
+                .uri(config.getString("bank.server.uri", defaults.getUri()))
+                .workerThreads(config.getInt("bank.server.workerThreads", defaults.getWorkerThreads()))
+                .selectorThreads(config.getInt("bank.server.selectorThreads", defaults.getSelectorThreads()))
+                .build();
+    }
+}
@@ -0,0 +1,170 @@
+package com.bank.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The source of all tuning settings of the application. The value of the setting, e.g.
+ * <code>bank.db.maximumPoolSize</code>, is taken from the first place it is defined in:
+ * <ol>
+ *     <li>the system property <code>-Dbank.db.maximumPoolSize=32</code></li>
+ *     <li>the environment variable with the upper cased name and dots replaced by underscores
+ *     <code>BANK_DB_MAXIMUMPOOLSIZE=32</code></li>
+ *     <li>the properties file given by <code>bank.config</code> system property or <code>BANK_CONFIG</code>
+ *     environment variable</li>
+ *     <li><code>bank.properties</code> in the classpath</li>
+ *     <li>the default value of the setting</li>
+ * </ol>
+ * System properties and environment variables are read on every call, so the settings could be changed without
+ * rebuilding the application. The typed settings objects (e.g. <code>DbSettings</code>,
+ * <code>ExecutorSettings</code>) are built from this config by their <code>fromConfig</code> methods.
+ */
+public class BankConfig {
+    private static final Logger log = LoggerFactory.getLogger(BankConfig.class);
+
+    public static final String CONFIG_FILE_PROPERTY = "bank.config";
+    public static final String CLASSPATH_CONFIG_FILE = "bank.properties";
+
+    private static volatile BankConfig instance;
+
+    private final Properties fileProperties;
+    private final Map<String, String> environment;
+
+    /**
+     * @param fileProperties the settings of the properties files
+     * @param environment    the environment variables
+     */
+    public BankConfig(Properties fileProperties, Map<String, String> environment) {
+        this.fileProperties = fileProperties;
+        this.environment = environment;
+    }
+
+    /**
+     * @return the config of the application. The properties files are read on the first call
+     */
+    public static BankConfig getInstance() {
+        BankConfig config = instance;
+        if (config == null) {
+            synchronized (BankConfig.class) {
+                config = instance;
+                if (config == null) {
+                    config = new BankConfig(loadFileProperties(), System.getenv());
+                    instance = config;
+                }
+            }
+        }
+        return config;
+    }
+
+    /**
+     * @return the value of the setting or <code>defaultValue</code> if it is not defined anywhere
+     */
+    public String getString(String key, String defaultValue) {
+        String value = System.getProperty(key);
+        if (value == null) {
+            value = environment.get(environmentName(key));
+        }
+        if (value == null) {
+            value = fileProperties.getProperty(key);
+        }
+        return value == null ? defaultValue : value.trim();
+    }
+
+    public int getInt(String key, int defaultValue) {
+        String value = getString(key, null);
+        try {
+            return value == null ? defaultValue : Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw invalidValue(key, value);
+        }
+    }
+
+    public long getLong(String key, long defaultValue) {
+        String value = getString(key, null);
+        try {
+            return value == null ? defaultValue : Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw invalidValue(key, value);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the value is neither <code>true</code> nor <code>false</code>
+     */
+    public boolean getBoolean(String key, boolean defaultValue) {
+        String value = getString(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        if (value.equalsIgnoreCase("true")) {
+            return true;
+        }
+        if (value.equalsIgnoreCase("false")) {
+            return false;
+        }
+        throw invalidValue(key, value);
+    }
+
+    /**
+     * @return the constant of the enum with the name given in any case
+     */
+    public <E extends Enum<E>> E getEnum(String key, Class<E> type, E defaultValue) {
+        String value = getString(key, null);
+        try {
+            return value == null ? defaultValue : Enum.valueOf(type, value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw invalidValue(key, value);
+        }
+    }
+
+    /**
+     * @return the name of the environment variable of the setting, e.g. <code>BANK_DB_MAXIMUMPOOLSIZE</code> for
+     * <code>bank.db.maximumPoolSize</code>
+     */
+    public static String environmentName(String key) {
+        return key.replace('.', '_').toUpperCase(Locale.ROOT);
+    }
+
+    private static IllegalArgumentException invalidValue(String key, String value) {
+        return new IllegalArgumentException("Invalid value of " + key + ": " + value);
+    }
+
+    private static Properties loadFileProperties() {
+        Properties properties = new Properties();
+
+        try (InputStream in = BankConfig.class.getClassLoader().getResourceAsStream(CLASSPATH_CONFIG_FILE)) {
+            if (in != null) {
+                properties.load(in);
+                log.info("Settings have been loaded from classpath:{}", CLASSPATH_CONFIG_FILE);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read classpath:" + CLASSPATH_CONFIG_FILE, e);
+        }
+
+        String configFile = System.getProperty(CONFIG_FILE_PROPERTY,
+                System.getenv(environmentName(CONFIG_FILE_PROPERTY)));
+        if (configFile != null) {
+            Path path = Paths.get(configFile);
+            try (InputStream in = Files.newInputStream(path)) {
+                Properties externalProperties = new Properties();
+                externalProperties.load(in);
+                properties.putAll(externalProperties);
+                log.info("Settings have been loaded from {}", path.toAbsolutePath());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read the config file " + path.toAbsolutePath(), e);
+            }
+        }
+
+        return properties;
+    }
+}
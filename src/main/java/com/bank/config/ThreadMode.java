@@ -0,0 +1,17 @@
+package com.bank.config;
+
+/**
+ * Defines the kind of threads the request processing, the database work and the transaction settlement are run on.
+ * Taken from <code>bank.threads.mode</code> setting of {@link BankConfig}
+ */
+public enum ThreadMode {
+    /**
+     * Pools of platform threads sized by the settings of every component
+     */
+    PLATFORM,
+    /**
+     * Virtual threads of JDK 21+, so thousands of requests blocked on JDBC or row locks do not tie up platform
+     * threads. Falls back to PLATFORM on the older JDKs
+     */
+    VIRTUAL
+}
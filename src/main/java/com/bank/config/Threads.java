@@ -0,0 +1,126 @@
+package com.bank.config;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates the threads of the application according to {@link ThreadMode}. The application is built for Java 8, so
+ * virtual threads are created through reflection once the application runs on JDK 21+. Once VIRTUAL mode is
+ * requested on the older JDK the platform threads are used and the warning is logged.
+ */
+public final class Threads {
+    private static final Logger log = LoggerFactory.getLogger(Threads.class);
+
+    public static final String MODE_PROPERTY = "bank.threads.mode";
+
+    private static final Method OF_VIRTUAL = findMethod(Thread.class, "ofVirtual");
+    private static final Class<?> BUILDER_CLASS = findClass("java.lang.Thread$Builder");
+    private static final Method BUILDER_NAME = findMethod(BUILDER_CLASS, "name", String.class, long.class);
+    private static final Method BUILDER_FACTORY = findMethod(BUILDER_CLASS, "factory");
+    private static final Method NEW_THREAD_PER_TASK_EXECUTOR = findMethod(
+            Executors.class, "newThreadPerTaskExecutor", ThreadFactory.class);
+
+    private static volatile ThreadMode mode;
+
+    private Threads() {
+    }
+
+    /**
+     * @return true if the JDK supports virtual threads
+     */
+    public static boolean isVirtualThreadsSupported() {
+        return OF_VIRTUAL != null && BUILDER_NAME != null && BUILDER_FACTORY != null
+                && NEW_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    /**
+     * @return the mode of {@link BankConfig}. VIRTUAL is returned only if it is supported by the JDK
+     */
+    public static ThreadMode getMode() {
+        ThreadMode threadMode = mode;
+        if (threadMode == null) {
+            threadMode = BankConfig.getInstance().getEnum(MODE_PROPERTY, ThreadMode.class, ThreadMode.PLATFORM);
+            if (threadMode == ThreadMode.VIRTUAL && !isVirtualThreadsSupported()) {
+                log.warn("Virtual threads are not supported by Java {}, platform threads are used",
+                        System.getProperty("java.version"));
+                threadMode = ThreadMode.PLATFORM;
+            }
+            log.info("Thread mode: {}", threadMode);
+            mode = threadMode;
+        }
+        return threadMode;
+    }
+
+    /**
+     * @param namePrefix the prefix of the thread names followed by the thread number
+     * @param daemon     if the platform threads should be daemons. Virtual threads are always daemons
+     * @return the factory of the threads of the current {@link #getMode()}
+     */
+    public static ThreadFactory factory(String namePrefix, boolean daemon) {
+        return factory(getMode(), namePrefix, daemon);
+    }
+
+    /**
+     * @return the factory of the threads of the given mode
+     * @throws UnsupportedOperationException if VIRTUAL mode is not supported
+     */
+    public static ThreadFactory factory(ThreadMode threadMode, String namePrefix, boolean daemon) {
+        if (threadMode == ThreadMode.VIRTUAL) {
+            return virtualThreadFactory(namePrefix);
+        }
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + threadNumber.incrementAndGet());
+            thread.setDaemon(daemon);
+            return thread;
+        };
+    }
+
+    /**
+     * @return the executor starting the new virtual thread for every task
+     * @throws UnsupportedOperationException if virtual threads are not supported
+     */
+    public static ExecutorService newVirtualThreadPerTaskExecutor(String namePrefix) {
+        try {
+            return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, virtualThreadFactory(namePrefix));
+        } catch (ReflectiveOperationException | NullPointerException e) {
+            throw new UnsupportedOperationException("Virtual threads are not supported", e);
+        }
+    }
+
+    private static ThreadFactory virtualThreadFactory(String namePrefix) {
+        try {
+            Object builder = OF_VIRTUAL.invoke(null);
+            builder = BUILDER_NAME.invoke(builder, namePrefix, 1L);
+            return (ThreadFactory) BUILDER_FACTORY.invoke(builder);
+        } catch (ReflectiveOperationException | NullPointerException e) {
+            throw new UnsupportedOperationException("Virtual threads are not supported", e);
+        }
+    }
+
+    private static Class<?> findClass(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+    }
+
+    private static Method findMethod(Class<?> type, String name, Class<?>... parameterTypes) {
+        if (type == null) {
+            return null;
+        }
+        try {
+            return type.getMethod(name, parameterTypes);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
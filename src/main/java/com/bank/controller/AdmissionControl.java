@@ -0,0 +1,223 @@
+package com.bank.controller;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.bank.config.BankConfig;
+import com.bank.config.Threads;
+import com.bank.db.DbUtils;
+import com.bank.metrics.MetricsRegistry;
+import com.bank.service.TransactionsService;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Admission control of the transfer creation. The request is admitted before its database work is submitted to
+ * {@link com.bank.db.DbExecutor}, so once the system is overloaded the request is rejected right away instead of
+ * waiting for the connection until it times out. The limits are defined by {@link AdmissionSettings}:
+ * <ul>
+ *     <li>the amount of requests of the endpoint being processed at once, rejected with 429 Too Many Requests</li>
+ *     <li>the amount of threads waiting for the database connection, rejected with 503 Service Unavailable</li>
+ *     <li>the time of the wait for the database connection: the admitted request takes one of the permits of the
+ *     pool size by {@link #acquireConnection(String)} before its work is submitted and is rejected with 503 once it
+ *     has not got one in <code>connectionWaitMillis</code></li>
+ *     <li>the PLANNED transactions backlog for the transfers which would grow it, rejected with 503. The backlog
+ *     is counted by the background thread every <code>backlogCheckIntervalMillis</code>, so the admission itself
+ *     never touches the database</li>
+ * </ul>
+ * The requests which have been admitted but rejected by the full queue of the database executor or by the timeout
+ * of the connection wait are answered with 503 as well. All rejected requests get <code>Retry-After</code> header
+ * and are counted by <code>bank_admission_rejected_total</code> labeled with the endpoint and the reason.
+ */
+public class AdmissionControl {
+    private static final Logger log = LoggerFactory.getLogger(AdmissionControl.class);
+
+    public static final String REJECTED_COUNTER = "bank_admission_rejected_total";
+    public static final String TRANSACTIONS_ENDPOINT = "TransactionsController.createTransaction";
+    public static final String TRANSACTION_BATCHES_ENDPOINT = "TransactionsController.createTransactions";
+    public static final String OTHER_ENDPOINT = "other";
+
+    private static volatile AdmissionControl instance;
+
+    /**
+     * The reason of the rejection with the status of the response
+     */
+    @Getter
+    @AllArgsConstructor
+    public enum Reason {
+        IN_FLIGHT(429, "in_flight"),
+        CONNECTION_WAITERS(503, "connection_waiters"),
+        BACKLOG(503, "backlog"),
+        QUEUE(503, "queue"),
+        CONNECTION_TIMEOUT(503, "connection_timeout");
+
+        private final int status;
+        private final String label;
+    }
+
+    private final AdmissionSettings settings;
+    private final LongSupplier plannedBacklog;
+    private final IntSupplier connectionWaiters;
+    private final MetricsRegistry metrics;
+    private final Map<String, Semaphore> inFlight = new HashMap<>();
+    private final Semaphore connections;
+    private volatile long backlog;
+
+    /**
+     * @param settings          the limits
+     * @param plannedBacklog    counts PLANNED transactions, called by {@link #refreshBacklog()} only
+     * @param connectionWaiters the amount of threads waiting for the database connection at the moment
+     * @param metrics           the registry the rejections are counted in
+     */
+    public AdmissionControl(AdmissionSettings settings, LongSupplier plannedBacklog, IntSupplier connectionWaiters,
+                            MetricsRegistry metrics) {
+        this.settings = settings;
+        this.plannedBacklog = plannedBacklog;
+        this.connectionWaiters = connectionWaiters;
+        this.metrics = metrics;
+        if (settings.getTransactionsInFlight() > 0) {
+            inFlight.put(TRANSACTIONS_ENDPOINT, new Semaphore(settings.getTransactionsInFlight()));
+        }
+        if (settings.getTransactionBatchesInFlight() > 0) {
+            inFlight.put(TRANSACTION_BATCHES_ENDPOINT, new Semaphore(settings.getTransactionBatchesInFlight()));
+        }
+        this.connections = settings.getConnectionWaitMillis() > 0 ? new Semaphore(settings.getConnectionPermits())
+                : null;
+    }
+
+    /**
+     * @return the admission control of the application. It is started on the first call with
+     * {@link AdmissionSettings} of {@link BankConfig}
+     */
+    public static AdmissionControl getInstance() {
+        AdmissionControl admissionControl = instance;
+        if (admissionControl == null) {
+            synchronized (AdmissionControl.class) {
+                admissionControl = instance;
+                if (admissionControl == null) {
+                    AdmissionSettings settings = AdmissionSettings.fromConfig(BankConfig.getInstance());
+                    log.info("Admission settings: {}", settings);
+                    admissionControl = new AdmissionControl(settings,
+                            TransactionsService.getInstance()::getPlannedTransactionsCount,
+                            () -> DbUtils.getInstance().getConnectionPoolStatistics().getThreadsAwaitingConnection(),
+                            MetricsRegistry.getInstance());
+                    if (settings.getMaxPlannedBacklog() > 0) {
+                        ScheduledExecutorService backlogChecker = Executors.newSingleThreadScheduledExecutor(
+                                Threads.factory("admission-backlog-", true));
+                        backlogChecker.scheduleWithFixedDelay(admissionControl::refreshBacklog, 0,
+                                settings.getBacklogCheckIntervalMillis(), TimeUnit.MILLISECONDS);
+                    }
+                    instance = admissionControl;
+                }
+            }
+        }
+        return admissionControl;
+    }
+
+    /**
+     * Admits the request of the endpoint. The admitted request should be {@link #release(String) released} once
+     * its work is done
+     *
+     * @param endpoint     the endpoint of the request
+     * @param growsBacklog true once the request creates PLANNED transactions
+     * @return null once the request is admitted or the reason of its rejection
+     */
+    public Reason admit(String endpoint, boolean growsBacklog) {
+        if (settings.getMaxConnectionWaiters() > 0
+                && connectionWaiters.getAsInt() >= settings.getMaxConnectionWaiters()) {
+            return rejected(endpoint, Reason.CONNECTION_WAITERS);
+        }
+        if (growsBacklog && settings.getMaxPlannedBacklog() > 0 && backlog >= settings.getMaxPlannedBacklog()) {
+            return rejected(endpoint, Reason.BACKLOG);
+        }
+
+        Semaphore permits = inFlight.get(endpoint);
+        if (permits != null && !permits.tryAcquire()) {
+            return rejected(endpoint, Reason.IN_FLIGHT);
+        }
+        return null;
+    }
+
+    /**
+     * Releases the request admitted by {@link #admit(String, boolean)}
+     */
+    public void release(String endpoint) {
+        Semaphore permits = inFlight.get(endpoint);
+        if (permits != null) {
+            permits.release();
+        }
+    }
+
+    /**
+     * Waits for the database connection permit of the admitted request at most <code>connectionWaitMillis</code>.
+     * The permit should be {@link #releaseConnection() released} once the work of the request is done
+     *
+     * @return null once the permit is acquired or {@link Reason#CONNECTION_TIMEOUT}
+     */
+    public Reason acquireConnection(String endpoint) {
+        if (connections == null) {
+            return null;
+        }
+
+        try {
+            if (connections.tryAcquire(settings.getConnectionWaitMillis(), TimeUnit.MILLISECONDS)) {
+                return null;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return rejected(endpoint, Reason.CONNECTION_TIMEOUT);
+    }
+
+    /**
+     * Releases the permit acquired by {@link #acquireConnection(String)}
+     */
+    public void releaseConnection() {
+        if (connections != null) {
+            connections.release();
+        }
+    }
+
+    /**
+     * Counts the rejection of the request
+     *
+     * @return the reason
+     */
+    public Reason rejected(String endpoint, Reason reason) {
+        metrics.counter(REJECTED_COUNTER, "endpoint", endpoint, "reason", reason.getLabel()).increment();
+        return reason;
+    }
+
+    /**
+     * @return the response to the rejected request
+     */
+    public Response response(Reason reason) {
+        return Response.status(reason.getStatus())
+                .header(HttpHeaders.RETRY_AFTER, settings.getRetryAfterSeconds())
+                .build();
+    }
+
+    /**
+     * Counts the PLANNED backlog used by {@link #admit(String, boolean)}
+     */
+    public void refreshBacklog() {
+        try {
+            backlog = plannedBacklog.getAsLong();
+        } catch (RuntimeException e) {
+            log.warn("PLANNED transactions backlog could not be counted", e);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.bank.controller;
+
+import com.bank.config.BankConfig;
+import com.bank.db.DbSettings;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Settings of the {@link AdmissionControl} of the transfer creation. By default all values are taken from
+ * {@link BankConfig}, 0 disables the limit:
+ * <ul>
+ *     <li><code>bank.admission.transactions.maxInFlight</code> - the maximum amount of transfers being created at
+ *     once by <code>POST /transactions</code></li>
+ *     <li><code>bank.admission.transactionBatches.maxInFlight</code> - the same for the batches of
+ *     <code>POST /transactions/batch</code></li>
+ *     <li><code>bank.admission.maxConnectionWaiters</code> - the amount of threads waiting for the database
+ *     connection above which the transfers are not accepted</li>
+ *     <li><code>bank.admission.connectionWaitMillis</code> - how long the accepted transfer waits for one of the
+ *     <code>bank.db.maximumPoolSize</code> connection permits before its work is submitted. Once the wait is
+ *     disabled it is bounded only by <code>bank.db.connectionTimeoutMillis</code></li>
+ *     <li><code>bank.admission.maxPlannedBacklog</code> - the amount of PLANNED transactions above which the new
+ *     ones are not accepted until the executor catches up</li>
+ *     <li><code>bank.admission.backlogCheckIntervalMillis</code> - how often the PLANNED backlog is counted</li>
+ *     <li><code>bank.admission.retryAfterSeconds</code> - <code>Retry-After</code> of the rejected request</li>
+ * </ul>
+ */
+@Getter
+@Builder
+@ToString
+public class AdmissionSettings {
+    private int transactionsInFlight;
+    private int transactionBatchesInFlight;
+    private int maxConnectionWaiters;
+    private long connectionWaitMillis;
+    @Builder.Default
+    private int connectionPermits = DbSettings.builder().build().getMaximumPoolSize();
+    private long maxPlannedBacklog;
+    @Builder.Default
+    private long backlogCheckIntervalMillis = 100;
+    @Builder.Default
+    private int retryAfterSeconds = 1;
+
+    /**
+     * @return settings defined by the config
+     */
+    public static AdmissionSettings fromConfig(BankConfig config) {
+        AdmissionSettings defaults = builder().build();
+
+        return builder()
+                .transactionsInFlight(config.getInt("bank.admission.transactions.maxInFlight",
+                        defaults.getTransactionsInFlight()))
+                .transactionBatchesInFlight(config.getInt("bank.admission.transactionBatches.maxInFlight",
+                        defaults.getTransactionBatchesInFlight()))
+                .maxConnectionWaiters(config.getInt("bank.admission.maxConnectionWaiters",
+                        defaults.getMaxConnectionWaiters()))
+                .connectionWaitMillis(config.getLong("bank.admission.connectionWaitMillis",
+                        defaults.getConnectionWaitMillis()))
+                .connectionPermits(DbSettings.fromConfig(config).getMaximumPoolSize())
+                .maxPlannedBacklog(config.getLong("bank.admission.maxPlannedBacklog",
+                        defaults.getMaxPlannedBacklog()))
+                .backlogCheckIntervalMillis(config.getLong("bank.admission.backlogCheckIntervalMillis",
+                        defaults.getBacklogCheckIntervalMillis()))
+                .retryAfterSeconds(config.getInt("bank.admission.retryAfterSeconds",
+                        defaults.getRetryAfterSeconds()))
+                .build();
+    }
+}
@@ -1,6 +1,6 @@
 package com.bank.controller;
 
-import java.util.Collection;
+import java.util.List;
 
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
@@ -8,62 +8,77 @@ import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
 
 import com.bank.exceptions.ObjectModificationException;
 import com.bank.model.BankAccount;
+import com.bank.model.BankAccountBulkResult;
 import com.bank.service.BankAccountService;
 
 /**
  * @author Jyoti Gahan
- * This class is responsible for CRUD operations of Bank Account object
+ * This class is responsible for CRUD operations of Bank Account object. All methods are asynchronous: the database
+ * work is done by {@link DbResponses} on the database executor, so the HTTP threads do not wait for the database
  */
 @Path(BankAccountsController.BASE_URL)
 @Produces(MediaType.APPLICATION_JSON)
 public class BankAccountsController {
     public static final String BASE_URL = "/api/v1/accounts";
     public static final String GET_BANK_ACCOUNT_BY_ID_PATH = "id";
+    public static final String BULK_PATH = "bulk";
 
     private final static BankAccountService BANK_ACCOUNT_SERVICE = BankAccountService.getInstance();
 
     /**
-     * @return The full list of Bank Account objects which has been registered at the time.
+     * @param after the cursor of the page. Only Bank Accounts with ID greater than this one are returned
+     * @param limit the maximum amount of Bank Accounts in the page. Limited by the server
      *
+     * @param asyncResponse resumed with the page of Bank Account objects ordered by ID. Once there could be more
+     *                      Bank Accounts the cursor of the next page is returned in <code>X-Next-Cursor</code> and
+     *                      <code>Link</code> headers
      */
     @GET
-    public Response getAllBankAccounts() {
-        Collection<BankAccount> bankAccounts;
-
-        bankAccounts = BANK_ACCOUNT_SERVICE.getAllBankAccounts();
-
-        if (bankAccounts == null) {
-            Response.noContent().build();
-        }
-
-        return Response.ok(bankAccounts).build();
+    public void getAllBankAccounts(@QueryParam(Pagination.AFTER_PARAM) Long after,
+                                   @QueryParam(Pagination.LIMIT_PARAM) Integer limit,
+                                   @Context UriInfo uriInfo,
+                                   @Suspended AsyncResponse asyncResponse) {
+        int pageSize = Pagination.limit(limit);
+
+        DbResponses.resume(asyncResponse, () -> {
+            List<BankAccount> bankAccounts = BANK_ACCOUNT_SERVICE.getBankAccountsPage(Pagination.after(after),
+                    pageSize);
+
+            return Pagination.page(bankAccounts, pageSize, uriInfo);
+        });
     }
 
     /**
      * @param id The ID of Bank Account
      *
-     * @return The Bank Account object which has particular ID. This ID has been generated and returned
-     * during the Bank Account creation by the <code>POST: /bankAccount</code> endpoint
+     * @param asyncResponse resumed with the Bank Account object which has particular ID. This ID has been
+     *                      generated and returned during the Bank Account creation by the
+     *                      <code>POST: /bankAccount</code> endpoint
      */
     @GET
     @Path("{" + GET_BANK_ACCOUNT_BY_ID_PATH + "}")
-    public Response getBankAccountById(@PathParam(GET_BANK_ACCOUNT_BY_ID_PATH) Long id) {
-        BankAccount bankAccount;
+    public void getBankAccountById(@PathParam(GET_BANK_ACCOUNT_BY_ID_PATH) Long id,
+                                   @Suspended AsyncResponse asyncResponse) {
+        DbResponses.resume(asyncResponse, () -> {
+            BankAccount bankAccount = BANK_ACCOUNT_SERVICE.getBankAccountById(id);
 
+            if (bankAccount == null) {
+                throw new WebApplicationException("The bank account is not exists", Response.Status.NOT_FOUND);
+            }
 
-        bankAccount = BANK_ACCOUNT_SERVICE.getBankAccountById(id);
-
-        if (bankAccount == null) {
-            throw new WebApplicationException("The bank account is not exists", Response.Status.NOT_FOUND);
-        }
-
-        return Response.ok(bankAccount).build();
+            return Response.ok(bankAccount).build();
+        });
     }
 
     /**
@@ -73,22 +88,20 @@ public class BankAccountsController {
      *
      * @param bankAccount the Bank Account object (id should be specified) which will update the data
      *
-     * @return updated Bank Account object. In general it should be object with the same parameters as provided had
+     * @param asyncResponse resumed with updated Bank Account object. In general it should be object with the same
+     *                      parameters as provided had
      */
     @PUT
-    public Response updateBankAccount(BankAccount bankAccount) {
-    	
-    	try {
-    	
-    	BankAccountService.getInstance().updateBankAccount(bankAccount);
-        
-    	return Response.ok(bankAccount).build();
-        
-    	}catch(ObjectModificationException e) {    		
-            return Response.status(Response.Status.NOT_FOUND).build();
-    	}
-    	
-        
+    public void updateBankAccount(BankAccount bankAccount, @Suspended AsyncResponse asyncResponse) {
+        DbResponses.resume(asyncResponse, () -> {
+            try {
+                BankAccountService.getInstance().updateBankAccount(bankAccount);
+
+                return Response.ok(bankAccount).build();
+            } catch (ObjectModificationException e) {
+                return Response.status(Response.Status.NOT_FOUND).build();
+            }
+        });
     }
 
     /**
@@ -97,14 +110,45 @@ public class BankAccountsController {
      *
      * @param bankAccount the Bank Account object to create with parameters specified
      *
-     * @return Bank Account object with the ID parameter specified.
+     * @param asyncResponse resumed with Bank Account object with the ID parameter specified.
+     */
+    @POST
+    public void createBankAccount(BankAccount bankAccount, @Suspended AsyncResponse asyncResponse) {
+        DbResponses.resume(asyncResponse, () -> {
+            BankAccount createdBankAccount = BANK_ACCOUNT_SERVICE.createBankAccount(bankAccount);
+
+            return Response.ok(createdBankAccount).build();
+        });
+    }
+
+    /**
+     * Creates up to <code>bank.account.bulkMaxSize</code> Bank Accounts at once. The accounts are inserted by JDBC
+     * batches and committed chunk by chunk (<code>bank.account.bulkChunkSize</code>), so it is the way to provision
+     * tens of thousands of accounts instead of calling <code>POST: /accounts</code> for every one
+     *
+     * @param bankAccounts the Bank Account objects to create, the owner name is required
+     *
+     * @param asyncResponse resumed with the IDs of created Bank Accounts in the order of the request and the
+     *                      throughput of the creation. Once some chunk has failed the response is 500 Internal Server
+     *                      Error with the IDs of the accounts created before the failure
      */
     @POST
-    public Response createBankAccount(BankAccount bankAccount) throws ObjectModificationException {
-        BankAccount createdBankAccount;
+    @Path(BULK_PATH)
+    public void createBankAccounts(List<BankAccount> bankAccounts, @Suspended AsyncResponse asyncResponse) {
+        if (bankAccounts == null || bankAccounts.isEmpty() || bankAccounts.size() > BankAccountService.BULK_MAX_SIZE) {
+            throw new WebApplicationException("The bulk should contain from 1 to " + BankAccountService.BULK_MAX_SIZE
+                    + " Bank Accounts", Response.Status.BAD_REQUEST);
+        }
 
-        createdBankAccount = BANK_ACCOUNT_SERVICE.createBankAccount(bankAccount);
+        DbResponses.resume(asyncResponse, () -> {
+            try {
+                BankAccountBulkResult result = BANK_ACCOUNT_SERVICE.createBankAccounts(bankAccounts);
 
-        return Response.ok(createdBankAccount).build();
+                return Response.status(result.getError() == null
+                        ? Response.Status.OK : Response.Status.INTERNAL_SERVER_ERROR).entity(result).build();
+            } catch (ObjectModificationException e) {
+                throw new WebApplicationException(e.getMessage(), Response.Status.BAD_REQUEST);
+            }
+        });
     }
 }
@@ -0,0 +1,102 @@
+package com.bank.controller;
+
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.core.Response;
+
+import com.bank.db.DbExecutor;
+
+/**
+ * Helper of the asynchronous controller methods. The request is suspended by <code>@Suspended AsyncResponse</code>
+ * and its database work is run by {@link DbExecutor}, so the HTTP thread is released right away instead of waiting
+ * for the connection, the query and the row locks. The result of the work or its exception resumes the request the
+ * same way the synchronous method would return or throw it.
+ *
+ * The request of the endpoint guarded by {@link AdmissionControl} is admitted and gets the connection permit before
+ * its work is submitted. Once the request is rejected by the admission, the permit or the connection could not be
+ * obtained in time or the executor queue is full the request is answered with 429 or 503 and
+ * <code>Retry-After</code> header.
+ */
+final class DbResponses {
+
+    private DbResponses() {
+    }
+
+    /**
+     * @param asyncResponse the suspended request
+     * @param work          the database work building the response
+     */
+    static void resume(AsyncResponse asyncResponse, Callable<Response> work) {
+        submit(asyncResponse, AdmissionControl.getInstance(), AdmissionControl.OTHER_ENDPOINT, work);
+    }
+
+    /**
+     * @param asyncResponse the suspended request
+     * @param endpoint      the endpoint admitted by {@link AdmissionControl}
+     * @param growsBacklog  true once the work creates PLANNED transactions
+     * @param work          the database work building the response
+     */
+    static void resume(AsyncResponse asyncResponse, String endpoint, boolean growsBacklog, Callable<Response> work) {
+        AdmissionControl admissionControl = AdmissionControl.getInstance();
+        AdmissionControl.Reason rejection = admissionControl.admit(endpoint, growsBacklog);
+        if (rejection != null) {
+            asyncResponse.resume(admissionControl.response(rejection));
+            return;
+        }
+        rejection = admissionControl.acquireConnection(endpoint);
+        if (rejection != null) {
+            admissionControl.release(endpoint);
+            asyncResponse.resume(admissionControl.response(rejection));
+            return;
+        }
+
+        submit(asyncResponse, admissionControl, endpoint, work, admissionControl::releaseConnection);
+    }
+
+    private static void submit(AsyncResponse asyncResponse, AdmissionControl admissionControl, String endpoint,
+                               Callable<Response> work) {
+        submit(asyncResponse, admissionControl, endpoint, work, () -> {
+        });
+    }
+
+    /**
+     * @param releaseConnection releases the connection permit once the work is done or rejected
+     */
+    private static void submit(AsyncResponse asyncResponse, AdmissionControl admissionControl, String endpoint,
+                               Callable<Response> work, Runnable releaseConnection) {
+        try {
+            DbExecutor.getInstance().execute(() -> {
+                try {
+                    asyncResponse.resume(work.call());
+                } catch (Throwable th) {
+                    if (isConnectionTimeout(th)) {
+                        asyncResponse.resume(admissionControl.response(
+                                admissionControl.rejected(endpoint, AdmissionControl.Reason.CONNECTION_TIMEOUT)));
+                    } else {
+                        asyncResponse.resume(th);
+                    }
+                } finally {
+                    releaseConnection.run();
+                    admissionControl.release(endpoint);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            releaseConnection.run();
+            admissionControl.release(endpoint);
+            asyncResponse.resume(admissionControl.response(
+                    admissionControl.rejected(endpoint, AdmissionControl.Reason.QUEUE)));
+        }
+    }
+
+    private static boolean isConnectionTimeout(Throwable th) {
+        for (Throwable cause = th; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLTransientConnectionException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
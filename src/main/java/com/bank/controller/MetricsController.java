@@ -0,0 +1,45 @@
+package com.bank.controller;
+
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import com.bank.metrics.MetricsRegistry;
+import com.bank.metrics.MetricsSnapshot;
+import com.bank.metrics.PrometheusFormat;
+
+/**
+ * Exposes the runtime metrics of the application: the latency of the controller methods, the duration of the
+ * transaction DAO operations and executor runs, the PLANNED transactions backlog and the database connection pool
+ * state
+ */
+@Path(MetricsController.BASE_URL)
+public class MetricsController {
+    public static final String BASE_URL = "/api/v1/metrics";
+
+    private MetricsRegistry metricsRegistry = MetricsRegistry.getInstance();
+
+    /**
+     * @param format <code>json</code> (default) or <code>prometheus</code> text exposition format
+     */
+    @GET
+    @Produces({MediaType.APPLICATION_JSON, MediaType.TEXT_PLAIN})
+    public Response getMetrics(@QueryParam("format") @DefaultValue("json") String format) {
+        MetricsSnapshot snapshot = metricsRegistry.snapshot();
+
+        switch (format.toLowerCase()) {
+            case "json":
+                return Response.ok(snapshot).type(MediaType.APPLICATION_JSON).build();
+            case "prometheus":
+                return Response.ok(PrometheusFormat.format(snapshot)).type(PrometheusFormat.CONTENT_TYPE).build();
+            default:
+                throw new WebApplicationException("Unsupported metrics format " + format,
+                        Response.Status.BAD_REQUEST);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.bank.controller;
+
+import java.util.List;
+
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
+
+import com.bank.model.AuditId;
+
+/**
+ * Helper of the keyset pagination used by the list endpoints. The page is requested by
+ * <code>?after=&lt;id&gt;&amp;limit=N</code> parameters and contains objects with ID greater than <code>after</code>
+ * ordered by ID. Once the page is full the ID of the last object is returned in <code>X-Next-Cursor</code> header
+ * alongside with the <code>Link</code> header to the next page. The absence of these headers means the last page.
+ */
+final class Pagination {
+    static final String AFTER_PARAM = "after";
+    static final String LIMIT_PARAM = "limit";
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    static final int DEFAULT_PAGE_SIZE = 100;
+    static final int MAX_PAGE_SIZE = 1000;
+
+    private Pagination() {
+    }
+
+    /**
+     * @param after the cursor provided by the client
+     * @return the ID after which the page starts
+     */
+    static long after(Long after) {
+        return after == null || after < 0 ? 0 : after;
+    }
+
+    /**
+     * @param limit the page size requested by the client
+     * @return the page size limited by {@link #MAX_PAGE_SIZE}
+     */
+    static int limit(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Builds the response with the page provided and the link to the next page if there could be one
+     */
+    static Response page(List<? extends AuditId> items, int limit, UriInfo uriInfo) {
+        Response.ResponseBuilder response = Response.ok(items);
+
+        if (items.size() == limit) {
+            Long nextCursor = items.get(items.size() - 1).getId();
+            response.header(NEXT_CURSOR_HEADER, nextCursor);
+            response.link(uriInfo.getRequestUriBuilder()
+                    .replaceQueryParam(AFTER_PARAM, nextCursor)
+                    .replaceQueryParam(LIMIT_PARAM, limit)
+                    .build(), "next");
+        }
+
+        return response.build();
+    }
+}
@@ -0,0 +1,74 @@
+package com.bank.controller;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.ext.Provider;
+
+import com.bank.metrics.MetricsRegistry;
+import com.bank.metrics.Timer;
+
+/**
+ * Records the latency of every request matched to the controller method into the
+ * <code>http_server_requests_seconds</code> timer labeled with the controller method (e.g.
+ * <code>TransactionsController.createTransaction</code>) and the status class of the response (e.g.
+ * <code>2xx</code>). The rate of the requests is the rate of the timer count.
+ *
+ * The timers are looked up by the method once and then kept in the filter, so the request pays just for the
+ * recording itself
+ */
+@Provider
+public class RequestMetricsFilter implements ContainerRequestFilter, ContainerResponseFilter {
+    public static final String REQUESTS_TIMER = "http_server_requests_seconds";
+
+    private static final String START_NANOS_PROPERTY = RequestMetricsFilter.class.getName() + ".startNanos";
+    private static final int STATUS_CLASSES = 6;
+
+    private final MetricsRegistry registry = MetricsRegistry.getInstance();
+    private final ConcurrentMap<Method, Timer[]> methodTimers = new ConcurrentHashMap<>();
+
+    @Context
+    private ResourceInfo resourceInfo;
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) {
+        requestContext.setProperty(START_NANOS_PROPERTY, System.nanoTime());
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+        Object startNanos = requestContext.getProperty(START_NANOS_PROPERTY);
+        Method method = resourceInfo.getResourceMethod();
+        if (startNanos == null || method == null) {
+            // The request has not been matched to any controller method
+            return;
+        }
+
+        int statusClass = responseContext.getStatus() / 100;
+        if (statusClass <= 0 || statusClass >= STATUS_CLASSES) {
+            return;
+        }
+
+        Timer[] timers = methodTimers.get(method);
+        if (timers == null) {
+            timers = methodTimers.computeIfAbsent(method, m -> new Timer[STATUS_CLASSES]);
+        }
+        Timer timer = timers[statusClass];
+        if (timer == null) {
+            // The registry returns the same timer for the same labels, so the race here is harmless
+            timer = registry.timer(REQUESTS_TIMER,
+                    "resource", resourceInfo.getResourceClass().getSimpleName() + "." + method.getName(),
+                    "status", statusClass + "xx");
+            timers[statusClass] = timer;
+        }
+
+        timer.recordSince((Long) startNanos);
+    }
+}
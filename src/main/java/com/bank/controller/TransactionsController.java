@@ -1,12 +1,22 @@
 package com.bank.controller;
 
+import java.util.List;
+
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,6 +31,9 @@ import com.bank.service.TransactionsService;
  * The resource is responsible for the Transaction entity. Make it possible to create
  * and provide transactions. There is no ability to update an existing transaction as it is controversial operation
  * for this type of object. This object could be modified only by the system itself
+ *
+ * Except the export, all methods are asynchronous: the database work is done by {@link DbResponses} on the database
+ * executor, so the HTTP threads do not wait for the database and the row locks of the transaction creation
  */
 @Path(TransactionsController.BASE_URL)
 @Produces(MediaType.APPLICATION_JSON)
@@ -29,18 +42,55 @@ public class TransactionsController {
 
     public static final String BASE_URL = "/api/v1/transactions";
     public static final String GET_TRANSACTION_BY_ID_PATH = "id";
+    public static final String EXPORT_PATH = "export";
+    public static final String BATCH_PATH = "batch";
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String IMMEDIATE_PARAM = "immediate";
+    public static final int MAX_BATCH_SIZE = 1000;
 
     private TransactionsService transactionsService = TransactionsService.getInstance();
     
 
 
     /**
-     * Returns all transactions in the system with there statuses
+     * Returns the page of transactions in the system with there statuses ordered by ID. Once there could be more
+     * transactions the cursor of the next page is returned in <code>X-Next-Cursor</code> and <code>Link</code>
+     * headers
+     *
+     * @param after the cursor of the page. Only transactions with ID greater than this one are returned
+     * @param limit the maximum amount of transactions in the page. Limited by the server
+     */
+    @GET
+    public void getAllTransactions(@QueryParam(Pagination.AFTER_PARAM) Long after,
+                                   @QueryParam(Pagination.LIMIT_PARAM) Integer limit,
+                                   @Context UriInfo uriInfo,
+                                   @Suspended AsyncResponse asyncResponse) {
+        int pageSize = Pagination.limit(limit);
+
+        DbResponses.resume(asyncResponse, () -> Pagination.page(
+                transactionsService.getTransactionsPage(Pagination.after(after), pageSize), pageSize, uriInfo));
+    }
+
+    /**
+     * Exports all transactions ordered by ID. The rows are streamed from the database directly into the response,
+     * so the size of the export is not limited by the memory of the server
      *
+     * @param format <code>json</code> (default) or <code>csv</code>
      */
     @GET
-    public Response getAllTransactions() {
-        return Response.ok().entity(transactionsService.getAllTransactions()).build();
+    @Path(EXPORT_PATH)
+    @Produces({MediaType.APPLICATION_JSON, "text/csv"})
+    public Response exportTransactions(@QueryParam("format") @DefaultValue("json") String format) {
+        TransactionsExport.Format exportFormat;
+        try {
+            exportFormat = TransactionsExport.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new WebApplicationException("Unsupported export format " + format, Response.Status.BAD_REQUEST);
+        }
+
+        return Response.ok(new TransactionsExport(transactionsService, exportFormat))
+                .type(exportFormat == TransactionsExport.Format.CSV ? "text/csv" : MediaType.APPLICATION_JSON)
+                .build();
     }
 
     /**
@@ -48,12 +98,14 @@ public class TransactionsController {
      *
      * @param id transaction ID
      *
-     * @return Transaction with the ID provided
+     * @param asyncResponse resumed with the transaction with the ID provided
      */
     @GET()
     @Path("{" + GET_TRANSACTION_BY_ID_PATH + "}")
-    public Response getTransactionById(@PathParam(GET_TRANSACTION_BY_ID_PATH) Long id) {
-        return Response.ok().entity(transactionsService.getTransactionById(id)).build();
+    public void getTransactionById(@PathParam(GET_TRANSACTION_BY_ID_PATH) Long id,
+                                   @Suspended AsyncResponse asyncResponse) {
+        DbResponses.resume(asyncResponse,
+                () -> Response.ok().entity(transactionsService.getTransactionById(id)).build());
     }
 
     /**
@@ -65,12 +117,56 @@ public class TransactionsController {
      *                    <code>fromBankAccountId, toBankAccountId, amount, currency</code>. All other parameters
      *                    will be ignored and created by the system
      *
-     * @return created and updated transaction object provided
+     * @param idempotencyKey optional <code>Idempotency-Key</code> header. The retries of the request with the same
+     *                       key return the transaction created by the first one without creating another one
+     *
+     * @param immediate optional <code>immediate</code> query parameter. Once true the transfer is executed on creation
+     *                  in the same database transaction and the response has its final SUCCEED status. The default
+     *                  is defined by <code>bank.transactions.immediate</code>
+     *
+     * @param asyncResponse resumed with created and updated transaction object provided or with 'bad request' once
+     *                      the transaction is not valid or the key has been used for another transaction. Once the
+     *                      request is not admitted by {@link AdmissionControl} it is resumed with 429 or 503 and
+     *                      <code>Retry-After</code> header
+     */
+    @POST()
+    public void createTransaction(Transaction transaction,
+                                  @HeaderParam(IDEMPOTENCY_KEY_HEADER) String idempotencyKey,
+                                  @QueryParam(IMMEDIATE_PARAM) Boolean immediate,
+                                  @Suspended AsyncResponse asyncResponse) {
+        boolean executeOnCreation = immediate != null ? immediate : transactionsService.isImmediateByDefault();
+
+        // The transfer executed on creation does not add to the PLANNED backlog
+        DbResponses.resume(asyncResponse, AdmissionControl.TRANSACTIONS_ENDPOINT, !executeOnCreation, () -> {
+            try {
+                return Response.ok().entity(transactionsService.createTransaction(transaction, idempotencyKey,
+                        executeOnCreation)).build();
+            } catch (ObjectModificationException e) {
+                throw new WebApplicationException(e.getMessage(), Response.Status.BAD_REQUEST);
+            }
+        });
+    }
+
+    /**
+     * Creates up to {@link #MAX_BATCH_SIZE} money transfers at once. The transfers are validated by the same rules as
+     * {@link #createTransaction(Transaction, String, Boolean, AsyncResponse)} and created in one database
+     * transaction, every source Bank Account is locked only once. The transfer which could not be created (e.g. there
+     * is not enough money after the previous transfers of the batch) is rejected without affecting the others
+     *
+     * @param transactions the transactions to be created with the same required fields as for the single one
+     *
+     * @param asyncResponse resumed with the result of every transfer in the order of the request: the created
+     *                      transaction or the error
      */
     @POST()
-    public Response createTransaction(Transaction transaction) throws ObjectModificationException {
-        transaction = transactionsService.createTransaction(transaction);
+    @Path(BATCH_PATH)
+    public void createTransactions(List<Transaction> transactions, @Suspended AsyncResponse asyncResponse) {
+        if (transactions == null || transactions.isEmpty() || transactions.size() > MAX_BATCH_SIZE) {
+            throw new WebApplicationException("The batch should contain from 1 to " + MAX_BATCH_SIZE + " transactions",
+                    Response.Status.BAD_REQUEST);
+        }
 
-        return Response.ok().entity(transaction).build();
+        DbResponses.resume(asyncResponse, AdmissionControl.TRANSACTION_BATCHES_ENDPOINT, true,
+                () -> Response.ok().entity(transactionsService.createTransactions(transactions)).build());
     }
 }
@@ -0,0 +1,97 @@
+package com.bank.controller;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import javax.ws.rs.core.StreamingOutput;
+
+import com.bank.model.Transaction;
+import com.bank.service.TransactionsService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Writes all transactions into the response stream while they are read from the database. Nothing except one
+ * transaction and the output buffer is kept in memory, so the memory usage does not depend on the size of the
+ * transaction table.
+ */
+class TransactionsExport implements StreamingOutput {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final String CSV_HEADER =
+            "id,fromBankAccountId,toBankAccountId,amount,creationDate,updateDate,status,failMessage";
+
+    /**
+     * Supported formats of the export
+     */
+    enum Format {
+        JSON, CSV
+    }
+
+    private final TransactionsService transactionsService;
+    private final Format format;
+
+    TransactionsExport(TransactionsService transactionsService, Format format) {
+        this.transactionsService = transactionsService;
+        this.format = format;
+    }
+
+    @Override
+    public void write(OutputStream output) throws IOException {
+        if (format == Format.CSV) {
+            writeCsv(output);
+        } else {
+            writeJson(output);
+        }
+    }
+
+    private void writeJson(OutputStream output) throws IOException {
+        try (JsonGenerator generator = OBJECT_MAPPER.getFactory().createGenerator(output)) {
+            generator.writeStartArray();
+            transactionsService.exportTransactions(transaction -> OBJECT_MAPPER.writeValue(generator, transaction));
+            generator.writeEndArray();
+        }
+    }
+
+    private void writeCsv(OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+
+        transactionsService.exportTransactions(transaction -> writeCsvLine(writer, transaction));
+
+        writer.flush();
+    }
+
+    private static void writeCsvLine(Writer writer, Transaction transaction) throws IOException {
+        writer.write(String.valueOf(transaction.getId()));
+        writer.write(',');
+        writer.write(String.valueOf(transaction.getFromBankAccountId()));
+        writer.write(',');
+        writer.write(String.valueOf(transaction.getToBankAccountId()));
+        writer.write(',');
+        writer.write(transaction.getAmount().toPlainString());
+        writer.write(',');
+        writer.write(String.valueOf(transaction.getCreationDate().getTime()));
+        writer.write(',');
+        writer.write(transaction.getUpdateDate() == null ? "" : String.valueOf(transaction.getUpdateDate().getTime()));
+        writer.write(',');
+        writer.write(transaction.getStatus().name());
+        writer.write(',');
+        writer.write(escapeCsv(transaction.getFailMessage()));
+        writer.write('\n');
+    }
+
+    private static String escapeCsv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
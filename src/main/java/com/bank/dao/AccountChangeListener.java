@@ -0,0 +1,16 @@
+package com.bank.dao;
+
+import java.util.Collection;
+
+/**
+ * Listener of the Bank Account changes made by the DAO layer. It is notified only after the database transaction
+ * changing the Bank Accounts has been committed. Registered by
+ * {@link BankAccountDao#addAccountChangeListener(AccountChangeListener)}
+ */
+public interface AccountChangeListener {
+
+    /**
+     * @param bankAccountIds IDs of the Bank Accounts which have been changed
+     */
+    void accountsChanged(Collection<Long> bankAccountIds);
+}
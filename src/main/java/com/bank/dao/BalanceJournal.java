@@ -0,0 +1,35 @@
+package com.bank.dao;
+
+import com.bank.model.BankAccount;
+import com.bank.model.Transaction;
+
+/**
+ * Write-ahead hook of the DAO layer for the changes of Bank Account balances. Registered by
+ * {@link BankAccountDao#setBalanceJournal(BalanceJournal)}.
+ * <p>
+ * Transaction methods are called inside the database transaction before the commit, while the changed rows are
+ * still locked. So the changes of the same Bank Account reach the journal in the order they are committed. If the
+ * method throws an exception the database transaction is rolled back. If the database transaction fails after the
+ * call, the journal keeps the change which has not happened, it is visible as the mismatch with the database on the
+ * journal verification. All Bank Accounts are passed with their balances and blocked amounts after the change.
+ */
+public interface BalanceJournal {
+
+    /**
+     * Called once the Bank Account has been created and committed. The transfers of the new Bank Account could be
+     * journaled before this call
+     */
+    void bankAccountCreated(BankAccount bankAccount);
+
+    /**
+     * Called for the created PLANNED transaction with its ID assigned and the source Bank Account with the amount
+     * blocked
+     */
+    void transactionCreated(Transaction transaction, BankAccount fromBankAccount);
+
+    /**
+     * Called for the transaction which has become SUCCEED or FAILED with both Bank Accounts after the transfer (not
+     * changed for FAILED one)
+     */
+    void transactionExecuted(Transaction transaction, BankAccount fromBankAccount, BankAccount toBankAccount);
+}
@@ -6,14 +6,23 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.bank.db.DbUtils;
 import com.bank.exceptions.ExceptionType;
+import com.bank.exceptions.ImpossibleOperationExecution;
 import com.bank.exceptions.ObjectModificationException;
 import com.bank.model.BankAccount;
+import com.bank.model.Money;
 
 
 /**
@@ -25,10 +34,18 @@ public class BankAccountDao {
     private static final Logger log = LoggerFactory.getLogger(BankAccountDao.class);
   
     public static final String GET_ALL_ACCOUNTS_SQL = "select * from bank_account";
+    public static final String GET_ACCOUNTS_PAGE_SQL = "select * from bank_account ba where ba.id > ? order by ba.id limit ?";
     public static final String GET_ACCOUNTS_BY_ID_SQL = "select * from bank_account ba where ba.id = ?";
     public static final String GET_BANK_ACCOUNT_BY_ID_SQL = GET_ACCOUNTS_BY_ID_SQL +  " for update";
+    public static final String GET_BANK_ACCOUNTS_FOR_UPDATE_BY_IDS_SQL = "select * from bank_account ba where ba.id in (%s) order by ba.id for update";
+    public static final String GET_BANK_ACCOUNT_IDS_BY_IDS_SQL = "select ba.id from bank_account ba where ba.id in (%s)";
     public static final String UPDATE_BANK_ACCOUNT_SQL = "update bank_account set owner_name=? where id = ? ";
     public static final String UPDATE_BANK_ACCOUNT_SQL1 = "update bank_account set owner_name=?, balance=?, blocked_amount=?  where id = ? ";
+    public static final String CREDIT_BANK_ACCOUNT_SQL = "update bank_account set balance = balance + ? where id = ?";
+    public static final String TOO_BIG_BALANCE_MESSAGE =
+            "The target bank account could not receive this amount of money. Its balance would be too big";
+    // SQL state of the violated check constraint, e.g. the money range of the balance
+    private static final String CHECK_CONSTRAINT_VIOLATED_SQL_STATE = "23513";
     public static final String INSERT_BANK_ACCOUNT_SQL = "insert into bank_account (owner_name, balance,blocked_amount  ) values (?,?,?)";
  
     public static final Long JYOTI = 1L;
@@ -38,6 +55,8 @@ public class BankAccountDao {
     
     private static final BankAccountDao bas = new BankAccountDao();
     private DbUtils dbUtils = DbUtils.getInstance();
+    private final List<AccountChangeListener> accountChangeListeners = new CopyOnWriteArrayList<>();
+    private volatile BalanceJournal balanceJournal;
 
     private BankAccountDao() {
     }
@@ -46,6 +65,54 @@ public class BankAccountDao {
         return bas;
     }
 
+    /**
+     * Registers the listener which will be notified once Bank Accounts are changed by this DAO or by the related
+     * <code>TransactionDto</code>
+     */
+    public void addAccountChangeListener(AccountChangeListener listener) {
+        accountChangeListeners.add(listener);
+    }
+
+    public void removeAccountChangeListener(AccountChangeListener listener) {
+        accountChangeListeners.remove(listener);
+    }
+
+    /**
+     * Sets the journal of balance changes made by this DAO and by the related <code>TransactionDto</code>
+     *
+     * @param balanceJournal the journal or null to stop journaling
+     */
+    public void setBalanceJournal(BalanceJournal balanceJournal) {
+        this.balanceJournal = balanceJournal;
+    }
+
+    /**
+     * @return the journal of balance changes or null if the changes are not journaled
+     */
+    public BalanceJournal getBalanceJournal() {
+        return balanceJournal;
+    }
+
+    /**
+     * Notifies the listeners about changed Bank Accounts. Should be called only after the changes have been
+     * committed
+     *
+     * @param bankAccountIds IDs of the changed Bank Accounts
+     */
+    void fireAccountsChanged(Collection<Long> bankAccountIds) {
+        if (bankAccountIds.isEmpty()) {
+            return;
+        }
+
+        for (AccountChangeListener listener : accountChangeListeners) {
+            try {
+                listener.accountsChanged(bankAccountIds);
+            } catch (RuntimeException e) {
+                log.error("Unexpected exception", e);
+            }
+        }
+    }
+
     /**
      * @return All Bank Accounts which is exists in the database at the moment
      */
@@ -65,6 +132,31 @@ public class BankAccountDao {
         }).getResult();
     }
 
+    /**
+     * Returns one page of Bank Accounts ordered by ID. Used for the keyset pagination
+     *
+     * @param afterId the page contains Bank Accounts with ID greater than this one
+     * @param limit   the maximum amount of Bank Accounts in the page
+     * @return list of Bank Accounts of the page
+     */
+    public List<BankAccount> getBankAccountsPage(long afterId, int limit) {
+        return dbUtils.executeQuery(GET_ACCOUNTS_PAGE_SQL, getBankAccountsPage -> {
+            List<BankAccount> bankAccounts = new ArrayList<>();
+
+            getBankAccountsPage.setLong(1, afterId);
+            getBankAccountsPage.setInt(2, limit);
+            try (ResultSet bankAccountsRS = getBankAccountsPage.executeQuery()) {
+                if (bankAccountsRS != null) {
+                    while (bankAccountsRS.next()) {
+                        bankAccounts.add(extractBankAccountFromResultSet(bankAccountsRS));
+                    }
+                }
+            }
+
+            return bankAccounts;
+        }).getResult();
+    }
+
     /**
      * Returns Bank Account object by id specified
      *
@@ -85,6 +177,27 @@ public class BankAccountDao {
         }).getResult();
     }
 
+    /**
+     * The same as {@link #getBankAccountById(Long)} but in the provided connection. The row is not locked, so the
+     * result could be outdated by the moment it is used. We are using it only inside the related
+     * <code>TransactionDto</code>
+     *
+     * @param con the <code>Connection</code> to be used for this query
+     * @param id  Bank Account object id
+     */
+    BankAccount getBankAccountById(Connection con, Long id) {
+        return dbUtils.executeQueryInConnection(con, GET_ACCOUNTS_BY_ID_SQL, getBankAccount -> {
+            getBankAccount.setLong(1, id);
+            try (ResultSet bankAccountRS = getBankAccount.executeQuery()) {
+                if (bankAccountRS != null && bankAccountRS.first()) {
+                    return extractBankAccountFromResultSet(bankAccountRS);
+                }
+            }
+
+            return null;
+        }).getResult();
+    }
+
     /**
      * Special form of {@link #getBankAccountById(Long)} method which is not closing the connection once result
      * will be obtained. We are using it only inside the related <code>TransactionDto</code>
@@ -107,6 +220,97 @@ public class BankAccountDao {
         }).getResult();
     }
 
+    /**
+     * Locks and returns all Bank Accounts with the IDs provided in one query. The rows are locked in the order of
+     * their IDs. We are using it only inside the related <code>TransactionDto</code>
+     *
+     * @param con the <code>Connection</code> to be used for this query
+     * @param ids Bank Account object ids
+     * @return Bank Account objects mapped by their ids. Not existing Bank Accounts are absent in the map
+     */
+    Map<Long, BankAccount> getForUpdateBankAccountsByIds(Connection con, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        int placeholders = inListSize(ids.size());
+        String query = String.format(GET_BANK_ACCOUNTS_FOR_UPDATE_BY_IDS_SQL,
+                String.join(",", Collections.nCopies(placeholders, "?")));
+
+        return dbUtils.executeQueryInConnection(con, query, getBankAccounts -> {
+            setInListIds(getBankAccounts, ids, placeholders);
+
+            Map<Long, BankAccount> bankAccounts = new LinkedHashMap<>();
+            try (ResultSet bankAccountsRS = getBankAccounts.executeQuery()) {
+                if (bankAccountsRS != null) {
+                    while (bankAccountsRS.next()) {
+                        BankAccount bankAccount = extractBankAccountFromResultSet(bankAccountsRS);
+                        bankAccounts.put(bankAccount.getId(), bankAccount);
+                    }
+                }
+            }
+
+            return bankAccounts;
+        }).getResult();
+    }
+
+    /**
+     * Returns which of the Bank Account IDs provided exist without locking the rows. We are using it only inside the
+     * related <code>TransactionDto</code>
+     *
+     * @param con the <code>Connection</code> to be used for this query
+     * @param ids Bank Account object ids
+     * @return the IDs of existing Bank Accounts
+     */
+    Set<Long> getExistingBankAccountIds(Connection con, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        int placeholders = inListSize(ids.size());
+        String query = String.format(GET_BANK_ACCOUNT_IDS_BY_IDS_SQL,
+                String.join(",", Collections.nCopies(placeholders, "?")));
+
+        return dbUtils.executeQueryInConnection(con, query, getBankAccountIds -> {
+            setInListIds(getBankAccountIds, ids, placeholders);
+
+            Set<Long> existingIds = new HashSet<>();
+            try (ResultSet bankAccountIdsRS = getBankAccountIds.executeQuery()) {
+                while (bankAccountIdsRS.next()) {
+                    existingIds.add(bankAccountIdsRS.getLong(1));
+                }
+            }
+
+            return existingIds;
+        }).getResult();
+    }
+
+    /**
+     * @return the amount of placeholders in the IN list for <code>size</code> IDs. It is rounded up to the power of
+     * two, so the batches of all sizes share a few statement texts in the statement cache of the connection instead
+     * of parsing and caching a new statement for every size
+     */
+    private static int inListSize(int size) {
+        return size <= 1 ? 1 : Integer.highestOneBit(size - 1) << 1;
+    }
+
+    /**
+     * Sets the IDs into the IN list of <code>placeholders</code> size. The placeholders left are filled with the last
+     * ID, which does not change the result of the query
+     */
+    private static void setInListIds(PreparedStatement statement, Collection<Long> ids, int placeholders)
+            throws SQLException {
+        int index = 1;
+        Long lastId = null;
+        for (Long id : ids) {
+            statement.setLong(index++, id);
+            lastId = id;
+        }
+        while (index <= placeholders) {
+            statement.setLong(index++, lastId);
+        }
+    }
+
     /**
      * Updates the Bank Account with changed parameters using the id provided by the object passed. Only ownerName
      * parameter will be updated.
@@ -133,6 +337,8 @@ public class BankAccountDao {
         if (result == 0) {
             throw new ObjectModificationException(ExceptionType.OBJECT_IS_NOT_FOUND);
         }
+
+        fireAccountsChanged(Collections.singletonList(bankAccount.getId()));
     }
 
     /**
@@ -166,6 +372,69 @@ public class BankAccountDao {
         }
     }
 
+    /**
+     * Adds the amount to the balance of the Bank Account by one <code>balance = balance + ?</code> update. The
+     * Bank Account is neither read nor locked before, the row is locked by the update itself till the commit.
+     * We are using it only inside the related <code>TransactionDto</code>
+     *
+     * @param id               Bank Account object id
+     * @param amountMinorUnits the amount to be added, negative one is subtracted
+     * @param con              the <code>Connection</code> to be used for this query
+     * @throws ObjectModificationException if Bank Account with the provided id will not be exists in the database at the
+     *                                     moment or its balance would leave the money range after the update
+     */
+    void creditBankAccount(Long id, long amountMinorUnits, Connection con) throws ObjectModificationException {
+        int result;
+        try {
+            result = dbUtils.executeQueryInConnection(con, CREDIT_BANK_ACCOUNT_SQL, creditBankAccount -> {
+                creditBankAccount.setBigDecimal(1, Money.toBigDecimal(amountMinorUnits));
+                creditBankAccount.setLong(2, id);
+                return creditBankAccount.executeUpdate();
+            }).getResult();
+        } catch (ImpossibleOperationExecution e) {
+            if (e.getCause() instanceof SQLException
+                    && CHECK_CONSTRAINT_VIOLATED_SQL_STATE.equals(((SQLException) e.getCause()).getSQLState())) {
+                throw new ObjectModificationException(ExceptionType.OBJECT_IS_MALFORMED, TOO_BIG_BALANCE_MESSAGE);
+            }
+            throw e;
+        }
+
+        if (result == 0) {
+            throw new ObjectModificationException(ExceptionType.OBJECT_IS_NOT_FOUND,
+                    "The specified bank account doesn't exists");
+        }
+    }
+
+    /**
+     * Batch form of {@link #updateBankAccount(BankAccount, Connection)}. All Bank Accounts are sent to the database
+     * in one JDBC batch. We are using it only inside the related <code>TransactionDto</code>
+     *
+     * @param bankAccounts Bank Account objects which will be updated
+     * @param con          the <code>Connection</code> to be used for this query
+     * @throws ObjectModificationException if any of Bank Accounts will not be exists in the database at the moment
+     */
+    void updateBankAccounts(Collection<BankAccount> bankAccounts, Connection con) throws ObjectModificationException {
+        if (bankAccounts.isEmpty()) {
+            return;
+        }
+
+        int[] results = dbUtils.executeQueryInConnection(con, UPDATE_BANK_ACCOUNT_SQL1, updateBankAccount -> {
+            for (BankAccount bankAccount : bankAccounts) {
+                fillInPreparedStatement(updateBankAccount, bankAccount);
+                updateBankAccount.setLong(4, bankAccount.getId());
+                updateBankAccount.addBatch();
+            }
+
+            return updateBankAccount.executeBatch();
+        }).getResult();
+
+        for (int result : results) {
+            if (result == 0) {
+                throw new ObjectModificationException(ExceptionType.OBJECT_IS_NOT_FOUND);
+            }
+        }
+    }
+
     /**
      * Creates the Bank Account object provided in the database. Id of this objects will not be used. It will be
      * generated and returned in the result of the method.
@@ -187,9 +456,40 @@ public class BankAccountDao {
             throw new ObjectModificationException(ExceptionType.COULD_NOT_OBTAIN_ID);
         }
 
+        BalanceJournal journal = balanceJournal;
+        if (journal != null) {
+            journal.bankAccountCreated(bankAccount);
+        }
+
         return bankAccount;
     }
 
+    /**
+     * Batch form of {@link #createBankAccount(BankAccount)}. All Bank Accounts are inserted by one JDBC batch and
+     * committed at once, so either all of them are created or none of them
+     *
+     * @param bankAccounts Bank Account objects which should be created
+     * @return created Bank Account objects with IDs specified in the order they are provided
+     */
+    public List<BankAccount> createBankAccounts(List<BankAccount> bankAccounts) {
+        if (bankAccounts.isEmpty()) {
+            return bankAccounts;
+        }
+
+        List<BankAccount> createdBankAccounts = dbUtils.executeQuery(INSERT_BANK_ACCOUNT_SQL,
+                new DbUtils.BatchCreationQueryExecutor<>(bankAccounts, BankAccountDao::fillInPreparedStatement))
+                .getResult();
+
+        BalanceJournal journal = balanceJournal;
+        if (journal != null) {
+            for (BankAccount bankAccount : createdBankAccounts) {
+                journal.bankAccountCreated(bankAccount);
+            }
+        }
+
+        return createdBankAccounts;
+    }
+
     /**
      * The opposite method to {@link #fillInPreparedStatement(PreparedStatement, BankAccount)} which is
      * extracts Bank Account parameters from the result set
@@ -203,8 +503,8 @@ public class BankAccountDao {
      	return BankAccount.builder()
     			.id(bankAccountsRS.getLong("id"))
     			.ownerName(bankAccountsRS.getString("owner_name"))
-    			.balance(bankAccountsRS.getBigDecimal("balance"))
-    			.blockedAmount(bankAccountsRS.getBigDecimal("blocked_amount"))
+    			.balanceMinorUnits(Money.toMinorUnits(bankAccountsRS.getBigDecimal("balance")))
+    			.blockedAmountMinorUnits(Money.toMinorUnits(bankAccountsRS.getBigDecimal("blocked_amount")))
     			.build();
     }
 
@@ -219,8 +519,8 @@ public class BankAccountDao {
     private static void fillInPreparedStatement(PreparedStatement preparedStatement, BankAccount bankAccount) {
         try {
             preparedStatement.setString(1, bankAccount.getOwnerName());
-            preparedStatement.setBigDecimal(2, bankAccount.getBalance());
-            preparedStatement.setBigDecimal(3, bankAccount.getBlockedAmount());
+            preparedStatement.setBigDecimal(2, Money.toBigDecimal(bankAccount.getBalanceMinorUnits()));
+            preparedStatement.setBigDecimal(3, Money.toBigDecimal(bankAccount.getBlockedAmountMinorUnits()));
         } catch (SQLException e) {
             log.error("BankAccount prepared statement could not be initialized by values", e);
         }
@@ -1,15 +1,23 @@
 package com.bank.dao;
 
+import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
-import java.math.BigDecimal;
+import java.io.UncheckedIOException;
 import java.sql.Connection;
-import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,8 +26,13 @@ import com.bank.db.DbUtils;
 import com.bank.exceptions.ExceptionType;
 import com.bank.exceptions.ImpossibleOperationExecution;
 import com.bank.exceptions.ObjectModificationException;
+import com.bank.metrics.MetricsRegistry;
+import com.bank.metrics.Timer;
 import com.bank.model.BankAccount;
+import com.bank.model.EpochMicros;
+import com.bank.model.Money;
 import com.bank.model.Transaction;
+import com.bank.model.TransactionBatchResult;
 import com.bank.model.TransactionStatus;
   
 
@@ -30,14 +43,37 @@ import com.bank.model.TransactionStatus;
  
 public class TransactionDao {
     private static final Logger log = LoggerFactory.getLogger(TransactionDao.class);
+
+    public static final String OPERATION_TIMER = "bank_transaction_dao_seconds";
+    private static final Timer CREATE_TRANSACTION_TIMER =
+            MetricsRegistry.getInstance().timer(OPERATION_TIMER, "operation", "createTransaction");
+    private static final Timer CREATE_TRANSACTIONS_BATCH_TIMER =
+            MetricsRegistry.getInstance().timer(OPERATION_TIMER, "operation", "createTransactions");
+    private static final Timer EXECUTE_TRANSACTION_TIMER =
+            MetricsRegistry.getInstance().timer(OPERATION_TIMER, "operation", "executeTransaction");
+    private static final Timer CREATE_AND_EXECUTE_TRANSACTION_TIMER =
+            MetricsRegistry.getInstance().timer(OPERATION_TIMER, "operation", "createAndExecuteTransaction");
     
     public static final String GET_ALL_TRANSACTIONS_SQL = "select * from transaction";
+    public static final String EXPORT_TRANSACTIONS_SQL = "select * from transaction trans order by trans.id";
+    public static final String GET_TRANSACTIONS_PAGE_SQL = "select * from transaction trans where trans.id > ? order by trans.id limit ?";
     public static final String GET_TRANSACTIONS_BY_ID_SQL = "select * from transaction trans where trans.id = ?";
+    public static final String COUNT_TRANSACTIONS_BY_STATUS_SQL = "select count(*) from transaction trans where trans.status_id = ?";
     public static final String GET_TRANSACTIONS_BY_STATUS_SQL = "select id from transaction trans where trans.status_id = ?";
+    public static final String GET_FULL_TRANSACTIONS_BY_STATUS_SQL = "select * from transaction trans where trans.status_id = ? order by trans.id";
     public static final String GET_TRANSACTIONS_FOR_UPDATE_BY_ID_SQL = GET_TRANSACTIONS_BY_ID_SQL + " for update";
-    public static final String INSERT_TRANSACTION_SQL = "insert into transaction (from_account_id,to_account_id,amount,status_id,failMessage,creation_date,update_date) values (?, ?, ?, ?, ?, ?, ?)";
+    public static final String GET_TRANSACTIONS_FOR_UPDATE_BY_STATUS_SQL = "select * from transaction trans where trans.status_id = ? order by trans.id limit ? for update";
+    public static final String GET_CLAIMED_TRANSACTIONS_FOR_UPDATE_SQL = "select * from transaction trans where trans.status_id = ? and trans.owner_id = ? order by trans.id for update";
+    // The lease expiry is computed and compared by the database clock, so the clocks of the nodes could differ
+    public static final String GET_EXPIRED_LEASES_FOR_UPDATE_SQL = "select * from transaction trans where trans.status_id = ? and trans.lease_expiry < current_timestamp() order by trans.id for update";
+    public static final String GET_LEASE_EXPIRY_SQL = "select dateadd('MILLISECOND', ?, current_timestamp())";
+    public static final String UPDATE_TRANSACTION_LEASE_SQL = "update transaction set status_id = ?, owner_id = ?, lease_expiry = ? where id = ? and status_id = ?";
+    public static final String GET_TRANSACTION_BY_IDEMPOTENCY_KEY_SQL = "select * from transaction trans where trans.idempotency_key = ?";
+    public static final String INSERT_TRANSACTION_SQL = "insert into transaction (from_account_id,to_account_id,amount,status_id,failMessage,creation_date,update_date,idempotency_key) values (?, ?, ?, ?, ?, ?, ?, ?)";
     public static final String UPDATE_TRANSACTION_SQL = "update transaction set status_id = ?, failMessage = ? , update_date = ? where  id = ?";
 
+    public static final int EXPORT_FETCH_SIZE = 1000;
+
     private static TransactionDao transactionDao;
     private BankAccountDao bankAccountDao = BankAccountDao.getInstance();
     private DbUtils dbUtils = DbUtils.getInstance();
@@ -81,6 +117,56 @@ public class TransactionDao {
         }).getResult();
     }
 
+    /**
+     * Passes all Transactions ordered by ID to the handler one by one while they are read from the database. Only
+     * one Transaction is kept in memory at a time, so the method could be used to export the whole table
+     *
+     * @param handler the handler of every Transaction read
+     * @throws IOException once the handler failed to process the Transaction
+     */
+    public void exportTransactions(TransactionHandler handler) throws IOException {
+        try {
+            dbUtils.executeStreamingQuery(EXPORT_TRANSACTIONS_SQL, EXPORT_FETCH_SIZE, exportTransactions -> {
+                try (ResultSet transactionsRS = exportTransactions.executeQuery()) {
+                    while (transactionsRS.next()) {
+                        handler.handle(extractTransactionFromResultSet(transactionsRS));
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return null;
+            });
+        } catch (ImpossibleOperationExecution e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * The handler of Transactions read by {@link #exportTransactions(TransactionHandler)}
+     */
+    public interface TransactionHandler {
+        void handle(Transaction transaction) throws IOException;
+    }
+
+    /**
+     * Returns one page of Transactions ordered by ID. Used for the keyset pagination
+     *
+     * @param afterId the page contains transactions with ID greater than this one
+     * @param limit   the maximum amount of transactions in the page
+     *
+     * @return list of Transactions of the page
+     */
+    public List<Transaction> getTransactionsPage(long afterId, int limit) {
+        return dbUtils.executeQuery(GET_TRANSACTIONS_PAGE_SQL, getTransactionsPage -> {
+            getTransactionsPage.setLong(1, afterId);
+            getTransactionsPage.setInt(2, limit);
+            return extractTransactionsFromResultSet(getTransactionsPage);
+        }).getResult();
+    }
+
     /**
      * Returns the list of Transactions which has specified status
      *
@@ -109,6 +195,49 @@ public class TransactionDao {
         }).getResult();
     }
 
+    /**
+     * @param transactionStatus transaction's status to be counted
+     *
+     * @return the amount of Transactions which has the status provided
+     */
+    public long countTransactionsByStatus(TransactionStatus transactionStatus) {
+        return dbUtils.executeQuery(COUNT_TRANSACTIONS_BY_STATUS_SQL, countTransactionsByStatus -> {
+            countTransactionsByStatus.setLong(1, transactionStatus.getId());
+            try (ResultSet countRS = countTransactionsByStatus.executeQuery()) {
+                return countRS.next() ? countRS.getLong(1) : 0L;
+            }
+        }).getResult();
+    }
+
+    /**
+     * The same as {@link #getAllTransactionIdsByStatus(TransactionStatus)} but returns the whole Transaction objects
+     * ordered by ID. Used when the executor needs to know which Bank Accounts are affected by the transaction
+     *
+     * @param transactionStatus transaction's status to be returned
+     *
+     * @return list of Transactions which has the status provided
+     */
+    public Collection<Transaction> getAllTransactionsByStatus(TransactionStatus transactionStatus) {
+        if (transactionStatus == null) {
+            return null;
+        }
+
+        return dbUtils.executeQuery(GET_FULL_TRANSACTIONS_BY_STATUS_SQL, getTransactionsByStatus -> {
+            Collection<Transaction> transactions = new ArrayList<>();
+
+            getTransactionsByStatus.setLong(1, transactionStatus.getId());
+            try (ResultSet transactionsRS = getTransactionsByStatus.executeQuery()) {
+                if (transactionsRS != null) {
+                    while (transactionsRS.next()) {
+                        transactions.add(extractTransactionFromResultSet(transactionsRS));
+                    }
+                }
+            }
+
+            return transactions;
+        }).getResult();
+    }
+
     /**
      * Returns Transaction object by id specified
      *
@@ -129,6 +258,27 @@ public class TransactionDao {
         }).getResult();
     }
 
+    /**
+     * Returns the Transaction created with the idempotency key specified. The key is looked up by the unique index
+     * without locking any row
+     *
+     * @param idempotencyKey the key of the request which has created the transaction
+     *
+     * @return Transaction object with the key specified or null
+     */
+    public Transaction getTransactionByIdempotencyKey(String idempotencyKey) {
+        return dbUtils.executeQuery(GET_TRANSACTION_BY_IDEMPOTENCY_KEY_SQL, getTransaction -> {
+            getTransaction.setString(1, idempotencyKey);
+            try (ResultSet transactionRS = getTransaction.executeQuery()) {
+                if (transactionRS != null && transactionRS.first()) {
+                    return extractTransactionFromResultSet(transactionRS);
+                }
+            }
+
+            return null;
+        }).getResult();
+    }
+
     /**
      * The method is creating the Transaction object provided. The main idea of the implementation is to make all the
      * operations related to transaction creation in one database's transaction. Operations are:
@@ -152,26 +302,103 @@ public class TransactionDao {
      * @throws ObjectModificationException will be thrown if balance of the customer will be not enough for the moment.
      */
     public Transaction createTransaction(Transaction transaction) throws ObjectModificationException {
+        long startNanos = System.nanoTime();
 
         Connection con = DbUtils.getConnection();
 
         try {
             BankAccount fromBankAccount = bankAccountDao.getForUpdateBankAccountById(con, transaction.getFromBankAccountId());
 
-            BigDecimal amountToWithdraw = transaction.getAmount();
+            long amountToWithdraw = transaction.getAmountMinorUnits();
 
             //Check that from bank account has enough money
-            if (fromBankAccount.getBalance().subtract(fromBankAccount.getBlockedAmount())
-                    .compareTo(amountToWithdraw) < 0) {
+            if (fromBankAccount.getBalanceMinorUnits() - fromBankAccount.getBlockedAmountMinorUnits()
+                    < amountToWithdraw) {
                 throw new ObjectModificationException(ExceptionType.OBJECT_IS_MALFORMED,
                         "The specified bank account could not transfer this amount of money. " +
                                 "His balance does not have enough money");
             }
 
-            fromBankAccount.setBlockedAmount(fromBankAccount.getBlockedAmount().add(amountToWithdraw));
+            fromBankAccount.setBlockedAmountMinorUnits(fromBankAccount.getBlockedAmountMinorUnits() + amountToWithdraw);
+
+            bankAccountDao.updateBankAccount(fromBankAccount, con);
+
+            transaction = dbUtils.executeQueryInConnection(con, INSERT_TRANSACTION_SQL,
+                    new DbUtils.CreationQueryExecutor<>(transaction, TransactionDao::fillInPreparedStatement)).getResult();
+
+            if (transaction == null) {
+                throw new ObjectModificationException(ExceptionType.COULD_NOT_OBTAIN_ID);
+            }
+
+            BalanceJournal journal = bankAccountDao.getBalanceJournal();
+            if (journal != null) {
+                journal.transactionCreated(transaction, fromBankAccount);
+            }
+
+            con.commit();
+            bankAccountDao.fireAccountsChanged(Collections.singletonList(fromBankAccount.getId()));
+        } catch (RuntimeException | SQLException e) {
+            DbUtils.safeRollback(con);
+            log.error("Unexpected exception", e);
+            throw new ImpossibleOperationExecution(e);
+        } finally {
+            DbUtils.quietlyClose(con);
+            CREATE_TRANSACTION_TIMER.recordSince(startNanos);
+        }
+
+        return transaction;
+
+    }
+
+    /**
+     * One-shot form of {@link #createTransaction(Transaction)} and {@link #executeTransaction(Long)}. The transfer is
+     * done in one database transaction instead of two:
+     * <ul>
+     *     <li>The source Bank Account is locked</li>
+     *     <li>The amount is subtracted from the balance of source Bank Account without being blocked</li>
+     *     <li>The amount is added to the balance of target Bank Account by the atomic update, the same way as
+     *     {@link #executeTransaction(Long)} does</li>
+     *     <li>The transaction is inserted with SUCCEED status</li>
+     * </ul>
+     * So the transfer takes the locks and the commit once and does not wait for the executor. The journal gets both
+     * the creation and the execution of the transaction, the same as for the two-phase transfer.
+     *
+     * If something goes wrong all changes will be rolled back.
+     *
+     * @param transaction Transaction to be created and executed.
+     *
+     * @return created transaction with ID generated and SUCCEED status
+     *
+     * @throws ObjectModificationException will be thrown if some Bank Account doesn't exist or balance of the
+     * customer will be not enough for the moment. Nothing is created in this case
+     */
+    public Transaction createAndExecuteTransaction(Transaction transaction) throws ObjectModificationException {
+        long startNanos = System.nanoTime();
+
+        Connection con = DbUtils.getConnection();
+
+        try {
+            Long fromBankAccountId = transaction.getFromBankAccountId();
+            Long toBankAccountId = transaction.getToBankAccountId();
+            long amountToTransfer = transaction.getAmountMinorUnits();
+
+            // The rows are locked in the order of their IDs, so the credit of the lower ID is done first. The source
+            // is checked without the lock before, so the transfer which is going to be rejected does not touch the
+            // target
+            boolean creditFirst = toBankAccountId < fromBankAccountId;
+            if (creditFirst) {
+                checkCanBeTransferred(bankAccountDao.getBankAccountById(con, fromBankAccountId), amountToTransfer);
+                bankAccountDao.creditBankAccount(toBankAccountId, amountToTransfer, con);
+            }
+
+            BankAccount fromBankAccount = bankAccountDao.getForUpdateBankAccountById(con, fromBankAccountId);
+            checkCanBeTransferred(fromBankAccount, amountToTransfer);
+
+            fromBankAccount.setBalanceMinorUnits(fromBankAccount.getBalanceMinorUnits() - amountToTransfer);
 
             bankAccountDao.updateBankAccount(fromBankAccount, con);
 
+            transaction.setStatus(TransactionStatus.SUCCEED);
             transaction = dbUtils.executeQueryInConnection(con, INSERT_TRANSACTION_SQL,
                     new DbUtils.CreationQueryExecutor<>(transaction, TransactionDao::fillInPreparedStatement)).getResult();
 
@@ -179,17 +406,166 @@ public class TransactionDao {
                 throw new ObjectModificationException(ExceptionType.COULD_NOT_OBTAIN_ID);
             }
 
+            if (!creditFirst) {
+                bankAccountDao.creditBankAccount(toBankAccountId, amountToTransfer, con);
+            }
+
+            BalanceJournal journal = bankAccountDao.getBalanceJournal();
+            if (journal != null) {
+                // The journal gets the amount blocked and then transferred as the two-phase transfer would do
+                journal.transactionCreated(transaction, BankAccount.builder()
+                        .id(fromBankAccount.getId())
+                        .ownerName(fromBankAccount.getOwnerName())
+                        .balanceMinorUnits(fromBankAccount.getBalanceMinorUnits() + amountToTransfer)
+                        .blockedAmountMinorUnits(fromBankAccount.getBlockedAmountMinorUnits() + amountToTransfer)
+                        .build());
+                journal.transactionExecuted(transaction, fromBankAccount,
+                        bankAccountDao.getForUpdateBankAccountById(con, toBankAccountId));
+            }
+
             con.commit();
+            bankAccountDao.fireAccountsChanged(Arrays.asList(fromBankAccountId, toBankAccountId));
+        } catch (ObjectModificationException e) {
+            // The target could have been credited already
+            DbUtils.safeRollback(con);
+            throw e;
         } catch (RuntimeException | SQLException e) {
             DbUtils.safeRollback(con);
             log.error("Unexpected exception", e);
             throw new ImpossibleOperationExecution(e);
         } finally {
             DbUtils.quietlyClose(con);
+            CREATE_AND_EXECUTE_TRANSACTION_TIMER.recordSince(startNanos);
         }
 
         return transaction;
+    }
 
+    /**
+     * Checks that the source Bank Account exists and has enough money which is not blocked by PLANNED transactions
+     */
+    private static void checkCanBeTransferred(BankAccount fromBankAccount, long amountToTransfer)
+            throws ObjectModificationException {
+        if (fromBankAccount == null) {
+            throw new ObjectModificationException(ExceptionType.OBJECT_IS_NOT_FOUND,
+                    "The specified bank account doesn't exists");
+        }
+
+        if (fromBankAccount.getBalanceMinorUnits() - fromBankAccount.getBlockedAmountMinorUnits()
+                < amountToTransfer) {
+            throw new ObjectModificationException(ExceptionType.OBJECT_IS_MALFORMED,
+                    "The specified bank account could not transfer this amount of money. " +
+                            "His balance does not have enough money");
+        }
+    }
+
+    /**
+     * Batch form of {@link #createTransaction(Transaction)}. All transactions are created in one database
+     * transaction:
+     * <ul>
+     *     <li>every distinct source Bank Account is locked once by one query in the order of their IDs</li>
+     *     <li>the amounts are blocked one by one in the order of the transactions, so the transaction which does not
+     *     have enough money left after the previous ones is rejected without affecting the others</li>
+     *     <li>the source Bank Accounts and the accepted transactions are written by JDBC batches</li>
+     * </ul>
+     * The transactions with not existing Bank Accounts are rejected as well. If something unexpected goes wrong all
+     * changes will be rolled back and none of transactions will be created.
+     *
+     * @param transactions validated transactions to be created
+     *
+     * @return the result of every transaction in the order they are provided
+     */
+    public List<TransactionBatchResult> createTransactions(List<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        long startNanos = System.nanoTime();
+        Connection con = DbUtils.getConnection();
+
+        try {
+            Set<Long> fromBankAccountIds = new LinkedHashSet<>();
+            Set<Long> toBankAccountIds = new LinkedHashSet<>();
+            for (Transaction transaction : transactions) {
+                fromBankAccountIds.add(transaction.getFromBankAccountId());
+                toBankAccountIds.add(transaction.getToBankAccountId());
+            }
+
+            Map<Long, BankAccount> fromBankAccounts = bankAccountDao.getForUpdateBankAccountsByIds(con,
+                    fromBankAccountIds);
+            toBankAccountIds.removeAll(fromBankAccounts.keySet());
+            Set<Long> existingToBankAccountIds = bankAccountDao.getExistingBankAccountIds(con, toBankAccountIds);
+
+            BalanceJournal journal = bankAccountDao.getBalanceJournal();
+            List<TransactionBatchResult> results = new ArrayList<>(transactions.size());
+            List<Transaction> acceptedTransactions = new ArrayList<>(transactions.size());
+            List<BankAccount> journaledBankAccounts = new ArrayList<>();
+            Map<Long, BankAccount> changedBankAccounts = new LinkedHashMap<>();
+
+            for (Transaction transaction : transactions) {
+                BankAccount fromBankAccount = fromBankAccounts.get(transaction.getFromBankAccountId());
+                Long toBankAccountId = transaction.getToBankAccountId();
+                boolean toBankAccountExists = fromBankAccounts.containsKey(toBankAccountId)
+                        || existingToBankAccountIds.contains(toBankAccountId);
+
+                if (fromBankAccount == null || !toBankAccountExists) {
+                    results.add(TransactionBatchResult.rejected(ExceptionType.OBJECT_IS_NOT_FOUND,
+                            "The specified bank account doesn't exists"));
+                    continue;
+                }
+
+                long amountToWithdraw = transaction.getAmountMinorUnits();
+                if (fromBankAccount.getBalanceMinorUnits() - fromBankAccount.getBlockedAmountMinorUnits()
+                        < amountToWithdraw) {
+                    results.add(TransactionBatchResult.rejected(ExceptionType.OBJECT_IS_MALFORMED,
+                            "The specified bank account could not transfer this amount of money. " +
+                                    "His balance does not have enough money"));
+                    continue;
+                }
+
+                fromBankAccount.setBlockedAmountMinorUnits(fromBankAccount.getBlockedAmountMinorUnits() + amountToWithdraw);
+                changedBankAccounts.put(fromBankAccount.getId(), fromBankAccount);
+
+                if (journal != null) {
+                    // The journal gets the Bank Account as it was right after this transaction
+                    journaledBankAccounts.add(BankAccount.builder()
+                            .id(fromBankAccount.getId())
+                            .ownerName(fromBankAccount.getOwnerName())
+                            .balanceMinorUnits(fromBankAccount.getBalanceMinorUnits())
+                            .blockedAmountMinorUnits(fromBankAccount.getBlockedAmountMinorUnits())
+                            .build());
+                }
+
+                acceptedTransactions.add(transaction);
+                results.add(TransactionBatchResult.created(transaction));
+            }
+
+            if (!acceptedTransactions.isEmpty()) {
+                bankAccountDao.updateBankAccounts(changedBankAccounts.values(), con);
+
+                dbUtils.executeQueryInConnection(con, INSERT_TRANSACTION_SQL,
+                        new DbUtils.BatchCreationQueryExecutor<>(acceptedTransactions,
+                                TransactionDao::fillInPreparedStatement));
+
+                if (journal != null) {
+                    for (int i = 0; i < acceptedTransactions.size(); i++) {
+                        journal.transactionCreated(acceptedTransactions.get(i), journaledBankAccounts.get(i));
+                    }
+                }
+            }
+
+            con.commit();
+            bankAccountDao.fireAccountsChanged(changedBankAccounts.keySet());
+
+            return results;
+        } catch (RuntimeException | SQLException | ObjectModificationException e) {
+            DbUtils.safeRollback(con);
+            log.error("Unexpected exception", e);
+            throw new ImpossibleOperationExecution(e);
+        } finally {
+            DbUtils.quietlyClose(con);
+            CREATE_TRANSACTIONS_BATCH_TIMER.recordSince(startNanos);
+        }
     }
 
     /**
@@ -202,72 +578,366 @@ public class TransactionDao {
      *     <li>Set SUCCESS status for the transaction</li>
      *     <li>Update all changed objects in the database</li>
      * </ul>
-     * The same synchronization logic is used as in {@link #createTransaction(Transaction)}
+     * The same synchronization logic is used as in {@link #createTransaction(Transaction)} for the source Bank
+     * Account only. The amount is added to the target Bank Account by the atomic <code>balance = balance + ?</code>
+     * update without reading and locking it before, so the popular target (e.g. the merchant) is locked only from
+     * the credit till the commit. The rows are still locked in the order of their IDs: the target with the higher
+     * ID is credited last, the one with the lower ID is credited first. The source is read without the lock before
+     * such credit, so the transaction which is going to fail does not touch the target, the credit is reverted only
+     * if the source has been changed in between. So the transactions in opposite directions between the same Bank
+     * Accounts wait for each other instead of falling into a deadlock
      * Once transaction execution will be failed it will be marked with FAILED status and failMessage will be added
-     * to the transaction
+     * to the transaction, including the target Bank Account not found by the credit
      *
      * @param id Transaction id to execute
      * @throws ObjectModificationException if provided ID will be null or transaction with that ID will be already
-     * executed somehow
+     * executed somehow or the target Bank Account does not exist
      */
     public void executeTransaction(Long id) throws ObjectModificationException {
+        executeTransaction(id, null);
+    }
+
+    /**
+     * The same as {@link #executeTransaction(Long)} but for the transaction claimed by
+     * {@link #claimTransactions(String, int, long)}. The transaction should be in PROCESSING status and owned by
+     * <code>ownerId</code>. If <code>ownerId</code> is null the transaction should be in PLANNED status
+     *
+     * @param id Transaction id to execute
+     * @param ownerId the owner of the lease or null for not claimed transaction
+     * @throws ObjectModificationException if provided ID will be null or transaction with that ID will be already
+     * executed somehow or claimed by another owner
+     */
+    public void executeTransaction(Long id, String ownerId) throws ObjectModificationException {
         if (id == null) {
             throw new ObjectModificationException(ExceptionType.OBJECT_IS_MALFORMED,
                     "The specified transaction doesn't exists");
         }
 
+        long startNanos = System.nanoTime();
         Connection con = DbUtils.getConnection();
 
         Transaction transaction = null;
+        boolean checked = false;
         try {
             transaction = getForUpdateTransactionById(id, con);
 
-            if (transaction.getStatus() != TransactionStatus.PLANNED) {
+            if (ownerId == null && transaction.getStatus() != TransactionStatus.PLANNED) {
                 throw new ObjectModificationException(ExceptionType.OBJECT_IS_MALFORMED,
                         "Could not execute transaction which is not in PLANNED status");
             }
+            if (ownerId != null && (transaction.getStatus() != TransactionStatus.PROCESSING
+                    || !ownerId.equals(transaction.getOwnerId()))) {
+                throw new ObjectModificationException(ExceptionType.OBJECT_IS_MALFORMED,
+                        "Could not execute transaction which is not claimed by " + ownerId);
+            }
 
-            BankAccount fromBankAccount = bankAccountDao.getForUpdateBankAccountById(con, transaction.getFromBankAccountId());
+            Long fromBankAccountId = transaction.getFromBankAccountId();
+            Long toBankAccountId = transaction.getToBankAccountId();
+            long amountToTransfer = transaction.getAmountMinorUnits();
+
+            checked = true;
 
-            BankAccount toBankAccount = bankAccountDao.getForUpdateBankAccountById(con, transaction.getToBankAccountId());
+            // The rows are locked in the order of their IDs, so the credit of the lower ID is done first. The source
+            // is read without the lock before, so the transfer which is going to fail does not touch the target
+            boolean creditFirst = toBankAccountId < fromBankAccountId
+                    && canBeExecuted(bankAccountDao.getBankAccountById(con, fromBankAccountId), amountToTransfer);
+            if (creditFirst) {
+                bankAccountDao.creditBankAccount(toBankAccountId, amountToTransfer, con);
+            }
 
-            BigDecimal amountToWithdraw =  transaction.getAmount();
-            BigDecimal newBlockedAmount = fromBankAccount.getBlockedAmount().subtract(amountToWithdraw);
-            BigDecimal newBalance = fromBankAccount.getBalance().subtract(amountToWithdraw);
+            BankAccount fromBankAccount = bankAccountDao.getForUpdateBankAccountById(con, fromBankAccountId);
 
-            if (newBlockedAmount.compareTo(BigDecimal.ZERO) < 0 || newBalance.compareTo(BigDecimal.ZERO) < 0) {
+            long newBlockedAmount = fromBankAccount.getBlockedAmountMinorUnits() - amountToTransfer;
+            long newBalance = fromBankAccount.getBalanceMinorUnits() - amountToTransfer;
+
+            if (newBlockedAmount < 0 || newBalance < 0) {
+                // The source has been changed after it has been read
+                if (creditFirst) {
+                    bankAccountDao.creditBankAccount(toBankAccountId, -amountToTransfer, con);
+                }
                 transaction.setStatus(TransactionStatus.FAILED);
-                transaction.setFailMessage(String.format("There is no enough money. Current balance is %f",
-                        fromBankAccount.getBalance().doubleValue()));
+                transaction.setFailMessage(notEnoughMoneyMessage(fromBankAccount));
             } else {
-                fromBankAccount.setBlockedAmount(newBlockedAmount);
-                fromBankAccount.setBalance(newBalance);
+                fromBankAccount.setBlockedAmountMinorUnits(newBlockedAmount);
+                fromBankAccount.setBalanceMinorUnits(newBalance);
 
                 bankAccountDao.updateBankAccount(fromBankAccount, con);
 
-                BigDecimal amountToTransfer = transaction.getAmount();
-
-                toBankAccount.setBalance(toBankAccount.getBalance().add(amountToTransfer));
-
-                bankAccountDao.updateBankAccount(toBankAccount, con);
-
                 transaction.setStatus(TransactionStatus.SUCCEED);
             }
 
             updateTransaction(transaction, con);
 
+            if (!creditFirst && transaction.getStatus() == TransactionStatus.SUCCEED) {
+                bankAccountDao.creditBankAccount(toBankAccountId, amountToTransfer, con);
+            }
+
+            BalanceJournal journal = bankAccountDao.getBalanceJournal();
+            if (journal != null) {
+                journal.transactionExecuted(transaction, fromBankAccount,
+                        bankAccountDao.getForUpdateBankAccountById(con, toBankAccountId));
+            }
+
             con.commit();
+            if (transaction.getStatus() == TransactionStatus.SUCCEED) {
+                bankAccountDao.fireAccountsChanged(Arrays.asList(fromBankAccountId, toBankAccountId));
+            }
+        } catch (ObjectModificationException e) {
+            DbUtils.safeRollback(con);
+            if (checked) {
+                // The target Bank Account has not been found by the credit
+                markFailed(transaction, e);
+            }
+            throw e;
         } catch (RuntimeException | SQLException e) {
             DbUtils.safeRollback(con);
             if (transaction != null) {
+                markFailed(transaction, e);
+            }
+            log.error("Unexpected exception", e);
+            throw new ImpossibleOperationExecution(e);
+        } finally {
+            DbUtils.quietlyClose(con);
+            EXECUTE_TRANSACTION_TIMER.recordSince(startNanos);
+        }
+    }
+
+    /**
+     * @return true if the Bank Account read without the lock exists and has the amount blocked and the balance
+     * enough to transfer it
+     */
+    private static boolean canBeExecuted(BankAccount fromBankAccount, long amountToTransfer) {
+        return fromBankAccount != null
+                && fromBankAccount.getBlockedAmountMinorUnits() >= amountToTransfer
+                && fromBankAccount.getBalanceMinorUnits() >= amountToTransfer;
+    }
+
+    /**
+     * Marks the transaction rolled back by the exception as FAILED in a separate database transaction
+     */
+    private void markFailed(Transaction transaction, Exception e) throws ObjectModificationException {
+        transaction.setStatus(TransactionStatus.FAILED);
+        StringWriter sw = new StringWriter();
+        e.printStackTrace(new PrintWriter(sw));
+        String exceptionAsString = String.format("Transaction has been rolled back as it was unexpected exception: %s",
+                sw.toString());
+        transaction.setFailMessage(exceptionAsString.substring(0, Math.min(exceptionAsString.length(), 4000)));
+        updateTransaction(transaction);
+    }
+
+    /**
+     * Batch form of {@link #executeTransaction(Long)}. Takes up to <code>batchSize</code> PLANNED transactions with
+     * the lowest IDs and all Bank Accounts related to them, applies the transactions one by one in memory with the
+     * same rules as {@link #executeTransaction(Long)} does and writes the result back using JDBC batches:
+     * <ul>
+     *     <li>every changed Bank Account is updated only once with its final (netted) balance</li>
+     *     <li>every transaction gets SUCCEED or FAILED status</li>
+     * </ul>
+     * All rows are locked by <code>SELECT ... FOR UPDATE</code> and everything is committed in one database
+     * transaction. If something goes wrong all changes will be rolled back and none of transactions will be
+     * executed.
+     *
+     * @param batchSize the maximum amount of transactions to execute
+     *
+     * @return the amount of transactions which has been executed
+     */
+    public int executeTransactionsBatch(int batchSize) {
+        Connection con = DbUtils.getConnection();
+
+        try {
+            List<Transaction> transactions = getForUpdateTransactionsByStatus(TransactionStatus.PLANNED, batchSize, con);
+
+            executeLockedTransactions(transactions, con);
+
+            return transactions.size();
+        } catch (RuntimeException | SQLException | ObjectModificationException e) {
+            DbUtils.safeRollback(con);
+            log.error("Unexpected exception", e);
+            throw new ImpossibleOperationExecution(e);
+        } finally {
+            DbUtils.quietlyClose(con);
+        }
+    }
+
+    /**
+     * The same as {@link #executeTransactionsBatch(int)} but executes all transactions claimed by
+     * <code>ownerId</code> using {@link #claimTransactions(String, int, long)}
+     *
+     * @param ownerId the owner of the leases
+     *
+     * @return the amount of transactions which has been executed
+     */
+    public int executeClaimedTransactionsBatch(String ownerId) {
+        Connection con = DbUtils.getConnection();
+
+        try {
+            List<Transaction> transactions = dbUtils.executeQueryInConnection(con,
+                    GET_CLAIMED_TRANSACTIONS_FOR_UPDATE_SQL, getTransactions -> {
+                        getTransactions.setInt(1, TransactionStatus.PROCESSING.getId());
+                        getTransactions.setString(2, ownerId);
+                        return extractTransactionsFromResultSet(getTransactions);
+                    }).getResult();
+
+            executeLockedTransactions(transactions, con);
+
+            return transactions.size();
+        } catch (RuntimeException | SQLException | ObjectModificationException e) {
+            DbUtils.safeRollback(con);
+            log.error("Unexpected exception", e);
+            throw new ImpossibleOperationExecution(e);
+        } finally {
+            DbUtils.quietlyClose(con);
+        }
+    }
+
+    /**
+     * Applies already locked transactions in memory and writes the result back using JDBC batches. The connection
+     * is committed if there was at least one transaction
+     *
+     * @param transactions transactions locked by the <code>con</code> ordered by ID
+     * @param con the <code>Connection</code> to be used for this query
+     */
+    private void executeLockedTransactions(List<Transaction> transactions, Connection con)
+            throws SQLException, ObjectModificationException {
+        if (transactions.isEmpty()) {
+            return;
+        }
+
+        Set<Long> bankAccountIds = new LinkedHashSet<>();
+        for (Transaction transaction : transactions) {
+            bankAccountIds.add(transaction.getFromBankAccountId());
+            bankAccountIds.add(transaction.getToBankAccountId());
+        }
+
+        Map<Long, BankAccount> bankAccounts = bankAccountDao.getForUpdateBankAccountsByIds(con, bankAccountIds);
+        Map<Long, BankAccount> changedBankAccounts = new LinkedHashMap<>();
+        BalanceJournal journal = bankAccountDao.getBalanceJournal();
+
+        for (Transaction transaction : transactions) {
+            BankAccount fromBankAccount = bankAccounts.get(transaction.getFromBankAccountId());
+            BankAccount toBankAccount = bankAccounts.get(transaction.getToBankAccountId());
+
+            if (fromBankAccount == null || toBankAccount == null) {
                 transaction.setStatus(TransactionStatus.FAILED);
-                StringWriter sw = new StringWriter();
-                e.printStackTrace(new PrintWriter(sw));
-                String exceptionAsString = String.format("Transaction has been rolled back as it was unexpected exception: %s",
-                        sw.toString()).substring(0, 4000);
-                transaction.setFailMessage(exceptionAsString);
-                updateTransaction(transaction);
+                transaction.setFailMessage("The specified bank account doesn't exists");
+                continue;
+            }
+
+            long amountToWithdraw = transaction.getAmountMinorUnits();
+            long newBlockedAmount = fromBankAccount.getBlockedAmountMinorUnits() - amountToWithdraw;
+            long newBalance = fromBankAccount.getBalanceMinorUnits() - amountToWithdraw;
+
+            if (newBlockedAmount < 0 || newBalance < 0) {
+                transaction.setStatus(TransactionStatus.FAILED);
+                transaction.setFailMessage(notEnoughMoneyMessage(fromBankAccount));
+            } else if (!Money.canAdd(toBankAccount.getBalanceMinorUnits(), amountToWithdraw)) {
+                transaction.setStatus(TransactionStatus.FAILED);
+                transaction.setFailMessage(BankAccountDao.TOO_BIG_BALANCE_MESSAGE);
+            } else {
+                fromBankAccount.setBlockedAmountMinorUnits(newBlockedAmount);
+                fromBankAccount.setBalanceMinorUnits(newBalance);
+                toBankAccount.setBalanceMinorUnits(toBankAccount.getBalanceMinorUnits() + amountToWithdraw);
+
+                changedBankAccounts.put(fromBankAccount.getId(), fromBankAccount);
+                changedBankAccounts.put(toBankAccount.getId(), toBankAccount);
+
+                transaction.setStatus(TransactionStatus.SUCCEED);
             }
+
+            if (journal != null) {
+                journal.transactionExecuted(transaction, fromBankAccount, toBankAccount);
+            }
+        }
+
+        bankAccountDao.updateBankAccounts(changedBankAccounts.values(), con);
+        updateTransactions(transactions, con);
+
+        con.commit();
+        bankAccountDao.fireAccountsChanged(changedBankAccounts.keySet());
+    }
+
+    /**
+     * Claims up to <code>batchSize</code> PLANNED transactions with the lowest IDs. Claimed transactions are moved
+     * to PROCESSING status with <code>ownerId</code> and lease expiry time set in one database transaction, so the
+     * other nodes will not take them until the lease will be expired and returned back by
+     * {@link #releaseExpiredLeases()}. The expiry is computed by the database clock, as the clocks of the nodes
+     * could differ
+     *
+     * @param ownerId the unique ID of the node claiming the transactions
+     * @param batchSize the maximum amount of transactions to claim
+     * @param leaseMillis the duration of the lease
+     *
+     * @return claimed transactions ordered by ID
+     */
+    public List<Transaction> claimTransactions(String ownerId, int batchSize, long leaseMillis) {
+        Connection con = DbUtils.getConnection();
+
+        try {
+            List<Transaction> transactions = getForUpdateTransactionsByStatus(TransactionStatus.PLANNED, batchSize, con);
+            Timestamp leaseExpiry = getLeaseExpiry(leaseMillis, con);
+
+            List<Transaction> claimedTransactions = new ArrayList<>(transactions.size());
+            if (!transactions.isEmpty()) {
+                int[] results = updateLeases(transactions, TransactionStatus.PLANNED, TransactionStatus.PROCESSING,
+                        ownerId, leaseExpiry, con);
+
+                for (int i = 0; i < results.length; i++) {
+                    // The row could be claimed by another node while we were waiting for the lock
+                    if (results[i] != 0) {
+                        Transaction transaction = transactions.get(i);
+                        transaction.setStatus(TransactionStatus.PROCESSING);
+                        transaction.setOwnerId(ownerId);
+                        transaction.setLeaseExpiry(leaseExpiry);
+                        claimedTransactions.add(transaction);
+                    }
+                }
+            }
+
+            con.commit();
+
+            return claimedTransactions;
+        } catch (RuntimeException | SQLException e) {
+            DbUtils.safeRollback(con);
+            log.error("Unexpected exception", e);
+            throw new ImpossibleOperationExecution(e);
+        } finally {
+            DbUtils.quietlyClose(con);
+        }
+    }
+
+    /**
+     * Returns all PROCESSING transactions with expired lease back to PLANNED status, so they could be claimed
+     * again by any node. Used to recover transactions claimed by the node which has been stopped or broken
+     *
+     * @return the amount of transactions which has been returned
+     */
+    public int releaseExpiredLeases() {
+        Connection con = DbUtils.getConnection();
+
+        try {
+            List<Transaction> transactions = dbUtils.executeQueryInConnection(con,
+                    GET_EXPIRED_LEASES_FOR_UPDATE_SQL, getTransactions -> {
+                        getTransactions.setInt(1, TransactionStatus.PROCESSING.getId());
+                        return extractTransactionsFromResultSet(getTransactions);
+                    }).getResult();
+
+            int released = 0;
+            if (!transactions.isEmpty()) {
+                for (int result : updateLeases(transactions, TransactionStatus.PROCESSING, TransactionStatus.PLANNED,
+                        null, null, con)) {
+                    released += result;
+                }
+            }
+
+            con.commit();
+
+            if (released > 0) {
+                log.warn("{} expired transaction leases have been released", released);
+            }
+
+            return released;
+        } catch (RuntimeException | SQLException e) {
+            DbUtils.safeRollback(con);
             log.error("Unexpected exception", e);
             throw new ImpossibleOperationExecution(e);
         } finally {
@@ -275,6 +945,82 @@ public class TransactionDao {
         }
     }
 
+    /**
+     * @return the time by the database clock when the lease taken now for <code>leaseMillis</code> will be expired
+     */
+    private Timestamp getLeaseExpiry(long leaseMillis, Connection con) {
+        return dbUtils.executeQueryInConnection(con, GET_LEASE_EXPIRY_SQL, getLeaseExpiry -> {
+            getLeaseExpiry.setLong(1, leaseMillis);
+            try (ResultSet rs = getLeaseExpiry.executeQuery()) {
+                rs.next();
+                return rs.getTimestamp(1);
+            }
+        }).getResult();
+    }
+
+    /**
+     * Moves provided transactions from one status to another updating the lease fields. Only the transactions which
+     * are still in <code>fromStatus</code> are updated
+     *
+     * @return the amount of updated rows for every transaction
+     */
+    private int[] updateLeases(List<Transaction> transactions, TransactionStatus fromStatus,
+                               TransactionStatus toStatus, String ownerId, Timestamp leaseExpiry, Connection con) {
+        return dbUtils.executeQueryInConnection(con, UPDATE_TRANSACTION_LEASE_SQL, updateLease -> {
+            for (Transaction transaction : transactions) {
+                updateLease.setInt(1, toStatus.getId());
+                updateLease.setString(2, ownerId);
+                updateLease.setTimestamp(3, leaseExpiry);
+                updateLease.setLong(4, transaction.getId());
+                updateLease.setInt(5, fromStatus.getId());
+                updateLease.addBatch();
+            }
+
+            return updateLease.executeBatch();
+        }).getResult();
+    }
+
+    /**
+     * Returns and locks up to <code>limit</code> Transactions with the status specified ordered by ID. Method which
+     * is not closing the connection once result will be obtained.
+     *
+     * @param transactionStatus transaction's status to be returned
+     * @param limit the maximum amount of transactions to return
+     * @param con the <code>Connection</code> to be used for this query
+     *
+     * @return list of Transactions which has the status provided
+     */
+    private List<Transaction> getForUpdateTransactionsByStatus(TransactionStatus transactionStatus, int limit,
+                                                               Connection con) {
+        return dbUtils.executeQueryInConnection(con, GET_TRANSACTIONS_FOR_UPDATE_BY_STATUS_SQL, getTransactions -> {
+            getTransactions.setInt(1, transactionStatus.getId());
+            getTransactions.setInt(2, limit);
+            return extractTransactionsFromResultSet(getTransactions);
+        }).getResult();
+    }
+
+    /**
+     * Executes the query of prepared statement provided and extracts all Transactions from it
+     *
+     * @param preparedStatement prepared statement with all parameters set
+     *
+     * @return list of extracted Transactions
+     */
+    private List<Transaction> extractTransactionsFromResultSet(PreparedStatement preparedStatement)
+            throws SQLException {
+        List<Transaction> transactions = new ArrayList<>();
+
+        try (ResultSet transactionsRS = preparedStatement.executeQuery()) {
+            if (transactionsRS != null) {
+                while (transactionsRS.next()) {
+                    transactions.add(extractTransactionFromResultSet(transactionsRS));
+                }
+            }
+        }
+
+        return transactions;
+    }
+
     /**
      * Returns the Transaction by the ID specified. Method which is not closing the connection once
      * result will be obtained.
@@ -297,6 +1043,11 @@ public class TransactionDao {
         }).getResult();
     }
 
+    private static String notEnoughMoneyMessage(BankAccount fromBankAccount) {
+        return String.format("There is no enough money. Current balance is %f",
+                fromBankAccount.getBalance().doubleValue());
+    }
+
     /**
      * Updates the Transaction with changed parameters <code>status, failMessage and updateDate</code>. The method
      * is private as it should not be used by anyone except this class
@@ -323,7 +1074,7 @@ public class TransactionDao {
         DbUtils.QueryExecutor<Integer> queryExecutor = updateTransaction -> {
             updateTransaction.setInt(1, transaction.getStatus().getId());
             updateTransaction.setString(2, transaction.getFailMessage());
-            updateTransaction.setDate(3, new Date(new java.util.Date().getTime()));
+            updateTransaction.setTimestamp(3, EpochMicros.toTimestamp(EpochMicros.now()));
             updateTransaction.setLong(4, transaction.getId());
 
             return updateTransaction.executeUpdate();
@@ -341,6 +1092,36 @@ public class TransactionDao {
         }
     }
 
+    /**
+     * Batch form of {@link #updateTransaction(Transaction, Connection)}. All Transactions are sent to the database
+     * in one JDBC batch
+     *
+     * @param transactions Transaction objects to be updated
+     * @param con the <code>Connection</code> to be used for this query
+     */
+    private void updateTransactions(Collection<Transaction> transactions, Connection con)
+            throws ObjectModificationException {
+        Timestamp updateDate = EpochMicros.toTimestamp(EpochMicros.now());
+
+        int[] results = dbUtils.executeQueryInConnection(con, UPDATE_TRANSACTION_SQL, updateTransaction -> {
+            for (Transaction transaction : transactions) {
+                updateTransaction.setInt(1, transaction.getStatus().getId());
+                updateTransaction.setString(2, transaction.getFailMessage());
+                updateTransaction.setTimestamp(3, updateDate);
+                updateTransaction.setLong(4, transaction.getId());
+                updateTransaction.addBatch();
+            }
+
+            return updateTransaction.executeBatch();
+        }).getResult();
+
+        for (int result : results) {
+            if (result == 0) {
+                throw new ObjectModificationException(ExceptionType.OBJECT_IS_NOT_FOUND);
+            }
+        }
+    }
+
     /**
      * Fills the provided prepared statement with the Transaction's parameters provided
      *
@@ -351,11 +1132,12 @@ public class TransactionDao {
         try {
             preparedStatement.setLong(1, transaction.getFromBankAccountId());
             preparedStatement.setLong(2, transaction.getToBankAccountId());
-            preparedStatement.setBigDecimal(3, transaction.getAmount());
+            preparedStatement.setBigDecimal(3, Money.toBigDecimal(transaction.getAmountMinorUnits()));
              preparedStatement.setInt(4, transaction.getStatus().getId());
             preparedStatement.setString(5, transaction.getFailMessage());
-            preparedStatement.setDate(6, new java.sql.Date(transaction.getCreationDate().getTime()));
-            preparedStatement.setDate(7, new java.sql.Date(transaction.getUpdateDate().getTime()));
+            preparedStatement.setTimestamp(6, EpochMicros.toTimestamp(transaction.getCreationMicros()));
+            preparedStatement.setTimestamp(7, EpochMicros.toTimestamp(transaction.getUpdateMicros()));
+            preparedStatement.setString(8, transaction.getIdempotencyKey());
         } catch (SQLException e) {
             log.error("Transactions prepared statement could not be initialized by values", e);
         }
@@ -378,11 +1160,14 @@ public class TransactionDao {
     			.id(transactionsRS.getLong("id"))
     			.fromBankAccountId(transactionsRS.getLong("from_account_id"))
     			.toBankAccountId(transactionsRS.getLong("to_account_id"))
-    			.amount(transactionsRS.getBigDecimal("amount"))
+    			.amountMinorUnits(Money.toMinorUnits(transactionsRS.getBigDecimal("amount")))
     			.status(TransactionStatus.valueOf(transactionsRS.getInt("status_id")))
-    			.failMessage(transactionsRS.getString("status_id"))
-    			.creationDate(transactionsRS.getDate("creation_date"))
-    			.updateDate(transactionsRS.getDate("update_date"))
+    			.failMessage(transactionsRS.getString("failMessage"))
+    			.creationMicros(EpochMicros.fromTimestamp(transactionsRS.getTimestamp("creation_date")))
+    			.updateMicros(EpochMicros.fromTimestamp(transactionsRS.getTimestamp("update_date")))
+    			.ownerId(transactionsRS.getString("owner_id"))
+    			.leaseExpiry(transactionsRS.getTimestamp("lease_expiry"))
+    			.idempotencyKey(transactionsRS.getString("idempotency_key"))
     			.build();
     }
 }
@@ -0,0 +1,19 @@
+package com.bank.db;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * The snapshot of the database connection pool state of {@link DbUtils}. Once there are threads awaiting the
+ * connection all connections of the pool are in use and the requests wait for the database
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class ConnectionPoolStatistics {
+    private final int activeConnections;
+    private final int idleConnections;
+    private final int totalConnections;
+    private final int threadsAwaitingConnection;
+}
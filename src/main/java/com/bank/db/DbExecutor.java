@@ -0,0 +1,118 @@
+package com.bank.db;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.bank.config.BankConfig;
+import com.bank.config.Threads;
+import com.bank.metrics.Counter;
+import com.bank.metrics.MetricsRegistry;
+import com.bank.metrics.Timer;
+
+/**
+ * The bounded executor of the database work of HTTP requests. The requests are suspended while their database work
+ * waits for the connection and row locks on the threads of this executor, so the HTTP threads are never blocked by
+ * the database. The amount of threads and the size of the queue are defined by {@link DbSettings}; once the queue is
+ * full the new tasks are rejected instead of piling up. The threads are virtual in VIRTUAL
+ * {@link com.bank.config.ThreadMode}, the amount of them still bounds the concurrent database work.
+ *
+ * The executor is instrumented by the metrics:
+ * <ul>
+ *     <li><code>bank_db_executor_queue_wait_seconds</code> - the time the task waits for the free thread</li>
+ *     <li><code>bank_db_executor_task_seconds</code> - the time the task runs</li>
+ *     <li><code>bank_db_executor_rejected_total</code> - the amount of tasks rejected because of the full queue</li>
+ *     <li><code>bank_db_executor_active_threads</code> and <code>bank_db_executor_queued_tasks</code> gauges</li>
+ * </ul>
+ */
+public class DbExecutor {
+    private static final Logger log = LoggerFactory.getLogger(DbExecutor.class);
+
+    private static volatile DbExecutor instance;
+
+    private final ThreadPoolExecutor executor;
+    private final Timer queueWaitTimer;
+    private final Timer taskTimer;
+    private final Counter rejectedCounter;
+
+    /**
+     * @param threads   the amount of threads
+     * @param queueSize the maximum amount of tasks waiting for the thread
+     * @param metrics   the registry the executor metrics are registered in
+     */
+    public DbExecutor(int threads, int queueSize, MetricsRegistry metrics) {
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), Threads.factory("bank-db-", true),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        queueWaitTimer = metrics.timer("bank_db_executor_queue_wait_seconds");
+        taskTimer = metrics.timer("bank_db_executor_task_seconds");
+        rejectedCounter = metrics.counter("bank_db_executor_rejected_total");
+        metrics.gauge("bank_db_executor_active_threads", executor::getActiveCount);
+        metrics.gauge("bank_db_executor_queued_tasks", () -> executor.getQueue().size());
+    }
+
+    /**
+     * @return the executor of the application. It is started on the first call with {@link DbSettings} of
+     * {@link BankConfig}
+     */
+    public static DbExecutor getInstance() {
+        DbExecutor dbExecutor = instance;
+        if (dbExecutor == null) {
+            synchronized (DbExecutor.class) {
+                dbExecutor = instance;
+                if (dbExecutor == null) {
+                    DbSettings settings = DbSettings.fromConfig(BankConfig.getInstance());
+                    dbExecutor = new DbExecutor(settings.getExecutorThreads(), settings.getExecutorQueueSize(),
+                            MetricsRegistry.getInstance());
+                    log.info("Database executor started with {} threads and the queue of {} tasks",
+                            settings.getExecutorThreads(), settings.getExecutorQueueSize());
+                    instance = dbExecutor;
+                }
+            }
+        }
+        return dbExecutor;
+    }
+
+    /**
+     * @param task the database work
+     * @throws RejectedExecutionException once the queue is full or the executor is shut down
+     */
+    public void execute(Runnable task) {
+        long submittedNanos = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                long startNanos = System.nanoTime();
+                queueWaitTimer.record(startNanos - submittedNanos);
+                try {
+                    task.run();
+                } finally {
+                    taskTimer.recordSince(startNanos);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw e;
+        }
+    }
+
+    /**
+     * Stops accepting new tasks. The tasks submitted before are completed
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Waits until all tasks are completed after {@link #shutdown()}
+     *
+     * @return true if the tasks have been completed in time
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return executor.awaitTermination(timeout, unit);
+    }
+}
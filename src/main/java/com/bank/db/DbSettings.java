@@ -0,0 +1,71 @@
+package com.bank.db;
+
+import com.bank.config.BankConfig;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Settings of the database access done by {@link DbUtils}. By default all values are taken from {@link BankConfig}:
+ * <ul>
+ *     <li><code>bank.db.url</code>, <code>bank.db.username</code>, <code>bank.db.password</code> - the database,
+ *     the in-memory H2 database kept open until the JVM exits by default. The schema and the initial data are
+ *     applied once by {@link SchemaMigrator}, so the URL should not run them on every new connection</li>
+ *     <li><code>bank.db.maximumPoolSize</code> - the maximum amount of connections of the pool</li>
+ *     <li><code>bank.db.minimumIdle</code> - the amount of idle connections kept by the pool, the same as the
+ *     maximum pool size by default (the fixed size pool)</li>
+ *     <li><code>bank.db.connectionTimeoutMillis</code> - how long the request waits for the free connection before
+ *     it fails</li>
+ *     <li><code>bank.db.statementCacheSize</code> - the amount of prepared statements cached per connection, 0
+ *     disables the cache</li>
+ *     <li><code>bank.db.executorThreads</code> - the amount of threads of {@link DbExecutor}, the same as the
+ *     maximum pool size by default as more threads would just wait for the connection</li>
+ *     <li><code>bank.db.executorQueueSize</code> - the maximum amount of tasks waiting for {@link DbExecutor}
+ *     thread. Once the queue is full the new tasks are rejected</li>
+ * </ul>
+ */
+@Getter
+@Builder
+@ToString(exclude = "password")
+public class DbSettings {
+    @Builder.Default
+    private String url = "jdbc:h2:mem:test;DB_CLOSE_DELAY=-1;TRACE_LEVEL_FILE=4";
+    @Builder.Default
+    private String username = "sa";
+    @Builder.Default
+    private String password = "sa";
+    @Builder.Default
+    private int maximumPoolSize = 10;
+    @Builder.Default
+    private int minimumIdle = -1;
+    @Builder.Default
+    private long connectionTimeoutMillis = 30_000;
+    @Builder.Default
+    private int statementCacheSize = 64;
+    @Builder.Default
+    private int executorThreads = 10;
+    @Builder.Default
+    private int executorQueueSize = 1000;
+
+    /**
+     * @return settings defined by the config
+     */
+    public static DbSettings fromConfig(BankConfig config) {
+        DbSettings defaults = builder().build();
+
+        int maximumPoolSize = config.getInt("bank.db.maximumPoolSize", defaults.getMaximumPoolSize());
+        return builder()
+                .url(config.getString("bank.db.url", defaults.getUrl()))
+                .username(config.getString("bank.db.username", defaults.getUsername()))
+                .password(config.getString("bank.db.password", defaults.getPassword()))
+                .maximumPoolSize(maximumPoolSize)
+                .minimumIdle(config.getInt("bank.db.minimumIdle", maximumPoolSize))
+                .connectionTimeoutMillis(config.getLong("bank.db.connectionTimeoutMillis",
+                        defaults.getConnectionTimeoutMillis()))
+                .statementCacheSize(config.getInt("bank.db.statementCacheSize", defaults.getStatementCacheSize()))
+                .executorThreads(config.getInt("bank.db.executorThreads", maximumPoolSize))
+                .executorQueueSize(config.getInt("bank.db.executorQueueSize", defaults.getExecutorQueueSize()))
+                .build();
+    }
+}
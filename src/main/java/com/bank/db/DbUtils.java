@@ -1,39 +1,78 @@
 package com.bank.db;
 
+import com.bank.config.BankConfig;
 import com.bank.exceptions.ImpossibleOperationExecution;
+import com.bank.metrics.MetricsRegistry;
 import com.bank.model.AuditId;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.*;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.BiConsumer;
 
 /**
  * Utilities class contains a number of methods to manipulate with the data base
  *
+ * The database and the connection pool are defined by {@link DbSettings}.
+ *
+ * Prepared statements are cached per physical connection (<code>bank.db.statementCacheSize</code> statements per
+ * connection, 0 disables the cache), so the same query is parsed only once per connection. Generated keys are
+ * requested only for the statements executed by {@link CreationQueryExecutor}.
+ *
+ * The state of the connection pool is exposed by <code>bank_db_connections</code> gauge labeled with
+ * <code>state</code> (<code>active</code>, <code>idle</code>, <code>total</code>) and
+ * <code>bank_db_threads_awaiting_connection</code> gauge.
+ *
  * @author Jyoti Gahan
  */
 public class DbUtils {
     private static final Logger log = LoggerFactory.getLogger(DbUtils.class);
     private static final HikariDataSource ds;
+    private static final DbSettings SETTINGS = DbSettings.fromConfig(BankConfig.getInstance());
+    private static final int STATEMENT_CACHE_SIZE = SETTINGS.getStatementCacheSize();
     private static final DbUtils dbUtils = new DbUtils();
     
     static {
+        log.info("Database settings: {}", SETTINGS);
         ds = new HikariDataSource();
-        ds.setJdbcUrl("jdbc:h2:mem:test;" +
-                "INIT=RUNSCRIPT FROM 'classpath:db_schema/schema.sql'\\;RUNSCRIPT FROM 'classpath:db_schema/init_data.sql';" +
-                "TRACE_LEVEL_FILE=4");
-        ds.setUsername("sa");
-        ds.setPassword("sa");
+        ds.setPoolName("bank-db");
+        ds.setJdbcUrl(SETTINGS.getUrl());
+        ds.setUsername(SETTINGS.getUsername());
+        ds.setPassword(SETTINGS.getPassword());
+        ds.setMaximumPoolSize(SETTINGS.getMaximumPoolSize());
+        ds.setMinimumIdle(SETTINGS.getMinimumIdle());
+        ds.setConnectionTimeout(SETTINGS.getConnectionTimeoutMillis());
         ds.setAutoCommit(false);
+        new SchemaMigrator(ds).migrate();
         log.info("The database has been initialized");
+
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        metrics.gauge("bank_db_connections", () -> dbUtils.getConnectionPoolStatistics().getActiveConnections(),
+                "state", "active");
+        metrics.gauge("bank_db_connections", () -> dbUtils.getConnectionPoolStatistics().getIdleConnections(),
+                "state", "idle");
+        metrics.gauge("bank_db_connections", () -> dbUtils.getConnectionPoolStatistics().getTotalConnections(),
+                "state", "total");
+        metrics.gauge("bank_db_threads_awaiting_connection",
+                () -> dbUtils.getConnectionPoolStatistics().getThreadsAwaitingConnection());
     }
     
     
     
 
+    private final Map<Connection, StatementCache> statementCaches = new ConcurrentHashMap<>();
+    private final LongAdder statementCacheHits = new LongAdder();
+    private final LongAdder statementCacheMisses = new LongAdder();
+    private final LongAdder statementCacheEvictions = new LongAdder();
+
     private DbUtils() {
     }
 
@@ -77,21 +116,24 @@ public class DbUtils {
         Connection con = null;
         PreparedStatement preparedStatement = null;
 
+        boolean succeed = false;
+
         try {
             con = getConnection();
-            preparedStatement = con.prepareStatement(query, Statement.RETURN_GENERATED_KEYS);
+            preparedStatement = prepareStatement(con, query, queryExecutor);
 
             QueryResult<E> qr = new QueryResult<>(queryExecutor.execute(preparedStatement));
 
             con.commit();
 
+            succeed = true;
             return qr;
         } catch (Throwable th) {
             safeRollback(con);
             log.error("Unexpected exception", th);
             throw new ImpossibleOperationExecution(th);
         } finally {
-            quietlyClose(preparedStatement);
+            releaseStatement(con, query, queryExecutor, preparedStatement, succeed);
 
             quietlyClose(con);
         }
@@ -109,19 +151,200 @@ public class DbUtils {
      */
     public <E> QueryResult<E> executeQueryInConnection(Connection con, String query, QueryExecutor<E> queryExecutor) {
         PreparedStatement preparedStatement = null;
+        boolean succeed = false;
 
         try {
-            preparedStatement = con.prepareStatement(query, Statement.RETURN_GENERATED_KEYS);
+            preparedStatement = prepareStatement(con, query, queryExecutor);
 
-            return new QueryResult<>(queryExecutor.execute(preparedStatement));
+            QueryResult<E> qr = new QueryResult<>(queryExecutor.execute(preparedStatement));
+
+            succeed = true;
+            return qr;
         } catch (Throwable th) {
             log.error("Unexpected exception", th);
             throw new ImpossibleOperationExecution(th);
+        } finally {
+            releaseStatement(con, query, queryExecutor, preparedStatement, succeed);
+        }
+    }
+
+    /**
+     * The same logic as for the <code>executeQuery</code> method but for the queries which return huge amount of rows.
+     * The statement is forward-only and read-only, H2 lazy query execution is switched on for the connection, so
+     * the rows are fetched from the database by chunks of <code>fetchSize</code> while the result set is read
+     * instead of being loaded into memory at once. The statement is never cached.
+     *
+     * @param query         the query string which will be passed into <code>Connection.preparedStatement</code> method
+     * @param fetchSize     the amount of rows fetched at once
+     * @param queryExecutor the executor with only one method accepting <code>PreparedStatement</code> instance created
+     * @return query result object with the only method <code>getResult</code> returns the result of queryExecutor
+     */
+    public <E> QueryResult<E> executeStreamingQuery(String query, int fetchSize, QueryExecutor<E> queryExecutor) {
+        Connection con = null;
+        PreparedStatement preparedStatement = null;
+
+        try {
+            con = getConnection();
+            setLazyQueryExecution(con, true);
+
+            preparedStatement = con.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            preparedStatement.setFetchSize(fetchSize);
+
+            QueryResult<E> qr = new QueryResult<>(queryExecutor.execute(preparedStatement));
+
+            con.commit();
+
+            return qr;
+        } catch (Throwable th) {
+            safeRollback(con);
+            log.error("Unexpected exception", th);
+            throw new ImpossibleOperationExecution(th);
         } finally {
             quietlyClose(preparedStatement);
+
+            if (con != null) {
+                try {
+                    setLazyQueryExecution(con, false);
+                } catch (SQLException e) {
+                    log.error("Unexpected exception", e);
+                }
+            }
+
+            quietlyClose(con);
         }
     }
 
+    private static void setLazyQueryExecution(Connection con, boolean lazy) throws SQLException {
+        try (Statement statement = con.createStatement()) {
+            statement.execute("SET LAZY_QUERY_EXECUTION " + (lazy ? 1 : 0));
+        }
+    }
+
+    /**
+     * @return the snapshot of the connection pool state. All values are 0 until the pool is started by the first
+     * connection request
+     */
+    public ConnectionPoolStatistics getConnectionPoolStatistics() {
+        HikariPoolMXBean pool = ds.getHikariPoolMXBean();
+        if (pool == null) {
+            return new ConnectionPoolStatistics(0, 0, 0, 0);
+        }
+        return new ConnectionPoolStatistics(pool.getActiveConnections(), pool.getIdleConnections(),
+                pool.getTotalConnections(), pool.getThreadsAwaitingConnection());
+    }
+
+    /**
+     * @return the snapshot of the prepared statements cache counters
+     */
+    public StatementCacheStatistics getStatementCacheStatistics() {
+        int cachedStatements = 0;
+        for (StatementCache statementCache : statementCaches.values()) {
+            cachedStatements += statementCache.size();
+        }
+
+        return new StatementCacheStatistics(statementCacheHits.sum(), statementCacheMisses.sum(),
+                statementCacheEvictions.sum(), cachedStatements);
+    }
+
+    /**
+     * Returns the prepared statement for the query from the cache of the physical connection or prepares the new
+     * one. Generated keys are requested only for {@link CreationQueryExecutor} and {@link BatchCreationQueryExecutor}
+     */
+    private PreparedStatement prepareStatement(Connection con, String query, QueryExecutor<?> queryExecutor)
+            throws SQLException {
+        boolean returnGeneratedKeys = isCreation(queryExecutor);
+
+        if (STATEMENT_CACHE_SIZE <= 0) {
+            return returnGeneratedKeys
+                    ? con.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)
+                    : con.prepareStatement(query);
+        }
+
+        // Statements are prepared on the physical connection as the pool closes all statements of the pooled
+        // connection once it is returned back to the pool
+        Connection physicalConnection = con.unwrap(Connection.class);
+        StatementCache statementCache = statementCaches.get(physicalConnection);
+        if (statementCache == null) {
+            removeClosedConnectionCaches();
+            statementCache = new StatementCache(STATEMENT_CACHE_SIZE, statementCacheEvictions);
+            statementCaches.put(physicalConnection, statementCache);
+        }
+
+        String key = statementKey(query, queryExecutor);
+        PreparedStatement preparedStatement = statementCache.get(key);
+        if (preparedStatement != null) {
+            statementCacheHits.increment();
+            return preparedStatement;
+        }
+
+        statementCacheMisses.increment();
+        preparedStatement = returnGeneratedKeys
+                ? physicalConnection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)
+                : physicalConnection.prepareStatement(query);
+        statementCache.put(key, preparedStatement);
+
+        return preparedStatement;
+    }
+
+    /**
+     * Makes the prepared statement ready for the next usage. Cached statement is evicted from the cache once the
+     * query has been failed as its state is unknown
+     */
+    private void releaseStatement(Connection con, String query, QueryExecutor<?> queryExecutor,
+                                  PreparedStatement preparedStatement, boolean succeed) {
+        if (preparedStatement == null) {
+            return;
+        }
+
+        if (STATEMENT_CACHE_SIZE <= 0) {
+            quietlyClose(preparedStatement);
+            return;
+        }
+
+        StatementCache statementCache = null;
+        try {
+            statementCache = statementCaches.get(con.unwrap(Connection.class));
+            if (succeed && statementCache != null) {
+                preparedStatement.clearParameters();
+                preparedStatement.clearBatch();
+                return;
+            }
+        } catch (SQLException e) {
+            log.error("Unexpected exception", e);
+        }
+
+        if (statementCache != null) {
+            statementCache.evict(statementKey(query, queryExecutor));
+        } else {
+            quietlyClose(preparedStatement);
+        }
+    }
+
+    /**
+     * Physical connections are closed by the pool once they are retired and replaced by the new ones, so the caches
+     * of closed connections are removed once the cache for the new connection is created
+     */
+    private void removeClosedConnectionCaches() {
+        Iterator<Connection> connections = statementCaches.keySet().iterator();
+        while (connections.hasNext()) {
+            try {
+                if (connections.next().isClosed()) {
+                    connections.remove();
+                }
+            } catch (SQLException e) {
+                connections.remove();
+            }
+        }
+    }
+
+    private static String statementKey(String query, QueryExecutor<?> queryExecutor) {
+        return isCreation(queryExecutor) ? "keys:" + query : query;
+    }
+
+    private static boolean isCreation(QueryExecutor<?> queryExecutor) {
+        return queryExecutor instanceof CreationQueryExecutor || queryExecutor instanceof BatchCreationQueryExecutor;
+    }
+
     private static void quietlyClose(PreparedStatement preparedStatement) {
         if (preparedStatement != null) {
             try {
@@ -226,4 +449,45 @@ public class DbUtils {
 
         }
     }
+
+    /**
+     * Batch form of {@link CreationQueryExecutor}. All objects are inserted by one JDBC batch and get the IDs
+     * generated by the database in the order they are provided
+     * <p>
+     * The result will be the list of the objects provided with their IDs set
+     *
+     * @param <T> - the objects which should be inserted. Used to fill in prepared statement
+     */
+    public static class BatchCreationQueryExecutor<T extends AuditId> implements QueryExecutor<List<T>> {
+        private List<T> objects;
+        private BiConsumer<PreparedStatement, T> fillInPreparedStatement;
+
+        public BatchCreationQueryExecutor(List<T> objects, BiConsumer<PreparedStatement, T> fillInPreparedStatement) {
+            this.objects = objects;
+            this.fillInPreparedStatement = fillInPreparedStatement;
+        }
+
+        @Override
+        public List<T> execute(PreparedStatement preparedStatement) throws SQLException {
+            for (T object : objects) {
+                fillInPreparedStatement.accept(preparedStatement, object);
+                preparedStatement.addBatch();
+            }
+
+            preparedStatement.executeBatch();
+
+            int index = 0;
+            try (ResultSet generatedKeys = preparedStatement.getGeneratedKeys()) {
+                while (index < objects.size() && generatedKeys.next()) {
+                    objects.get(index++).setId(generatedKeys.getLong(1));
+                }
+            }
+
+            if (index != objects.size()) {
+                throw new SQLException("Only " + index + " of " + objects.size() + " generated IDs have been obtained");
+            }
+
+            return objects;
+        }
+    }
 }
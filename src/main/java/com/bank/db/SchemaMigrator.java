@@ -0,0 +1,189 @@
+package com.bank.db;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.bank.exceptions.ImpossibleOperationExecution;
+
+/**
+ * Initializes the database once on the start of the application. The initial schema <code>db_schema/schema.sql</code>
+ * and the initial data <code>db_schema/init_data.sql</code> are applied first, both scripts could be applied to the
+ * already initialized database again without changes. Then the schema migrations are applied. Migrations are the
+ * SQL scripts in <code>db_schema/migrations</code> named <code>V&lt;version&gt;__&lt;description&gt;.sql</code> and
+ * listed in <code>db_schema/migrations/index.txt</code> (the classpath folder could not be listed once packed into
+ * jar). Every applied version is stored in <code>schema_version</code> table, so each migration is applied only
+ * once even for the persistent database.
+ */
+public class SchemaMigrator {
+    private static final Logger log = LoggerFactory.getLogger(SchemaMigrator.class);
+
+    static final String INITIAL_SCHEMA = "db_schema/schema.sql";
+    static final String INITIAL_DATA = "db_schema/init_data.sql";
+    static final String MIGRATIONS_PATH = "db_schema/migrations/";
+    static final String MIGRATIONS_INDEX = MIGRATIONS_PATH + "index.txt";
+
+    private static final Pattern MIGRATION_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+    private static final String CREATE_SCHEMA_VERSION_SQL = "CREATE TABLE IF NOT EXISTS schema_version (" +
+            "version INT PRIMARY KEY, description VARCHAR(256) NOT NULL, applied_on TIMESTAMP NOT NULL)";
+    private static final String GET_APPLIED_VERSIONS_SQL = "select version from schema_version";
+    private static final String INSERT_SCHEMA_VERSION_SQL =
+            "insert into schema_version (version, description, applied_on) values (?, ?, ?)";
+
+    private final DataSource dataSource;
+
+    public SchemaMigrator(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Applies the initial schema and data and then all migrations which have not been applied yet in the order of
+     * their versions. Every migration is applied in its own database transaction
+     *
+     * @throws ImpossibleOperationExecution once some migration could not be applied
+     */
+    public void migrate() {
+        try (Connection con = dataSource.getConnection()) {
+            execute(con, readScript(INITIAL_SCHEMA));
+            execute(con, readScript(INITIAL_DATA));
+            con.commit();
+
+            try (Statement statement = con.createStatement()) {
+                statement.execute(CREATE_SCHEMA_VERSION_SQL);
+            }
+            con.commit();
+
+            Set<Integer> appliedVersions = getAppliedVersions(con);
+
+            for (String migration : readIndex()) {
+                Matcher matcher = MIGRATION_NAME.matcher(migration);
+                if (!matcher.matches()) {
+                    throw new IllegalStateException("Wrong migration name " + migration);
+                }
+
+                int version = Integer.parseInt(matcher.group(1));
+                if (appliedVersions.contains(version)) {
+                    continue;
+                }
+
+                apply(con, version, matcher.group(2).replace('_', ' '), readScript(MIGRATIONS_PATH + migration));
+                log.info("Schema migration {} has been applied", migration);
+            }
+        } catch (SQLException | IOException | RuntimeException e) {
+            log.error("Schema migration has been failed", e);
+            throw new ImpossibleOperationExecution(e);
+        }
+    }
+
+    private static void apply(Connection con, int version, String description, List<String> statements)
+            throws SQLException {
+        try {
+            execute(con, statements);
+
+            try (PreparedStatement insertVersion = con.prepareStatement(INSERT_SCHEMA_VERSION_SQL)) {
+                insertVersion.setInt(1, version);
+                insertVersion.setString(2, description);
+                insertVersion.setTimestamp(3, new Timestamp(System.currentTimeMillis()));
+                insertVersion.executeUpdate();
+            }
+
+            con.commit();
+        } catch (SQLException e) {
+            DbUtils.safeRollback(con);
+            throw e;
+        }
+    }
+
+    private static void execute(Connection con, List<String> statements) throws SQLException {
+        try (Statement statement = con.createStatement()) {
+            for (String sql : statements) {
+                statement.execute(sql);
+            }
+        }
+    }
+
+    private static Set<Integer> getAppliedVersions(Connection con) throws SQLException {
+        Set<Integer> versions = new HashSet<>();
+        try (Statement statement = con.createStatement();
+             ResultSet versionsRS = statement.executeQuery(GET_APPLIED_VERSIONS_SQL)) {
+            while (versionsRS.next()) {
+                versions.add(versionsRS.getInt("version"));
+            }
+        }
+        return versions;
+    }
+
+    private static List<String> readIndex() throws IOException {
+        List<String> migrations = new ArrayList<>();
+        for (String line : readLines(MIGRATIONS_INDEX)) {
+            line = line.trim();
+            if (!line.isEmpty() && !line.startsWith("#")) {
+                migrations.add(line);
+            }
+        }
+        return migrations;
+    }
+
+    /**
+     * Splits the script into statements by <code>;</code> at the end of the line. Lines started with
+     * <code>--</code> are comments
+     */
+    private static List<String> readScript(String path) throws IOException {
+        List<String> statements = new ArrayList<>();
+        StringBuilder statement = new StringBuilder();
+
+        for (String line : readLines(path)) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                continue;
+            }
+
+            statement.append(line).append('\n');
+            if (trimmed.endsWith(";")) {
+                statements.add(statement.substring(0, statement.lastIndexOf(";")));
+                statement.setLength(0);
+            }
+        }
+
+        if (statement.toString().trim().length() > 0) {
+            statements.add(statement.toString());
+        }
+
+        return statements;
+    }
+
+    private static List<String> readLines(String path) throws IOException {
+        InputStream resource = SchemaMigrator.class.getClassLoader().getResourceAsStream(path);
+        if (resource == null) {
+            throw new IOException("Resource " + path + " has not been found");
+        }
+
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,77 @@
+package com.bank.db;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The LRU cache of prepared statements of one physical connection. Once the cache is full the least recently used
+ * statement is closed and removed.
+ * The cache is not thread safe as the connection is used by only one thread at a time.
+ */
+class StatementCache {
+    private static final Logger log = LoggerFactory.getLogger(StatementCache.class);
+
+    private final Map<String, PreparedStatement> statements;
+
+    StatementCache(int maxSize, LongAdder evictions) {
+        this.statements = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() <= maxSize) {
+                    return false;
+                }
+                evictions.increment();
+                quietlyClose(eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    PreparedStatement get(String key) {
+        PreparedStatement preparedStatement = statements.get(key);
+        if (preparedStatement != null && isClosed(preparedStatement)) {
+            statements.remove(key);
+            return null;
+        }
+        return preparedStatement;
+    }
+
+    void put(String key, PreparedStatement preparedStatement) {
+        statements.put(key, preparedStatement);
+    }
+
+    /**
+     * Removes the statement from the cache and closes it
+     */
+    void evict(String key) {
+        quietlyClose(statements.remove(key));
+    }
+
+    int size() {
+        return statements.size();
+    }
+
+    private static boolean isClosed(PreparedStatement preparedStatement) {
+        try {
+            return preparedStatement.isClosed();
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+
+    private static void quietlyClose(PreparedStatement preparedStatement) {
+        if (preparedStatement != null) {
+            try {
+                preparedStatement.close();
+            } catch (SQLException e) {
+                log.error("Unexpected exception", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.bank.db;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * The snapshot of prepared statements cache counters of {@link DbUtils}. Used to size the cache: once the amount of
+ * misses keeps growing after the warm up the cache is too small for the amount of queries used.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class StatementCacheStatistics {
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final int cachedStatements;
+
+    public double getHitRatio() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+}
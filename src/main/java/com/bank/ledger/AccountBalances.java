@@ -0,0 +1,130 @@
+package com.bank.ledger;
+
+import java.util.Arrays;
+
+/**
+ * The open addressing hash map of Bank Account ID to its balance and blocked amount in minor units. Keys and values
+ * are kept in primitive arrays, so there are no boxed objects per Bank Account.
+ * <p>
+ * The map is not thread safe. The structure is changed only by {@link #put(long, long, long)} of the new Bank
+ * Account, so {@link LedgerEngine} calls it exclusively and all other methods under the shared lock. The values of
+ * the same Bank Account are guarded by the stripe lock of that Bank Account.
+ */
+class AccountBalances {
+    static final int NOT_FOUND = -1;
+
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] ids;
+    private long[] balances;
+    private long[] blockedAmounts;
+    private int size;
+
+    AccountBalances(int expectedSize) {
+        allocate(tableSize(expectedSize));
+    }
+
+    /**
+     * @return the slot of the Bank Account which is used to access its values or {@link #NOT_FOUND}
+     */
+    int slot(long id) {
+        int mask = ids.length - 1;
+        for (int slot = hash(id) & mask; ; slot = (slot + 1) & mask) {
+            long slotId = ids[slot];
+            if (slotId == id) {
+                return slot;
+            }
+            if (slotId == EMPTY) {
+                return NOT_FOUND;
+            }
+        }
+    }
+
+    /**
+     * Adds the Bank Account or replaces its values
+     *
+     * @return the slot of the Bank Account. Slots of other Bank Accounts could be changed by this call
+     */
+    int put(long id, long balance, long blockedAmount) {
+        if (id == EMPTY) {
+            throw new IllegalArgumentException("Unsupported Bank Account id " + id);
+        }
+
+        int slot = slot(id);
+        if (slot == NOT_FOUND) {
+            if (size + 1 > ids.length * LOAD_FACTOR) {
+                rehash(ids.length * 2);
+            }
+            slot = freeSlot(id);
+            ids[slot] = id;
+            size++;
+        }
+
+        balances[slot] = balance;
+        blockedAmounts[slot] = blockedAmount;
+        return slot;
+    }
+
+    long balance(int slot) {
+        return balances[slot];
+    }
+
+    long blockedAmount(int slot) {
+        return blockedAmounts[slot];
+    }
+
+    void set(int slot, long balance, long blockedAmount) {
+        balances[slot] = balance;
+        blockedAmounts[slot] = blockedAmount;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private int freeSlot(long id) {
+        int mask = ids.length - 1;
+        int slot = hash(id) & mask;
+        while (ids[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash(int newLength) {
+        long[] oldIds = ids;
+        long[] oldBalances = balances;
+        long[] oldBlockedAmounts = blockedAmounts;
+
+        allocate(newLength);
+        for (int i = 0; i < oldIds.length; i++) {
+            if (oldIds[i] != EMPTY) {
+                int slot = freeSlot(oldIds[i]);
+                ids[slot] = oldIds[i];
+                balances[slot] = oldBalances[i];
+                blockedAmounts[slot] = oldBlockedAmounts[i];
+            }
+        }
+    }
+
+    private void allocate(int length) {
+        ids = new long[length];
+        Arrays.fill(ids, EMPTY);
+        balances = new long[length];
+        blockedAmounts = new long[length];
+    }
+
+    private static int tableSize(int expectedSize) {
+        int length = 16;
+        while (length * LOAD_FACTOR < expectedSize) {
+            length <<= 1;
+        }
+        return length;
+    }
+
+    private static int hash(long id) {
+        long hash = id * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+}
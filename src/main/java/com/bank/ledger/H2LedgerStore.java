@@ -0,0 +1,219 @@
+package com.bank.ledger;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.bank.dao.BankAccountDao;
+import com.bank.dao.TransactionDao;
+import com.bank.db.DbUtils;
+import com.bank.exceptions.ImpossibleOperationExecution;
+import com.bank.model.BankAccount;
+import com.bank.model.EpochMicros;
+import com.bank.model.Money;
+import com.bank.model.Transaction;
+import com.bank.model.TransactionStatus;
+
+/**
+ * {@link LedgerStore} of the application database. Events of one {@link #persist(List)} call are netted: every
+ * changed Bank Account and transaction is written only once with its final state using JDBC batches. Rows are
+ * written with the explicit IDs assigned by the {@link LedgerEngine}, so the replay of the same events after the
+ * crash gives the same rows.
+ */
+public class H2LedgerStore implements LedgerStore {
+    public static final String GET_CHECKPOINT_SQL = "select last_seq from ledger_checkpoint where id = 1";
+    public static final String MERGE_CHECKPOINT_SQL = "merge into ledger_checkpoint (id, last_seq) key(id) values (1, ?)";
+    public static final String GET_MAX_TRANSACTION_ID_SQL = "select coalesce(max(id), 0) from transaction";
+    public static final String MERGE_BANK_ACCOUNT_SQL = "merge into bank_account (id, owner_name, balance, blocked_amount) key(id) values (?, ?, ?, ?)";
+    public static final String UPDATE_BANK_ACCOUNT_BALANCE_SQL = "update bank_account set balance = ?, blocked_amount = ? where id = ?";
+    public static final String MERGE_TRANSACTION_SQL = "merge into transaction (id, from_account_id, to_account_id, amount, status_id, failMessage, creation_date, update_date, idempotency_key) key(id) values (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    public static final String UPDATE_TRANSACTION_STATUS_SQL = "update transaction set status_id = ?, failMessage = ?, update_date = ? where id = ?";
+
+    private final DbUtils dbUtils = DbUtils.getInstance();
+
+    @Override
+    public long getCheckpoint() {
+        return dbUtils.executeQuery(GET_CHECKPOINT_SQL, getCheckpoint -> {
+            try (ResultSet checkpointRS = getCheckpoint.executeQuery()) {
+                return checkpointRS.next() ? checkpointRS.getLong(1) : 0L;
+            }
+        }).getResult();
+    }
+
+    @Override
+    public List<BankAccount> getBankAccounts() {
+        return new ArrayList<>(BankAccountDao.getInstance().getAllBankAccounts());
+    }
+
+    @Override
+    public BankAccount getBankAccount(long id) {
+        return BankAccountDao.getInstance().getBankAccountById(id);
+    }
+
+    @Override
+    public List<Transaction> getPlannedTransactions() {
+        return new ArrayList<>(TransactionDao.getInstance().getAllTransactionsByStatus(TransactionStatus.PLANNED));
+    }
+
+    @Override
+    public long getMaxTransactionId() {
+        return dbUtils.executeQuery(GET_MAX_TRANSACTION_ID_SQL, getMaxId -> {
+            try (ResultSet maxIdRS = getMaxId.executeQuery()) {
+                maxIdRS.next();
+                return maxIdRS.getLong(1);
+            }
+        }).getResult();
+    }
+
+    @Override
+    public void persist(List<LedgerEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+
+        Map<Long, LedgerEvent> openedBankAccounts = new LinkedHashMap<>();
+        Map<Long, long[]> changedBankAccounts = new LinkedHashMap<>();
+        Map<Long, LedgerEvent> createdTransactions = new LinkedHashMap<>();
+        Map<Long, LedgerEvent> executedTransactions = new LinkedHashMap<>();
+
+        for (LedgerEvent event : events) {
+            switch (event.getType()) {
+                case ACCOUNT_OPENED:
+                    openedBankAccounts.put(event.getAccountId(), event);
+                    changedBankAccounts.put(event.getAccountId(),
+                            new long[]{event.getBalance(), event.getBlockedAmount()});
+                    break;
+                case TRANSACTION_CREATED:
+                    createdTransactions.put(event.getTransactionId(), event);
+                    changedBankAccounts.put(event.getAccountId(),
+                            new long[]{event.getBalance(), event.getBlockedAmount()});
+                    break;
+                case TRANSACTION_EXECUTED:
+                    executedTransactions.put(event.getTransactionId(), event);
+                    if (event.getStatus() == TransactionStatus.SUCCEED) {
+                        changedBankAccounts.put(event.getAccountId(),
+                                new long[]{event.getBalance(), event.getBlockedAmount()});
+                        changedBankAccounts.put(event.getToAccountId(),
+                                new long[]{event.getToBalance(), event.getToBlockedAmount()});
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown event type " + event.getType());
+            }
+        }
+
+        Connection con = DbUtils.getConnection();
+        try {
+            mergeBankAccounts(con, openedBankAccounts, changedBankAccounts);
+            updateBankAccounts(con, openedBankAccounts, changedBankAccounts);
+            mergeTransactions(con, createdTransactions, executedTransactions);
+            updateTransactions(con, createdTransactions, executedTransactions);
+
+            dbUtils.executeQueryInConnection(con, MERGE_CHECKPOINT_SQL, mergeCheckpoint -> {
+                mergeCheckpoint.setLong(1, events.get(events.size() - 1).getSeq());
+                return mergeCheckpoint.executeUpdate();
+            });
+
+            con.commit();
+        } catch (RuntimeException | SQLException e) {
+            DbUtils.safeRollback(con);
+            throw new ImpossibleOperationExecution(e);
+        } finally {
+            DbUtils.quietlyClose(con);
+        }
+    }
+
+    private void mergeBankAccounts(Connection con, Map<Long, LedgerEvent> openedBankAccounts,
+                                   Map<Long, long[]> changedBankAccounts) {
+        if (openedBankAccounts.isEmpty()) {
+            return;
+        }
+
+        dbUtils.executeQueryInConnection(con, MERGE_BANK_ACCOUNT_SQL, mergeBankAccount -> {
+            for (LedgerEvent opened : openedBankAccounts.values()) {
+                long[] amounts = changedBankAccounts.get(opened.getAccountId());
+                mergeBankAccount.setLong(1, opened.getAccountId());
+                mergeBankAccount.setString(2, opened.getOwnerName());
+                mergeBankAccount.setBigDecimal(3, Money.toBigDecimal(amounts[0]));
+                mergeBankAccount.setBigDecimal(4, Money.toBigDecimal(amounts[1]));
+                mergeBankAccount.addBatch();
+            }
+            return mergeBankAccount.executeBatch();
+        });
+    }
+
+    private void updateBankAccounts(Connection con, Map<Long, LedgerEvent> openedBankAccounts,
+                                    Map<Long, long[]> changedBankAccounts) {
+        if (openedBankAccounts.size() == changedBankAccounts.size()) {
+            return;
+        }
+
+        dbUtils.executeQueryInConnection(con, UPDATE_BANK_ACCOUNT_BALANCE_SQL, updateBankAccount -> {
+            for (Map.Entry<Long, long[]> changed : changedBankAccounts.entrySet()) {
+                if (openedBankAccounts.containsKey(changed.getKey())) {
+                    continue;
+                }
+                updateBankAccount.setBigDecimal(1, Money.toBigDecimal(changed.getValue()[0]));
+                updateBankAccount.setBigDecimal(2, Money.toBigDecimal(changed.getValue()[1]));
+                updateBankAccount.setLong(3, changed.getKey());
+                updateBankAccount.addBatch();
+            }
+            return updateBankAccount.executeBatch();
+        });
+    }
+
+    private void mergeTransactions(Connection con, Map<Long, LedgerEvent> createdTransactions,
+                                   Map<Long, LedgerEvent> executedTransactions) {
+        if (createdTransactions.isEmpty()) {
+            return;
+        }
+
+        dbUtils.executeQueryInConnection(con, MERGE_TRANSACTION_SQL, mergeTransaction -> {
+            for (LedgerEvent created : createdTransactions.values()) {
+                LedgerEvent executed = executedTransactions.get(created.getTransactionId());
+                LedgerEvent last = executed == null ? created : executed;
+
+                mergeTransaction.setLong(1, created.getTransactionId());
+                mergeTransaction.setLong(2, created.getAccountId());
+                mergeTransaction.setLong(3, created.getToAccountId());
+                mergeTransaction.setBigDecimal(4, Money.toBigDecimal(created.getAmount()));
+                mergeTransaction.setInt(5, last.getStatus().getId());
+                mergeTransaction.setString(6, failMessage(last));
+                mergeTransaction.setTimestamp(7, EpochMicros.toTimestamp(created.getTimestamp()));
+                mergeTransaction.setTimestamp(8, EpochMicros.toTimestamp(last.getTimestamp()));
+                mergeTransaction.setString(9, created.getIdempotencyKey());
+                mergeTransaction.addBatch();
+            }
+            return mergeTransaction.executeBatch();
+        });
+    }
+
+    private void updateTransactions(Connection con, Map<Long, LedgerEvent> createdTransactions,
+                                    Map<Long, LedgerEvent> executedTransactions) {
+        if (createdTransactions.keySet().containsAll(executedTransactions.keySet())) {
+            return;
+        }
+
+        dbUtils.executeQueryInConnection(con, UPDATE_TRANSACTION_STATUS_SQL, updateTransaction -> {
+            for (LedgerEvent executed : executedTransactions.values()) {
+                if (createdTransactions.containsKey(executed.getTransactionId())) {
+                    continue;
+                }
+                updateTransaction.setInt(1, executed.getStatus().getId());
+                updateTransaction.setString(2, failMessage(executed));
+                updateTransaction.setTimestamp(3, EpochMicros.toTimestamp(executed.getTimestamp()));
+                updateTransaction.setLong(4, executed.getTransactionId());
+                updateTransaction.addBatch();
+            }
+            return updateTransaction.executeBatch();
+        });
+    }
+
+    private static String failMessage(LedgerEvent event) {
+        return event.getFailMessage() == null ? "" : event.getFailMessage();
+    }
+}
@@ -0,0 +1,185 @@
+package com.bank.ledger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.bank.config.BankConfig;
+import com.bank.dao.BalanceJournal;
+import com.bank.dao.BankAccountDao;
+import com.bank.exceptions.ImpossibleOperationExecution;
+import com.bank.model.BankAccount;
+import com.bank.model.EpochMicros;
+import com.bank.model.Transaction;
+import com.bank.model.TransactionStatus;
+
+/**
+ * {@link BalanceJournal} which appends the changes made through the database to the {@link MappedLedgerJournal}
+ * while the {@link LedgerEngine} is disabled. The records are the same {@link LedgerEvent}s the engine writes, so
+ * every record carries the balances of the changed Bank Accounts after the change and the balances could be rebuilt
+ * from the journal by {@link JournalRecovery} without reading the <code>transaction</code> table.
+ * <p>
+ * The database is still the owner of the balances: nothing is replayed from this journal on start.
+ */
+public class JournalRecorder implements BalanceJournal, Closeable {
+    private static final Logger log = LoggerFactory.getLogger(JournalRecorder.class);
+
+    private static volatile JournalRecorder instance;
+
+    private final MappedLedgerJournal journal;
+    // Not a monitor: the journal is forced to the disk under the lock which would pin the carrier of virtual thread
+    private final ReentrantLock lock = new ReentrantLock();
+    private long lastSeq;
+
+    public JournalRecorder(MappedLedgerJournal journal) {
+        this.journal = journal;
+        this.lastSeq = journal.getLastSeq();
+    }
+
+    /**
+     * Opens the journal, verifies or restores the balances of the database according to
+     * {@link JournalSettings#getRecoveryMode()} and registers the recorder in the DAO layer
+     */
+    public static synchronized JournalRecorder start(JournalSettings settings) throws IOException {
+        if (instance == null) {
+            log.info("Journal settings: {}", settings);
+            MappedLedgerJournal journal = new MappedLedgerJournal(Paths.get(settings.getPath()),
+                    settings.getSegmentSize(), settings.isSync());
+            if (settings.getRecoveryMode() != JournalRecoveryMode.NONE) {
+                recover(new JournalRecovery(journal), settings.getRecoveryMode());
+            }
+
+            JournalRecorder recorder = new JournalRecorder(journal);
+            BankAccountDao.getInstance().setBalanceJournal(recorder);
+            Runtime.getRuntime().addShutdownHook(new Thread(recorder::closeQuietly, "journal-shutdown"));
+            instance = recorder;
+            log.info("Transactions are journaled to {} starting after the event {}", settings.getPath(),
+                    recorder.lastSeq);
+        }
+        return instance;
+    }
+
+    /**
+     * Starts the recorder if it is enabled by {@link JournalSettings#fromConfig(BankConfig)} and the ledger is
+     * disabled
+     *
+     * @return the running recorder or null
+     */
+    public static JournalRecorder startIfEnabled() {
+        JournalSettings settings = JournalSettings.fromConfig(BankConfig.getInstance());
+        if (!settings.isEnabled()) {
+            return null;
+        }
+        if (LedgerSettings.isEnabled(BankConfig.getInstance())) {
+            log.warn("The journal is not used together with the ledger engine which has its own journal");
+            return null;
+        }
+        try {
+            return start(settings);
+        } catch (IOException e) {
+            throw new ImpossibleOperationExecution(e);
+        }
+    }
+
+    @Override
+    public void bankAccountCreated(BankAccount bankAccount) {
+        append(LedgerEvent.builder()
+                .type(LedgerEventType.ACCOUNT_OPENED)
+                .accountId(bankAccount.getId())
+                .ownerName(bankAccount.getOwnerName())
+                .timestamp(EpochMicros.now())
+                .balance(bankAccount.getBalanceMinorUnits())
+                .blockedAmount(bankAccount.getBlockedAmountMinorUnits()));
+    }
+
+    @Override
+    public void transactionCreated(Transaction transaction, BankAccount fromBankAccount) {
+        append(LedgerEvent.builder()
+                .type(LedgerEventType.TRANSACTION_CREATED)
+                .transactionId(transaction.getId())
+                .accountId(transaction.getFromBankAccountId())
+                .toAccountId(transaction.getToBankAccountId())
+                .amount(transaction.getAmountMinorUnits())
+                .timestamp(transaction.getCreationMicros())
+                .status(TransactionStatus.PLANNED)
+                .balance(fromBankAccount.getBalanceMinorUnits())
+                .blockedAmount(fromBankAccount.getBlockedAmountMinorUnits()));
+    }
+
+    @Override
+    public void transactionExecuted(Transaction transaction, BankAccount fromBankAccount,
+                                    BankAccount toBankAccount) {
+        append(LedgerEvent.builder()
+                .type(LedgerEventType.TRANSACTION_EXECUTED)
+                .transactionId(transaction.getId())
+                .accountId(transaction.getFromBankAccountId())
+                .toAccountId(transaction.getToBankAccountId())
+                .amount(transaction.getAmountMinorUnits())
+                .timestamp(EpochMicros.now())
+                .status(transaction.getStatus())
+                .failMessage(transaction.getFailMessage())
+                .balance(fromBankAccount.getBalanceMinorUnits())
+                .blockedAmount(fromBankAccount.getBlockedAmountMinorUnits())
+                .toBalance(toBankAccount.getBalanceMinorUnits())
+                .toBlockedAmount(toBankAccount.getBlockedAmountMinorUnits()));
+    }
+
+    /**
+     * Unregisters the recorder from the DAO layer and closes the journal
+     */
+    @Override
+    public void close() throws IOException {
+        BankAccountDao bankAccountDao = BankAccountDao.getInstance();
+        if (bankAccountDao.getBalanceJournal() == this) {
+            bankAccountDao.setBalanceJournal(null);
+        }
+        lock.lock();
+        try {
+            journal.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void append(LedgerEvent.LedgerEventBuilder eventBuilder) {
+        lock.lock();
+        try {
+            LedgerEvent event = eventBuilder.seq(lastSeq + 1).build();
+            try {
+                journal.append(event);
+            } catch (IOException e) {
+                log.error("Could not append the event to the journal", e);
+                throw new ImpossibleOperationExecution(e);
+            }
+            lastSeq = event.getSeq();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void recover(JournalRecovery recovery, JournalRecoveryMode mode) throws IOException {
+        JournalVerification verification = recovery.verify(recovery.rebuildBalances());
+        if (verification.isConsistent()) {
+            log.info("Balances of {} journaled Bank Accounts match the database",
+                    verification.getJournaledAccounts());
+            return;
+        }
+
+        log.warn("Balances of the journal do not match the database: {}", verification);
+        if (mode == JournalRecoveryMode.RESTORE) {
+            log.info("{} Bank Accounts have been restored from the journal", recovery.restore(verification));
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException e) {
+            log.error("Unexpected exception", e);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.bank.ledger;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.bank.dao.BankAccountDao;
+import com.bank.db.DbUtils;
+import com.bank.exceptions.ImpossibleOperationExecution;
+import com.bank.model.BankAccount;
+import com.bank.model.Money;
+import com.bank.model.TransactionStatus;
+
+/**
+ * Rebuilds Bank Account balances from the {@link LedgerJournal} and checks them against the database. Every
+ * {@link LedgerEvent} carries the balances after the change, so the last event of the Bank Account gives its
+ * current balance and the rebuild is one sequential read of the journal without the <code>transaction</code> table.
+ * <p>
+ * {@link #restore(JournalVerification)} writes the rebuilt balances back to <code>bank_account</code>. It is meant to
+ * be run before the application starts serving requests (see {@link JournalRecoveryMode}), the Bank Accounts cached
+ * by the services are not invalidated.
+ */
+public class JournalRecovery {
+    private static final Logger log = LoggerFactory.getLogger(JournalRecovery.class);
+
+    private final LedgerJournal journal;
+    private final DbUtils dbUtils = DbUtils.getInstance();
+
+    public JournalRecovery(LedgerJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * @return Bank Accounts with the balances and blocked amounts after the last journal event mapped by their IDs.
+     * The owner name is known only for the Bank Accounts opened while the journal has been enabled
+     */
+    public Map<Long, BankAccount> rebuildBalances() throws IOException {
+        Map<Long, BankAccount> bankAccounts = new TreeMap<>();
+
+        journal.replay(event -> {
+            switch (event.getType()) {
+                case ACCOUNT_OPENED: {
+                    // the Bank Account is journaled after its creation is committed, so its first transfers could
+                    // be journaled earlier
+                    BankAccount bankAccount = bankAccounts.get(event.getAccountId());
+                    if (bankAccount == null) {
+                        bankAccounts.put(event.getAccountId(), new BankAccount(event.getAccountId(),
+                                event.getOwnerName(), event.getBalance(), event.getBlockedAmount()));
+                    } else {
+                        bankAccount.setOwnerName(event.getOwnerName());
+                    }
+                    break;
+                }
+                case TRANSACTION_CREATED:
+                    setBalance(bankAccounts, event.getAccountId(), event.getBalance(), event.getBlockedAmount());
+                    break;
+                case TRANSACTION_EXECUTED:
+                    if (event.getStatus() == TransactionStatus.SUCCEED) {
+                        setBalance(bankAccounts, event.getAccountId(), event.getBalance(), event.getBlockedAmount());
+                        setBalance(bankAccounts, event.getToAccountId(), event.getToBalance(),
+                                event.getToBlockedAmount());
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown event type " + event.getType());
+            }
+        });
+
+        return bankAccounts;
+    }
+
+    /**
+     * Compares the rebuilt balances with the Bank Accounts of the database
+     *
+     * @param rebuilt the result of {@link #rebuildBalances()}
+     */
+    public JournalVerification verify(Map<Long, BankAccount> rebuilt) {
+        List<BankAccount> mismatched = new ArrayList<>();
+        Map<Long, BankAccount> missing = new TreeMap<>(rebuilt);
+        int matched = 0;
+        int notJournaled = 0;
+
+        for (BankAccount stored : BankAccountDao.getInstance().getAllBankAccounts()) {
+            BankAccount journaled = missing.remove(stored.getId());
+            if (journaled == null) {
+                notJournaled++;
+            } else if (journaled.getBalanceMinorUnits() == stored.getBalanceMinorUnits()
+                    && journaled.getBlockedAmountMinorUnits() == stored.getBlockedAmountMinorUnits()) {
+                matched++;
+            } else {
+                mismatched.add(journaled);
+            }
+        }
+
+        return new JournalVerification(rebuilt.size(), matched, mismatched, new ArrayList<>(missing.values()),
+                notJournaled);
+    }
+
+    /**
+     * Overwrites the balances of mismatched Bank Accounts and creates the missing ones in one database transaction.
+     * Missing Bank Accounts without the owner name in the journal could not be created and are skipped
+     *
+     * @return the amount of restored Bank Accounts
+     */
+    public int restore(JournalVerification verification) {
+        List<BankAccount> created = new ArrayList<>();
+        for (BankAccount missing : verification.getMissingAccounts()) {
+            if (missing.getOwnerName() == null) {
+                log.warn("Bank Account {} could not be restored as it has been opened before the journal",
+                        missing.getId());
+            } else {
+                created.add(missing);
+            }
+        }
+
+        Connection con = DbUtils.getConnection();
+        try {
+            if (!verification.getMismatchedAccounts().isEmpty()) {
+                dbUtils.executeQueryInConnection(con, H2LedgerStore.UPDATE_BANK_ACCOUNT_BALANCE_SQL, updateBalance -> {
+                    for (BankAccount bankAccount : verification.getMismatchedAccounts()) {
+                        updateBalance.setBigDecimal(1, Money.toBigDecimal(bankAccount.getBalanceMinorUnits()));
+                        updateBalance.setBigDecimal(2, Money.toBigDecimal(bankAccount.getBlockedAmountMinorUnits()));
+                        updateBalance.setLong(3, bankAccount.getId());
+                        updateBalance.addBatch();
+                    }
+                    return updateBalance.executeBatch();
+                });
+            }
+            if (!created.isEmpty()) {
+                dbUtils.executeQueryInConnection(con, H2LedgerStore.MERGE_BANK_ACCOUNT_SQL, mergeBankAccount -> {
+                    for (BankAccount bankAccount : created) {
+                        mergeBankAccount.setLong(1, bankAccount.getId());
+                        mergeBankAccount.setString(2, bankAccount.getOwnerName());
+                        mergeBankAccount.setBigDecimal(3, Money.toBigDecimal(bankAccount.getBalanceMinorUnits()));
+                        mergeBankAccount.setBigDecimal(4,
+                                Money.toBigDecimal(bankAccount.getBlockedAmountMinorUnits()));
+                        mergeBankAccount.addBatch();
+                    }
+                    return mergeBankAccount.executeBatch();
+                });
+            }
+            con.commit();
+        } catch (RuntimeException | SQLException e) {
+            DbUtils.safeRollback(con);
+            throw new ImpossibleOperationExecution(e);
+        } finally {
+            DbUtils.quietlyClose(con);
+        }
+
+        return verification.getMismatchedAccounts().size() + created.size();
+    }
+
+    private static void setBalance(Map<Long, BankAccount> bankAccounts, long id, long balance, long blockedAmount) {
+        BankAccount bankAccount = bankAccounts.computeIfAbsent(id, key -> new BankAccount(key, null, 0, 0));
+        bankAccount.setBalanceMinorUnits(balance);
+        bankAccount.setBlockedAmountMinorUnits(blockedAmount);
+    }
+}
@@ -0,0 +1,19 @@
+package com.bank.ledger;
+
+/**
+ * Defines what {@link JournalRecorder} does with the existing journal on start
+ */
+public enum JournalRecoveryMode {
+    /**
+     * The journal is only appended
+     */
+    NONE,
+    /**
+     * Balances rebuilt from the journal are checked against the database and the mismatches are logged
+     */
+    VERIFY,
+    /**
+     * The same as VERIFY, then the Bank Accounts of the database are overwritten by the balances of the journal
+     */
+    RESTORE
+}
@@ -0,0 +1,53 @@
+package com.bank.ledger;
+
+import com.bank.config.BankConfig;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Settings of the {@link JournalRecorder}. By default all values are taken from {@link BankConfig}:
+ * <ul>
+ *     <li><code>bank.journal</code> - append the transactions created and executed through the database to the
+ *     memory mapped journal, disabled by default. Not used together with <code>bank.ledger</code> which has its own
+ *     journal</li>
+ *     <li><code>bank.journal.path</code> - the directory of the journal segments</li>
+ *     <li><code>bank.journal.sync</code> - force every journal record to the disk before the database transaction
+ *     is committed, enabled by default</li>
+ *     <li><code>bank.journal.segmentSize</code> - the size of one segment file in bytes</li>
+ *     <li><code>bank.journal.recovery</code> - {@link JournalRecoveryMode} of the existing journal on start</li>
+ * </ul>
+ */
+@Getter
+@Builder
+@ToString
+public class JournalSettings {
+    static final String ENABLED_PROPERTY = "bank.journal";
+
+    private boolean enabled;
+    @Builder.Default
+    private String path = "bank-journal";
+    @Builder.Default
+    private boolean sync = true;
+    @Builder.Default
+    private int segmentSize = 64 * 1024 * 1024;
+    @Builder.Default
+    private JournalRecoveryMode recoveryMode = JournalRecoveryMode.NONE;
+
+    /**
+     * @return settings defined by the config
+     */
+    public static JournalSettings fromConfig(BankConfig config) {
+        JournalSettings defaults = builder().build();
+
+        return builder()
+                .enabled(config.getBoolean(ENABLED_PROPERTY, defaults.isEnabled()))
+                .path(config.getString("bank.journal.path", defaults.getPath()))
+                .sync(config.getBoolean("bank.journal.sync", defaults.isSync()))
+                .segmentSize(config.getInt("bank.journal.segmentSize", defaults.getSegmentSize()))
+                .recoveryMode(config.getEnum("bank.journal.recovery", JournalRecoveryMode.class,
+                        defaults.getRecoveryMode()))
+                .build();
+    }
+}
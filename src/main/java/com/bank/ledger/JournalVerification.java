@@ -0,0 +1,34 @@
+package com.bank.ledger;
+
+import java.util.List;
+
+import com.bank.model.BankAccount;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * The result of {@link JournalRecovery#verify(java.util.Map)}. Bank Accounts in the lists have the balances and
+ * blocked amounts rebuilt from the journal:
+ * <ul>
+ *     <li><code>mismatchedAccounts</code> - the database has other balance or blocked amount</li>
+ *     <li><code>missingAccounts</code> - the database doesn't have the Bank Account at all</li>
+ *     <li><code>notJournaledAccounts</code> - the amount of Bank Accounts of the database without any journal
+ *     record, for example created before the journal has been enabled</li>
+ * </ul>
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class JournalVerification {
+    private final int journaledAccounts;
+    private final int matchedAccounts;
+    private final List<BankAccount> mismatchedAccounts;
+    private final List<BankAccount> missingAccounts;
+    private final int notJournaledAccounts;
+
+    public boolean isConsistent() {
+        return mismatchedAccounts.isEmpty() && missingAccounts.isEmpty();
+    }
+}
@@ -0,0 +1,652 @@
+package com.bank.ledger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.bank.config.BankConfig;
+import com.bank.dao.BankAccountDao;
+import com.bank.exceptions.ExceptionType;
+import com.bank.exceptions.ImpossibleOperationExecution;
+import com.bank.exceptions.ObjectModificationException;
+import com.bank.model.BankAccount;
+import com.bank.model.EpochMicros;
+import com.bank.model.Money;
+import com.bank.model.Transaction;
+import com.bank.model.TransactionStatus;
+
+/**
+ * The in memory ledger of Bank Account balances. Once enabled by {@link LedgerSettings} the transactions are created
+ * and executed against the balances kept in memory instead of locking the database rows:
+ * <ul>
+ *     <li>balances and blocked amounts of all Bank Accounts are kept in {@link Money} minor units in
+ *     {@link AccountBalances}</li>
+ *     <li>Bank Accounts are spread over the stripe locks, a transfer locks the stripes of both Bank Accounts in the
+ *     order of stripe indexes, so the transfers in opposite directions do not fall into a deadlock</li>
+ *     <li>every change is appended to the {@link LedgerJournal} before it is applied and forced to the disk before it
+ *     is acknowledged. The force is done after the stripe locks are released and one force covers all changes
+ *     appended by then (group commit), so the transfers of other stripes do not wait for the disk of this one</li>
+ *     <li>the journaled changes are persisted to the database by {@link LedgerWriter} asynchronously</li>
+ * </ul>
+ * The validation rules and the results are the same as of the <code>TransactionDao</code>: the amount is blocked
+ * on creation and the transaction becomes SUCCEED or FAILED with the same fail messages on execution.
+ * <p>
+ * On start the engine loads Bank Accounts and PLANNED transactions from the database and replays the journal events
+ * which have not been persisted before the stop (or crash), then these events are persisted again. The engine owns
+ * the balances while it is running, so it should be the only one node changing the database.
+ * <p>
+ * The changes are visible in the database with the delay of the write-behind, that's why the services should read
+ * Bank Account balances and not persisted transactions from the engine. The same is true for the idempotency keys:
+ * the key is reserved by {@link #reserveIdempotencyKey(String)} before the transaction is created and is kept by the
+ * engine until its transaction has been persisted, then the key is found by the unique index of the database.
+ */
+public class LedgerEngine implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(LedgerEngine.class);
+
+    private static final long CLOSE_TIMEOUT_MILLIS = 30_000;
+
+    /**
+     * The transaction ID of the idempotency key reserved by the request which is creating its transaction
+     */
+    public static final long PENDING_TRANSACTION_ID = -1;
+
+    private static volatile LedgerEngine instance;
+
+    private final LedgerJournal journal;
+    private final LedgerStore store;
+    private final LedgerWriter writer;
+
+    private final ReentrantReadWriteLock structureLock = new ReentrantReadWriteLock();
+    private final AccountBalances balances;
+    private final ReentrantLock[] stripes;
+
+    private final ConcurrentNavigableMap<Long, LedgerTransaction> plannedTransactions = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<Long, LedgerTransaction> unpersistedTransactions = new ConcurrentHashMap<>();
+    // The idempotency keys of not persisted transactions and the reserved ones
+    private final ConcurrentHashMap<String, Long> idempotencyKeys = new ConcurrentHashMap<>();
+    private final AtomicLong transactionIds;
+
+    // Not monitors: the threads waiting for the disk would pin the carriers of virtual threads
+    private final ReentrantLock journalLock = new ReentrantLock();
+    private final ReentrantLock forceLock = new ReentrantLock();
+    private final boolean journalSync;
+    private long lastSeq;
+    private volatile long durableSeq;
+
+    /**
+     * Loads the state from the store, replays not persisted journal events and starts the write-behind
+     */
+    public LedgerEngine(LedgerSettings settings, LedgerJournal journal, LedgerStore store) throws IOException {
+        this.journal = journal;
+        this.store = store;
+        this.journalSync = settings.isJournalSync();
+
+        this.stripes = new ReentrantLock[settings.getStripes()];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+
+        long checkpoint = store.getCheckpoint();
+        List<BankAccount> bankAccounts = store.getBankAccounts();
+        this.balances = new AccountBalances(bankAccounts.size());
+        for (BankAccount bankAccount : bankAccounts) {
+            balances.put(bankAccount.getId(), bankAccount.getBalanceMinorUnits(),
+                    bankAccount.getBlockedAmountMinorUnits());
+        }
+        for (Transaction transaction : store.getPlannedTransactions()) {
+            plannedTransactions.put(transaction.getId(), LedgerTransaction.of(transaction));
+        }
+
+        this.writer = new LedgerWriter(store, settings.getWriteBatchSize(), settings.getWriteQueueSize(), checkpoint,
+                this::transactionsPersisted);
+        this.writer.start();
+
+        long[] recovered = {checkpoint, store.getMaxTransactionId(), 0};
+        journal.replay(event -> {
+            recovered[1] = Math.max(recovered[1], event.getTransactionId());
+            if (event.getSeq() <= checkpoint) {
+                return;
+            }
+            applyRecovered(event);
+            writer.enqueue(event);
+            recovered[0] = event.getSeq();
+            recovered[2]++;
+        });
+
+        journal.deleteBefore(checkpoint);
+
+        this.lastSeq = recovered[0];
+        this.durableSeq = recovered[0];
+        this.transactionIds = new AtomicLong(recovered[1]);
+
+        log.info("Ledger has been started with {} Bank Accounts, {} PLANNED transactions and {} recovered events",
+                balances.size(), plannedTransactions.size(), recovered[2]);
+    }
+
+    /**
+     * Starts the engine with the journal and the database of the application
+     */
+    public static synchronized LedgerEngine start(LedgerSettings settings) throws IOException {
+        if (instance == null) {
+            log.info("Ledger settings: {}", settings);
+            LedgerEngine engine = new LedgerEngine(settings,
+                    new MappedLedgerJournal(Paths.get(settings.getJournalPath()),
+                            settings.getJournalSegmentSize(), false),
+                    new H2LedgerStore());
+            Runtime.getRuntime().addShutdownHook(new Thread(engine::closeQuietly, "ledger-shutdown"));
+            instance = engine;
+        }
+        return instance;
+    }
+
+    /**
+     * @return the running engine. The engine is started on the first call if it is enabled by
+     * {@link LedgerSettings#fromConfig(BankConfig)}. null if it is disabled
+     */
+    public static LedgerEngine getInstance() {
+        LedgerEngine engine = instance;
+        if (engine == null && LedgerSettings.isEnabled(BankConfig.getInstance())) {
+            try {
+                engine = start(LedgerSettings.fromConfig(BankConfig.getInstance()));
+            } catch (IOException e) {
+                throw new ImpossibleOperationExecution(e);
+            }
+        }
+        return engine;
+    }
+
+    /**
+     * Registers the Bank Account created in the database, so the transactions could use it
+     */
+    public void openBankAccount(BankAccount bankAccount) {
+        LedgerEvent opened;
+        structureLock.writeLock().lock();
+        try {
+            if (balances.slot(bankAccount.getId()) != AccountBalances.NOT_FOUND) {
+                return;
+            }
+
+            long balance = bankAccount.getBalanceMinorUnits();
+            long blockedAmount = bankAccount.getBlockedAmountMinorUnits();
+            opened = journal(LedgerEvent.builder()
+                    .type(LedgerEventType.ACCOUNT_OPENED)
+                    .accountId(bankAccount.getId())
+                    .ownerName(bankAccount.getOwnerName())
+                    .timestamp(EpochMicros.now())
+                    .balance(balance)
+                    .blockedAmount(blockedAmount));
+
+            balances.put(bankAccount.getId(), balance, blockedAmount);
+        } finally {
+            structureLock.writeLock().unlock();
+        }
+        awaitDurable(opened.getSeq());
+    }
+
+    /**
+     * The same as <code>TransactionDao.createTransaction</code>: blocks the amount on the source Bank Account and
+     * creates PLANNED transaction
+     *
+     * @return created transaction with ID generated
+     * @throws ObjectModificationException if Bank Account doesn't exist or its balance is not enough
+     */
+    public Transaction createTransaction(Transaction transaction) throws ObjectModificationException {
+        long fromId = transaction.getFromBankAccountId();
+        long toId = transaction.getToBankAccountId();
+        long amount = transaction.getAmountMinorUnits();
+
+        openIfAbsent(fromId);
+        openIfAbsent(toId);
+
+        LedgerTransaction created;
+        structureLock.readLock().lock();
+        ReentrantLock stripe = stripe(fromId);
+        stripe.lock();
+        try {
+            int fromSlot = balances.slot(fromId);
+            if (fromSlot == AccountBalances.NOT_FOUND || balances.slot(toId) == AccountBalances.NOT_FOUND) {
+                throw new ObjectModificationException(ExceptionType.OBJECT_IS_NOT_FOUND,
+                        "The specified bank account doesn't exists");
+            }
+
+            long balance = balances.balance(fromSlot);
+            long blockedAmount = balances.blockedAmount(fromSlot);
+            if (balance - blockedAmount < amount) {
+                throw new ObjectModificationException(ExceptionType.OBJECT_IS_MALFORMED,
+                        "The specified bank account could not transfer this amount of money. " +
+                                "His balance does not have enough money");
+            }
+
+            long id = transactionIds.incrementAndGet();
+            long now = EpochMicros.now();
+            LedgerEvent event = journal(LedgerEvent.builder()
+                    .type(LedgerEventType.TRANSACTION_CREATED)
+                    .transactionId(id)
+                    .accountId(fromId)
+                    .toAccountId(toId)
+                    .amount(amount)
+                    .timestamp(now)
+                    .status(TransactionStatus.PLANNED)
+                    .balance(balance)
+                    .blockedAmount(blockedAmount + amount)
+                    .idempotencyKey(transaction.getIdempotencyKey()));
+
+            balances.set(fromSlot, balance, blockedAmount + amount);
+
+            created = new LedgerTransaction(id, fromId, toId, amount, now, now, TransactionStatus.PLANNED, "",
+                    event.getSeq(), transaction.getIdempotencyKey());
+            plannedTransactions.put(id, created);
+            unpersistedTransactions.put(id, created);
+            if (created.getIdempotencyKey() != null) {
+                idempotencyKeys.put(created.getIdempotencyKey(), id);
+            }
+        } finally {
+            stripe.unlock();
+            structureLock.readLock().unlock();
+        }
+        awaitDurable(created.getSeq());
+
+        return created.toTransaction();
+    }
+
+    /**
+     * The same as <code>TransactionDao.executeTransaction</code>: transfers the amount of PLANNED transaction and
+     * marks it as SUCCEED or as FAILED if the balance is not enough
+     *
+     * @throws ObjectModificationException if the transaction is not PLANNED
+     */
+    public void executeTransaction(Long id) throws ObjectModificationException {
+        LedgerTransaction transaction = id == null ? null : plannedTransactions.get(id);
+        if (transaction == null) {
+            throw new ObjectModificationException(ExceptionType.OBJECT_IS_MALFORMED,
+                    "Could not execute transaction which is not in PLANNED status");
+        }
+
+        structureLock.readLock().lock();
+        ReentrantLock firstStripe = stripeAt(Math.min(stripeIndex(transaction.getFromBankAccountId()),
+                stripeIndex(transaction.getToBankAccountId())));
+        ReentrantLock secondStripe = stripeAt(Math.max(stripeIndex(transaction.getFromBankAccountId()),
+                stripeIndex(transaction.getToBankAccountId())));
+        LedgerEvent executed;
+        firstStripe.lock();
+        secondStripe.lock();
+        try {
+            executed = execute(id, transaction);
+        } finally {
+            secondStripe.unlock();
+            firstStripe.unlock();
+            structureLock.readLock().unlock();
+        }
+        awaitDurable(executed.getSeq());
+    }
+
+    /**
+     * Executes the transaction under the locks of both stripes
+     *
+     * @return the journaled event of the execution
+     */
+    private LedgerEvent execute(Long id, LedgerTransaction transaction) throws ObjectModificationException {
+        // The transaction could be executed by another thread while we were waiting for the locks
+        if (plannedTransactions.get(id) == null) {
+            throw new ObjectModificationException(ExceptionType.OBJECT_IS_MALFORMED,
+                    "Could not execute transaction which is not in PLANNED status");
+        }
+
+        int fromSlot = balances.slot(transaction.getFromBankAccountId());
+        int toSlot = balances.slot(transaction.getToBankAccountId());
+        long now = EpochMicros.now();
+
+        LedgerEvent.LedgerEventBuilder event = LedgerEvent.builder()
+                .type(LedgerEventType.TRANSACTION_EXECUTED)
+                .transactionId(id)
+                .accountId(transaction.getFromBankAccountId())
+                .toAccountId(transaction.getToBankAccountId())
+                .amount(transaction.getAmount())
+                .timestamp(now);
+
+        if (fromSlot == AccountBalances.NOT_FOUND || toSlot == AccountBalances.NOT_FOUND) {
+            event.status(TransactionStatus.FAILED).failMessage("The specified bank account doesn't exists");
+            return complete(id, transaction, journal(event), now);
+        }
+
+        long balance = balances.balance(fromSlot);
+        long newBlockedAmount = balances.blockedAmount(fromSlot) - transaction.getAmount();
+        long newBalance = balance - transaction.getAmount();
+
+        if (newBlockedAmount < 0 || newBalance < 0) {
+            event.status(TransactionStatus.FAILED)
+                    .failMessage(String.format("There is no enough money. Current balance is %f",
+                            Money.toBigDecimal(balance).doubleValue()))
+                    .balance(balance)
+                    .blockedAmount(balances.blockedAmount(fromSlot));
+            return complete(id, transaction, journal(event), now);
+        }
+
+        if (!Money.canAdd(balances.balance(toSlot), transaction.getAmount())) {
+            event.status(TransactionStatus.FAILED)
+                    .failMessage(BankAccountDao.TOO_BIG_BALANCE_MESSAGE)
+                    .balance(balance)
+                    .blockedAmount(balances.blockedAmount(fromSlot));
+            return complete(id, transaction, journal(event), now);
+        }
+
+        long newToBalance = balances.balance(toSlot) + transaction.getAmount();
+        long toBlockedAmount = balances.blockedAmount(toSlot);
+        event.status(TransactionStatus.SUCCEED)
+                .balance(newBalance)
+                .blockedAmount(newBlockedAmount)
+                .toBalance(newToBalance)
+                .toBlockedAmount(toBlockedAmount);
+        LedgerEvent executed = journal(event);
+
+        balances.set(fromSlot, newBalance, newBlockedAmount);
+        balances.set(toSlot, newToBalance, toBlockedAmount);
+        return complete(id, transaction, executed, now);
+    }
+
+    /**
+     * Executes all PLANNED transactions in the order of their IDs
+     *
+     * @return the amount of transactions which has been executed
+     */
+    public int executePlannedTransactions() {
+        int executed = 0;
+        for (Long id : plannedTransactions.keySet()) {
+            try {
+                executeTransaction(id);
+                executed++;
+            } catch (ObjectModificationException | ImpossibleOperationExecution e) {
+                log.error("Could not execute transaction with id {}", id, e);
+            }
+        }
+        return executed;
+    }
+
+    /**
+     * @return the transaction which has not been persisted yet or null. The persisted transactions should be read
+     * from the database
+     */
+    public Transaction getTransaction(Long id) {
+        LedgerTransaction transaction = unpersistedTransactions.get(id);
+        return transaction == null ? null : transaction.toTransaction();
+    }
+
+    /**
+     * Reserves the idempotency key for the transaction which is going to be created by
+     * {@link #createTransaction(Transaction)} with this key. The reservation is replaced by the ID of the created
+     * transaction, the caller should {@link #releaseIdempotencyKey(String)} if the transaction has not been created.
+     * As the key of the persisted transaction is forgotten, the caller should look for it in the database after the
+     * reservation
+     *
+     * @return null if the key has been reserved, the ID of the not persisted transaction of the key or
+     * {@link #PENDING_TRANSACTION_ID} if the key has been reserved by another request
+     */
+    public Long reserveIdempotencyKey(String idempotencyKey) {
+        return idempotencyKeys.putIfAbsent(idempotencyKey, PENDING_TRANSACTION_ID);
+    }
+
+    /**
+     * Cancels the reservation of the key made by {@link #reserveIdempotencyKey(String)}
+     */
+    public void releaseIdempotencyKey(String idempotencyKey) {
+        idempotencyKeys.remove(idempotencyKey, PENDING_TRANSACTION_ID);
+    }
+
+    /**
+     * Replaces the balance and blocked amount of the Bank Account read from the database with the actual ones
+     *
+     * @return the same Bank Account object
+     */
+    public BankAccount applyBalances(BankAccount bankAccount) {
+        if (bankAccount == null) {
+            return null;
+        }
+
+        structureLock.readLock().lock();
+        ReentrantLock stripe = stripe(bankAccount.getId());
+        stripe.lock();
+        try {
+            int slot = balances.slot(bankAccount.getId());
+            if (slot != AccountBalances.NOT_FOUND) {
+                bankAccount.setBalanceMinorUnits(balances.balance(slot));
+                bankAccount.setBlockedAmountMinorUnits(balances.blockedAmount(slot));
+            }
+            return bankAccount;
+        } finally {
+            stripe.unlock();
+            structureLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the amount of PLANNED transactions waiting for the execution
+     */
+    public int getPlannedTransactionsCount() {
+        return plannedTransactions.size();
+    }
+
+    /**
+     * @return the amount of journaled events waiting for the database
+     */
+    public int getPendingWrites() {
+        return writer.getQueueSize();
+    }
+
+    /**
+     * Waits until all events journaled before this call will be persisted to the database
+     *
+     * @return true if the events have been persisted in time
+     */
+    public boolean awaitPersisted(long timeoutMillis) throws InterruptedException {
+        long seq;
+        journalLock.lock();
+        try {
+            seq = lastSeq;
+        } finally {
+            journalLock.unlock();
+        }
+        return writer.awaitPersisted(seq, timeoutMillis);
+    }
+
+    /**
+     * Persists the queued events and closes the journal
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (LedgerEngine.class) {
+            if (instance == this) {
+                instance = null;
+            }
+        }
+        writer.close(CLOSE_TIMEOUT_MILLIS);
+        journalLock.lock();
+        try {
+            journal.close();
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException e) {
+            log.error("Unexpected exception", e);
+        }
+    }
+
+    private void openIfAbsent(long id) {
+        structureLock.readLock().lock();
+        try {
+            if (balances.slot(id) != AccountBalances.NOT_FOUND) {
+                return;
+            }
+        } finally {
+            structureLock.readLock().unlock();
+        }
+
+        // The Bank Account has been created in the database bypassing the ledger
+        BankAccount bankAccount = store.getBankAccount(id);
+        if (bankAccount != null) {
+            openBankAccount(bankAccount);
+        }
+    }
+
+    private LedgerEvent complete(long id, LedgerTransaction transaction, LedgerEvent executed, long now) {
+        plannedTransactions.remove(id);
+        unpersistedTransactions.put(id, transaction.executed(executed.getStatus(), executed.getFailMessage(), now,
+                executed.getSeq()));
+        return executed;
+    }
+
+    /**
+     * Appends the event to the journal and queues it for the database. The events are queued in the order of the
+     * journal. The event is not forced to the disk yet: the caller should release its locks and
+     * {@link #awaitDurable(long)} before the change is acknowledged
+     */
+    private LedgerEvent journal(LedgerEvent.LedgerEventBuilder eventBuilder) {
+        journalLock.lock();
+        try {
+            LedgerEvent event = eventBuilder.seq(lastSeq + 1).build();
+            try {
+                journal.append(event);
+            } catch (IOException e) {
+                log.error("Could not append the event to the ledger journal", e);
+                throw new ImpossibleOperationExecution(e);
+            }
+            lastSeq = event.getSeq();
+            writer.enqueue(event);
+            return event;
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    /**
+     * Waits until the journal is forced to the disk at least up to the event <code>seq</code>. The thread which gets
+     * the lock first forces all events appended by that moment, the threads waiting for the lock meanwhile usually
+     * find their events forced already, so one force covers the events of many concurrent transfers. The appends
+     * are not blocked by the force
+     */
+    private void awaitDurable(long seq) {
+        if (!journalSync || durableSeq >= seq) {
+            return;
+        }
+
+        forceLock.lock();
+        try {
+            if (durableSeq >= seq) {
+                return;
+            }
+
+            long appendedSeq;
+            journalLock.lock();
+            try {
+                appendedSeq = lastSeq;
+            } finally {
+                journalLock.unlock();
+            }
+
+            journal.force();
+            durableSeq = appendedSeq;
+        } catch (IOException e) {
+            log.error("Could not force the ledger journal to the disk", e);
+            throw new ImpossibleOperationExecution(e);
+        } finally {
+            forceLock.unlock();
+        }
+    }
+
+    /**
+     * Applies the event replayed from the journal on start. There is no concurrent access at this time
+     */
+    private void applyRecovered(LedgerEvent event) {
+        switch (event.getType()) {
+            case ACCOUNT_OPENED:
+                balances.put(event.getAccountId(), event.getBalance(), event.getBlockedAmount());
+                break;
+            case TRANSACTION_CREATED: {
+                balances.put(event.getAccountId(), event.getBalance(), event.getBlockedAmount());
+                LedgerTransaction created = new LedgerTransaction(event.getTransactionId(), event.getAccountId(),
+                        event.getToAccountId(), event.getAmount(), event.getTimestamp(), event.getTimestamp(),
+                        TransactionStatus.PLANNED, "", event.getSeq(), event.getIdempotencyKey());
+                plannedTransactions.put(created.getId(), created);
+                unpersistedTransactions.put(created.getId(), created);
+                if (created.getIdempotencyKey() != null) {
+                    idempotencyKeys.put(created.getIdempotencyKey(), created.getId());
+                }
+                break;
+            }
+            case TRANSACTION_EXECUTED: {
+                if (event.getStatus() == TransactionStatus.SUCCEED) {
+                    balances.put(event.getAccountId(), event.getBalance(), event.getBlockedAmount());
+                    balances.put(event.getToAccountId(), event.getToBalance(), event.getToBlockedAmount());
+                }
+                LedgerTransaction planned = plannedTransactions.remove(event.getTransactionId());
+                long creationDate = planned == null ? event.getTimestamp() : planned.getCreationDate();
+                String idempotencyKey = planned == null ? null : planned.getIdempotencyKey();
+                unpersistedTransactions.put(event.getTransactionId(), new LedgerTransaction(event.getTransactionId(),
+                        event.getAccountId(), event.getToAccountId(), event.getAmount(), creationDate,
+                        event.getTimestamp(), event.getStatus(), event.getFailMessage(), event.getSeq(),
+                        idempotencyKey));
+                break;
+            }
+            default:
+                throw new IllegalStateException("Unknown event type " + event.getType());
+        }
+    }
+
+    /**
+     * Forgets the transactions which have been persisted and not changed since that and deletes the journal
+     * segments which are not needed for the recovery anymore
+     */
+    private void transactionsPersisted(List<LedgerEvent> events) {
+        for (LedgerEvent event : events) {
+            if (event.getType() != LedgerEventType.ACCOUNT_OPENED) {
+                unpersistedTransactions.computeIfPresent(event.getTransactionId(), (id, transaction) -> {
+                    if (transaction.getSeq() > event.getSeq()) {
+                        return transaction;
+                    }
+                    if (transaction.getIdempotencyKey() != null) {
+                        idempotencyKeys.remove(transaction.getIdempotencyKey(), id);
+                    }
+                    return null;
+                });
+            }
+        }
+
+        if (!events.isEmpty()) {
+            journalLock.lock();
+            try {
+                journal.deleteBefore(events.get(events.size() - 1).getSeq());
+            } catch (IOException e) {
+                // The segments are deleted on the next batch or on the next start
+                log.warn("Could not delete the persisted journal segments", e);
+            } finally {
+                journalLock.unlock();
+            }
+        }
+    }
+
+    private ReentrantLock stripe(long bankAccountId) {
+        return stripeAt(stripeIndex(bankAccountId));
+    }
+
+    private ReentrantLock stripeAt(int index) {
+        return stripes[index];
+    }
+
+    private int stripeIndex(long bankAccountId) {
+        return (int) ((bankAccountId ^ (bankAccountId >>> 32)) & Integer.MAX_VALUE) % stripes.length;
+    }
+}
@@ -0,0 +1,128 @@
+package com.bank.ledger;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import com.bank.model.TransactionStatus;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * The record of the {@link LedgerJournal}. Every event carries the balances and blocked amounts of the changed Bank
+ * Accounts after the change (not the difference), so applying the same event again gives the same result. Amounts
+ * are in {@link com.bank.model.Money} minor units, <code>timestamp</code> is in {@link com.bank.model.EpochMicros}.
+ * <ul>
+ *     <li>ACCOUNT_OPENED - <code>accountId</code> with <code>ownerName</code> and its initial
+ *     <code>balance</code> and <code>blockedAmount</code></li>
+ *     <li>TRANSACTION_CREATED - PLANNED transaction <code>transactionId</code> from <code>accountId</code> to
+ *     <code>toAccountId</code> of <code>amount</code> with the <code>idempotencyKey</code> of the request and the
+ *     source Bank Account with blocked amount</li>
+ *     <li>TRANSACTION_EXECUTED - the final <code>status</code> and <code>failMessage</code> of the transaction and
+ *     both Bank Accounts after the transfer</li>
+ * </ul>
+ */
+@Getter
+@Builder(toBuilder = true)
+@ToString
+public class LedgerEvent {
+    /**
+     * The size of the fixed part of the {@link #write(ByteBuffer)} layout: type and status bytes, ten longs and the
+     * lengths of two strings
+     */
+    static final int FIXED_BYTES = 2 + 10 * Long.BYTES + 2 * Integer.BYTES;
+
+    private final long seq;
+    private final LedgerEventType type;
+    private final long transactionId;
+    private final long accountId;
+    private final long toAccountId;
+    private final long amount;
+    private final long timestamp;
+    private final TransactionStatus status;
+    private final String ownerName;
+    private final String failMessage;
+    private final long balance;
+    private final long blockedAmount;
+    private final long toBalance;
+    private final long toBlockedAmount;
+    private final String idempotencyKey;
+
+    /**
+     * Writes the event in the fixed layout: all numbers at the same offsets followed by UTF-8 bytes of
+     * <code>ownerName</code> and <code>failMessage</code>. The <code>idempotencyKey</code> is appended after them
+     * with its length, so the events written before it has been added are still read
+     *
+     * @throws java.nio.BufferOverflowException if there is no room for the event in the buffer
+     */
+    void write(ByteBuffer out) {
+        byte[] ownerNameBytes = ownerName == null ? new byte[0] : ownerName.getBytes(StandardCharsets.UTF_8);
+        byte[] failMessageBytes = failMessage == null ? new byte[0] : failMessage.getBytes(StandardCharsets.UTF_8);
+
+        out.put((byte) type.ordinal());
+        out.put((byte) (status == null ? -1 : status.getId()));
+        out.putLong(seq);
+        out.putLong(transactionId);
+        out.putLong(accountId);
+        out.putLong(toAccountId);
+        out.putLong(amount);
+        out.putLong(timestamp);
+        out.putLong(balance);
+        out.putLong(blockedAmount);
+        out.putLong(toBalance);
+        out.putLong(toBlockedAmount);
+        out.putInt(ownerNameBytes.length);
+        out.putInt(failMessageBytes.length);
+        out.put(ownerNameBytes);
+        out.put(failMessageBytes);
+
+        byte[] idempotencyKeyBytes = idempotencyKey == null ? new byte[0]
+                : idempotencyKey.getBytes(StandardCharsets.UTF_8);
+        out.putInt(idempotencyKeyBytes.length);
+        out.put(idempotencyKeyBytes);
+    }
+
+    /**
+     * The opposite method to {@link #write(ByteBuffer)}. The buffer should end right after the event, as the
+     * <code>idempotencyKey</code> is read only if there is something left
+     *
+     * @throws java.nio.BufferUnderflowException if the buffer ends in the middle of the event
+     */
+    static LedgerEvent read(ByteBuffer in) {
+        LedgerEventType type = LedgerEventType.values()[in.get()];
+        byte status = in.get();
+
+        LedgerEventBuilder builder = builder()
+                .type(type)
+                .status(status < 0 ? null : TransactionStatus.valueOf(status))
+                .seq(in.getLong())
+                .transactionId(in.getLong())
+                .accountId(in.getLong())
+                .toAccountId(in.getLong())
+                .amount(in.getLong())
+                .timestamp(in.getLong())
+                .balance(in.getLong())
+                .blockedAmount(in.getLong())
+                .toBalance(in.getLong())
+                .toBlockedAmount(in.getLong());
+
+        byte[] ownerNameBytes = new byte[in.getInt()];
+        byte[] failMessageBytes = new byte[in.getInt()];
+        in.get(ownerNameBytes);
+        in.get(failMessageBytes);
+
+        if (in.hasRemaining()) {
+            byte[] idempotencyKeyBytes = new byte[in.getInt()];
+            in.get(idempotencyKeyBytes);
+            builder.idempotencyKey(idempotencyKeyBytes.length == 0 ? null
+                    : new String(idempotencyKeyBytes, StandardCharsets.UTF_8));
+        }
+
+        return builder
+                .ownerName(ownerNameBytes.length == 0 ? null : new String(ownerNameBytes, StandardCharsets.UTF_8))
+                .failMessage(failMessageBytes.length == 0 ? null
+                        : new String(failMessageBytes, StandardCharsets.UTF_8))
+                .build();
+    }
+}
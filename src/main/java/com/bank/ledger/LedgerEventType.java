@@ -0,0 +1,8 @@
+package com.bank.ledger;
+
+/**
+ * Types of the {@link LedgerEvent} records written to the {@link LedgerJournal}
+ */
+public enum LedgerEventType {
+    ACCOUNT_OPENED, TRANSACTION_CREATED, TRANSACTION_EXECUTED;
+}
@@ -0,0 +1,38 @@
+package com.bank.ledger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * The durable append only log of {@link LedgerEvent}s. The event is acknowledged to the client only after it has
+ * been appended, so the in memory state of {@link LedgerEngine} could be recovered by replaying the journal.
+ */
+public interface LedgerJournal extends Closeable {
+
+    /**
+     * Appends the event to the end of the journal. Once the method returns the event should survive the crash of
+     * the process (and the crash of the OS if the journal is synchronized with the disk)
+     */
+    void append(LedgerEvent event) throws IOException;
+
+    /**
+     * Forces all appended events to the disk. Unlike the other methods it could be called concurrently with
+     * {@link #append(LedgerEvent)}, so the appends are not blocked while the disk is busy. The events appended during
+     * the force are not guaranteed to be forced
+     */
+    void force() throws IOException;
+
+    /**
+     * Deletes the events up to <code>seq</code> which are not needed for the recovery anymore, as they have reached
+     * the database. The journal could keep some of them, {@link LedgerEngine} skips such events on replay
+     */
+    void deleteBefore(long seq) throws IOException;
+
+    /**
+     * Passes all events to the consumer in the order they have been appended. The partially written event at the
+     * end of the journal (left by the crash in the middle of append) is dropped. Should be called before the first
+     * {@link #append(LedgerEvent)}
+     */
+    void replay(Consumer<LedgerEvent> consumer) throws IOException;
+}
@@ -0,0 +1,69 @@
+package com.bank.ledger;
+
+import com.bank.config.BankConfig;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Settings of the {@link LedgerEngine}. By default all values are taken from {@link BankConfig}:
+ * <ul>
+ *     <li><code>bank.ledger</code> - keep balances in memory and persist them to the database asynchronously,
+ *     disabled by default</li>
+ *     <li><code>bank.ledger.journal</code> - the directory of the journal segments</li>
+ *     <li><code>bank.ledger.journalSegmentSize</code> - the size of one journal segment file in bytes</li>
+ *     <li><code>bank.ledger.journalSync</code> - force every journal record to the disk before the operation is
+ *     acknowledged, enabled by default</li>
+ *     <li><code>bank.ledger.stripes</code> - the amount of locks the Bank Accounts are spread over</li>
+ *     <li><code>bank.ledger.writeBatchSize</code> - the maximum amount of journal records persisted to the database
+ *     in one database transaction</li>
+ *     <li><code>bank.ledger.writeQueueSize</code> - the maximum amount of records waiting for the database. Once the
+ *     queue is full the new operations wait for the database</li>
+ * </ul>
+ */
+@Getter
+@Builder
+@ToString
+public class LedgerSettings {
+    static final String ENABLED_PROPERTY = "bank.ledger";
+
+    private boolean enabled;
+    @Builder.Default
+    private String journalPath = "bank-ledger-journal";
+    @Builder.Default
+    private int journalSegmentSize = 64 * 1024 * 1024;
+    @Builder.Default
+    private boolean journalSync = true;
+    @Builder.Default
+    private int stripes = 64;
+    @Builder.Default
+    private int writeBatchSize = 1000;
+    @Builder.Default
+    private int writeQueueSize = 100_000;
+
+    /**
+     * @return settings defined by the config
+     */
+    public static LedgerSettings fromConfig(BankConfig config) {
+        LedgerSettings defaults = builder().build();
+
+        return builder()
+                .enabled(isEnabled(config))
+                .journalPath(config.getString("bank.ledger.journal", defaults.getJournalPath()))
+                .journalSegmentSize(config.getInt("bank.ledger.journalSegmentSize",
+                        defaults.getJournalSegmentSize()))
+                .journalSync(config.getBoolean("bank.ledger.journalSync", defaults.isJournalSync()))
+                .stripes(config.getInt("bank.ledger.stripes", defaults.getStripes()))
+                .writeBatchSize(config.getInt("bank.ledger.writeBatchSize", defaults.getWriteBatchSize()))
+                .writeQueueSize(config.getInt("bank.ledger.writeQueueSize", defaults.getWriteQueueSize()))
+                .build();
+    }
+
+    /**
+     * @return true if the ledger is enabled by the config. Cheaper than building the whole settings
+     */
+    public static boolean isEnabled(BankConfig config) {
+        return config.getBoolean(ENABLED_PROPERTY, false);
+    }
+}
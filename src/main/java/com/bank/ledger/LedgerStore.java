@@ -0,0 +1,38 @@
+package com.bank.ledger;
+
+import java.util.List;
+
+import com.bank.model.BankAccount;
+import com.bank.model.Transaction;
+
+/**
+ * The database behind the {@link LedgerEngine}. The engine loads its initial state from the store and writes the
+ * journaled events back to it asynchronously.
+ */
+public interface LedgerStore {
+
+    /**
+     * @return the sequence number of the last event persisted by {@link #persist(List)} or 0
+     */
+    long getCheckpoint();
+
+    List<BankAccount> getBankAccounts();
+
+    /**
+     * @return Bank Account with ID specified or null if it doesn't exist
+     */
+    BankAccount getBankAccount(long id);
+
+    List<Transaction> getPlannedTransactions();
+
+    /**
+     * @return the maximum ID of existing transactions or 0
+     */
+    long getMaxTransactionId();
+
+    /**
+     * Writes the events ordered by sequence number and the sequence number of the last one as the new checkpoint
+     * in one database transaction
+     */
+    void persist(List<LedgerEvent> events);
+}
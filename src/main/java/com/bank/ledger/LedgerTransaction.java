@@ -0,0 +1,54 @@
+package com.bank.ledger;
+
+import com.bank.model.Transaction;
+import com.bank.model.TransactionStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Immutable state of the transaction kept by {@link LedgerEngine} until it has been persisted. Dates are in
+ * {@link com.bank.model.EpochMicros}. <code>seq</code> is
+ * the sequence number of the last journal event of this transaction, <code>idempotencyKey</code> is the key of the
+ * request which has created it or null
+ */
+@Getter
+@AllArgsConstructor
+class LedgerTransaction {
+    private final long id;
+    private final long fromBankAccountId;
+    private final long toBankAccountId;
+    private final long amount;
+    private final long creationDate;
+    private final long updateDate;
+    private final TransactionStatus status;
+    private final String failMessage;
+    private final long seq;
+    private final String idempotencyKey;
+
+    static LedgerTransaction of(Transaction transaction) {
+        return new LedgerTransaction(transaction.getId(), transaction.getFromBankAccountId(),
+                transaction.getToBankAccountId(), transaction.getAmountMinorUnits(),
+                transaction.getCreationMicros(), transaction.getUpdateMicros(),
+                transaction.getStatus(), transaction.getFailMessage(), 0, transaction.getIdempotencyKey());
+    }
+
+    LedgerTransaction executed(TransactionStatus status, String failMessage, long updateDate, long seq) {
+        return new LedgerTransaction(id, fromBankAccountId, toBankAccountId, amount, creationDate, updateDate,
+                status, failMessage, seq, idempotencyKey);
+    }
+
+    Transaction toTransaction() {
+        return Transaction.builder()
+                .id(id)
+                .fromBankAccountId(fromBankAccountId)
+                .toBankAccountId(toBankAccountId)
+                .amountMinorUnits(amount)
+                .creationMicros(creationDate)
+                .updateMicros(updateDate)
+                .status(status)
+                .failMessage(failMessage == null ? "" : failMessage)
+                .idempotencyKey(idempotencyKey)
+                .build();
+    }
+}
@@ -0,0 +1,159 @@
+package com.bank.ledger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The write-behind worker of {@link LedgerEngine}. Journaled events are queued in the order of their sequence numbers
+ * and persisted to the {@link LedgerStore} by one thread in batches. Once the batch could not be persisted it is
+ * retried until it succeeds, so the database never skips an event. On close the failed batch is not retried, the
+ * events are still in the journal and will be replayed on the next start.
+ */
+class LedgerWriter {
+    private static final Logger log = LoggerFactory.getLogger(LedgerWriter.class);
+
+    private static final long POLL_MILLIS = 100;
+    private static final long RETRY_MILLIS = 1000;
+
+    private final LedgerStore store;
+    private final int batchSize;
+    private final Consumer<List<LedgerEvent>> persistedListener;
+    private final BlockingQueue<LedgerEvent> queue;
+    private final Thread thread;
+
+    private final Object persistedLock = new Object();
+    private volatile long persistedSeq;
+    private volatile boolean running = true;
+
+    /**
+     * @param persistedListener called with every batch once it has been persisted
+     */
+    LedgerWriter(LedgerStore store, int batchSize, int queueSize, long persistedSeq,
+                 Consumer<List<LedgerEvent>> persistedListener) {
+        this.store = store;
+        this.batchSize = batchSize;
+        this.persistedSeq = persistedSeq;
+        this.persistedListener = persistedListener;
+        this.queue = new LinkedBlockingQueue<>(queueSize);
+        this.thread = new Thread(this::persistQueuedEvents, "ledger-writer");
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    /**
+     * Queues the event. Waits while the queue is full, so the ledger does not get ahead of the database more than
+     * the queue size
+     */
+    void enqueue(LedgerEvent event) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                queue.put(event);
+                break;
+            } catch (InterruptedException e) {
+                // The event is journaled already, so it should reach the database anyway
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    int getQueueSize() {
+        return queue.size();
+    }
+
+    long getPersistedSeq() {
+        return persistedSeq;
+    }
+
+    /**
+     * Waits until all events up to <code>seq</code> will be persisted
+     *
+     * @return true if the events have been persisted in time
+     */
+    boolean awaitPersisted(long seq, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        synchronized (persistedLock) {
+            while (persistedSeq < seq) {
+                long waitMillis = deadline - System.currentTimeMillis();
+                if (waitMillis <= 0) {
+                    return false;
+                }
+                persistedLock.wait(waitMillis);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Persists queued events and stops the worker. The events which could not be persisted in time stay in the
+     * journal and will be persisted after the restart
+     */
+    void close(long timeoutMillis) {
+        running = false;
+        try {
+            thread.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            thread.interrupt();
+            log.warn("Ledger writer has been stopped with {} events not persisted", queue.size());
+        }
+    }
+
+    private void persistQueuedEvents() {
+        List<LedgerEvent> batch = new ArrayList<>(batchSize);
+
+        while (running || !queue.isEmpty() || !batch.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    LedgerEvent event = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    if (event == null) {
+                        continue;
+                    }
+                    batch.add(event);
+                    queue.drainTo(batch, batchSize - 1);
+                }
+
+                store.persist(batch);
+
+                // The listener goes first, so the waiters of the seq see the engine which has forgotten the batch
+                persistedListener.accept(batch);
+                synchronized (persistedLock) {
+                    persistedSeq = batch.get(batch.size() - 1).getSeq();
+                    persistedLock.notifyAll();
+                }
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                if (!running) {
+                    // The events are in the journal and will be persisted after the restart
+                    log.error("Could not persist {} ledger events on close", batch.size() + queue.size(), e);
+                    return;
+                }
+                log.error("Could not persist {} ledger events. Retrying", batch.size(), e);
+                try {
+                    Thread.sleep(RETRY_MILLIS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package com.bank.ledger;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link LedgerJournal} of memory mapped segment files in one directory. Segments are named by their index
+ * (<code>00000000000000000000.segment</code>, <code>00000000000000000001.segment</code> and so on) and have the
+ * fixed size given on creation. Every record is written right into the mapped segment:
+ * <ul>
+ *     <li>the length of the event (4 bytes)</li>
+ *     <li>CRC32 of the event (4 bytes)</li>
+ *     <li>the event in the fixed layout of {@link LedgerEvent#write(ByteBuffer)}</li>
+ * </ul>
+ * The length is written last, so the zero length marks the end of the written part of the segment. Once the record
+ * does not fit into the rest of the segment the next segment is created. With <code>sync</code> enabled every
+ * append forces the segment to the disk before it returns, otherwise the written records survive the crash of the
+ * process but not the crash of the OS.
+ * <p>
+ * The record with wrong length or checksum at the end of the last segment is the torn write of the crash, it is
+ * cleared on open. The same in any other segment means the journal has been corrupted and the replay fails.
+ * <p>
+ * The segments which have only the events up to the given seq are deleted by {@link #deleteBefore(long)}. The
+ * first seq of every segment is kept in memory, so the check does not read the segments.
+ * <p>
+ * The journal is not thread safe except {@link #force()}, the callers append the events one by one. The segment is
+ * forced before the rollover, so the concurrent force of the new segment covers the records of the previous one.
+ */
+public class MappedLedgerJournal implements LedgerJournal {
+    private static final Logger log = LoggerFactory.getLogger(MappedLedgerJournal.class);
+
+    private static final String SEGMENT_SUFFIX = ".segment";
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean sync;
+    private final CRC32 crc = new CRC32();
+    // The seq of the first record of the segments which have records, by their indexes
+    private final TreeMap<Long, Long> firstSeqs = new TreeMap<>();
+
+    private long segmentIndex;
+    private FileChannel channel;
+    // Read by the concurrent force
+    private volatile MappedByteBuffer segment;
+    private long lastSeq;
+
+    /**
+     * Opens the journal in the directory (it is created if it doesn't exist) and prepares the end of the last
+     * segment for the appends
+     *
+     * @param directory   the directory of segment files
+     * @param segmentSize the size of the new segments in bytes
+     * @param sync        force every record to the disk
+     */
+    public MappedLedgerJournal(Path directory, int segmentSize, boolean sync) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.sync = sync;
+
+        Files.createDirectories(directory);
+        List<Long> segments = listSegments();
+        if (segments.isEmpty()) {
+            openSegment(0);
+            return;
+        }
+
+        openSegment(segments.get(segments.size() - 1));
+        segment.position(scan(segment, segmentIndex, true, event -> lastSeq = event.getSeq()));
+        for (long index : segments) {
+            readFirstSeq(index);
+        }
+
+        // the crash right after the rollover leaves the empty last segment
+        for (int i = segments.size() - 2; i >= 0 && lastSeq == 0; i--) {
+            try (FileChannel previous = FileChannel.open(segmentPath(segments.get(i)), StandardOpenOption.READ)) {
+                scan(previous.map(FileChannel.MapMode.READ_ONLY, 0, previous.size()), segments.get(i), false,
+                        event -> lastSeq = event.getSeq());
+            }
+        }
+    }
+
+    /**
+     * @return the sequence number of the last event in the journal or 0 if it is empty
+     */
+    public long getLastSeq() {
+        return lastSeq;
+    }
+
+    @Override
+    public void append(LedgerEvent event) throws IOException {
+        if (!tryAppend(event)) {
+            if (segment.position() == 0) {
+                throw new IOException("Event " + event.getSeq() + " does not fit into the journal segment of "
+                        + segmentSize + " bytes");
+            }
+            force();
+            openSegment(segmentIndex + 1);
+            if (!tryAppend(event)) {
+                throw new IOException("Event " + event.getSeq() + " does not fit into the journal segment of "
+                        + segmentSize + " bytes");
+            }
+        }
+        lastSeq = event.getSeq();
+        firstSeqs.putIfAbsent(segmentIndex, lastSeq);
+        if (sync) {
+            segment.force();
+        }
+    }
+
+    @Override
+    public void replay(Consumer<LedgerEvent> consumer) throws IOException {
+        for (long index : listSegments()) {
+            if (index == segmentIndex) {
+                scan(segment.duplicate(), index, false, consumer);
+            } else {
+                try (FileChannel previous = FileChannel.open(segmentPath(index), StandardOpenOption.READ)) {
+                    scan(previous.map(FileChannel.MapMode.READ_ONLY, 0, previous.size()), index, false, consumer);
+                }
+            }
+        }
+    }
+
+    /**
+     * Deletes the oldest segments while the next segment starts not later than right after <code>seq</code>. The
+     * current segment is never deleted
+     */
+    @Override
+    public void deleteBefore(long seq) throws IOException {
+        while (firstSeqs.size() > 1) {
+            Iterator<Map.Entry<Long, Long>> segments = firstSeqs.entrySet().iterator();
+            long oldest = segments.next().getKey();
+            if (segments.next().getValue() > seq + 1) {
+                return;
+            }
+            Files.deleteIfExists(segmentPath(oldest));
+            firstSeqs.remove(oldest);
+            log.debug("Journal segment {} has been deleted", segmentPath(oldest));
+        }
+    }
+
+    /**
+     * Forces the segment to the disk and closes it. The mapping itself is released by the garbage collector
+     */
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    /**
+     * Writes the record at the current position of the segment
+     *
+     * @return false if there is no room for the record in the rest of the segment
+     */
+    private boolean tryAppend(LedgerEvent event) {
+        int start = segment.position();
+        if (segment.remaining() < HEADER_BYTES + LedgerEvent.FIXED_BYTES) {
+            return false;
+        }
+
+        ByteBuffer payload = segment.duplicate();
+        payload.position(start + HEADER_BYTES);
+        try {
+            event.write(payload);
+        } catch (BufferOverflowException e) {
+            return false;
+        }
+        int length = payload.position() - start - HEADER_BYTES;
+
+        payload.flip();
+        payload.position(start + HEADER_BYTES);
+        crc.reset();
+        crc.update(payload);
+
+        segment.putInt(start + Integer.BYTES, (int) crc.getValue());
+        segment.putInt(start, length);
+        segment.position(start + HEADER_BYTES + length);
+        return true;
+    }
+
+    /**
+     * Passes valid records of the segment to the consumer
+     *
+     * @param buffer  the mapped segment
+     * @param index   the index of the segment
+     * @param repair  clear the broken record at the end instead of failing
+     * @return the position after the last valid record
+     */
+    private int scan(ByteBuffer buffer, long index, boolean repair, Consumer<LedgerEvent> consumer)
+            throws IOException {
+        int position = 0;
+        while (position + HEADER_BYTES <= buffer.limit()) {
+            int length = buffer.getInt(position);
+            if (length == 0) {
+                return position;
+            }
+
+            LedgerEvent event = readRecord(buffer, position, length);
+            if (event == null) {
+                if (!repair) {
+                    throw new IOException("Journal segment " + segmentPath(index) + " is corrupted at " + position);
+                }
+                log.warn("Clearing the broken record at {} of the journal segment {}", position, segmentPath(index));
+                for (int i = position; i < buffer.limit(); i++) {
+                    buffer.put(i, (byte) 0);
+                }
+                return position;
+            }
+
+            consumer.accept(event);
+            position += HEADER_BYTES + length;
+        }
+        return position;
+    }
+
+    /**
+     * @return the event of the record or null if the length or the checksum is wrong
+     */
+    private LedgerEvent readRecord(ByteBuffer buffer, int position, int length) {
+        int start = position + HEADER_BYTES;
+        if (length < LedgerEvent.FIXED_BYTES || length > buffer.limit() - start) {
+            return null;
+        }
+
+        ByteBuffer payload = buffer.duplicate();
+        payload.limit(start + length);
+        payload.position(start);
+        crc.reset();
+        crc.update(payload);
+        if ((int) crc.getValue() != buffer.getInt(position + Integer.BYTES)) {
+            return null;
+        }
+
+        payload.position(start);
+        try {
+            return LedgerEvent.read(payload);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private void openSegment(long index) throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+        Path path = segmentPath(index);
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        long size = channel.size() > 0 ? channel.size() : segmentSize;
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        segmentIndex = index;
+        if (sync) {
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Remembers the seq of the first record of the segment, the segment without valid first record is skipped
+     */
+    private void readFirstSeq(long index) throws IOException {
+        LedgerEvent first;
+        if (index == segmentIndex) {
+            first = readRecord(segment, 0, segment.getInt(0));
+        } else {
+            try (FileChannel previous = FileChannel.open(segmentPath(index), StandardOpenOption.READ)) {
+                ByteBuffer buffer = previous.map(FileChannel.MapMode.READ_ONLY, 0, previous.size());
+                first = buffer.limit() < HEADER_BYTES ? null : readRecord(buffer, 0, buffer.getInt(0));
+            }
+        }
+        if (first != null) {
+            firstSeqs.put(index, first.getSeq());
+        }
+    }
+
+    @Override
+    public void force() {
+        MappedByteBuffer current = segment;
+        if (current != null) {
+            current.force();
+        }
+    }
+
+    private List<Long> listSegments() throws IOException {
+        List<Long> segments = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                segments.add(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())));
+            }
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+
+    private Path segmentPath(long index) {
+        return directory.resolve(String.format("%020d%s", index, SEGMENT_SUFFIX));
+    }
+}
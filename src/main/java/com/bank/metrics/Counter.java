@@ -0,0 +1,31 @@
+package com.bank.metrics;
+
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The amount of some events since the start of the application, e.g. rejected requests. Incrementing is one
+ * {@link LongAdder} update without locks
+ */
+public class Counter {
+    private final String name;
+    private final Map<String, String> labels;
+    private final LongAdder count = new LongAdder();
+
+    Counter(String name, Map<String, String> labels) {
+        this.name = name;
+        this.labels = labels;
+    }
+
+    public void increment() {
+        count.increment();
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public CounterSnapshot snapshot() {
+        return new CounterSnapshot(name, labels, count.sum());
+    }
+}
@@ -0,0 +1,19 @@
+package com.bank.metrics;
+
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * The value of {@link Counter} at the moment of the snapshot
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class CounterSnapshot {
+    private final String name;
+    private final Map<String, String> labels;
+    private final long count;
+}
@@ -0,0 +1,39 @@
+package com.bank.metrics;
+
+import java.util.Map;
+import java.util.function.DoubleSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The value read from its source only once the metrics are requested, so the gauge costs nothing between the
+ * requests
+ */
+public class Gauge {
+    private static final Logger log = LoggerFactory.getLogger(Gauge.class);
+
+    private final String name;
+    private final Map<String, String> labels;
+    private final DoubleSupplier value;
+
+    Gauge(String name, Map<String, String> labels, DoubleSupplier value) {
+        this.name = name;
+        this.labels = labels;
+        this.value = value;
+    }
+
+    /**
+     * The value is NaN once the source could not be read, e.g. the database is not available
+     */
+    public GaugeSnapshot snapshot() {
+        double currentValue;
+        try {
+            currentValue = value.getAsDouble();
+        } catch (RuntimeException e) {
+            log.warn("Could not read the value of gauge {}", name, e);
+            currentValue = Double.NaN;
+        }
+        return new GaugeSnapshot(name, labels, currentValue);
+    }
+}
@@ -0,0 +1,130 @@
+package com.bank.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.DoubleSupplier;
+
+/**
+ * The registry of all runtime metrics of the application exposed by <code>/api/v1/metrics</code>. There are two
+ * kinds of metrics recorded by the application itself and the gauges:
+ * <ul>
+ *     <li>{@link Timer} - the histogram of durations</li>
+ *     <li>{@link Counter} - the amount of events, should be named with <code>_total</code> suffix</li>
+ *     <li>{@link Gauge} - the value read from its source only once the metrics are requested, e.g. the amount of
+ *     active database connections</li>
+ * </ul>
+ * Every metric is identified by the name and the labels given as <code>name, value</code> pairs. Looking the
+ * metric up builds its key, so the hot paths should keep the metric in a field instead of looking it up for every
+ * recording.
+ */
+public class MetricsRegistry {
+    private static final MetricsRegistry registry = new MetricsRegistry();
+
+    private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Gauge> gauges = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor made just for testing purpose
+     */
+    public MetricsRegistry() {
+    }
+
+    /**
+     * @return the singleton registry used by the application
+     */
+    public static MetricsRegistry getInstance() {
+        return registry;
+    }
+
+    /**
+     * @param name   the name of the timer. Should end with <code>_seconds</code> as the durations are exposed in
+     *               seconds
+     * @param labels <code>name, value</code> pairs
+     * @return the existing timer with the name and labels or the new one
+     */
+    public Timer timer(String name, String... labels) {
+        String key = key(name, labels);
+
+        Timer timer = timers.get(key);
+        if (timer == null) {
+            timer = timers.computeIfAbsent(key, k -> new Timer(name, toMap(labels)));
+        }
+        return timer;
+    }
+
+    /**
+     * @param name   the name of the counter
+     * @param labels <code>name, value</code> pairs
+     * @return the existing counter with the name and labels or the new one
+     */
+    public Counter counter(String name, String... labels) {
+        String key = key(name, labels);
+
+        Counter counter = counters.get(key);
+        if (counter == null) {
+            counter = counters.computeIfAbsent(key, k -> new Counter(name, toMap(labels)));
+        }
+        return counter;
+    }
+
+    /**
+     * Registers the gauge. The gauge with the same name and labels registered before is replaced
+     *
+     * @param name   the name of the gauge
+     * @param value  the source of the value called every time the metrics are requested
+     * @param labels <code>name, value</code> pairs
+     */
+    public void gauge(String name, DoubleSupplier value, String... labels) {
+        gauges.put(key(name, labels), new Gauge(name, toMap(labels), value));
+    }
+
+    public MetricsSnapshot snapshot() {
+        List<TimerSnapshot> timerSnapshots = new ArrayList<>();
+        for (Timer timer : sorted(timers).values()) {
+            timerSnapshots.add(timer.snapshot());
+        }
+
+        List<CounterSnapshot> counterSnapshots = new ArrayList<>();
+        for (Counter counter : sorted(counters).values()) {
+            counterSnapshots.add(counter.snapshot());
+        }
+
+        List<GaugeSnapshot> gaugeSnapshots = new ArrayList<>();
+        for (Gauge gauge : sorted(gauges).values()) {
+            gaugeSnapshots.add(gauge.snapshot());
+        }
+
+        return new MetricsSnapshot(timerSnapshots, counterSnapshots, gaugeSnapshots);
+    }
+
+    private static <M> SortedMap<String, M> sorted(Map<String, M> metrics) {
+        return new TreeMap<>(metrics);
+    }
+
+    private static String key(String name, String[] labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels of " + name + " should be name, value pairs");
+        }
+        StringBuilder key = new StringBuilder(name);
+        for (int i = 0; i < labels.length; i += 2) {
+            key.append(i == 0 ? '{' : ',').append(labels[i]).append('=').append(labels[i + 1]);
+        }
+        return key.toString();
+    }
+
+    private static Map<String, String> toMap(String[] labels) {
+        Map<String, String> labelsMap = new LinkedHashMap<>();
+        for (int i = 0; i < labels.length; i += 2) {
+            labelsMap.put(labels[i], labels[i + 1]);
+        }
+        return Collections.unmodifiableMap(labelsMap);
+    }
+}
@@ -0,0 +1,19 @@
+package com.bank.metrics;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * All metrics of {@link MetricsRegistry} ordered by name and labels
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class MetricsSnapshot {
+    private final List<TimerSnapshot> timers;
+    private final List<CounterSnapshot> counters;
+    private final List<GaugeSnapshot> gauges;
+}
@@ -0,0 +1,113 @@
+package com.bank.metrics;
+
+import java.util.Map;
+
+/**
+ * Writes {@link MetricsSnapshot} in the Prometheus text exposition format. Timers are written as histograms with
+ * <code>_bucket</code>, <code>_sum</code> and <code>_count</code> series plus the <code>_max</code> gauge, counters and
+ * gauges are written as they are
+ */
+public final class PrometheusFormat {
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private PrometheusFormat() {
+    }
+
+    public static String format(MetricsSnapshot snapshot) {
+        StringBuilder out = new StringBuilder(4096);
+
+        String family = null;
+        for (TimerSnapshot timer : snapshot.getTimers()) {
+            if (!timer.getName().equals(family)) {
+                family = timer.getName();
+                out.append("# TYPE ").append(family).append(" histogram\n");
+            }
+            for (Map.Entry<String, Long> bucket : timer.getBuckets().entrySet()) {
+                out.append(timer.getName()).append("_bucket");
+                appendLabels(out, timer.getLabels(), bucket.getKey());
+                out.append(' ').append(bucket.getValue()).append('\n');
+            }
+            appendSample(out, timer.getName() + "_sum", timer.getLabels(), timer.getSumSeconds());
+            out.append(timer.getName()).append("_count");
+            appendLabels(out, timer.getLabels(), null);
+            out.append(' ').append(timer.getCount()).append('\n');
+        }
+
+        family = null;
+        for (TimerSnapshot timer : snapshot.getTimers()) {
+            if (!timer.getName().equals(family)) {
+                family = timer.getName();
+                out.append("# TYPE ").append(family).append("_max gauge\n");
+            }
+            appendSample(out, timer.getName() + "_max", timer.getLabels(), timer.getMaxSeconds());
+        }
+
+        family = null;
+        for (CounterSnapshot counter : snapshot.getCounters()) {
+            if (!counter.getName().equals(family)) {
+                family = counter.getName();
+                out.append("# TYPE ").append(family).append(" counter\n");
+            }
+            appendSample(out, counter.getName(), counter.getLabels(), counter.getCount());
+        }
+
+        family = null;
+        for (GaugeSnapshot gauge : snapshot.getGauges()) {
+            if (!gauge.getName().equals(family)) {
+                family = gauge.getName();
+                out.append("# TYPE ").append(family).append(" gauge\n");
+            }
+            appendSample(out, gauge.getName(), gauge.getLabels(), gauge.getValue());
+        }
+
+        return out.toString();
+    }
+
+    private static void appendSample(StringBuilder out, String name, Map<String, String> labels, double value) {
+        out.append(name);
+        appendLabels(out, labels, null);
+        out.append(' ').append(formatValue(value)).append('\n');
+    }
+
+    private static void appendLabels(StringBuilder out, Map<String, String> labels, String bucketBound) {
+        if (labels.isEmpty() && bucketBound == null) {
+            return;
+        }
+
+        char separator = '{';
+        for (Map.Entry<String, String> label : labels.entrySet()) {
+            out.append(separator).append(label.getKey()).append("=\"");
+            appendEscaped(out, label.getValue());
+            out.append('"');
+            separator = ',';
+        }
+        if (bucketBound != null) {
+            out.append(separator).append("le=\"").append(bucketBound).append('"');
+        }
+        out.append('}');
+    }
+
+    private static void appendEscaped(StringBuilder out, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == '"') {
+                out.append('\\').append(c);
+            } else if (c == '\n') {
+                out.append("\\n");
+            } else {
+                out.append(c);
+            }
+        }
+    }
+
+    private static String formatValue(double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        }
+        if (Double.isInfinite(value)) {
+            return value > 0 ? "+Inf" : "-Inf";
+        }
+        return value == Math.rint(value) && Math.abs(value) < 1e15 ? Long.toString((long) value)
+                : Double.toString(value);
+    }
+}
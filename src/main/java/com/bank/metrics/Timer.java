@@ -0,0 +1,93 @@
+package com.bank.metrics;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the durations of some operation in the fixed histogram buckets. Recording is a few {@link LongAdder}
+ * increments without locks and allocations, so the timers could be left switched on in production. The amount of
+ * recorded durations is also the amount of operations, so the rate of the operation is the rate of the count.
+ */
+public class Timer {
+    static final long[] BUCKET_BOUNDS_NANOS = {
+            500_000L, 1_000_000L, 2_500_000L, 5_000_000L, 10_000_000L, 25_000_000L, 50_000_000L, 100_000_000L,
+            250_000_000L, 500_000_000L, 1_000_000_000L, 2_500_000_000L, 5_000_000_000L, 10_000_000_000L
+    };
+    static final String INFINITY_BOUND = "+Inf";
+    private static final String[] BUCKET_BOUNDS_SECONDS = new String[BUCKET_BOUNDS_NANOS.length];
+
+    static {
+        for (int i = 0; i < BUCKET_BOUNDS_NANOS.length; i++) {
+            BUCKET_BOUNDS_SECONDS[i] = BigDecimal.valueOf(BUCKET_BOUNDS_NANOS[i], 9).stripTrailingZeros()
+                    .toPlainString();
+        }
+    }
+
+    private final String name;
+    private final Map<String, String> labels;
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS_NANOS.length + 1];
+
+    Timer(String name, Map<String, String> labels) {
+        this.name = name;
+        this.labels = labels;
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * @param nanos the duration of the operation, negative values are counted as 0
+     */
+    public void record(long nanos) {
+        long duration = Math.max(0, nanos);
+
+        int bucket = 0;
+        while (bucket < BUCKET_BOUNDS_NANOS.length && duration > BUCKET_BOUNDS_NANOS[bucket]) {
+            bucket++;
+        }
+
+        buckets[bucket].increment();
+        count.increment();
+        sumNanos.add(duration);
+        maxNanos.accumulate(duration);
+    }
+
+    /**
+     * Records the time passed since the start of the operation
+     *
+     * @param startNanos {@link System#nanoTime()} taken before the operation
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * The counters are read one by one without locking, so the snapshot taken during the recording could be off by
+     * the durations being recorded at the moment
+     */
+    public TimerSnapshot snapshot() {
+        Map<String, Long> cumulativeBuckets = new LinkedHashMap<>();
+        long cumulativeCount = 0;
+        for (int i = 0; i < BUCKET_BOUNDS_SECONDS.length; i++) {
+            cumulativeCount += buckets[i].sum();
+            cumulativeBuckets.put(BUCKET_BOUNDS_SECONDS[i], cumulativeCount);
+        }
+        cumulativeCount += buckets[BUCKET_BOUNDS_SECONDS.length].sum();
+        cumulativeBuckets.put(INFINITY_BOUND, cumulativeCount);
+
+        return new TimerSnapshot(name, labels, cumulativeCount, toSeconds(sumNanos.sum()), toSeconds(maxNanos.get()),
+                cumulativeBuckets);
+    }
+
+    private static double toSeconds(long nanos) {
+        return (double) nanos / TimeUnit.SECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,24 @@
+package com.bank.metrics;
+
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * The snapshot of {@link Timer} counters. <code>buckets</code> are cumulative as in Prometheus histograms: the key
+ * is the upper bound in seconds (<code>+Inf</code> for the last one), the value is the amount of durations less than
+ * or equal to it
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class TimerSnapshot {
+    private final String name;
+    private final Map<String, String> labels;
+    private final long count;
+    private final double sumSeconds;
+    private final double maxSeconds;
+    private final Map<String, Long> buckets;
+}
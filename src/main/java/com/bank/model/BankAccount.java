@@ -4,6 +4,8 @@ import java.math.BigDecimal;
 import java.util.Objects;
 import java.util.Random;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import lombok.Builder;
 import lombok.Data;
 import lombok.NonNull;
@@ -13,7 +15,9 @@ import lombok.NonNull;
  * Bank Account entity model. Relates to the database table <code>bank_account</code>. Defines the bank account of
  * individual with <code>ownerName</code>. It has <code>balance</code> in specific money <code>currency</code>. Once
  * there is any PLANNED transferring transaction in the system relates to this Bank Account, the transaction amount is
- * reserved in <code>blockedAmount</code> field
+ * reserved in <code>blockedAmount</code> field.
+ * Amounts are kept in {@link Money} minor units, <code>balance</code> and <code>blockedAmount</code> properties
+ * convert them to {@link BigDecimal} for JSON.
  */
 @Data
 @Builder
@@ -21,11 +25,10 @@ public class BankAccount implements AuditId{
     private Long id;
     @NonNull
     private String ownerName;
-    @NonNull
-    
-    private BigDecimal balance;
-    @NonNull
-    private BigDecimal blockedAmount;
+    @JsonIgnore
+    private long balanceMinorUnits;
+    @JsonIgnore
+    private long blockedAmountMinorUnits;
     
     public BankAccount() {
     }
@@ -35,17 +38,36 @@ public class BankAccount implements AuditId{
     }
 
     public BankAccount(Long id, String ownerName, BigDecimal balance, BigDecimal blockedAmount ) {
+        this(id, ownerName, Money.toMinorUnits(balance), Money.toMinorUnits(blockedAmount));
+     }
+
+    public BankAccount(Long id, String ownerName, long balanceMinorUnits, long blockedAmountMinorUnits) {
         this.id = id;
         this.ownerName = ownerName;
-        this.balance = balance;
-        this.blockedAmount = blockedAmount;
-     }
+        this.balanceMinorUnits = balanceMinorUnits;
+        this.blockedAmountMinorUnits = blockedAmountMinorUnits;
+    }
 
     public BankAccount(Long id, String ownerName) {
         this.id = id;
         this.ownerName = ownerName;
     }
 
+    public BigDecimal getBalance() {
+        return Money.toBigDecimal(balanceMinorUnits);
+    }
+
+    public void setBalance(@NonNull BigDecimal balance) {
+        this.balanceMinorUnits = Money.toMinorUnits(balance);
+    }
+
+    public BigDecimal getBlockedAmount() {
+        return Money.toBigDecimal(blockedAmountMinorUnits);
+    }
+
+    public void setBlockedAmount(@NonNull BigDecimal blockedAmount) {
+        this.blockedAmountMinorUnits = Money.toMinorUnits(blockedAmount);
+    }
     
     @Override
     public boolean equals(Object o) {
@@ -59,5 +81,15 @@ public class BankAccount implements AuditId{
     public int hashCode() {
         return Objects.hash(getId());
     } 
+
+    public static class BankAccountBuilder {
+        public BankAccountBuilder balance(BigDecimal balance) {
+            return balanceMinorUnits(Money.toMinorUnits(balance));
+        }
+
+        public BankAccountBuilder blockedAmount(BigDecimal blockedAmount) {
+            return blockedAmountMinorUnits(Money.toMinorUnits(blockedAmount));
+        }
+    }
     
   }
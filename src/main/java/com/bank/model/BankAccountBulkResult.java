@@ -0,0 +1,23 @@
+package com.bank.model;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The result of the Bank Accounts created by <code>POST /api/v1/accounts/bulk</code>. The accounts are committed
+ * chunk by chunk, so once some chunk has failed the accounts of the previous chunks stay created: <code>ids</code>
+ * has the IDs of all created accounts in the order of the request and <code>error</code> describes the failure.
+ * The throughput is measured on the server from the first insert till the last commit
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BankAccountBulkResult {
+    private List<Long> ids;
+    private long durationMillis;
+    private double accountsPerSecond;
+    private String error;
+}
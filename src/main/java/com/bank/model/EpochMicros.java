@@ -0,0 +1,46 @@
+package com.bank.model;
+
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timestamps are kept inside the application as <code>long</code> amount of microseconds since the epoch.
+ * {@link Date} and {@link Timestamp} are used only on the boundaries: JSON and JDBC.
+ */
+public final class EpochMicros {
+    private static final long MICROS_PER_SECOND = TimeUnit.SECONDS.toMicros(1);
+    private static final long MICROS_PER_MILLI = TimeUnit.MILLISECONDS.toMicros(1);
+    private static final int NANOS_PER_MICRO = 1000;
+
+    private EpochMicros() {
+    }
+
+    public static long now() {
+        return System.currentTimeMillis() * MICROS_PER_MILLI;
+    }
+
+    public static long fromDate(Date date) {
+        return date.getTime() * MICROS_PER_MILLI;
+    }
+
+    public static Date toDate(long micros) {
+        return new Date(Math.floorDiv(micros, MICROS_PER_MILLI));
+    }
+
+    /**
+     * @return microseconds of the timestamp or 0 if it is null
+     */
+    public static long fromTimestamp(Timestamp timestamp) {
+        if (timestamp == null) {
+            return 0;
+        }
+        return Math.floorDiv(timestamp.getTime(), 1000) * MICROS_PER_SECOND + timestamp.getNanos() / NANOS_PER_MICRO;
+    }
+
+    public static Timestamp toTimestamp(long micros) {
+        Timestamp timestamp = new Timestamp(Math.floorDiv(micros, MICROS_PER_SECOND) * 1000);
+        timestamp.setNanos((int) Math.floorMod(micros, MICROS_PER_SECOND) * NANOS_PER_MICRO);
+        return timestamp;
+    }
+}
@@ -0,0 +1,40 @@
+package com.bank.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Money amounts are kept inside the application as <code>long</code> amount of minor units (1/10000). The scale is
+ * the same as the scale of the money columns in the database (<code>DECIMAL(19,4)</code>) and the columns are bounded
+ * to the <code>long</code> range by the check constraints, so the conversion of every stored value is exact. The
+ * amount given from outside which does not fit into the range is rejected by {@link #toMinorUnits(BigDecimal)}, the
+ * credit which would leave the range should be checked by {@link #canAdd(long, long)}. {@link BigDecimal} is used
+ * only on the boundaries: JSON and JDBC.
+ */
+public final class Money {
+    public static final int SCALE = 4;
+
+    private Money() {
+    }
+
+    /**
+     * @param amount the amount of money. Digits after the {@link #SCALE} are rounded half up as it is done by the
+     *               database
+     * @throws ArithmeticException if the amount does not fit into <code>long</code> minor units
+     */
+    public static long toMinorUnits(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toBigDecimal(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    /**
+     * @return true if the sum of the amounts fits into <code>long</code> minor units
+     */
+    public static boolean canAdd(long minorUnits, long amountMinorUnits) {
+        long sum = minorUnits + amountMinorUnits;
+        return ((minorUnits ^ sum) & (amountMinorUnits ^ sum)) >= 0;
+    }
+}
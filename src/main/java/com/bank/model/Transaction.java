@@ -3,6 +3,9 @@ package com.bank.model;
 import java.math.BigDecimal;
 import java.util.Date;
 import java.util.Objects;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -15,6 +18,11 @@ import lombok.NonNull;
  * which is initialized by <code>fromBankAccount</code> who wants to transfer money to the <code>toBankAccount</code>
  * of <code>amount</code> in <code>currency</code> currency. Additionally this class controls the creation and last
  * update dates alongside with the actual {@link TransactionStatus} <code>status</code>  and <code>failMessage</code> in case of FAIL status.
+ * While the transaction is claimed for execution by some node it is in PROCESSING status with <code>ownerId</code>
+ * and <code>leaseExpiry</code> of that claim. The transaction created with <code>Idempotency-Key</code> header keeps
+ * it in <code>idempotencyKey</code>, so the retries of the same request return this transaction.
+ * The amount is kept in {@link Money} minor units and the dates in {@link EpochMicros}, <code>amount</code>,
+ * <code>creationDate</code> and <code>updateDate</code> properties convert them for JSON.
  */
 @Data
 @AllArgsConstructor
@@ -26,19 +34,25 @@ public class Transaction  implements AuditId {
     private Long fromBankAccountId;
 	@NonNull
     private Long toBankAccountId;
-	@NonNull
-    private BigDecimal amount;
-	@NonNull
-    private Date creationDate;
-	@NonNull
-    private Date updateDate;
+	@JsonIgnore
+    private long amountMinorUnits;
+	@JsonIgnore
+    private long creationMicros;
+	@JsonIgnore
+    private long updateMicros;
 	@NonNull
     private TransactionStatus status;
     private String failMessage;
+    @JsonIgnore
+    private String ownerId;
+    @JsonIgnore
+    private Date leaseExpiry;
+    @JsonIgnore
+    private String idempotencyKey;
     
     public Transaction() {
-        this.creationDate = new Date();
-        this.updateDate = new Date();
+        this.creationMicros = EpochMicros.now();
+        this.updateMicros = creationMicros;
         this.status = TransactionStatus.PLANNED;
         this.failMessage = "";
     }
@@ -47,10 +61,33 @@ public class Transaction  implements AuditId {
         this();
         this.fromBankAccountId = fromBankAccountId;
         this.toBankAccountId = toBankAccountId;
-        this.amount = amount;
+        this.amountMinorUnits = Money.toMinorUnits(amount);
+    }
+
+    public BigDecimal getAmount() {
+        return Money.toBigDecimal(amountMinorUnits);
+    }
+
+    public void setAmount(@NonNull BigDecimal amount) {
+        this.amountMinorUnits = Money.toMinorUnits(amount);
+    }
+
+    public Date getCreationDate() {
+        return EpochMicros.toDate(creationMicros);
+    }
+
+    public void setCreationDate(@NonNull Date creationDate) {
+        this.creationMicros = EpochMicros.fromDate(creationDate);
+    }
+
+    public Date getUpdateDate() {
+        return EpochMicros.toDate(updateMicros);
+    }
+
+    public void setUpdateDate(@NonNull Date updateDate) {
+        this.updateMicros = EpochMicros.fromDate(updateDate);
     }
 
-    
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -64,4 +101,18 @@ public class Transaction  implements AuditId {
         return Objects.hash(getId());
     }
 
+    public static class TransactionBuilder {
+        public TransactionBuilder amount(BigDecimal amount) {
+            return amountMinorUnits(Money.toMinorUnits(amount));
+        }
+
+        public TransactionBuilder creationDate(Date creationDate) {
+            return creationMicros(EpochMicros.fromDate(creationDate));
+        }
+
+        public TransactionBuilder updateDate(Date updateDate) {
+            return updateMicros(EpochMicros.fromDate(updateDate));
+        }
+    }
+
 }
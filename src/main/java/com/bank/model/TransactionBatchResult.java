@@ -0,0 +1,36 @@
+package com.bank.model;
+
+import com.bank.exceptions.ExceptionType;
+import com.bank.exceptions.ObjectModificationException;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The result of one transfer of the batch created by <code>POST /api/v1/transactions/batch</code>. The results are
+ * returned in the order of the transfers in the request. Created transfer has the <code>transaction</code> with its
+ * ID and PLANNED status, rejected one has only the <code>error</code> describing why it has not been created
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionBatchResult {
+    private Transaction transaction;
+    private String error;
+
+    public static TransactionBatchResult created(Transaction transaction) {
+        return new TransactionBatchResult(transaction, null);
+    }
+
+    /**
+     * @return the result with the same error message as {@link ObjectModificationException} of the type would have
+     */
+    public static TransactionBatchResult rejected(ExceptionType type, String message) {
+        return new TransactionBatchResult(null, type.getMessage() + ": " + message);
+    }
+
+    public static TransactionBatchResult rejected(ObjectModificationException e) {
+        return new TransactionBatchResult(null, e.getMessage());
+    }
+}
@@ -0,0 +1,182 @@
+package com.bank.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.bank.config.Threads;
+import com.bank.dao.TransactionDao;
+import com.bank.exceptions.ImpossibleOperationExecution;
+import com.bank.exceptions.ObjectModificationException;
+import com.bank.model.Transaction;
+
+/**
+ * Executes PLANNED transactions on a pool of workers. The transactions are split into shards in the way that
+ * all transactions which share a Bank Account (directly or through a chain of other transactions) are placed
+ * into the same shard and executed one by one in the order of their IDs. Different shards never touch the same
+ * Bank Account so they could be executed in parallel and the final balances are the same as after the serial
+ * execution.
+ */
+public class AccountShardedExecutor {
+    private static final Logger log = LoggerFactory.getLogger(AccountShardedExecutor.class);
+
+    private final TransactionDao transactionDao;
+    private final int parallelism;
+    private final ExecutorService workers;
+
+    public AccountShardedExecutor(TransactionDao transactionDao, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism should be positive but was " + parallelism);
+        }
+        this.transactionDao = transactionDao;
+        this.parallelism = parallelism;
+
+        this.workers = Executors.newFixedThreadPool(parallelism, Threads.factory("transaction-executor-", true));
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Executes provided transactions and waits until all of them will be processed
+     *
+     * @param transactions PLANNED transactions to execute. Only ID and Bank Account IDs are used
+     */
+    public void execute(Collection<Transaction> transactions) {
+        execute(transactions, null);
+    }
+
+    /**
+     * The same as {@link #execute(Collection)} but for the transactions claimed by <code>ownerId</code>
+     *
+     * @param transactions transactions to execute. Only ID and Bank Account IDs are used
+     * @param ownerId      the owner of the leases or null for not claimed PLANNED transactions
+     */
+    public void execute(Collection<Transaction> transactions, String ownerId) {
+        List<List<Transaction>> shards = partition(transactions, parallelism);
+
+        List<Future<?>> results = new ArrayList<>(shards.size());
+        for (List<Transaction> shard : shards) {
+            results.add(workers.submit(() -> executeShard(shard, ownerId)));
+        }
+
+        for (Future<?> result : results) {
+            try {
+                result.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("Waiting for the transaction shards has been interrupted");
+                return;
+            } catch (ExecutionException e) {
+                log.error("Transaction shard has been failed", e.getCause());
+            }
+        }
+    }
+
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    private void executeShard(List<Transaction> shard, String ownerId) {
+        for (Transaction transaction : shard) {
+            try {
+                if (ownerId == null) {
+                    transactionDao.executeTransaction(transaction.getId());
+                } else {
+                    transactionDao.executeTransaction(transaction.getId(), ownerId);
+                }
+            } catch (ObjectModificationException | ImpossibleOperationExecution e) {
+                log.error("Could not execute transaction with id {}", transaction.getId(), e);
+            }
+        }
+    }
+
+    /**
+     * Splits the transactions into at most <code>shardCount</code> shards. Transactions connected by any Bank
+     * Account are always placed into the same shard. Every group of connected transactions is ordered by ID so
+     * the transactions of the same Bank Account are executed in the same order as the serial executor does.
+     * The groups of connected transactions are distributed between shards starting from the biggest one to
+     * the least loaded shard.
+     *
+     * @param transactions transactions to be split
+     * @param shardCount   maximum amount of shards
+     *
+     * @return non empty shards
+     */
+    public static List<List<Transaction>> partition(Collection<Transaction> transactions, int shardCount) {
+        List<Transaction> ordered = new ArrayList<>(transactions);
+        ordered.sort(Comparator.comparing(Transaction::getId));
+
+        Map<Long, Long> parents = new HashMap<>();
+        for (Transaction transaction : ordered) {
+            union(parents, transaction.getFromBankAccountId(), transaction.getToBankAccountId());
+        }
+
+        Map<Long, List<Transaction>> groups = new LinkedHashMap<>();
+        for (Transaction transaction : ordered) {
+            groups.computeIfAbsent(find(parents, transaction.getFromBankAccountId()), root -> new ArrayList<>())
+                    .add(transaction);
+        }
+
+        List<List<Transaction>> sortedGroups = new ArrayList<>(groups.values());
+        sortedGroups.sort((first, second) -> Integer.compare(second.size(), first.size()));
+
+        int count = Math.min(shardCount, sortedGroups.size());
+        List<List<Transaction>> shards = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            shards.add(new ArrayList<>());
+        }
+
+        for (List<Transaction> group : sortedGroups) {
+            List<Transaction> leastLoaded = shards.get(0);
+            for (List<Transaction> shard : shards) {
+                if (shard.size() < leastLoaded.size()) {
+                    leastLoaded = shard;
+                }
+            }
+            leastLoaded.addAll(group);
+        }
+
+        return shards;
+    }
+
+    private static Long find(Map<Long, Long> parents, Long accountId) {
+        Long root = accountId;
+        Long parent;
+        while ((parent = parents.get(root)) != null && !parent.equals(root)) {
+            root = parent;
+        }
+
+        Long current = accountId;
+        while (!current.equals(root)) {
+            Long next = parents.get(current);
+            parents.put(current, root);
+            current = next;
+        }
+
+        return root;
+    }
+
+    private static void union(Map<Long, Long> parents, Long firstAccountId, Long secondAccountId) {
+        parents.putIfAbsent(firstAccountId, firstAccountId);
+        parents.putIfAbsent(secondAccountId, secondAccountId);
+
+        Long firstRoot = find(parents, firstAccountId);
+        Long secondRoot = find(parents, secondAccountId);
+        if (!firstRoot.equals(secondRoot)) {
+            parents.put(secondRoot, firstRoot);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.bank.service;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The bounded map which removes approximately the least recently used entry once it is full. It is used instead of
+ * access ordered <code>LinkedHashMap</code>, as every read of such map reorders it and so it should be locked.
+ * <p>
+ * The reads are not locked: the entry just keeps the tick of its last access. The writer which has overflowed the
+ * map evicts under the lock taken only for the eviction: it examines the next {@link #SAMPLE_SIZE} entries after the
+ * ones examined by the previous eviction and removes the least recently used of them. The map which is not bigger
+ * than the sample is evicted in exact LRU order.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ */
+class ApproximateLruMap<K, V> {
+    static final int SAMPLE_SIZE = 16;
+
+    private final int maxSize;
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final AtomicLong ticks = new AtomicLong();
+    // ReentrantLock instead of the monitor does not pin the carrier of the virtual thread
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private Iterator<Map.Entry<K, Entry<V>>> evictionHand;
+
+    /**
+     * @param maxSize the maximum amount of entries
+     */
+    ApproximateLruMap(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @return the value of the key or null. The entry found becomes the most recently used one
+     */
+    V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        entry.lastAccess = ticks.incrementAndGet();
+        return entry.value;
+    }
+
+    /**
+     * Puts the value and evicts the least recently used entries while the map is bigger than its maximum size
+     *
+     * @return the amount of evicted entries
+     */
+    int put(K key, V value) {
+        entries.put(key, new Entry<>(value, ticks.incrementAndGet()));
+        return evictOverflow();
+    }
+
+    V remove(K key) {
+        Entry<V> entry = entries.remove(key);
+        return entry == null ? null : entry.value;
+    }
+
+    /**
+     * Removes the entry only if the key is still mapped to the same value
+     *
+     * @return true if the entry has been removed
+     */
+    boolean remove(K key, V value) {
+        Entry<V> entry = entries.get(key);
+        return entry != null && entry.value == value && entries.remove(key, entry);
+    }
+
+    void clear() {
+        entries.clear();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private int evictOverflow() {
+        int evicted = 0;
+        while (entries.size() > maxSize) {
+            if (evictLeastRecentlyUsed()) {
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    private boolean evictLeastRecentlyUsed() {
+        evictionLock.lock();
+        try {
+            int size = entries.size();
+            if (size <= maxSize) {
+                return false;
+            }
+
+            Map.Entry<K, Entry<V>> victim = null;
+            for (int i = 0; i < Math.min(SAMPLE_SIZE, size); i++) {
+                if (evictionHand == null || !evictionHand.hasNext()) {
+                    evictionHand = entries.entrySet().iterator();
+                    if (!evictionHand.hasNext()) {
+                        break;
+                    }
+                }
+                Map.Entry<K, Entry<V>> candidate = evictionHand.next();
+                if (victim == null || candidate.getValue().lastAccess < victim.getValue().lastAccess) {
+                    victim = candidate;
+                }
+            }
+
+            // The victim could be replaced or removed by another thread since it has been examined
+            return victim != null && entries.remove(victim.getKey(), victim.getValue());
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private static class Entry<V> {
+        private final V value;
+        private volatile long lastAccess;
+
+        private Entry(V value, long lastAccess) {
+            this.value = value;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.bank.service;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+import com.bank.dao.AccountChangeListener;
+import com.bank.model.BankAccount;
+
+/**
+ * The read-through LRU cache of Bank Accounts by ID. The entry is removed once the cache is full and it is
+ * approximately the least recently used one (see {@link ApproximateLruMap}) or once it lives longer than TTL. The hit
+ * does not take any lock. Cached Bank Accounts are copied on the way in and out, so the callers are free to change
+ * the returned objects.
+ * <p>
+ * The cache is invalidated by the {@link AccountChangeListener} notifications of the DAO layer. The loaded value
+ * could be already stale once the loading is finished. To not keep such value in the cache every change increments
+ * the epoch before removing the changed Bank Accounts, and the loaded value is removed again once the epoch has been
+ * changed since the loading started.
+ * <p>
+ * TTL limits the staleness of the changes made outside this JVM (e.g. by other nodes executing the transactions).
+ */
+public class BankAccountCache implements AccountChangeListener {
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+
+    private final ApproximateLruMap<Long, CachedBankAccount> bankAccounts;
+    private final AtomicLong epoch = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * @param maxSize the maximum amount of cached Bank Accounts. 0 disables the cache
+     * @param ttlMillis the time to live of the cached Bank Account
+     */
+    public BankAccountCache(int maxSize, long ttlMillis) {
+        this(maxSize, ttlMillis, System::nanoTime);
+    }
+
+    /**
+     * @param nanoClock the source of the current time in nanoseconds, {@link System#nanoTime()} by default
+     */
+    public BankAccountCache(int maxSize, long ttlMillis, LongSupplier nanoClock) {
+        this.maxSize = maxSize;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.nanoClock = nanoClock;
+        this.bankAccounts = new ApproximateLruMap<>(maxSize);
+    }
+
+    /**
+     * Returns the cached Bank Account or loads it with <code>loader</code> and caches it
+     *
+     * @param id Bank Account ID
+     * @param loader loads Bank Account from the database. Could return null if there is no such Bank Account, null
+     *               values are not cached
+     * @return the copy of the Bank Account with ID specified or null
+     */
+    public BankAccount get(Long id, Function<Long, BankAccount> loader) {
+        if (maxSize <= 0) {
+            return loader.apply(id);
+        }
+
+        CachedBankAccount cached = bankAccounts.get(id);
+        if (cached != null) {
+            if (nanoClock.getAsLong() - cached.loadedAt < ttlNanos) {
+                hits.increment();
+                return copy(cached.bankAccount);
+            }
+            if (bankAccounts.remove(id, cached)) {
+                evictions.increment();
+            }
+        }
+
+        misses.increment();
+        long loadEpoch = epoch.get();
+        long loadedAt = nanoClock.getAsLong();
+
+        BankAccount bankAccount = loader.apply(id);
+        if (bankAccount == null) {
+            return null;
+        }
+
+        if (epoch.get() == loadEpoch) {
+            CachedBankAccount loaded = new CachedBankAccount(copy(bankAccount), loadedAt);
+            evictions.add(bankAccounts.put(id, loaded));
+            // The change could be done between the check and the put, its removal could have been done before the put
+            if (epoch.get() != loadEpoch) {
+                bankAccounts.remove(id, loaded);
+            }
+        }
+
+        return bankAccount;
+    }
+
+    /**
+     * Removes the Bank Accounts from the cache and prevents the values being loaded at the moment from being cached
+     */
+    @Override
+    public void accountsChanged(Collection<Long> bankAccountIds) {
+        epoch.incrementAndGet();
+        for (Long id : bankAccountIds) {
+            if (bankAccounts.remove(id) != null) {
+                invalidations.increment();
+            }
+        }
+    }
+
+    public void clear() {
+        epoch.incrementAndGet();
+        invalidations.add(bankAccounts.size());
+        bankAccounts.clear();
+    }
+
+    public BankAccountCacheStatistics getStatistics() {
+        return new BankAccountCacheStatistics(hits.sum(), misses.sum(), evictions.sum(), invalidations.sum(),
+                bankAccounts.size());
+    }
+
+    private static BankAccount copy(BankAccount bankAccount) {
+        return new BankAccount(bankAccount.getId(), bankAccount.getOwnerName(), bankAccount.getBalanceMinorUnits(),
+                bankAccount.getBlockedAmountMinorUnits());
+    }
+
+    private static class CachedBankAccount {
+        private final BankAccount bankAccount;
+        private final long loadedAt;
+
+        private CachedBankAccount(BankAccount bankAccount, long loadedAt) {
+            this.bankAccount = bankAccount;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
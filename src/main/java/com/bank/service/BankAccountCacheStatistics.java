@@ -0,0 +1,25 @@
+package com.bank.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * The snapshot of the {@link BankAccountCache} counters. <code>evictions</code> counts the entries removed because
+ * of the size limit or TTL, <code>invalidations</code> counts the entries removed because of the Bank Account changes
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class BankAccountCacheStatistics {
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long invalidations;
+    private final int cachedAccounts;
+
+    public double getHitRatio() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+}
@@ -1,10 +1,21 @@
 package com.bank.service;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.bank.config.BankConfig;
 import com.bank.dao.BankAccountDao;
+import com.bank.exceptions.ExceptionType;
+import com.bank.exceptions.ImpossibleOperationExecution;
 import com.bank.exceptions.ObjectModificationException;
+import com.bank.ledger.LedgerEngine;
 import com.bank.model.BankAccount;
+import com.bank.model.BankAccountBulkResult;
  
 /**
  * Right now the proxy service under the {@link BankAccountDto}. Should be used to abstract the presentation layer
@@ -14,19 +25,47 @@ import com.bank.model.BankAccount;
  * TODO: Use DI to abstract from persistence layer
  */
 public class BankAccountService {
-	
+    private static final Logger log = LoggerFactory.getLogger(BankAccountService.class);
+
+    static final int CACHE_SIZE = BankConfig.getInstance().getInt("bank.account.cacheSize", 10_000);
+    static final long CACHE_TTL_MILLIS = BankConfig.getInstance().getLong("bank.account.cacheTtlMillis", 1_000L);
+    public static final int BULK_CHUNK_SIZE = BankConfig.getInstance().getInt("bank.account.bulkChunkSize", 1_000);
+    public static final int BULK_MAX_SIZE = BankConfig.getInstance().getInt("bank.account.bulkMaxSize", 100_000);
+
     private static final BankAccountService actService = new BankAccountService();
 
+    private final BankAccountCache bankAccountCache = new BankAccountCache(CACHE_SIZE, CACHE_TTL_MILLIS);
+
+    private BankAccountService() {
+        log.info("Bank Account cache settings: cacheSize={}, cacheTtlMillis={}", CACHE_SIZE, CACHE_TTL_MILLIS);
+        log.info("Bank Account bulk settings: bulkChunkSize={}, bulkMaxSize={}", BULK_CHUNK_SIZE, BULK_MAX_SIZE);
+        BankAccountDao.getInstance().addAccountChangeListener(bankAccountCache);
+    }
+
     public static BankAccountService getInstance() {
         return actService;
     }
 
     public Collection<BankAccount> getAllBankAccounts() {
-        return BankAccountDao.getInstance().getAllBankAccounts();
+        return applyLedgerBalances(BankAccountDao.getInstance().getAllBankAccounts());
+    }
+
+    public List<BankAccount> getBankAccountsPage(long afterId, int limit) {
+        return applyLedgerBalances(BankAccountDao.getInstance().getBankAccountsPage(afterId, limit));
     }
 
     public BankAccount getBankAccountById(Long id) {
-        return BankAccountDao.getInstance().getBankAccountById(id);
+        BankAccount bankAccount = bankAccountCache.get(id, BankAccountDao.getInstance()::getBankAccountById);
+
+        LedgerEngine ledger = LedgerEngine.getInstance();
+        return ledger == null ? bankAccount : ledger.applyBalances(bankAccount);
+    }
+
+    /**
+     * @return the counters of the Bank Accounts cache used by {@link #getBankAccountById(Long)}
+     */
+    public BankAccountCacheStatistics getCacheStatistics() {
+        return bankAccountCache.getStatistics();
     }
 
     public void updateBankAccount(BankAccount bankAccount) throws ObjectModificationException {
@@ -34,6 +73,84 @@ public class BankAccountService {
     }
 
     public BankAccount createBankAccount(BankAccount bankAccount) throws ObjectModificationException {
-        return BankAccountDao.getInstance().createBankAccount(bankAccount);
+        BankAccount createdBankAccount = BankAccountDao.getInstance().createBankAccount(bankAccount);
+
+        LedgerEngine ledger = LedgerEngine.getInstance();
+        if (ledger != null) {
+            ledger.openBankAccount(createdBankAccount);
+        }
+        return createdBankAccount;
+    }
+
+    /**
+     * Creates many Bank Accounts at once. The accounts are inserted by JDBC batches of {@link #BULK_CHUNK_SIZE} and
+     * every chunk is committed separately, so the database transaction and its locks stay small no matter how many
+     * accounts are created. Once some chunk has failed the creation stops and the accounts of the previous chunks
+     * stay created
+     *
+     * @param bankAccounts the Bank Accounts to create, the owner name is required
+     * @return the IDs of created accounts in the order they are provided and the throughput of the creation
+     * @throws ObjectModificationException if any of Bank Accounts is malformed. Nothing is created in this case
+     */
+    public BankAccountBulkResult createBankAccounts(List<BankAccount> bankAccounts)
+            throws ObjectModificationException {
+        return createBankAccounts(bankAccounts, BULK_CHUNK_SIZE);
+    }
+
+    /**
+     * The same as {@link #createBankAccounts(List)} with the chunk size provided
+     */
+    public BankAccountBulkResult createBankAccounts(List<BankAccount> bankAccounts, int chunkSize)
+            throws ObjectModificationException {
+        for (BankAccount bankAccount : bankAccounts) {
+            if (bankAccount == null || bankAccount.getOwnerName() == null) {
+                throw new ObjectModificationException(ExceptionType.OBJECT_IS_MALFORMED,
+                        "OwnerName field could not be NULL");
+            }
+        }
+
+        long startNanos = System.nanoTime();
+        List<Long> ids = new ArrayList<>(bankAccounts.size());
+        String error = null;
+        LedgerEngine ledger = LedgerEngine.getInstance();
+
+        for (int from = 0; from < bankAccounts.size(); from += chunkSize) {
+            List<BankAccount> chunk = bankAccounts.subList(from, Math.min(from + chunkSize, bankAccounts.size()));
+            try {
+                for (BankAccount createdBankAccount : BankAccountDao.getInstance().createBankAccounts(chunk)) {
+                    if (ledger != null) {
+                        ledger.openBankAccount(createdBankAccount);
+                    }
+                    ids.add(createdBankAccount.getId());
+                }
+            } catch (ImpossibleOperationExecution e) {
+                log.error("Bulk creation has been stopped after {} of {} Bank Accounts", ids.size(),
+                        bankAccounts.size(), e);
+                error = "Only " + ids.size() + " of " + bankAccounts.size() + " Bank Accounts have been created: "
+                        + e.getMessage();
+                break;
+            }
+        }
+
+        long durationNanos = System.nanoTime() - startNanos;
+        double accountsPerSecond = durationNanos == 0 ? 0
+                : ids.size() * (double) TimeUnit.SECONDS.toNanos(1) / durationNanos;
+        log.info("{} Bank Accounts have been created in {} ms ({} accounts/s)", ids.size(),
+                TimeUnit.NANOSECONDS.toMillis(durationNanos), String.format("%.1f", accountsPerSecond));
+
+        return new BankAccountBulkResult(ids, TimeUnit.NANOSECONDS.toMillis(durationNanos), accountsPerSecond, error);
+    }
+
+    /**
+     * Balances in the database are behind the balances of the {@link LedgerEngine} while it is enabled
+     */
+    private static <C extends Collection<BankAccount>> C applyLedgerBalances(C bankAccounts) {
+        LedgerEngine ledger = LedgerEngine.getInstance();
+        if (ledger != null) {
+            for (BankAccount bankAccount : bankAccounts) {
+                ledger.applyBalances(bankAccount);
+            }
+        }
+        return bankAccounts;
     }
 }
@@ -0,0 +1,19 @@
+package com.bank.service;
+
+/**
+ * Defines how {@link TransactionsService} executes PLANNED transactions
+ */
+public enum ExecutionMode {
+    /**
+     * Transactions are executed one by one, each in its own database transaction
+     */
+    SERIAL,
+    /**
+     * Transactions are executed by the {@link AccountShardedExecutor} on the pool of workers
+     */
+    SHARDED,
+    /**
+     * Transactions are executed in chunks. Each chunk is netted in memory and committed in one database transaction
+     */
+    BATCHED
+}
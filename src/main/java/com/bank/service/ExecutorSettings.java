@@ -0,0 +1,75 @@
+package com.bank.service;
+
+import java.lang.management.ManagementFactory;
+import java.util.UUID;
+
+import com.bank.config.BankConfig;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Settings of the transaction execution done by {@link TransactionsService}. By default all values are taken from
+ * {@link BankConfig}:
+ * <ul>
+ *     <li><code>bank.executor.mode</code> - {@link ExecutionMode}, SERIAL by default</li>
+ *     <li><code>bank.executor.intervalSeconds</code> - interval of the scan for PLANNED transactions, 5 seconds by
+ *     default</li>
+ *     <li><code>bank.executor.parallelism</code> - the amount of workers in SHARDED mode</li>
+ *     <li><code>bank.executor.batchSize</code> - the maximum amount of transactions executed or claimed at once</li>
+ *     <li><code>bank.executor.eventDriven</code> - execute created transactions right away</li>
+ *     <li><code>bank.executor.sweepIntervalSeconds</code> - interval of the recovery scan in event driven mode</li>
+ *     <li><code>bank.executor.leasing</code> - claim transactions before execution so several nodes could work
+ *     with the same database</li>
+ *     <li><code>bank.executor.leaseSeconds</code> - how long the claimed transaction belongs to the node</li>
+ *     <li><code>bank.node.id</code> - the unique ID of the node used as owner of the leases</li>
+ * </ul>
+ */
+@Getter
+@Builder
+@ToString
+public class ExecutorSettings {
+    @Builder.Default
+    private ExecutionMode executionMode = ExecutionMode.SERIAL;
+    @Builder.Default
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    @Builder.Default
+    private long intervalSeconds = 5;
+    @Builder.Default
+    private int batchSize = 500;
+    private boolean eventDriven;
+    @Builder.Default
+    private long sweepIntervalSeconds = 60;
+    private boolean leasing;
+    @Builder.Default
+    private long leaseSeconds = 60;
+    @Builder.Default
+    private String nodeId = defaultNodeId();
+
+    /**
+     * @return settings defined by the config
+     */
+    public static ExecutorSettings fromConfig(BankConfig config) {
+        ExecutorSettings defaults = builder().build();
+
+        return builder()
+                .executionMode(config.getEnum("bank.executor.mode", ExecutionMode.class,
+                        defaults.getExecutionMode()))
+                .parallelism(config.getInt("bank.executor.parallelism", defaults.getParallelism()))
+                .intervalSeconds(config.getLong("bank.executor.intervalSeconds", defaults.getIntervalSeconds()))
+                .batchSize(config.getInt("bank.executor.batchSize", defaults.getBatchSize()))
+                .eventDriven(config.getBoolean("bank.executor.eventDriven", defaults.isEventDriven()))
+                .sweepIntervalSeconds(config.getLong("bank.executor.sweepIntervalSeconds",
+                        defaults.getSweepIntervalSeconds()))
+                .leasing(config.getBoolean("bank.executor.leasing", defaults.isLeasing()))
+                .leaseSeconds(config.getLong("bank.executor.leaseSeconds", defaults.getLeaseSeconds()))
+                .nodeId(config.getString("bank.node.id", defaults.getNodeId()))
+                .build();
+    }
+
+    private static String defaultNodeId() {
+        // RuntimeMXBean name is pid@hostname, the random suffix makes it unique for restarts of the same process
+        return ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
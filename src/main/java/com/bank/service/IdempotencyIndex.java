@@ -0,0 +1,43 @@
+package com.bank.service;
+
+/**
+ * The bounded LRU index of the idempotency keys of recently created transactions. Maps the key to the ID of the
+ * transaction, so the retried request is answered without looking for the key in the database. Approximately the
+ * least recently used key is removed once the index is full (see {@link ApproximateLruMap}), such key is still found
+ * by the unique index of the database. The lookup does not take any lock.
+ */
+public class IdempotencyIndex {
+    private final int maxSize;
+    private final ApproximateLruMap<String, Long> transactionIds;
+
+    /**
+     * @param maxSize the maximum amount of indexed keys. 0 disables the index
+     */
+    public IdempotencyIndex(int maxSize) {
+        this.maxSize = maxSize;
+        this.transactionIds = new ApproximateLruMap<>(maxSize);
+    }
+
+    /**
+     * @return the ID of the transaction created with the key or null if the key is not indexed
+     */
+    public Long get(String idempotencyKey) {
+        if (maxSize <= 0) {
+            return null;
+        }
+
+        return transactionIds.get(idempotencyKey);
+    }
+
+    public void put(String idempotencyKey, Long transactionId) {
+        if (maxSize <= 0) {
+            return;
+        }
+
+        transactionIds.put(idempotencyKey, transactionId);
+    }
+
+    public int size() {
+        return transactionIds.size();
+    }
+}
@@ -1,34 +1,98 @@
 package com.bank.service;
 
-import java.math.BigDecimal;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.bank.config.BankConfig;
+import com.bank.config.Threads;
 import com.bank.dao.TransactionDao;
 import com.bank.exceptions.ExceptionType;
+import com.bank.exceptions.ImpossibleOperationExecution;
 import com.bank.exceptions.ObjectModificationException;
+import com.bank.ledger.LedgerEngine;
+import com.bank.metrics.Counter;
+import com.bank.metrics.MetricsRegistry;
+import com.bank.metrics.Timer;
 import com.bank.model.Transaction;
+import com.bank.model.TransactionBatchResult;
 import com.bank.model.TransactionStatus;
  
 /**
  * Right now the proxy service under the {@link TransactionDao}. Should be used to abstract the presentation layer
  * from the persistence layer.
  *
- * Additionally it schedule the transaction execution service.
+ * Additionally it schedule the transaction execution service. The way PLANNED transactions are executed is defined
+ * by {@link ExecutorSettings}: the {@link ExecutionMode}, the interval of the scan for PLANNED transactions, the
+ * amount of workers for SHARDED mode and the chunk size for BATCHED mode.
+ *
+ * In event driven mode every created transaction is passed to the settlement worker right away instead of waiting
+ * for the next scan. The scan of PLANNED transactions is still done by the same worker every
+ * <code>sweepIntervalSeconds</code> to recover transactions which have been lost from the queue (for example after
+ * the restart of the server).
+ *
+ * In leasing mode the transactions are claimed before execution: a batch of PLANNED transactions is moved to
+ * PROCESSING status with the ID of this node and the lease expiry time. Only claimed transactions are executed, so
+ * several nodes could execute transactions of the same database without fighting for the same rows. Leases of the
+ * stopped nodes are returned back to PLANNED status once expired.
+ *
+ * The transfer created in immediate mode skips the executor: it is created already executed by one database
+ * transaction. It is chosen by the request or for all requests by <code>bank.transactions.immediate</code>.
+ *
+ * Once the {@link LedgerEngine} is enabled the transactions are created and executed by the engine in memory and the
+ * database is updated asynchronously. The transactions which have not been persisted yet are read from the engine.
+ * Leasing is not supported in this mode as the engine should be the only one owner of the balances.
+ *
+ * Every run of the executor is timed by <code>bank_transaction_executor_run_seconds</code> labeled with its source:
+ * <code>sweep</code> for the run over all PLANNED transactions and <code>queue</code> for the run over the
+ * transactions taken from the settlement queue. The size of PLANNED backlog is exposed by
+ * <code>bank_transactions_planned</code> gauge. The retries answered by the idempotency key are counted by
+ * <code>bank_transactions_idempotent_replays_total</code> labeled with where the key has been found.
  *
  * TODO: make TransactionDao as an interface and pass it into the constructor. Use DI.
  */
 public class TransactionsService {
     private static final Logger log = LoggerFactory.getLogger(TransactionsService.class);
+    private static final int SETTLEMENT_QUEUE_CAPACITY = 100_000;
+    public static final String EXECUTOR_RUN_TIMER = "bank_transaction_executor_run_seconds";
+    public static final String PLANNED_TRANSACTIONS_GAUGE = "bank_transactions_planned";
+    public static final String IDEMPOTENT_REPLAYS_COUNTER = "bank_transactions_idempotent_replays_total";
+    public static final int MAX_IDEMPOTENCY_KEY_LENGTH = 128;
+    static final int IDEMPOTENCY_INDEX_SIZE = BankConfig.getInstance().getInt("bank.transactions.idempotencyIndexSize",
+            100_000);
+    static final boolean IMMEDIATE_BY_DEFAULT = BankConfig.getInstance().getBoolean("bank.transactions.immediate",
+            false);
 
     private static TransactionsService trnService;
     private TransactionDao transactionDao;
-    private static ScheduledExecutorService executorService = Executors.newSingleThreadScheduledExecutor();
+    private ExecutorSettings settings;
+    private ExecutionMode executionMode;
+    private AccountShardedExecutor shardedExecutor;
+    private int batchSize;
+    private String leaseOwnerId;
+    private BlockingQueue<Transaction> settlementQueue;
+    private LedgerEngine ledger;
+    private final Timer sweepTimer = MetricsRegistry.getInstance().timer(EXECUTOR_RUN_TIMER, "source", "sweep");
+    private final Timer queueTimer = MetricsRegistry.getInstance().timer(EXECUTOR_RUN_TIMER, "source", "queue");
+    private final IdempotencyIndex idempotencyIndex = new IdempotencyIndex(IDEMPOTENCY_INDEX_SIZE);
+    private final Counter memoryReplays =
+            MetricsRegistry.getInstance().counter(IDEMPOTENT_REPLAYS_COUNTER, "source", "memory");
+    private final Counter databaseReplays =
+            MetricsRegistry.getInstance().counter(IDEMPOTENT_REPLAYS_COUNTER, "source", "database");
+    private static ScheduledExecutorService executorService = Executors.newSingleThreadScheduledExecutor(
+            Threads.factory("transaction-scheduler-", false));
+    private static final ReentrantLock executorLock = new ReentrantLock();
 
     /**
      * Constructor made just for testing purpose
@@ -36,9 +100,56 @@ public class TransactionsService {
    // public TransactionsService() {}
 
     public TransactionsService(TransactionDao transactionDao) {
+        this(transactionDao, ExecutorSettings.fromConfig(BankConfig.getInstance()));
+    }
+
+    /**
+     * @param transactionDao the DAO used to create and execute transactions
+     * @param settings       the way PLANNED transactions will be executed
+     */
+    public TransactionsService(TransactionDao transactionDao, ExecutorSettings settings) {
+        this(transactionDao, settings, LedgerEngine.getInstance());
+    }
+
+    /**
+     * @param transactionDao the DAO used to create and execute transactions
+     * @param settings       the way PLANNED transactions will be executed
+     * @param ledger         the engine used instead of the DAO to create and execute transactions or null
+     */
+    public TransactionsService(TransactionDao transactionDao, ExecutorSettings settings, LedgerEngine ledger) {
         this.transactionDao = transactionDao;
-       executorService.scheduleAtFixedRate(() -> trnService.executeTransactions(),0, 5, TimeUnit.SECONDS);
-        log.info("Transaction Executor planned");
+        this.settings = settings;
+        this.executionMode = settings.getExecutionMode();
+        this.batchSize = settings.getBatchSize();
+        this.ledger = ledger;
+        log.info("Transaction executor settings: {}", settings);
+        log.info("Idempotency index size: {}", IDEMPOTENCY_INDEX_SIZE);
+        log.info("Transfers are executed on creation by default: {}", IMMEDIATE_BY_DEFAULT);
+        if (settings.isLeasing()) {
+            if (ledger == null) {
+                leaseOwnerId = settings.getNodeId();
+            } else {
+                log.warn("Leasing is not supported by the ledger engine and will not be used");
+            }
+        }
+        if (executionMode == ExecutionMode.SHARDED) {
+            shardedExecutor = new AccountShardedExecutor(transactionDao, settings.getParallelism());
+        }
+        if (settings.isEventDriven()) {
+            settlementQueue = new LinkedBlockingQueue<>(SETTLEMENT_QUEUE_CAPACITY);
+            Threads.factory("transaction-settlement-", true).newThread(this::settleQueuedTransactions).start();
+            log.info("Event driven Transaction Executor started");
+        } else {
+            // The exception escaping the task would cancel all next runs of it
+            executorService.scheduleAtFixedRate(() -> {
+                try {
+                    trnService.executeTransactions();
+                } catch (RuntimeException e) {
+                    log.error("Transaction executor run has been failed", e);
+                }
+            }, 0, settings.getIntervalSeconds(), TimeUnit.SECONDS);
+            log.info("Transaction Executor planned");
+        }
     }
 
     public static TransactionsService getInstance() {
@@ -46,6 +157,8 @@ public class TransactionsService {
             synchronized (TransactionsService.class) {
                 if(trnService == null){
                 	trnService = new TransactionsService(TransactionDao.getInstance());
+                    MetricsRegistry.getInstance().gauge(PLANNED_TRANSACTIONS_GAUGE,
+                            trnService::getPlannedTransactionsCount);
                 }
             }
         }
@@ -56,11 +169,37 @@ public class TransactionsService {
         return transactionDao.getAllTransactions();
     }
 
+    public List<Transaction> getTransactionsPage(long afterId, int limit) {
+        return transactionDao.getTransactionsPage(afterId, limit);
+    }
+
+    /**
+     * Passes all transactions to the handler one by one while they are read from the database
+     */
+    public void exportTransactions(TransactionDao.TransactionHandler handler) throws IOException {
+        transactionDao.exportTransactions(handler);
+    }
+
+    /**
+     * @return the amount of PLANNED transactions waiting for the execution
+     */
+    public long getPlannedTransactionsCount() {
+        return ledger != null
+                ? ledger.getPlannedTransactionsCount()
+                : transactionDao.countTransactionsByStatus(TransactionStatus.PLANNED);
+    }
+
     private Collection<Long> getAllTransactionIdsByStatus(TransactionStatus transactionStatus) {
         return transactionDao.getAllTransactionIdsByStatus(transactionStatus);
     }
 
     public Transaction getTransactionById(Long id) {
+        if (ledger != null) {
+            Transaction transaction = ledger.getTransaction(id);
+            if (transaction != null) {
+                return transaction;
+            }
+        }
         return transactionDao.getTransactionById(id);
     }
 
@@ -74,6 +213,239 @@ public class TransactionsService {
      * @return transaction object with the actual ID
      */
     public Transaction createTransaction(Transaction transaction) throws ObjectModificationException {
+        return createTransaction(transaction, false);
+    }
+
+    /**
+     * @return true once the transfers created by the API are executed on creation unless the request chooses
+     * otherwise, <code>bank.transactions.immediate</code>
+     */
+    public boolean isImmediateByDefault() {
+        return IMMEDIATE_BY_DEFAULT;
+    }
+
+    /**
+     * The same as {@link #createTransaction(Transaction)} but once <code>immediate</code> is true the transfer is
+     * done at once: the money is moved and the transaction is created with SUCCEED status in one database
+     * transaction by {@link TransactionDao#createAndExecuteTransaction(Transaction)}, so it does not wait for the
+     * executor. The transfer which could not be done at the moment is rejected and nothing is created.
+     *
+     * @return transaction object with the actual ID. SUCCEED once <code>immediate</code>, PLANNED otherwise
+     */
+    public Transaction createTransaction(Transaction transaction, boolean immediate)
+            throws ObjectModificationException {
+        verify(transaction);
+
+        if (immediate) {
+            return createAndExecuteTransaction(transaction);
+        }
+
+        Transaction createdTransaction = ledger != null
+                ? ledger.createTransaction(transaction)
+                : transactionDao.createTransaction(transaction);
+
+        settle(createdTransaction);
+
+        return createdTransaction;
+    }
+
+    private Transaction createAndExecuteTransaction(Transaction transaction) throws ObjectModificationException {
+        if (ledger == null) {
+            return transactionDao.createAndExecuteTransaction(transaction);
+        }
+
+        // The engine keeps the balances in memory, so both phases are done by the request thread without the DB
+        Long id = ledger.createTransaction(transaction).getId();
+        ledger.executeTransaction(id);
+
+        return getTransactionById(id);
+    }
+
+    /**
+     * The same as {@link #createTransaction(Transaction)} but the retries of the request with the same
+     * <code>idempotencyKey</code> return the transaction created by the first one instead of creating another one.
+     * The key is looked up in the {@link IdempotencyIndex} of recent keys and then in the unique index of the
+     * database, so the retry does not lock the source Bank Account and does not block the amount again. Once two
+     * requests with the same key are creating the transaction concurrently, the unique index rejects the second
+     * insert and the second request returns the transaction of the first one.
+     *
+     * In ledger mode the key is reserved by the {@link LedgerEngine} before it is looked up in the database, as the
+     * transaction reaches the database later. The concurrent request with the reserved key is rejected.
+     *
+     * @param idempotencyKey the key of the request provided by the client or null
+     * @return transaction created by this or by the previous request with the same key
+     * @throws ObjectModificationException if the transaction is malformed or the key has been used for the transaction
+     * with other Bank Accounts or amount
+     */
+    public Transaction createTransaction(Transaction transaction, String idempotencyKey)
+            throws ObjectModificationException {
+        return createTransaction(transaction, idempotencyKey, false);
+    }
+
+    /**
+     * The same as {@link #createTransaction(Transaction, String)} but the transaction is executed on creation once
+     * <code>immediate</code> is true, see {@link #createTransaction(Transaction, boolean)}. The retry returns the
+     * transaction created by the first request whatever mode it has been created in.
+     */
+    public Transaction createTransaction(Transaction transaction, String idempotencyKey, boolean immediate)
+            throws ObjectModificationException {
+        if (idempotencyKey == null) {
+            return createTransaction(transaction, immediate);
+        }
+        if (idempotencyKey.isEmpty() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw new ObjectModificationException(ExceptionType.OBJECT_IS_MALFORMED,
+                    "The idempotency key should have from 1 to " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters");
+        }
+        verify(transaction);
+
+        Transaction existingTransaction = getTransactionByIdempotencyKey(idempotencyKey);
+        if (existingTransaction != null) {
+            return replay(existingTransaction, transaction);
+        }
+
+        transaction.setIdempotencyKey(idempotencyKey);
+        if (ledger != null) {
+            return createLedgerTransaction(transaction, idempotencyKey, immediate);
+        }
+
+        Transaction createdTransaction;
+        try {
+            createdTransaction = createTransaction(transaction, immediate);
+        } catch (ImpossibleOperationExecution e) {
+            // The concurrent request with the same key could have inserted its transaction first
+            existingTransaction = transactionDao.getTransactionByIdempotencyKey(idempotencyKey);
+            if (existingTransaction == null) {
+                throw e;
+            }
+            idempotencyIndex.put(idempotencyKey, existingTransaction.getId());
+            databaseReplays.increment();
+            return replay(existingTransaction, transaction);
+        }
+
+        idempotencyIndex.put(idempotencyKey, createdTransaction.getId());
+        return createdTransaction;
+    }
+
+    /**
+     * Creates the transaction with the idempotency key by the {@link LedgerEngine}. The key of the transaction which
+     * has not been persisted yet is known only to the engine, so the key is reserved there first and only then looked
+     * up in the database. Once the transaction is persisted the engine forgets the key, so it is either reserved or
+     * found in the database
+     */
+    private Transaction createLedgerTransaction(Transaction transaction, String idempotencyKey, boolean immediate)
+            throws ObjectModificationException {
+        Long existingId = ledger.reserveIdempotencyKey(idempotencyKey);
+        if (existingId != null) {
+            if (existingId == LedgerEngine.PENDING_TRANSACTION_ID) {
+                throw new ObjectModificationException(ExceptionType.OBJECT_IS_MALFORMED,
+                        "The transaction with the same idempotency key is being created by another request");
+            }
+            idempotencyIndex.put(idempotencyKey, existingId);
+            memoryReplays.increment();
+            return replay(getTransactionById(existingId), transaction);
+        }
+
+        boolean created = false;
+        try {
+            Transaction persistedTransaction = transactionDao.getTransactionByIdempotencyKey(idempotencyKey);
+            if (persistedTransaction != null) {
+                idempotencyIndex.put(idempotencyKey, persistedTransaction.getId());
+                databaseReplays.increment();
+                return replay(persistedTransaction, transaction);
+            }
+
+            Transaction createdTransaction = createTransaction(transaction, immediate);
+            created = true;
+            idempotencyIndex.put(idempotencyKey, createdTransaction.getId());
+            return createdTransaction;
+        } finally {
+            if (!created) {
+                ledger.releaseIdempotencyKey(idempotencyKey);
+            }
+        }
+    }
+
+    private Transaction getTransactionByIdempotencyKey(String idempotencyKey) {
+        Long transactionId = idempotencyIndex.get(idempotencyKey);
+        if (transactionId != null) {
+            Transaction transaction = getTransactionById(transactionId);
+            if (transaction != null) {
+                memoryReplays.increment();
+                return transaction;
+            }
+        }
+        if (ledger != null) {
+            // The database is looked up after the key has been reserved, see createLedgerTransaction
+            return null;
+        }
+
+        Transaction transaction = transactionDao.getTransactionByIdempotencyKey(idempotencyKey);
+        if (transaction != null) {
+            idempotencyIndex.put(idempotencyKey, transaction.getId());
+            databaseReplays.increment();
+        }
+        return transaction;
+    }
+
+    /**
+     * @return the transaction created by the previous request once the retried request is the same
+     */
+    private static Transaction replay(Transaction existingTransaction, Transaction transaction)
+            throws ObjectModificationException {
+        if (!existingTransaction.getFromBankAccountId().equals(transaction.getFromBankAccountId())
+                || !existingTransaction.getToBankAccountId().equals(transaction.getToBankAccountId())
+                || existingTransaction.getAmountMinorUnits() != transaction.getAmountMinorUnits()) {
+            throw new ObjectModificationException(ExceptionType.OBJECT_IS_MALFORMED,
+                    "The idempotency key has been used for another transaction " + existingTransaction.getId());
+        }
+        return existingTransaction;
+    }
+
+    /**
+     * Batch form of {@link #createTransaction(Transaction)}. Every transaction is validated by the same rules and the
+     * valid ones are created by one database transaction (or one by one by the {@link LedgerEngine}). The
+     * transaction which could not be created is rejected without affecting the others
+     *
+     * @return the result of every transaction in the order they are provided
+     */
+    public List<TransactionBatchResult> createTransactions(List<Transaction> transactions) {
+        TransactionBatchResult[] results = new TransactionBatchResult[transactions.size()];
+        List<Transaction> validTransactions = new ArrayList<>(transactions.size());
+        List<Integer> validIndexes = new ArrayList<>(transactions.size());
+
+        for (int i = 0; i < results.length; i++) {
+            Transaction transaction = transactions.get(i);
+            try {
+                verify(transaction);
+                if (ledger != null) {
+                    results[i] = TransactionBatchResult.created(ledger.createTransaction(transaction));
+                } else {
+                    validTransactions.add(transaction);
+                    validIndexes.add(i);
+                }
+            } catch (ObjectModificationException e) {
+                results[i] = TransactionBatchResult.rejected(e);
+            }
+        }
+
+        List<TransactionBatchResult> createdResults = transactionDao.createTransactions(validTransactions);
+        for (int i = 0; i < createdResults.size(); i++) {
+            results[validIndexes.get(i)] = createdResults.get(i);
+        }
+
+        for (TransactionBatchResult result : results) {
+            if (result.getTransaction() != null) {
+                settle(result.getTransaction());
+            }
+        }
+
+        return Arrays.asList(results);
+    }
+
+    private static void verify(Transaction transaction) throws ObjectModificationException {
+        if (transaction == null) {
+            throw new ObjectModificationException(ExceptionType.OBJECT_IS_MALFORMED, "The transaction is not provided");
+        }
         if (transaction.getFromBankAccountId() == null || transaction.getToBankAccountId() == null) {
             throw new ObjectModificationException(ExceptionType.OBJECT_IS_MALFORMED,
                     "The transaction has not provided from Bank Account or to Bank Account values");
@@ -82,12 +454,38 @@ public class TransactionsService {
             throw new ObjectModificationException(ExceptionType.OBJECT_IS_MALFORMED,
                     "The sender and recipient should not be same");
         }
-        if (transaction.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+        if (transaction.getAmountMinorUnits() <= 0) {
             throw new ObjectModificationException(ExceptionType.OBJECT_IS_MALFORMED,
                     "The amount should be more than 0");
         }
+    }
+
+    /**
+     * Passes the created transaction to the settlement worker in event driven mode
+     */
+    private void settle(Transaction createdTransaction) {
+        // If the queue is full the transaction will be executed by the next recovery sweep
+        if (settlementQueue != null && !settlementQueue.offer(createdTransaction)) {
+            log.warn("Settlement queue is full. Transaction {} will be executed by the recovery sweep",
+                    createdTransaction.getId());
+        }
+    }
+
+    /**
+     * Stops the execution of PLANNED transactions by the background executor until {@link #resumeExecutor()} is
+     * called by the same thread. Waits for the run in progress to be finished. Made just for testing purpose, so
+     * the test could check the intermediate states of the transactions it works with. Not a part of the API, the
+     * tests reach it from the same package
+     */
+    static void pauseExecutor() {
+        executorLock.lock();
+    }
 
-        return transactionDao.createTransaction(transaction);
+    /**
+     * Lets the executor paused by {@link #pauseExecutor()} go on
+     */
+    static void resumeExecutor() {
+        executorLock.unlock();
     }
 
     /**
@@ -95,16 +493,198 @@ public class TransactionsService {
      * After execution the transaction status will be changed
      */
     public void executeTransactions() {
+        long startNanos = System.nanoTime();
+        executorLock.lock();
+        try {
+            executePlannedTransactions();
+        } finally {
+            executorLock.unlock();
+            sweepTimer.recordSince(startNanos);
+        }
+    }
+
+    private void executePlannedTransactions() {
         log.info("Starting of Transaction executor");
-        Collection<Long> plannedTransactionIds = getAllTransactionIdsByStatus(TransactionStatus.PLANNED);
+        if (ledger != null) {
+            ledger.executePlannedTransactions();
+            log.info("Transaction executor ended");
+            return;
+        }
+        if (leaseOwnerId != null) {
+            executeClaimedTransactions();
+            log.info("Transaction executor ended");
+            return;
+        }
+        switch (executionMode) {
+            case SHARDED:
+                shardedExecutor.execute(transactionDao.getAllTransactionsByStatus(TransactionStatus.PLANNED));
+                break;
+            case BATCHED:
+                executeTransactionsInBatches();
+                break;
+            default:
+                executeTransactionsSerially();
+        }
+        log.info("Transaction executor ended");
+    }
 
+    /**
+     * The loop of the settlement worker used in event driven mode. It executes transactions as soon as they appear
+     * in the settlement queue and runs the recovery sweep of all PLANNED transactions on start and then every
+     * <code>sweepIntervalSeconds</code>
+     */
+    private void settleQueuedTransactions() {
+        long sweepIntervalNanos = TimeUnit.SECONDS.toNanos(settings.getSweepIntervalSeconds());
+        long nextSweep = System.nanoTime();
+        List<Transaction> queuedTransactions = new ArrayList<>();
+
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                long waitNanos = nextSweep - System.nanoTime();
+                Transaction transaction = waitNanos > 0
+                        ? settlementQueue.poll(waitNanos, TimeUnit.NANOSECONDS)
+                        : settlementQueue.poll();
+
+                if (transaction != null) {
+                    queuedTransactions.add(transaction);
+                    settlementQueue.drainTo(queuedTransactions, batchSize - 1);
+                    executeTransactions(queuedTransactions);
+                    queuedTransactions.clear();
+                }
+
+                if (System.nanoTime() - nextSweep >= 0) {
+                    executeTransactions();
+                    nextSweep = System.nanoTime() + sweepIntervalNanos;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                queuedTransactions.clear();
+                log.error("Settlement worker iteration has been failed", e);
+            }
+        }
+    }
+
+    /**
+     * Executes just the transactions provided using the configured {@link ExecutionMode}
+     *
+     * @param transactions PLANNED transactions taken from the settlement queue
+     */
+    private void executeTransactions(List<Transaction> transactions) {
+        long startNanos = System.nanoTime();
+        executorLock.lock();
+        try {
+            executeQueuedTransactions(transactions);
+        } finally {
+            executorLock.unlock();
+            queueTimer.recordSince(startNanos);
+        }
+    }
+
+    private void executeQueuedTransactions(List<Transaction> transactions) {
+        if (ledger != null) {
+            for (Transaction transaction : transactions) {
+                try {
+                    ledger.executeTransaction(transaction.getId());
+                } catch (ObjectModificationException | ImpossibleOperationExecution e) {
+                    log.error("Could not execute transaction with id {}", transaction.getId(), e);
+                }
+            }
+            return;
+        }
+        if (leaseOwnerId != null) {
+            // Queued transactions are not claimed yet, so they are claimed together with all other PLANNED ones
+            executeClaimedTransactions();
+            return;
+        }
+        switch (executionMode) {
+            case SHARDED:
+                shardedExecutor.execute(transactions);
+                break;
+            case BATCHED:
+                executeTransactionsInBatches();
+                break;
+            default:
+                List<Long> transactionIds = new ArrayList<>(transactions.size());
+                for (Transaction transaction : transactions) {
+                    transactionIds.add(transaction.getId());
+                }
+                executeTransactionsSerially(transactionIds);
+        }
+    }
+
+    private void executeTransactionsSerially() {
+        executeTransactionsSerially(getAllTransactionIdsByStatus(TransactionStatus.PLANNED));
+    }
+
+    private void executeTransactionsSerially(Collection<Long> plannedTransactionIds) {
         for (Long transactionId : plannedTransactionIds) {
             try {
                 transactionDao.executeTransaction(transactionId);
-            } catch (ObjectModificationException e) {
-                log.error("Could not execute transaction with id %d", transactionId, e);
+            } catch (ObjectModificationException | ImpossibleOperationExecution e) {
+                log.error("Could not execute transaction with id {}", transactionId, e);
+            }
+        }
+    }
+
+    /**
+     * Executes PLANNED transactions chunk by chunk until there are no more of them. Once some chunk could not be
+     * committed, the remaining transactions are executed one by one, so the broken transaction will be marked as
+     * FAILED and will not block the others
+     */
+    private void executeTransactionsInBatches() {
+        try {
+            int executed;
+            do {
+                executed = transactionDao.executeTransactionsBatch(batchSize);
+            } while (executed == batchSize);
+        } catch (ImpossibleOperationExecution e) {
+            log.error("Could not execute transactions batch. Falling back to serial execution", e);
+            executeTransactionsSerially();
+        }
+    }
+
+    /**
+     * Returns expired leases back to PLANNED status, then claims PLANNED transactions batch by batch and executes
+     * the claimed ones until there are no more PLANNED transactions
+     */
+    private void executeClaimedTransactions() {
+        transactionDao.releaseExpiredLeases();
+
+        long leaseMillis = TimeUnit.SECONDS.toMillis(settings.getLeaseSeconds());
+        List<Transaction> claimedTransactions;
+        do {
+            claimedTransactions = transactionDao.claimTransactions(leaseOwnerId, batchSize, leaseMillis);
+
+            if (claimedTransactions.isEmpty()) {
+                break;
+            }
+
+            switch (executionMode) {
+                case SHARDED:
+                    shardedExecutor.execute(claimedTransactions, leaseOwnerId);
+                    break;
+                case BATCHED:
+                    try {
+                        transactionDao.executeClaimedTransactionsBatch(leaseOwnerId);
+                    } catch (ImpossibleOperationExecution e) {
+                        log.error("Could not execute claimed transactions batch. Falling back to serial execution", e);
+                        executeClaimedTransactionsSerially(claimedTransactions);
+                    }
+                    break;
+                default:
+                    executeClaimedTransactionsSerially(claimedTransactions);
+            }
+        } while (claimedTransactions.size() == batchSize);
+    }
+
+    private void executeClaimedTransactionsSerially(List<Transaction> claimedTransactions) {
+        for (Transaction transaction : claimedTransactions) {
+            try {
+                transactionDao.executeTransaction(transaction.getId(), leaseOwnerId);
+            } catch (ObjectModificationException | ImpossibleOperationExecution e) {
+                log.error("Could not execute transaction with id {}", transaction.getId(), e);
             }
         }
-        log.info("Transaction executor ended");
     }
 }
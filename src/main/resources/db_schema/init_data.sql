@@ -1,4 +1,5 @@
-INSERT INTO transaction_status (id, name)
+-- The script is applied on every start of the application, so it only adds the rows which do not exist yet
+MERGE INTO transaction_status (id, name) KEY (id)
 VALUES
        (1, 'Planned'),
        (2, 'Processing'),
@@ -6,7 +7,9 @@ VALUES
        (4, 'Succeed');
 
 INSERT INTO bank_account (owner_name, balance, blocked_amount)
+SELECT * FROM (
 VALUES
   ('Jyoti', 1000.5, 0),
   ('Ranjan', 1000.5, 0),
-  ('Gahan', 1000.5, 0);
\ No newline at end of file
+  ('Gahan', 1000.5, 0)
+) WHERE NOT EXISTS (SELECT 1 FROM bank_account);
@@ -0,0 +1,3 @@
+-- Owner and expiry of the lease taken by the node which claimed PLANNED transaction for execution
+ALTER TABLE transaction ADD COLUMN IF NOT EXISTS owner_id VARCHAR(64);
+ALTER TABLE transaction ADD COLUMN IF NOT EXISTS lease_expiry TIMESTAMP;
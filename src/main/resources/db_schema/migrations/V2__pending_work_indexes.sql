@@ -0,0 +1,7 @@
+-- The executor looks for PLANNED transactions (and the reaper for PROCESSING ones) on every run. Without the index
+-- the scan gets slower together with the growth of SUCCEED/FAILED history
+CREATE INDEX IF NOT EXISTS idx_transaction_status ON transaction(status_id, id);
+
+-- Transactions of the particular Bank Account ordered by ID
+CREATE INDEX IF NOT EXISTS idx_transaction_from_account ON transaction(from_account_id, id);
+CREATE INDEX IF NOT EXISTS idx_transaction_to_account ON transaction(to_account_id, id);
@@ -0,0 +1,5 @@
+-- The sequence number of the last ledger journal record persisted to the database
+CREATE TABLE IF NOT EXISTS ledger_checkpoint (
+  id INT PRIMARY KEY,
+  last_seq BIGINT NOT NULL
+);
@@ -0,0 +1,4 @@
+-- The key of the client request which has created the transaction. The unique index finds the retried request
+-- without locking the source Bank Account and rejects the concurrent duplicate. NULL keys are not unique
+ALTER TABLE transaction ADD COLUMN IF NOT EXISTS idempotency_key VARCHAR(128);
+CREATE UNIQUE INDEX IF NOT EXISTS idx_transaction_idempotency_key ON transaction(idempotency_key);
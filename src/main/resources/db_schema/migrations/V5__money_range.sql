@@ -0,0 +1,8 @@
+-- Money is kept inside the application as long amount of minor units (1/10000), so the values of DECIMAL(19,4)
+-- columns are bounded to the long range. The credit by balance = balance + ? which would leave the range fails
+-- instead of being stored and failing every later read of the row
+ALTER TABLE bank_account ADD CONSTRAINT chk_bank_account_money_range CHECK (
+  balance BETWEEN -922337203685477.5808 AND 922337203685477.5807
+  AND blocked_amount BETWEEN -922337203685477.5808 AND 922337203685477.5807);
+ALTER TABLE transaction ADD CONSTRAINT chk_transaction_money_range CHECK (
+  amount BETWEEN -922337203685477.5808 AND 922337203685477.5807);
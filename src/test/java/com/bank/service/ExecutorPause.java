@@ -0,0 +1,25 @@
+package com.bank.service;
+
+/**
+ * Gives the tests of other packages the access to the pause of the background executor of
+ * {@link TransactionsService}, which is not a part of its API
+ */
+public final class ExecutorPause {
+
+    private ExecutorPause() {
+    }
+
+    /**
+     * @see TransactionsService#pauseExecutor()
+     */
+    public static void pause() {
+        TransactionsService.pauseExecutor();
+    }
+
+    /**
+     * @see TransactionsService#resumeExecutor()
+     */
+    public static void resume() {
+        TransactionsService.resumeExecutor();
+    }
+}
@@ -0,0 +1,75 @@
+package com.bank.test.config;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.Properties;
+
+import org.testng.annotations.Test;
+
+import com.bank.config.BankConfig;
+import com.bank.db.DbSettings;
+import com.bank.service.ExecutionMode;
+import com.bank.service.ExecutorSettings;
+
+import io.qameta.allure.Description;
+
+public class BankConfigTest {
+
+    @Description("Test Description: Verify the order the settings are overridden in")
+    @Test(description = "Tests that system properties override environment variables which override the file")
+    public void testOverrides() {
+        Properties file = new Properties();
+        file.setProperty("bank.test.fromFile", "1");
+        file.setProperty("bank.test.fromEnvironment", "1");
+        file.setProperty("bank.test.fromSystem", "1");
+        BankConfig config = new BankConfig(file, Collections.singletonMap(
+                BankConfig.environmentName("bank.test.fromEnvironment"), "2"));
+
+        System.setProperty("bank.test.fromSystem", "3");
+        try {
+            assertEquals(config.getInt("bank.test.fromFile", 0), 1);
+            assertEquals(config.getInt("bank.test.fromEnvironment", 0), 2);
+            assertEquals(config.getInt("bank.test.fromSystem", 0), 3);
+            assertEquals(config.getInt("bank.test.undefined", 4), 4);
+        } finally {
+            System.clearProperty("bank.test.fromSystem");
+        }
+    }
+
+    @Description("Test Description: Verify the typed settings built from the config")
+    @Test(description = "Tests that the settings take the defined values and keep the defaults of the others")
+    public void testTypedSettings() {
+        Properties file = new Properties();
+        file.setProperty("bank.executor.mode", "batched");
+        file.setProperty("bank.executor.intervalSeconds", "1");
+        file.setProperty("bank.executor.eventDriven", "true");
+        file.setProperty("bank.db.maximumPoolSize", "32");
+        BankConfig config = new BankConfig(file, Collections.emptyMap());
+
+        ExecutorSettings executorSettings = ExecutorSettings.fromConfig(config);
+        assertEquals(executorSettings.getExecutionMode(), ExecutionMode.BATCHED);
+        assertEquals(executorSettings.getIntervalSeconds(), 1);
+        assertTrue(executorSettings.isEventDriven());
+        assertFalse(executorSettings.isLeasing());
+        assertEquals(executorSettings.getBatchSize(), 500);
+
+        DbSettings dbSettings = DbSettings.fromConfig(config);
+        assertEquals(dbSettings.getMaximumPoolSize(), 32);
+        assertEquals(dbSettings.getMinimumIdle(), 32);
+        assertEquals(dbSettings.getStatementCacheSize(), 64);
+    }
+
+    @Description("Test Description: Verify that the invalid value is rejected")
+    @Test(description = "Tests that the invalid value fails with the name of the setting",
+            expectedExceptions = IllegalArgumentException.class,
+            expectedExceptionsMessageRegExp = "Invalid value of bank.executor.batchSize: many")
+    public void testInvalidValue() {
+        Properties file = new Properties();
+        file.setProperty("bank.executor.batchSize", "many");
+
+        ExecutorSettings.fromConfig(new BankConfig(file, Collections.emptyMap()));
+    }
+}
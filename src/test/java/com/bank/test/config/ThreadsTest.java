@@ -0,0 +1,52 @@
+package com.bank.test.config;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.concurrent.ThreadFactory;
+
+import org.testng.annotations.Test;
+
+import com.bank.config.ThreadMode;
+import com.bank.config.Threads;
+
+import io.qameta.allure.Description;
+
+public class ThreadsTest {
+
+    @Description("Test Description: Verify the platform threads are named and daemon as requested")
+    @Test(description = "Tests the names and the daemon flag of the platform threads")
+    public void testPlatformThreads() {
+        ThreadFactory daemons = Threads.factory(ThreadMode.PLATFORM, "test-daemon-", true);
+        Thread first = daemons.newThread(() -> { });
+        Thread second = daemons.newThread(() -> { });
+        assertEquals(first.getName(), "test-daemon-1");
+        assertEquals(second.getName(), "test-daemon-2");
+        assertTrue(first.isDaemon());
+
+        assertFalse(Threads.factory(ThreadMode.PLATFORM, "test-user-", false).newThread(() -> { }).isDaemon());
+    }
+
+    @Description("Test Description: Verify the virtual threads are available on JDK 21+ only")
+    @Test(description = "Tests the virtual threads support matches the Java version")
+    public void testVirtualThreadsSupport() throws InterruptedException {
+        String version = System.getProperty("java.specification.version");
+        boolean expected = !version.startsWith("1.") && Integer.parseInt(version) >= 21;
+        assertEquals(Threads.isVirtualThreadsSupported(), expected);
+
+        if (expected) {
+            Thread thread = Threads.factory(ThreadMode.VIRTUAL, "test-virtual-", false).newThread(() -> { });
+            assertEquals(thread.getName(), "test-virtual-1");
+            assertTrue(thread.isDaemon());
+        }
+    }
+
+    @Description("Test Description: Verify the default thread mode")
+    @Test(description = "Tests PLATFORM mode is used unless configured otherwise")
+    public void testDefaultMode() {
+        if (System.getProperty(Threads.MODE_PROPERTY) == null) {
+            assertEquals(Threads.getMode(), ThreadMode.PLATFORM);
+        }
+    }
+}
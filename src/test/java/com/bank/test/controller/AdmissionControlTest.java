@@ -0,0 +1,108 @@
+package com.bank.test.controller;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+
+import org.testng.annotations.Test;
+
+import com.bank.controller.AdmissionControl;
+import com.bank.controller.AdmissionSettings;
+import com.bank.metrics.CounterSnapshot;
+import com.bank.metrics.MetricsRegistry;
+
+import io.qameta.allure.Description;
+
+public class AdmissionControlTest {
+
+    @Description("Test Description: Verify the in-flight limit of the endpoint")
+    @Test(description = "Tests that the request above the in-flight limit of the endpoint is rejected until the admitted one is released")
+    public void testInFlightLimit() {
+        MetricsRegistry metrics = new MetricsRegistry();
+        AdmissionControl admissionControl = new AdmissionControl(
+                AdmissionSettings.builder().transactionsInFlight(1).build(), () -> 0, () -> 0, metrics);
+
+        assertNull(admissionControl.admit(AdmissionControl.TRANSACTIONS_ENDPOINT, true));
+        assertEquals(admissionControl.admit(AdmissionControl.TRANSACTIONS_ENDPOINT, true),
+                AdmissionControl.Reason.IN_FLIGHT);
+        assertNull(admissionControl.admit(AdmissionControl.TRANSACTION_BATCHES_ENDPOINT, true));
+
+        admissionControl.release(AdmissionControl.TRANSACTIONS_ENDPOINT);
+
+        assertNull(admissionControl.admit(AdmissionControl.TRANSACTIONS_ENDPOINT, true));
+
+        CounterSnapshot rejected = metrics.snapshot().getCounters().get(0);
+        assertEquals(rejected.getName(), AdmissionControl.REJECTED_COUNTER);
+        assertEquals(rejected.getLabels().get("endpoint"), AdmissionControl.TRANSACTIONS_ENDPOINT);
+        assertEquals(rejected.getLabels().get("reason"), "in_flight");
+        assertEquals(rejected.getCount(), 1);
+    }
+
+    @Description("Test Description: Verify the high-water mark of the PLANNED backlog")
+    @Test(description = "Tests that the request growing the backlog is rejected once the counted backlog reaches the limit")
+    public void testBacklogLimit() {
+        AtomicLong backlog = new AtomicLong();
+        AdmissionControl admissionControl = new AdmissionControl(
+                AdmissionSettings.builder().maxPlannedBacklog(10).build(), backlog::get, () -> 0,
+                new MetricsRegistry());
+
+        backlog.set(10);
+        assertNull(admissionControl.admit(AdmissionControl.TRANSACTIONS_ENDPOINT, true));
+
+        admissionControl.refreshBacklog();
+
+        assertEquals(admissionControl.admit(AdmissionControl.TRANSACTIONS_ENDPOINT, true),
+                AdmissionControl.Reason.BACKLOG);
+        assertNull(admissionControl.admit(AdmissionControl.TRANSACTIONS_ENDPOINT, false));
+
+        backlog.set(9);
+        admissionControl.refreshBacklog();
+
+        assertNull(admissionControl.admit(AdmissionControl.TRANSACTIONS_ENDPOINT, true));
+    }
+
+    @Description("Test Description: Verify the limit of the threads waiting for the database connection")
+    @Test(description = "Tests that the request is rejected with 503 and Retry-After once too many threads wait for the connection")
+    public void testConnectionWaitersLimit() {
+        AtomicInteger connectionWaiters = new AtomicInteger(2);
+        AdmissionControl admissionControl = new AdmissionControl(
+                AdmissionSettings.builder().maxConnectionWaiters(2).retryAfterSeconds(3).build(), () -> 0,
+                connectionWaiters::get, new MetricsRegistry());
+
+        AdmissionControl.Reason rejection = admissionControl.admit(AdmissionControl.TRANSACTIONS_ENDPOINT, false);
+
+        assertEquals(rejection, AdmissionControl.Reason.CONNECTION_WAITERS);
+        Response response = admissionControl.response(rejection);
+        assertEquals(response.getStatus(), Response.Status.SERVICE_UNAVAILABLE.getStatusCode());
+        assertEquals(response.getHeaderString(HttpHeaders.RETRY_AFTER), "3");
+
+        connectionWaiters.set(1);
+
+        assertNull(admissionControl.admit(AdmissionControl.TRANSACTIONS_ENDPOINT, false));
+    }
+
+    @Description("Test Description: Verify the bounded wait for the database connection permit")
+    @Test(description = "Tests that the request is rejected with 503 once no connection permit is released in time")
+    public void testConnectionWaitLimit() {
+        MetricsRegistry metrics = new MetricsRegistry();
+        AdmissionControl admissionControl = new AdmissionControl(
+                AdmissionSettings.builder().connectionWaitMillis(10).connectionPermits(1).build(), () -> 0, () -> 0,
+                metrics);
+
+        assertNull(admissionControl.acquireConnection(AdmissionControl.TRANSACTIONS_ENDPOINT));
+
+        AdmissionControl.Reason rejection = admissionControl.acquireConnection(AdmissionControl.TRANSACTIONS_ENDPOINT);
+        assertEquals(rejection, AdmissionControl.Reason.CONNECTION_TIMEOUT);
+        assertEquals(admissionControl.response(rejection).getStatus(),
+                Response.Status.SERVICE_UNAVAILABLE.getStatusCode());
+
+        admissionControl.releaseConnection();
+
+        assertNull(admissionControl.acquireConnection(AdmissionControl.TRANSACTIONS_ENDPOINT));
+    }
+}
@@ -9,6 +9,7 @@ import com.bank.BankTransactionApplication;
 import com.bank.controller.BankAccountsController;
 import com.bank.dao.BankAccountDao;
 import com.bank.model.BankAccount;
+import com.bank.model.BankAccountBulkResult;
  import com.bank.service.BankAccountService;
 
 import io.qameta.allure.Step;
@@ -23,13 +24,18 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.Random;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.assertNotSame;
 import static org.testng.AssertJUnit.assertEquals;
 import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
 import static org.testng.Assert.assertNotEquals;
 
 public class BankAccountControllerTest {
@@ -99,6 +105,27 @@ public class BankAccountControllerTest {
     }
 
 
+    @Description ( "Test Description: Verify page by page retrival of bank accounts")
+	@Test (description= "Tests that method will return bank accounts page by page following the next cursor")
+    public void testGetBankAccountsPage() {
+        Response firstPage = target.path(BankAccountsController.BASE_URL)
+                .queryParam("limit", 2).request().get();
+        assertEquals(Response.Status.OK, firstPage.getStatusInfo().toEnum());
+
+        List<BankAccount> firstAccounts = firstPage.readEntity(new GenericType<List<BankAccount>>(){});
+        String nextCursor = firstPage.getHeaderString("X-Next-Cursor");
+
+        assertEquals(2, firstAccounts.size());
+        assertEquals(firstAccounts.get(1).getId().toString(), nextCursor);
+        assertNotNull(firstPage.getLink("next"));
+
+        Response secondPage = target.path(BankAccountsController.BASE_URL)
+                .queryParam("after", nextCursor).queryParam("limit", 2).request().get();
+        List<BankAccount> secondAccounts = secondPage.readEntity(new GenericType<List<BankAccount>>(){});
+
+        assertTrue(secondAccounts.get(0).getId() > firstAccounts.get(1).getId());
+    }
+
     @Description ( "Test Description: Verify unsuccessful retrival of non-existing (null id ) bank account")
 	@Test(description="Tests that method will respond as 'not found' the accounts with blank id from database")
     public void testGetNullBankAccount() {
@@ -160,6 +187,44 @@ public class BankAccountControllerTest {
         assertEquals(Response.Status.BAD_REQUEST, response.getStatusInfo().toEnum());
     }
 
+    @Description ( "Test Description: Verify bulk creation of bank accounts")
+	@Test(description="Tests that many bank accounts are created at once and their IDs are returned in the request order")
+    public void testCreateBankAccountsInBulk() {
+        int amount = 10;
+        List<BankAccount> bankAccounts = new ArrayList<>();
+        for (int i = 0; i < amount; i++) {
+            bankAccounts.add(new BankAccount("Bulk " + i, BigDecimal.TEN, BigDecimal.ZERO));
+        }
+
+        Response response = target.path(BankAccountsController.BASE_URL + "/" + BankAccountsController.BULK_PATH)
+                .request().post(Entity.entity(bankAccounts, MediaType.APPLICATION_JSON));
+
+        assertEquals(Response.Status.OK, response.getStatusInfo().toEnum());
+
+        BankAccountBulkResult result = response.readEntity(BankAccountBulkResult.class);
+
+        assertEquals(amount, result.getIds().size());
+        assertNull(result.getError());
+        assertTrue(result.getAccountsPerSecond() > 0);
+        for (int i = 1; i < amount; i++) {
+            assertTrue(result.getIds().get(i - 1) < result.getIds().get(i));
+        }
+        assertEquals("Bulk 0", BankAccountService.getInstance().getBankAccountById(result.getIds().get(0)).getOwnerName());
+        assertEquals("Bulk " + (amount - 1),
+                BankAccountService.getInstance().getBankAccountById(result.getIds().get(amount - 1)).getOwnerName());
+    }
+
+    @Description ( "Test Description: Verify bulk creation of malformed bank accounts is rejected")
+	@Test(description="Tests that bulk creation with the bank account without owner name responds with 'bad request'")
+    public void testCreateMalformedBankAccountsInBulk() {
+        List<BankAccount> bankAccounts = Arrays.asList(
+                new BankAccount("Bulk Valid", BigDecimal.TEN, BigDecimal.ZERO), new BankAccount());
+
+        Response response = target.path(BankAccountsController.BASE_URL + "/" + BankAccountsController.BULK_PATH)
+                .request().post(Entity.entity(bankAccounts, MediaType.APPLICATION_JSON));
+
+        assertEquals(Response.Status.BAD_REQUEST, response.getStatusInfo().toEnum());
+    }
 
     private Response getById(Long id) {
         return target.path(BankAccountsController.BASE_URL + "/{" + BankAccountsController.GET_BANK_ACCOUNT_BY_ID_PATH + "}")
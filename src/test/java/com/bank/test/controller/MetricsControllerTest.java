@@ -0,0 +1,96 @@
+package com.bank.test.controller;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.Response;
+
+import org.glassfish.grizzly.http.server.HttpServer;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.bank.BankTransactionApplication;
+import com.bank.controller.BankAccountsController;
+import com.bank.controller.MetricsController;
+import com.bank.dao.BankAccountDao;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.qameta.allure.Description;
+
+public class MetricsControllerTest {
+    private static HttpServer server;
+    private static WebTarget target;
+
+    @BeforeClass
+    public static void beforeAll() {
+        server = BankTransactionApplication.startServer();
+        Client c = ClientBuilder.newClient();
+
+        target = c.target(BankTransactionApplication.BASE_URI);
+
+        target.path(BankAccountsController.BASE_URL + "/" + BankAccountDao.GAHAN).request().get().close();
+    }
+
+    @AfterClass
+    public static void afterAll() {
+        server.shutdownNow();
+    }
+
+    @Description("Test Description: Verify metrics in JSON format")
+    @Test(description = "Tests that the request latency and the connection pool state are returned as JSON")
+    public void testMetricsAsJson() throws Exception {
+        Response response = target.path(MetricsController.BASE_URL).request().get();
+
+        assertEquals(Response.Status.OK, response.getStatusInfo().toEnum());
+
+        JsonNode metrics = new ObjectMapper().readTree(response.readEntity(String.class));
+
+        boolean requestTimerFound = false;
+        for (JsonNode timer : metrics.get("timers")) {
+            if (timer.get("name").asText().equals("http_server_requests_seconds")
+                    && timer.get("labels").get("resource").asText().equals("BankAccountsController.getBankAccountById")
+                    && timer.get("labels").get("status").asText().equals("2xx")) {
+                requestTimerFound = timer.get("count").asLong() > 0;
+            }
+        }
+        assertTrue(requestTimerFound);
+
+        boolean poolGaugeFound = false;
+        for (JsonNode gauge : metrics.get("gauges")) {
+            poolGaugeFound |= gauge.get("name").asText().equals("bank_db_connections")
+                    && gauge.get("labels").get("state").asText().equals("total")
+                    && gauge.get("value").asDouble() > 0;
+        }
+        assertTrue(poolGaugeFound);
+    }
+
+    @Description("Test Description: Verify metrics in Prometheus text format")
+    @Test(description = "Tests that the metrics are returned in Prometheus text exposition format")
+    public void testMetricsAsPrometheusText() {
+        Response response = target.path(MetricsController.BASE_URL).queryParam("format", "prometheus")
+                .request().get();
+
+        assertEquals(Response.Status.OK, response.getStatusInfo().toEnum());
+        assertTrue(response.getMediaType().toString().startsWith("text/plain"));
+
+        String text = response.readEntity(String.class);
+
+        assertTrue(text.contains("# TYPE http_server_requests_seconds histogram"));
+        assertTrue(text.contains(
+                "http_server_requests_seconds_count{resource=\"BankAccountsController.getBankAccountById\",status=\"2xx\"}"));
+        assertTrue(text.contains("bank_db_threads_awaiting_connection "));
+    }
+
+    @Description("Test Description: Verify metrics in unsupported format are rejected")
+    @Test(description = "Tests that metrics with unknown format responds with 'bad request'")
+    public void testMetricsInUnknownFormat() {
+        Response response = target.path(MetricsController.BASE_URL).queryParam("format", "xml").request().get();
+
+        assertEquals(Response.Status.BAD_REQUEST, response.getStatusInfo().toEnum());
+    }
+}
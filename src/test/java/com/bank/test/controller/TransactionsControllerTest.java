@@ -0,0 +1,237 @@
+package com.bank.test.controller;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.GenericType;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import org.glassfish.grizzly.http.server.HttpServer;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.bank.BankTransactionApplication;
+import com.bank.controller.TransactionsController;
+import com.bank.dao.BankAccountDao;
+import com.bank.dao.TransactionDao;
+import com.bank.db.DbUtils;
+import com.bank.exceptions.ObjectModificationException;
+import com.bank.model.BankAccount;
+import com.bank.model.Transaction;
+import com.bank.model.TransactionBatchResult;
+import com.bank.model.TransactionStatus;
+import com.bank.service.ExecutorPause;
+import com.bank.service.TransactionsService;
+
+import io.qameta.allure.Description;
+
+public class TransactionsControllerTest {
+    private static HttpServer server;
+    private static WebTarget target;
+    private static Transaction createdTransaction;
+    private static Transaction failedTransaction;
+
+    @BeforeClass
+    public static void beforeAll() throws ObjectModificationException, SQLException {
+        server = BankTransactionApplication.startServer();
+        Client c = ClientBuilder.newClient();
+
+        target = c.target(BankTransactionApplication.BASE_URI);
+
+        createdTransaction = TransactionsService.getInstance().createTransaction(
+                new Transaction(BankAccountDao.GAHAN, BankAccountDao.JYOTI, BigDecimal.ONE));
+        failedTransaction = createFailedTransaction();
+    }
+
+    /**
+     * @return the transaction which has been FAILED as the money of the sender has gone before the execution
+     */
+    private static Transaction createFailedTransaction() throws ObjectModificationException, SQLException {
+        TransactionDao transactionDao = TransactionDao.getInstance();
+        BankAccountDao bankAccountDao = BankAccountDao.getInstance();
+
+        BankAccount payer = bankAccountDao.createBankAccount(
+                new BankAccount("Export Payer", BigDecimal.TEN, BigDecimal.ZERO));
+        BankAccount payee = bankAccountDao.createBankAccount(
+                new BankAccount("Export Payee", BigDecimal.ZERO, BigDecimal.ZERO));
+
+        ExecutorPause.pause();
+        try (Connection con = DbUtils.getConnection();
+             PreparedStatement update = con.prepareStatement("update bank_account set balance = 2 where id = ?")) {
+            Transaction transaction = transactionDao.createTransaction(
+                    new Transaction(payer.getId(), payee.getId(), BigDecimal.valueOf(5)));
+
+            update.setLong(1, payer.getId());
+            update.executeUpdate();
+            con.commit();
+
+            transactionDao.executeTransaction(transaction.getId());
+            return transactionDao.getTransactionById(transaction.getId());
+        } finally {
+            ExecutorPause.resume();
+        }
+    }
+
+    @AfterClass
+    public static void afterAll() {
+        server.shutdownNow();
+    }
+
+    @Description ( "Test Description: Verify export of all transactions in JSON format")
+	@Test(description="Tests that all transactions are streamed as JSON array")
+    public void testExportTransactionsAsJson() {
+        Response response = target.path(TransactionsController.BASE_URL + "/" + TransactionsController.EXPORT_PATH)
+                .request().get();
+
+        assertEquals(Response.Status.OK, response.getStatusInfo().toEnum());
+
+        List<Transaction> transactions = response.readEntity(new GenericType<List<Transaction>>(){});
+
+        assertTrue(transactions.contains(createdTransaction));
+        Transaction exportedFailed = transactions.get(transactions.indexOf(failedTransaction));
+        assertEquals(TransactionStatus.FAILED, exportedFailed.getStatus());
+        assertTrue(exportedFailed.getFailMessage().startsWith("There is no enough money"));
+        for (int i = 1; i < transactions.size(); i++) {
+            assertTrue(transactions.get(i - 1).getId() < transactions.get(i).getId());
+        }
+    }
+
+    @Description ( "Test Description: Verify export of all transactions in CSV format")
+	@Test(description="Tests that all transactions are streamed as CSV with header")
+    public void testExportTransactionsAsCsv() {
+        Response response = target.path(TransactionsController.BASE_URL + "/" + TransactionsController.EXPORT_PATH)
+                .queryParam("format", "csv").request().get();
+
+        assertEquals(Response.Status.OK, response.getStatusInfo().toEnum());
+
+        String[] lines = response.readEntity(String.class).split("\n");
+
+        assertTrue(lines[0].startsWith("id,fromBankAccountId,toBankAccountId,amount"));
+        boolean found = false;
+        boolean foundFailed = false;
+        for (String line : lines) {
+            found |= line.startsWith(createdTransaction.getId() + "," + BankAccountDao.GAHAN + "," + BankAccountDao.JYOTI + ",");
+            foundFailed |= line.startsWith(failedTransaction.getId() + ",")
+                    && line.contains(",FAILED,There is no enough money");
+        }
+        assertTrue(found);
+        assertTrue(foundFailed);
+    }
+
+    @Description ( "Test Description: Verify batch creation of transactions")
+	@Test(description="Tests that the batch of transactions is created with the result of every transaction in the request order")
+    public void testCreateTransactionsBatch() {
+        List<Transaction> transactions = Arrays.asList(
+                new Transaction(BankAccountDao.GAHAN, BankAccountDao.JYOTI, BigDecimal.ONE),
+                new Transaction(BankAccountDao.GAHAN, BankAccountDao.GAHAN, BigDecimal.ONE),
+                new Transaction(BankAccountDao.GAHAN, BankAccountDao.RANJAN, BigDecimal.valueOf(1_000_000_000L)),
+                new Transaction(BankAccountDao.JYOTI, BankAccountDao.GAHAN, BigDecimal.ONE));
+
+        Response response = target.path(TransactionsController.BASE_URL + "/" + TransactionsController.BATCH_PATH)
+                .request().post(Entity.entity(transactions, MediaType.APPLICATION_JSON));
+
+        assertEquals(Response.Status.OK, response.getStatusInfo().toEnum());
+
+        List<TransactionBatchResult> results = response.readEntity(new GenericType<List<TransactionBatchResult>>(){});
+
+        assertEquals(4, results.size());
+        assertEquals(BankAccountDao.JYOTI, results.get(0).getTransaction().getToBankAccountId());
+        assertNotNull(results.get(0).getTransaction().getId());
+        assertNull(results.get(1).getTransaction());
+        assertNotNull(results.get(1).getError());
+        assertNull(results.get(2).getTransaction());
+        assertNotNull(results.get(2).getError());
+        assertEquals(BankAccountDao.GAHAN, results.get(3).getTransaction().getToBankAccountId());
+        assertNotNull(results.get(3).getTransaction().getId());
+    }
+
+    @Description ( "Test Description: Verify empty batch of transactions is rejected")
+	@Test(description="Tests that empty batch of transactions responds with 'bad request'")
+    public void testCreateEmptyTransactionsBatch() {
+        Response response = target.path(TransactionsController.BASE_URL + "/" + TransactionsController.BATCH_PATH)
+                .request().post(Entity.entity(Collections.emptyList(), MediaType.APPLICATION_JSON));
+
+        assertEquals(Response.Status.BAD_REQUEST, response.getStatusInfo().toEnum());
+    }
+
+    @Description ( "Test Description: Verify creation of transaction in immediate mode")
+	@Test(description="Tests that the transaction created with immediate parameter is returned already executed")
+    public void testCreateImmediateTransaction() {
+        Response response = target.path(TransactionsController.BASE_URL)
+                .queryParam(TransactionsController.IMMEDIATE_PARAM, true).request()
+                .post(Entity.entity(new Transaction(BankAccountDao.GAHAN, BankAccountDao.RANJAN, BigDecimal.ONE),
+                        MediaType.APPLICATION_JSON));
+
+        assertEquals(Response.Status.OK, response.getStatusInfo().toEnum());
+
+        Transaction transaction = response.readEntity(Transaction.class);
+
+        assertNotNull(transaction.getId());
+        assertEquals(TransactionStatus.SUCCEED, transaction.getStatus());
+    }
+
+    @Description ( "Test Description: Verify retried creation of transaction with the same Idempotency-Key")
+	@Test(description="Tests that the retry with the same Idempotency-Key returns the first transaction without creating another one")
+    public void testCreateTransactionWithIdempotencyKey() {
+        String idempotencyKey = "test-" + System.nanoTime();
+        Transaction transaction = new Transaction(BankAccountDao.GAHAN, BankAccountDao.RANJAN, BigDecimal.ONE);
+
+        Response first = target.path(TransactionsController.BASE_URL).request()
+                .header(TransactionsController.IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+                .post(Entity.entity(transaction, MediaType.APPLICATION_JSON));
+        Response retry = target.path(TransactionsController.BASE_URL).request()
+                .header(TransactionsController.IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+                .post(Entity.entity(transaction, MediaType.APPLICATION_JSON));
+
+        assertEquals(Response.Status.OK, first.getStatusInfo().toEnum());
+        assertEquals(Response.Status.OK, retry.getStatusInfo().toEnum());
+
+        Long id = first.readEntity(Transaction.class).getId();
+
+        assertNotNull(id);
+        assertEquals(id, retry.readEntity(Transaction.class).getId());
+    }
+
+    @Description ( "Test Description: Verify reuse of Idempotency-Key for another transfer is rejected")
+	@Test(description="Tests that the same Idempotency-Key with another transfer does not create the transaction")
+    public void testCreateTransactionWithReusedIdempotencyKey() {
+        String idempotencyKey = "test-" + System.nanoTime();
+
+        Response first = target.path(TransactionsController.BASE_URL).request()
+                .header(TransactionsController.IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+                .post(Entity.entity(new Transaction(BankAccountDao.GAHAN, BankAccountDao.RANJAN, BigDecimal.ONE),
+                        MediaType.APPLICATION_JSON));
+        Response reused = target.path(TransactionsController.BASE_URL).request()
+                .header(TransactionsController.IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+                .post(Entity.entity(new Transaction(BankAccountDao.GAHAN, BankAccountDao.RANJAN, BigDecimal.TEN),
+                        MediaType.APPLICATION_JSON));
+
+        assertEquals(Response.Status.OK, first.getStatusInfo().toEnum());
+        assertEquals(Response.Status.BAD_REQUEST, reused.getStatusInfo().toEnum());
+    }
+
+    @Description ( "Test Description: Verify export in unsupported format is rejected")
+	@Test(description="Tests that export with unknown format responds with 'bad request'")
+    public void testExportTransactionsInUnknownFormat() {
+        Response response = target.path(TransactionsController.BASE_URL + "/" + TransactionsController.EXPORT_PATH)
+                .queryParam("format", "xml").request().get();
+
+        assertEquals(Response.Status.BAD_REQUEST, response.getStatusInfo().toEnum());
+    }
+}
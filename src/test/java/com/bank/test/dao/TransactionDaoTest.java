@@ -7,11 +7,18 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.stream.Collectors;
 
 import org.hamcrest.Matchers;
@@ -24,7 +31,9 @@ import com.bank.db.DbUtils;
 import com.bank.exceptions.ObjectModificationException;
 import com.bank.model.BankAccount;
 import com.bank.model.Transaction;
+import com.bank.model.TransactionBatchResult;
 import com.bank.model.TransactionStatus;
+import com.bank.service.ExecutorPause;
 
 import io.qameta.allure.Description;
  
@@ -152,6 +161,136 @@ public class TransactionDaoTest {
         assertThat(vladInitialBlocked, Matchers.comparesEqualTo(vlad.getBlockedAmount()));
     }
 
+    @Description ( "Test Description: Verify failed execution of bank transaction to the account with lower ID")
+    @Test(description = "Tests that bank transaction without enough money fails without touching the target account credited first")
+    public void testFailedTransactionExecutionDoesNotTouchTarget() throws ObjectModificationException, SQLException {
+        TransactionDao transactionDao = TransactionDao.getInstance();
+        BankAccountDao bankAccountDao = BankAccountDao.getInstance();
+
+        BankAccount payee = bankAccountDao.createBankAccount(
+                new BankAccount("Credit First Payee", BigDecimal.ZERO, BigDecimal.ZERO));
+        BankAccount payer = bankAccountDao.createBankAccount(
+                new BankAccount("Credit First Payer", BigDecimal.TEN, BigDecimal.ZERO));
+
+        ExecutorPause.pause();
+        try (Connection con = DbUtils.getConnection()) {
+            Transaction transaction = transactionDao.createTransaction(
+                    new Transaction(payer.getId(), payee.getId(), BigDecimal.valueOf(5)));
+
+            // The money has gone after the transaction has been created
+            try (PreparedStatement update = con.prepareStatement("update bank_account set balance = 2 where id = ?")) {
+                update.setLong(1, payer.getId());
+                update.executeUpdate();
+            }
+            con.commit();
+
+            // The target stays locked by another connection, so the execution would wait for it once touched
+            try (PreparedStatement lock = con.prepareStatement(BankAccountDao.GET_BANK_ACCOUNT_BY_ID_SQL)) {
+                lock.setLong(1, payee.getId());
+                try (ResultSet rs = lock.executeQuery()) {
+                    assertTrue(rs.next());
+                }
+            }
+
+            transactionDao.executeTransaction(transaction.getId());
+            con.commit();
+
+            assertEquals(transactionDao.getTransactionById(transaction.getId()).getStatus(), TransactionStatus.FAILED);
+            assertThat(bankAccountDao.getBankAccountById(payee.getId()).getBalance(),
+                    Matchers.comparesEqualTo(BigDecimal.ZERO));
+            assertThat(bankAccountDao.getBankAccountById(payer.getId()).getBalance(),
+                    Matchers.comparesEqualTo(BigDecimal.valueOf(2)));
+        } finally {
+            ExecutorPause.resume();
+        }
+    }
+
+    @Description ( "Test Description: Verify that a transfer overflowing the balance of the target fails and moves no money")
+    @Test(description = "Tests that both the single and the batch execution fail the transfer to a full Bank Account")
+    public void testTransactionOverflowingTargetBalanceFails() throws ObjectModificationException {
+        TransactionDao transactionDao = TransactionDao.getInstance();
+        BankAccountDao bankAccountDao = BankAccountDao.getInstance();
+        BigDecimal maxBalance = new BigDecimal("922337203685477.5807");
+
+        BankAccount payee = bankAccountDao.createBankAccount(
+                new BankAccount("Full Payee", maxBalance, BigDecimal.ZERO));
+        BankAccount payer = bankAccountDao.createBankAccount(
+                new BankAccount("Full Payee Payer", BigDecimal.TEN, BigDecimal.ZERO));
+
+        ExecutorPause.pause();
+        try {
+            Transaction single = transactionDao.createTransaction(
+                    new Transaction(payer.getId(), payee.getId(), BigDecimal.ONE));
+            Transaction batched = transactionDao.createTransaction(
+                    new Transaction(payer.getId(), payee.getId(), BigDecimal.ONE));
+
+            try {
+                transactionDao.executeTransaction(single.getId());
+                fail("The transfer overflowing the balance of the target should not be executed");
+            } catch (ObjectModificationException e) {
+                assertEquals(transactionDao.getTransactionById(single.getId()).getStatus(), TransactionStatus.FAILED);
+            }
+
+            while (transactionDao.executeTransactionsBatch(100) == 100) {
+                // drain the whole PLANNED backlog
+            }
+            assertEquals(transactionDao.getTransactionById(batched.getId()).getStatus(), TransactionStatus.FAILED);
+
+            assertThat(bankAccountDao.getBankAccountById(payee.getId()).getBalance(),
+                    Matchers.comparesEqualTo(maxBalance));
+            assertThat(bankAccountDao.getBankAccountById(payer.getId()).getBalance(),
+                    Matchers.comparesEqualTo(BigDecimal.TEN));
+        } finally {
+            ExecutorPause.resume();
+        }
+    }
+
+    @Description ( "Test Description: Verify successful creation of already executed bank transaction in database")
+    @Test(description = "Tests that bank transaction created in immediate mode moves the money at once and has status 'Succeed'")
+    public void testImmediateTransactionCreation() throws ObjectModificationException {
+        TransactionDao transactionDao = TransactionDao.getInstance();
+        BankAccountDao bankAccountDao = BankAccountDao.getInstance();
+
+        BankAccount nikolay = bankAccountDao.getBankAccountById(BankAccountDao.RANJAN);
+        BankAccount vlad = bankAccountDao.getBankAccountById(BankAccountDao.GAHAN);
+
+        BigDecimal nikolayInitialBalance = nikolay.getBalance();
+        BigDecimal nikolayInitialBlocked = nikolay.getBlockedAmount();
+        BigDecimal vladInitialBalance = vlad.getBalance();
+
+        Transaction transaction = new Transaction(BankAccountDao.RANJAN, BankAccountDao.GAHAN, BigDecimal.ONE);
+        Transaction resultTransaction = transactionDao.createAndExecuteTransaction(transaction);
+
+        assertNotNull(resultTransaction.getId());
+        assertEquals(resultTransaction.getStatus(), TransactionStatus.SUCCEED);
+        assertEquals(transactionDao.getTransactionById(resultTransaction.getId()).getStatus(), TransactionStatus.SUCCEED);
+
+        nikolay = bankAccountDao.getBankAccountById(BankAccountDao.RANJAN);
+        vlad = bankAccountDao.getBankAccountById(BankAccountDao.GAHAN);
+
+        assertThat(nikolayInitialBalance.subtract(BigDecimal.ONE), Matchers.comparesEqualTo(nikolay.getBalance()));
+        assertThat(nikolayInitialBlocked, Matchers.comparesEqualTo(nikolay.getBlockedAmount()));
+        assertThat(vladInitialBalance.add(BigDecimal.ONE), Matchers.comparesEqualTo(vlad.getBalance()));
+    }
+
+    @Description ( "Test Description: Verify unsuccessful immediate transaction without enough money in database")
+    @Test(description = "Tests that immediate bank transaction without enough money is rejected and nothing is changed")
+    public void testWrongImmediateTransactionCreation() {
+        TransactionDao transactionDao = TransactionDao.getInstance();
+        BankAccountDao bankAccountDao = BankAccountDao.getInstance();
+
+        BigDecimal initialBalance = bankAccountDao.getBankAccountById(BankAccountDao.RANJAN).getBalance();
+
+        try {
+            transactionDao.createAndExecuteTransaction(
+                    new Transaction(BankAccountDao.RANJAN, BankAccountDao.GAHAN, BigDecimal.valueOf(10000)));
+            fail("The transaction without enough money should be rejected");
+        } catch (ObjectModificationException e) {
+            assertThat(initialBalance,
+                    Matchers.comparesEqualTo(bankAccountDao.getBankAccountById(BankAccountDao.RANJAN).getBalance()));
+        }
+    }
+
     @Description ( "Test Description: Verify unsuccessful creation of wrong transaction in database")
     @Test(description = "Tests that wrong bank transaction will fail in database with ObjectModificationException", expectedExceptions = ObjectModificationException.class)
      public void testWrongTransactionCreation() throws ObjectModificationException {
@@ -165,4 +304,119 @@ public class TransactionDaoTest {
 
         transactionDao.createTransaction(transaction);
     }
+
+    @Description ( "Test Description: Verify batch creation of bank transactions in database")
+    @Test(description = "Tests that bank transactions are created in one batch and the ones without enough money or with unknown account are rejected")
+    public void testBatchTransactionCreation() throws ObjectModificationException {
+        TransactionDao transactionDao = TransactionDao.getInstance();
+        BankAccountDao bankAccountDao = BankAccountDao.getInstance();
+
+        BankAccount payer = bankAccountDao.createBankAccount(
+                new BankAccount("Batch Creation Payer", BigDecimal.TEN, BigDecimal.ZERO));
+        BankAccount payee = bankAccountDao.createBankAccount(
+                new BankAccount("Batch Creation Payee", BigDecimal.ZERO, BigDecimal.ZERO));
+
+        List<TransactionBatchResult> results = transactionDao.createTransactions(Arrays.asList(
+                new Transaction(payer.getId(), payee.getId(), BigDecimal.valueOf(6)),
+                new Transaction(payer.getId(), payee.getId(), BigDecimal.valueOf(6)),
+                new Transaction(payer.getId(), Long.MAX_VALUE, BigDecimal.ONE),
+                new Transaction(payer.getId(), payee.getId(), BigDecimal.valueOf(4))));
+
+        assertEquals(results.size(), 4);
+        assertNotNull(results.get(0).getTransaction().getId());
+        assertNull(results.get(1).getTransaction());
+        assertNotNull(results.get(1).getError());
+        assertNull(results.get(2).getTransaction());
+        assertNotNull(results.get(3).getTransaction().getId());
+        assertTrue(results.get(0).getTransaction().getId() < results.get(3).getTransaction().getId());
+
+        assertEquals(transactionDao.getTransactionById(results.get(3).getTransaction().getId()).getAmount()
+                .compareTo(BigDecimal.valueOf(4)), 0);
+        payer = bankAccountDao.getBankAccountById(payer.getId());
+        assertThat(payer.getBalance(), Matchers.comparesEqualTo(BigDecimal.TEN));
+        assertThat(payer.getBlockedAmount(), Matchers.comparesEqualTo(BigDecimal.TEN));
+    }
+
+    @Description ( "Test Description: Verify successful batch execution of bank transactions in database")
+    @Test(description = "Tests that PLANNED bank transactions will execute successfully in one batch with netted balances")
+    public void testBatchTransactionExecution() throws ObjectModificationException {
+        TransactionDao transactionDao = TransactionDao.getInstance();
+        BankAccountDao bankAccountDao = BankAccountDao.getInstance();
+
+        BankAccount payer = bankAccountDao.createBankAccount(
+                new BankAccount("Batch Payer", BigDecimal.valueOf(100), BigDecimal.ZERO));
+        BankAccount firstPayee = bankAccountDao.createBankAccount(
+                new BankAccount("Batch Payee 1", BigDecimal.ZERO, BigDecimal.ZERO));
+        BankAccount secondPayee = bankAccountDao.createBankAccount(
+                new BankAccount("Batch Payee 2", BigDecimal.ZERO, BigDecimal.ZERO));
+
+        Transaction first = transactionDao.createTransaction(
+                new Transaction(payer.getId(), firstPayee.getId(), BigDecimal.TEN));
+        Transaction second = transactionDao.createTransaction(
+                new Transaction(payer.getId(), secondPayee.getId(), BigDecimal.valueOf(20)));
+        Transaction third = transactionDao.createTransaction(
+                new Transaction(payer.getId(), firstPayee.getId(), BigDecimal.ONE));
+
+        while (transactionDao.executeTransactionsBatch(100) == 100) {
+            // drain all PLANNED transactions
+        }
+
+        assertEquals(transactionDao.getTransactionById(first.getId()).getStatus(), TransactionStatus.SUCCEED);
+        assertEquals(transactionDao.getTransactionById(second.getId()).getStatus(), TransactionStatus.SUCCEED);
+        assertEquals(transactionDao.getTransactionById(third.getId()).getStatus(), TransactionStatus.SUCCEED);
+
+        payer = bankAccountDao.getBankAccountById(payer.getId());
+        firstPayee = bankAccountDao.getBankAccountById(firstPayee.getId());
+        secondPayee = bankAccountDao.getBankAccountById(secondPayee.getId());
+
+        assertThat(payer.getBalance(), Matchers.comparesEqualTo(BigDecimal.valueOf(69)));
+        assertThat(payer.getBlockedAmount(), Matchers.comparesEqualTo(BigDecimal.ZERO));
+        assertThat(firstPayee.getBalance(), Matchers.comparesEqualTo(BigDecimal.valueOf(11)));
+        assertThat(secondPayee.getBalance(), Matchers.comparesEqualTo(BigDecimal.valueOf(20)));
+    }
+
+    @Description ( "Test Description: Verify that claimed bank transactions are executed only by their owner")
+    @Test(description = "Tests that PLANNED bank transactions could be claimed by one node, executed only by it and released once lease expired")
+    public void testClaimedTransactionExecution() throws ObjectModificationException {
+        TransactionDao transactionDao = TransactionDao.getInstance();
+        BankAccountDao bankAccountDao = BankAccountDao.getInstance();
+
+        BankAccount payer = bankAccountDao.createBankAccount(
+                new BankAccount("Lease Payer", BigDecimal.valueOf(100), BigDecimal.ZERO));
+        BankAccount payee = bankAccountDao.createBankAccount(
+                new BankAccount("Lease Payee", BigDecimal.ZERO, BigDecimal.ZERO));
+
+        // The background executor would take the PLANNED transaction between the steps
+        ExecutorPause.pause();
+        try {
+            Transaction expiring = transactionDao.createTransaction(
+                    new Transaction(payer.getId(), payee.getId(), BigDecimal.ONE));
+
+            assertTrue(transactionDao.claimTransactions("node-c", Integer.MAX_VALUE, -1000).contains(expiring));
+            assertEquals(transactionDao.getTransactionById(expiring.getId()).getStatus(), TransactionStatus.PROCESSING);
+
+            assertTrue(transactionDao.releaseExpiredLeases() > 0);
+            assertEquals(transactionDao.getTransactionById(expiring.getId()).getStatus(), TransactionStatus.PLANNED);
+
+            Collection<Transaction> claimedByA = transactionDao.claimTransactions("node-a", Integer.MAX_VALUE, 60000);
+            assertTrue(claimedByA.contains(expiring));
+            assertTrue(transactionDao.claimTransactions("node-b", Integer.MAX_VALUE, 60000).isEmpty());
+
+            try {
+                transactionDao.executeTransaction(expiring.getId(), "node-b");
+                fail("Transaction claimed by another node should not be executed");
+            } catch (ObjectModificationException e) {
+                // expected
+            }
+
+            transactionDao.executeTransaction(expiring.getId(), "node-a");
+            transactionDao.executeClaimedTransactionsBatch("node-a");
+
+            assertEquals(transactionDao.getTransactionById(expiring.getId()).getStatus(), TransactionStatus.SUCCEED);
+            assertThat(bankAccountDao.getBankAccountById(payee.getId()).getBalance(),
+                    Matchers.comparesEqualTo(BigDecimal.ONE));
+        } finally {
+            ExecutorPause.resume();
+        }
+    }
 }
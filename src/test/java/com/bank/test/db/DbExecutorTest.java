@@ -0,0 +1,66 @@
+package com.bank.test.db;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.Test;
+
+import com.bank.db.DbExecutor;
+import com.bank.metrics.CounterSnapshot;
+import com.bank.metrics.MetricsRegistry;
+import com.bank.metrics.TimerSnapshot;
+
+import io.qameta.allure.Description;
+
+public class DbExecutorTest {
+
+    @Description("Test Description: Verify that the database executor is bounded")
+    @Test(description = "Tests that the task is rejected once all threads are busy and the queue is full")
+    public void testRejectionOnceQueueIsFull() throws InterruptedException {
+        MetricsRegistry metrics = new MetricsRegistry();
+        DbExecutor executor = new DbExecutor(1, 1, metrics);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch completed = new CountDownLatch(2);
+
+        try {
+            Runnable blockedTask = () -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                completed.countDown();
+            };
+            executor.execute(blockedTask);
+            executor.execute(blockedTask);
+
+            try {
+                executor.execute(completed::countDown);
+                fail("The task should be rejected as the queue is full");
+            } catch (RejectedExecutionException e) {
+                // expected
+            }
+
+            release.countDown();
+            assertTrue(completed.await(10, TimeUnit.SECONDS));
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+
+        CounterSnapshot rejected = metrics.snapshot().getCounters().get(0);
+        assertEquals(rejected.getName(), "bank_db_executor_rejected_total");
+        assertEquals(rejected.getCount(), 1);
+
+        for (TimerSnapshot timer : metrics.snapshot().getTimers()) {
+            assertEquals(timer.getCount(), 2, timer.getName());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.bank.test.db;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.testng.annotations.Test;
+
+import com.bank.dao.BankAccountDao;
+import com.bank.db.ConnectionPoolStatistics;
+import com.bank.db.DbUtils;
+import com.bank.db.StatementCacheStatistics;
+
+import io.qameta.allure.Description;
+
+public class DbUtilsTest {
+
+    @Description("Test Description: Verify that prepared statements are reused between queries")
+    @Test(description = "Tests that the same query executed several times is served from the prepared statements cache")
+    public void testStatementCacheHits() {
+        DbUtils dbUtils = DbUtils.getInstance();
+        BankAccountDao bankAccountDao = BankAccountDao.getInstance();
+
+        bankAccountDao.getBankAccountById(BankAccountDao.JYOTI);
+        StatementCacheStatistics before = dbUtils.getStatementCacheStatistics();
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(bankAccountDao.getBankAccountById(BankAccountDao.JYOTI).getId(), BankAccountDao.JYOTI);
+        }
+
+        StatementCacheStatistics after = dbUtils.getStatementCacheStatistics();
+
+        assertTrue(after.getHits() > before.getHits());
+        assertTrue(after.getCachedStatements() > 0);
+    }
+
+    @Description("Test Description: Verify that schema migrations have been applied on the database initialization")
+    @Test(description = "Tests that migrated versions are stored and pending work index exists")
+    public void testSchemaMigrationsApplied() throws SQLException {
+        try (Connection con = DbUtils.getConnection();
+             Statement statement = con.createStatement()) {
+            try (ResultSet versions = statement.executeQuery("select max(version) from schema_version")) {
+                assertTrue(versions.next());
+                assertEquals(versions.getInt(1), 5);
+            }
+
+            try (ResultSet indexes = statement.executeQuery("select count(*) from information_schema.indexes " +
+                    "where table_name = 'TRANSACTION' and index_name = 'IDX_TRANSACTION_STATUS'")) {
+                assertTrue(indexes.next());
+                assertTrue(indexes.getInt(1) > 0);
+            }
+        }
+    }
+
+    @Description("Test Description: Verify that the connection pool opens more than one physical connection")
+    @Test(description = "Tests that two connections are held at once and both see the initial data")
+    public void testSeveralConnectionsHeldAtOnce() throws SQLException {
+        try (Connection first = DbUtils.getConnection();
+             Connection second = DbUtils.getConnection()) {
+            assertNotSame(first.unwrap(Connection.class), second.unwrap(Connection.class));
+
+            for (Connection con : new Connection[]{first, second}) {
+                try (Statement statement = con.createStatement();
+                     ResultSet statuses = statement.executeQuery("select count(*) from transaction_status")) {
+                    assertTrue(statuses.next());
+                    assertEquals(statuses.getInt(1), 4);
+                }
+            }
+
+            ConnectionPoolStatistics statistics = DbUtils.getInstance().getConnectionPoolStatistics();
+            assertTrue(statistics.getActiveConnections() >= 2);
+            assertTrue(statistics.getTotalConnections() >= 2);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.bank.test.integration;
+
+import org.hamcrest.Matchers;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import com.bank.dao.BankAccountDao;
+import com.bank.dao.TransactionDao;
+import com.bank.db.DbUtils;
+import com.bank.exceptions.ObjectModificationException;
+import com.bank.model.BankAccount;
+import com.bank.model.Transaction;
+import com.bank.model.TransactionStatus;
+import com.bank.service.BankAccountService;
+import com.bank.service.TransactionsService;
+
+import io.qameta.allure.Description;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class ConcurrentlyBidirectionalTransactionExecutionTest {
+    private TransactionsService transactionsService = TransactionsService.getInstance();
+    private BankAccountService bankAccountService = BankAccountService.getInstance();
+    private TransactionDao transactionDao = TransactionDao.getInstance();
+
+    private static final BigDecimal INITIAL_BALANCE = BigDecimal.valueOf(1000L);
+    private static final BigDecimal TRANSACTION_AMOUNT = BigDecimal.ONE;
+    private static final int INVOCATION_COUNT = 40;
+
+    private Long firstBankAccountId;
+    private Long secondBankAccountId;
+    private AtomicInteger invocationsDone = new AtomicInteger(0);
+    private AtomicInteger executionsInFlight = new AtomicInteger(0);
+    private AtomicInteger maxExecutionsInFlight = new AtomicInteger(0);
+    private Collection<Long> transactionIds = new ConcurrentLinkedQueue<>();
+
+    @BeforeClass
+    public void initData() throws ObjectModificationException {
+        firstBankAccountId = bankAccountService.createBankAccount(
+                new BankAccount("Bidirectional Account 1", INITIAL_BALANCE, BigDecimal.ZERO)).getId();
+        secondBankAccountId = bankAccountService.createBankAccount(
+                new BankAccount("Bidirectional Account 2", INITIAL_BALANCE, BigDecimal.ZERO)).getId();
+    }
+
+    @Description ( "Test Description: Verify concurrent execution of transactions in opposite directions")
+    @Test(description = "Tests that concurrent transactions between the same accounts in opposite directions will not fail on locks" ,threadPoolSize = 10, invocationCount = INVOCATION_COUNT)
+    public void testConcurrentBidirectionalTransactionExecution() throws ObjectModificationException {
+        boolean forward = invocationsDone.incrementAndGet() % 2 == 0;
+
+        Transaction transaction = transactionsService.createTransaction(new Transaction(
+                forward ? firstBankAccountId : secondBankAccountId,
+                forward ? secondBankAccountId : firstBankAccountId,
+                TRANSACTION_AMOUNT
+        ));
+        transactionIds.add(transaction.getId());
+
+        maxExecutionsInFlight.accumulateAndGet(executionsInFlight.incrementAndGet(), Math::max);
+        try {
+            transactionDao.executeTransaction(transaction.getId());
+        } catch (ObjectModificationException e) {
+            // already executed by the scheduled executor
+        } finally {
+            executionsInFlight.decrementAndGet();
+        }
+    }
+
+    @Description ( "Test Description: Verify that the execution waits for the row lock held by another connection")
+    @Test(description = "Tests that the transaction is executed once the receiver locked by another connection is released")
+    public void testExecutionWaitsForLockedAccount() throws Exception {
+        for (boolean forward : new boolean[]{true, false}) {
+            Long from = forward ? firstBankAccountId : secondBankAccountId;
+            Long to = forward ? secondBankAccountId : firstBankAccountId;
+
+            try (Connection lockingConnection = DbUtils.getConnection()) {
+                lockAccount(lockingConnection, to);
+
+                Transaction transaction = transactionsService.createTransaction(
+                        new Transaction(from, to, TRANSACTION_AMOUNT));
+                transactionIds.add(transaction.getId());
+
+                CompletableFuture<Void> execution = CompletableFuture.runAsync(() -> {
+                    try {
+                        transactionDao.executeTransaction(transaction.getId());
+                    } catch (ObjectModificationException e) {
+                        // already executed by the scheduled executor
+                    }
+                });
+
+                Thread.sleep(300);
+                assertFalse(execution.isDone(), "The execution should wait for the locked Bank Account");
+                assertEquals(transactionsService.getTransactionById(transaction.getId()).getStatus(),
+                        TransactionStatus.PLANNED);
+
+                lockingConnection.commit();
+                execution.get(10, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    private static void lockAccount(Connection con, Long id) throws SQLException {
+        try (PreparedStatement lock = con.prepareStatement(BankAccountDao.GET_BANK_ACCOUNT_BY_ID_SQL)) {
+            lock.setLong(1, id);
+            try (ResultSet rs = lock.executeQuery()) {
+                assertTrue(rs.next());
+            }
+        }
+    }
+
+    @AfterClass
+    public void checkResults() {
+        assertTrue(maxExecutionsInFlight.get() > 1, "Transactions should have been executed concurrently");
+
+        for (Long transactionId : transactionIds) {
+            assertEquals(transactionsService.getTransactionById(transactionId).getStatus(), TransactionStatus.SUCCEED);
+        }
+
+        BankAccount firstBankAccount = bankAccountService.getBankAccountById(firstBankAccountId);
+        BankAccount secondBankAccount = bankAccountService.getBankAccountById(secondBankAccountId);
+
+        assertThat(firstBankAccount.getBalance(), Matchers.comparesEqualTo(INITIAL_BALANCE));
+        assertThat(secondBankAccount.getBalance(), Matchers.comparesEqualTo(INITIAL_BALANCE));
+        assertThat(firstBankAccount.getBlockedAmount(), Matchers.comparesEqualTo(BigDecimal.ZERO));
+        assertThat(secondBankAccount.getBlockedAmount(), Matchers.comparesEqualTo(BigDecimal.ZERO));
+    }
+}
@@ -0,0 +1,98 @@
+package com.bank.test.integration;
+
+import org.hamcrest.Matchers;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import com.bank.dao.TransactionDao;
+import com.bank.exceptions.ObjectModificationException;
+import com.bank.model.BankAccount;
+import com.bank.model.Transaction;
+import com.bank.model.TransactionStatus;
+import com.bank.service.BankAccountService;
+import com.bank.service.TransactionsService;
+
+import io.qameta.allure.Description;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.testng.Assert.assertEquals;
+
+public class ConcurrentlyHotReceiverTransactionExecutionTest {
+    private TransactionsService transactionsService = TransactionsService.getInstance();
+    private BankAccountService bankAccountService = BankAccountService.getInstance();
+    private TransactionDao transactionDao = TransactionDao.getInstance();
+
+    private static final BigDecimal INITIAL_BALANCE = BigDecimal.valueOf(1000L);
+    private static final BigDecimal TRANSACTION_AMOUNT = BigDecimal.ONE;
+    private static final int SENDERS = 4;
+    private static final int INVOCATION_COUNT = 40;
+
+    private Long receiverBankAccountId;
+    private Long[] senderBankAccountIds = new Long[SENDERS];
+    private AtomicInteger invocationsDone = new AtomicInteger(0);
+    private Collection<Long> transactionIds = new ConcurrentLinkedQueue<>();
+
+    @BeforeClass
+    public void initData() throws ObjectModificationException {
+        // The receiver is between the senders, so it is credited both before and after the sender is locked
+        for (int i = 0; i < SENDERS; i++) {
+            if (i == SENDERS / 2) {
+                receiverBankAccountId = createBankAccount("Hot Receiver");
+            }
+            senderBankAccountIds[i] = createBankAccount("Hot Receiver Sender " + i);
+        }
+    }
+
+    private Long createBankAccount(String ownerName) throws ObjectModificationException {
+        return bankAccountService.createBankAccount(
+                new BankAccount(ownerName, INITIAL_BALANCE, BigDecimal.ZERO)).getId();
+    }
+
+    @Description ( "Test Description: Verify concurrent execution of transactions from many senders into one receiver")
+    @Test(description = "Tests that concurrent transactions into the same receiver credit it by every amount exactly once" ,threadPoolSize = 10, invocationCount = INVOCATION_COUNT)
+    public void testConcurrentHotReceiverTransactionExecution() throws ObjectModificationException {
+        int invocation = invocationsDone.incrementAndGet();
+        Transaction transaction = new Transaction(senderBankAccountIds[invocation % SENDERS], receiverBankAccountId,
+                TRANSACTION_AMOUNT);
+
+        if (invocation % 2 == 0) {
+            transactionIds.add(transactionsService.createTransaction(transaction, true).getId());
+            return;
+        }
+
+        transaction = transactionsService.createTransaction(transaction);
+        transactionIds.add(transaction.getId());
+
+        try {
+            transactionDao.executeTransaction(transaction.getId());
+        } catch (ObjectModificationException e) {
+            // already executed by the scheduled executor
+        }
+    }
+
+    @AfterClass
+    public void checkResults() {
+        for (Long transactionId : transactionIds) {
+            assertEquals(transactionsService.getTransactionById(transactionId).getStatus(), TransactionStatus.SUCCEED);
+        }
+
+        BigDecimal sentBySender = TRANSACTION_AMOUNT.multiply(BigDecimal.valueOf(INVOCATION_COUNT / SENDERS));
+        for (Long senderBankAccountId : senderBankAccountIds) {
+            BankAccount sender = bankAccountService.getBankAccountById(senderBankAccountId);
+
+            assertThat(sender.getBalance(), Matchers.comparesEqualTo(INITIAL_BALANCE.subtract(sentBySender)));
+            assertThat(sender.getBlockedAmount(), Matchers.comparesEqualTo(BigDecimal.ZERO));
+        }
+
+        BankAccount receiver = bankAccountService.getBankAccountById(receiverBankAccountId);
+
+        assertThat(receiver.getBalance(), Matchers.comparesEqualTo(
+                INITIAL_BALANCE.add(TRANSACTION_AMOUNT.multiply(BigDecimal.valueOf(INVOCATION_COUNT)))));
+        assertThat(receiver.getBlockedAmount(), Matchers.comparesEqualTo(BigDecimal.ZERO));
+    }
+}
@@ -0,0 +1,163 @@
+package com.bank.test.ledger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.testng.annotations.Test;
+
+import com.bank.dao.BankAccountDao;
+import com.bank.dao.TransactionDao;
+import com.bank.db.DbUtils;
+import com.bank.exceptions.ObjectModificationException;
+import com.bank.ledger.JournalRecorder;
+import com.bank.ledger.JournalRecovery;
+import com.bank.ledger.JournalVerification;
+import com.bank.ledger.MappedLedgerJournal;
+import com.bank.model.BankAccount;
+import com.bank.model.Transaction;
+
+import io.qameta.allure.Description;
+
+public class JournalRecoveryTest {
+    private final BankAccountDao bankAccountDao = BankAccountDao.getInstance();
+    private final TransactionDao transactionDao = TransactionDao.getInstance();
+
+    @Description("Test Description: Verify that the memory mapped journal rolls over segments and drops the torn tail")
+    @Test(description = "Tests that records survive the reopen across several segments and the broken last one is cleared")
+    public void testSegmentsAndTornTail() throws Exception {
+        Path directory = Files.createTempDirectory("journal");
+        try {
+            try (MappedLedgerJournal journal = new MappedLedgerJournal(directory, 512, false)) {
+                JournalRecorder recorder = new JournalRecorder(journal);
+                for (long id = 1; id <= 20; id++) {
+                    recorder.bankAccountCreated(new BankAccount(id, "Journal Owner " + id, id * 100, 0));
+                }
+            }
+            assertTrue(listFiles(directory).size() > 1, "The journal should be rolled over to the next segment");
+
+            try (MappedLedgerJournal journal = new MappedLedgerJournal(directory, 512, false)) {
+                assertEquals(journal.getLastSeq(), 20);
+                List<Long> balances = new ArrayList<>();
+                journal.replay(event -> balances.add(event.getBalance()));
+                assertEquals(balances.size(), 20);
+                assertEquals(balances.get(19).longValue(), 2000);
+            }
+
+            // The last record which has been written partially at the moment of crash
+            Path lastSegment = listFiles(directory).get(listFiles(directory).size() - 1);
+            byte[] segment = Files.readAllBytes(lastSegment);
+            int lastWritten = segment.length - 1;
+            while (segment[lastWritten] == 0) {
+                lastWritten--;
+            }
+            segment[lastWritten]++;
+            Files.write(lastSegment, segment);
+
+            try (MappedLedgerJournal journal = new MappedLedgerJournal(directory, 512, false)) {
+                assertEquals(journal.getLastSeq(), 19);
+                new JournalRecorder(journal).bankAccountCreated(new BankAccount(21L, "Journal Owner", 0, 0));
+
+                List<Long> seqs = new ArrayList<>();
+                journal.replay(event -> seqs.add(event.getSeq()));
+                assertEquals(seqs.size(), 20);
+                assertEquals(seqs.get(19).longValue(), 20);
+            }
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @Description("Test Description: Verify that the balances rebuilt from the journal are checked against the database")
+    @Test(description = "Tests that journaled transfers rebuild the balances and the broken balance is restored")
+    public void testRebuildVerifyAndRestore() throws Exception {
+        Path directory = Files.createTempDirectory("journal");
+        try (MappedLedgerJournal journal = new MappedLedgerJournal(directory, 1024 * 1024, false);
+             JournalRecorder recorder = new JournalRecorder(journal)) {
+            bankAccountDao.setBalanceJournal(recorder);
+
+            BankAccount from = bankAccountDao.createBankAccount(new BankAccount("Journal Owner",
+                    BigDecimal.valueOf(100), BigDecimal.ZERO));
+            BankAccount to = bankAccountDao.createBankAccount(new BankAccount("Journal Owner",
+                    BigDecimal.ZERO, BigDecimal.ZERO));
+            Transaction transaction = transactionDao.createTransaction(new Transaction(from.getId(), to.getId(),
+                    BigDecimal.valueOf(30)));
+            try {
+                transactionDao.executeTransaction(transaction.getId());
+            } catch (ObjectModificationException e) {
+                // executed by the background executor of TransactionsService
+            }
+
+            JournalRecovery recovery = new JournalRecovery(journal);
+            Map<Long, BankAccount> rebuilt = recovery.rebuildBalances();
+            assertAmounts(rebuilt.get(from.getId()), 70, 0);
+            assertAmounts(rebuilt.get(to.getId()), 30, 0);
+            assertEquals(rebuilt.get(to.getId()).getOwnerName(), "Journal Owner");
+            assertMatched(recovery.verify(rebuilt), from.getId(), to.getId());
+
+            DbUtils.getInstance().executeQuery("update bank_account set balance = 0 where id = ?", updateBalance -> {
+                updateBalance.setLong(1, to.getId());
+                return updateBalance.executeUpdate();
+            });
+
+            JournalVerification verification = recovery.verify(rebuilt);
+            assertFalse(verification.isConsistent());
+            assertTrue(mismatchedIds(verification).contains(to.getId()));
+            assertFalse(mismatchedIds(verification).contains(from.getId()));
+
+            assertTrue(recovery.restore(verification) >= 1);
+            assertAmounts(bankAccountDao.getBankAccountById(to.getId()), 30, 0);
+            assertMatched(recovery.verify(recovery.rebuildBalances()), from.getId(), to.getId());
+        } finally {
+            bankAccountDao.setBalanceJournal(null);
+            delete(directory);
+        }
+    }
+
+    /**
+     * Other Bank Accounts could be changed by the background executor between the rebuild and the verification
+     */
+    private static void assertMatched(JournalVerification verification, Long... ids) {
+        for (Long id : ids) {
+            assertFalse(mismatchedIds(verification).contains(id), "Mismatched " + id);
+            assertFalse(verification.getMissingAccounts().stream().anyMatch(missing -> missing.getId().equals(id)),
+                    "Missing " + id);
+        }
+    }
+
+    private static List<Long> mismatchedIds(JournalVerification verification) {
+        return verification.getMismatchedAccounts().stream().map(BankAccount::getId).collect(Collectors.toList());
+    }
+
+    private static void assertAmounts(BankAccount bankAccount, long balance, long blockedAmount) {
+        assertEquals(bankAccount.getBalance().compareTo(BigDecimal.valueOf(balance)), 0,
+                "Balance " + bankAccount.getBalance());
+        assertEquals(bankAccount.getBlockedAmount().compareTo(BigDecimal.valueOf(blockedAmount)), 0,
+                "Blocked amount " + bankAccount.getBlockedAmount());
+    }
+
+    private static List<Path> listFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package com.bank.test.ledger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.testng.annotations.Test;
+
+import com.bank.dao.BankAccountDao;
+import com.bank.dao.TransactionDao;
+import com.bank.exceptions.ObjectModificationException;
+import com.bank.ledger.H2LedgerStore;
+import com.bank.ledger.LedgerEngine;
+import com.bank.ledger.LedgerEvent;
+import com.bank.ledger.LedgerJournal;
+import com.bank.ledger.LedgerSettings;
+import com.bank.ledger.MappedLedgerJournal;
+import com.bank.model.BankAccount;
+import com.bank.model.Transaction;
+import com.bank.model.TransactionStatus;
+import com.bank.service.ExecutorSettings;
+import com.bank.service.TransactionsService;
+
+import io.qameta.allure.Description;
+
+public class LedgerEngineTest {
+    private static final long PERSIST_TIMEOUT_MILLIS = 10_000;
+
+    private final BankAccountDao bankAccountDao = BankAccountDao.getInstance();
+    private final TransactionDao transactionDao = TransactionDao.getInstance();
+
+    @Description("Test Description: Verify that the ledger creates and executes transactions like TransactionDao")
+    @Test(description = "Tests that in memory transfers give the same balances and statuses and reach the database")
+    public void testTransfersArePersisted() throws Exception {
+        Path journalPath = Files.createTempDirectory("ledger");
+        BankAccount from = createBankAccount(100);
+        BankAccount to = createBankAccount(0);
+
+        try (LedgerEngine ledger = new LedgerEngine(settings(), journal(journalPath),
+                new H2LedgerStore())) {
+            Transaction transaction = ledger.createTransaction(new Transaction(from.getId(), to.getId(),
+                    BigDecimal.valueOf(30)));
+            assertEquals(transaction.getStatus(), TransactionStatus.PLANNED);
+            assertAmounts(ledger.applyBalances(bankAccountDao.getBankAccountById(from.getId())), 100, 30);
+
+            try {
+                ledger.createTransaction(new Transaction(from.getId(), to.getId(), BigDecimal.valueOf(80)));
+                fail("The balance should not be enough");
+            } catch (ObjectModificationException e) {
+                assertAmounts(ledger.applyBalances(bankAccountDao.getBankAccountById(from.getId())), 100, 30);
+            }
+
+            ledger.executeTransaction(transaction.getId());
+            // The write-behind could have persisted and forgotten the transaction already
+            Transaction executed = ledger.getTransaction(transaction.getId());
+            if (executed == null) {
+                executed = transactionDao.getTransactionById(transaction.getId());
+            }
+            assertEquals(executed.getStatus(), TransactionStatus.SUCCEED);
+
+            assertTrue(ledger.awaitPersisted(PERSIST_TIMEOUT_MILLIS));
+            assertAmounts(bankAccountDao.getBankAccountById(from.getId()), 70, 0);
+            assertAmounts(bankAccountDao.getBankAccountById(to.getId()), 30, 0);
+            assertEquals(transactionDao.getTransactionById(transaction.getId()).getStatus(),
+                    TransactionStatus.SUCCEED);
+            assertNull(ledger.getTransaction(transaction.getId()));
+        } finally {
+            delete(journalPath);
+        }
+    }
+
+    @Description("Test Description: Verify that the ledger state is recovered from the journal after the crash")
+    @Test(description = "Tests that not persisted transfers are replayed from the journal and written to the database")
+    public void testRecoveryFromJournal() throws Exception {
+        Path journalPath = Files.createTempDirectory("ledger");
+        BankAccount from = createBankAccount(100);
+        BankAccount to = createBankAccount(0);
+
+        try {
+            Transaction executed;
+            Transaction planned;
+            // The database is not reachable for the write-behind before the crash
+            try (LedgerEngine ledger = new LedgerEngine(settings(), journal(journalPath),
+                    new NotPersistingStore())) {
+                executed = ledger.createTransaction(new Transaction(from.getId(), to.getId(), BigDecimal.TEN));
+                ledger.executeTransaction(executed.getId());
+                planned = ledger.createTransaction(new Transaction(from.getId(), to.getId(), BigDecimal.ONE));
+            }
+            assertAmounts(bankAccountDao.getBankAccountById(from.getId()), 100, 0);
+
+            // The record which has been written partially at the moment of crash: length, checksum and a byte
+            Path lastSegment = listFiles(journalPath).get(listFiles(journalPath).size() - 1);
+            ByteBuffer segment = ByteBuffer.wrap(Files.readAllBytes(lastSegment));
+            int end = 0;
+            while (segment.getInt(end) != 0) {
+                end += 2 * Integer.BYTES + segment.getInt(end);
+            }
+            segment.putInt(end, 100).putInt(end + Integer.BYTES, 7).put(end + 2 * Integer.BYTES, (byte) 1);
+            Files.write(lastSegment, segment.array());
+
+            try (LedgerEngine ledger = new LedgerEngine(settings(), journal(journalPath),
+                    new H2LedgerStore())) {
+                assertAmounts(ledger.applyBalances(bankAccountDao.getBankAccountById(from.getId())), 90, 1);
+                assertTrue(ledger.awaitPersisted(PERSIST_TIMEOUT_MILLIS));
+
+                assertAmounts(bankAccountDao.getBankAccountById(from.getId()), 90, 1);
+                assertAmounts(bankAccountDao.getBankAccountById(to.getId()), 10, 0);
+                assertEquals(transactionDao.getTransactionById(executed.getId()).getStatus(),
+                        TransactionStatus.SUCCEED);
+                assertEquals(transactionDao.getTransactionById(planned.getId()).getStatus(),
+                        TransactionStatus.PLANNED);
+
+                ledger.executeTransaction(planned.getId());
+                assertAmounts(ledger.applyBalances(bankAccountDao.getBankAccountById(to.getId())), 11, 0);
+            }
+        } finally {
+            delete(journalPath);
+        }
+    }
+
+    @Description("Test Description: Verify that the ledger forces the journal before the change is acknowledged")
+    @Test(description = "Tests that every created and executed transaction is forced to the disk when it returns")
+    public void testAcknowledgedChangesAreForced() throws Exception {
+        Path journalPath = Files.createTempDirectory("ledger");
+        BankAccount from = createBankAccount(100);
+        BankAccount to = createBankAccount(0);
+
+        try (CountingJournal journal = new CountingJournal(journal(journalPath));
+             LedgerEngine ledger = new LedgerEngine(settings(), journal, new H2LedgerStore())) {
+            Transaction transaction = ledger.createTransaction(new Transaction(from.getId(), to.getId(),
+                    BigDecimal.TEN));
+            assertEquals(journal.forcedAppends, journal.appends);
+
+            ledger.executeTransaction(transaction.getId());
+            assertEquals(journal.forcedAppends, journal.appends);
+            assertTrue(ledger.awaitPersisted(PERSIST_TIMEOUT_MILLIS));
+        } finally {
+            delete(journalPath);
+        }
+    }
+
+    @Description("Test Description: Verify that the journal segments which have reached the database are deleted")
+    @Test(description = "Tests that only the last journal segment is left once all transfers are persisted")
+    public void testPersistedSegmentsAreDeleted() throws Exception {
+        Path journalPath = Files.createTempDirectory("ledger");
+        BankAccount from = createBankAccount(100);
+        BankAccount to = createBankAccount(0);
+
+        try {
+            try (LedgerEngine ledger = new LedgerEngine(settings(), new MappedLedgerJournal(journalPath, 512, false),
+                    new H2LedgerStore())) {
+                for (int i = 0; i < 20; i++) {
+                    Transaction transaction = ledger.createTransaction(new Transaction(from.getId(), to.getId(),
+                            BigDecimal.ONE));
+                    ledger.executeTransaction(transaction.getId());
+                }
+                assertTrue(ledger.awaitPersisted(PERSIST_TIMEOUT_MILLIS));
+            }
+            assertEquals(listFiles(journalPath).size(), 1);
+            assertAmounts(bankAccountDao.getBankAccountById(to.getId()), 20, 0);
+
+            try (LedgerEngine ledger = new LedgerEngine(settings(), new MappedLedgerJournal(journalPath, 512, false),
+                    new H2LedgerStore())) {
+                assertAmounts(ledger.applyBalances(bankAccountDao.getBankAccountById(from.getId())), 80, 0);
+            }
+        } finally {
+            delete(journalPath);
+        }
+    }
+
+    @Description("Test Description: Verify that the idempotency keys of the ledger transactions reach the database")
+    @Test(description = "Tests that the retry is answered by the same transaction before and after the persistence and the restart")
+    public void testIdempotencyKeysArePersisted() throws Exception {
+        Path journalPath = Files.createTempDirectory("ledger");
+        BankAccount from = createBankAccount(100);
+        BankAccount to = createBankAccount(0);
+        String idempotencyKey = "ledger-idempotency-key";
+
+        try {
+            Transaction created;
+            try (LedgerEngine ledger = new LedgerEngine(settings(), journal(journalPath), new H2LedgerStore())) {
+                TransactionsService service = new TransactionsService(transactionDao,
+                        ExecutorSettings.builder().build(), ledger);
+                created = service.createTransaction(new Transaction(from.getId(), to.getId(), BigDecimal.TEN),
+                        idempotencyKey);
+                assertEquals(service.createTransaction(new Transaction(from.getId(), to.getId(), BigDecimal.TEN),
+                        idempotencyKey).getId(), created.getId());
+
+                assertNull(ledger.reserveIdempotencyKey("ledger-pending-key"));
+                try {
+                    service.createTransaction(new Transaction(from.getId(), to.getId(), BigDecimal.ONE),
+                            "ledger-pending-key");
+                    fail("The key reserved by another request should not be used");
+                } catch (ObjectModificationException e) {
+                    assertAmounts(ledger.applyBalances(bankAccountDao.getBankAccountById(from.getId())), 100, 10);
+                }
+                ledger.releaseIdempotencyKey("ledger-pending-key");
+
+                assertTrue(ledger.awaitPersisted(PERSIST_TIMEOUT_MILLIS));
+                assertEquals(transactionDao.getTransactionByIdempotencyKey(idempotencyKey).getId(),
+                        created.getId());
+            }
+
+            try (LedgerEngine ledger = new LedgerEngine(settings(), journal(journalPath), new H2LedgerStore())) {
+                TransactionsService service = new TransactionsService(transactionDao,
+                        ExecutorSettings.builder().build(), ledger);
+                assertEquals(service.createTransaction(new Transaction(from.getId(), to.getId(), BigDecimal.TEN),
+                        idempotencyKey).getId(), created.getId());
+                assertAmounts(ledger.applyBalances(bankAccountDao.getBankAccountById(from.getId())), 100, 10);
+            }
+        } finally {
+            delete(journalPath);
+        }
+    }
+
+    private BankAccount createBankAccount(long balance) throws ObjectModificationException {
+        return bankAccountDao.createBankAccount(new BankAccount("Ledger Owner", BigDecimal.valueOf(balance),
+                BigDecimal.ZERO));
+    }
+
+    private static void assertAmounts(BankAccount bankAccount, long balance, long blockedAmount) {
+        assertEquals(bankAccount.getBalance().compareTo(BigDecimal.valueOf(balance)), 0,
+                "Balance " + bankAccount.getBalance());
+        assertEquals(bankAccount.getBlockedAmount().compareTo(BigDecimal.valueOf(blockedAmount)), 0,
+                "Blocked amount " + bankAccount.getBlockedAmount());
+    }
+
+    private static MappedLedgerJournal journal(Path directory) throws IOException {
+        return new MappedLedgerJournal(directory, 1024 * 1024, false);
+    }
+
+    private static List<Path> listFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private static LedgerSettings settings() {
+        return LedgerSettings.builder().enabled(true).stripes(4).build();
+    }
+
+    private static class CountingJournal implements LedgerJournal {
+        private final LedgerJournal journal;
+        private volatile int appends;
+        private volatile int forcedAppends;
+
+        private CountingJournal(LedgerJournal journal) {
+            this.journal = journal;
+        }
+
+        @Override
+        public void append(LedgerEvent event) throws IOException {
+            journal.append(event);
+            appends++;
+        }
+
+        @Override
+        public void force() throws IOException {
+            int appended = appends;
+            journal.force();
+            forcedAppends = appended;
+        }
+
+        @Override
+        public void deleteBefore(long seq) throws IOException {
+            journal.deleteBefore(seq);
+        }
+
+        @Override
+        public void replay(Consumer<LedgerEvent> consumer) throws IOException {
+            journal.replay(consumer);
+        }
+
+        @Override
+        public void close() throws IOException {
+            journal.close();
+        }
+    }
+
+    private static class NotPersistingStore extends H2LedgerStore {
+        @Override
+        public void persist(List<LedgerEvent> events) {
+            throw new IllegalStateException("The database is not available");
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.bank.test.metrics;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.Test;
+
+import com.bank.metrics.MetricsRegistry;
+import com.bank.metrics.MetricsSnapshot;
+import com.bank.metrics.PrometheusFormat;
+import com.bank.metrics.Timer;
+import com.bank.metrics.TimerSnapshot;
+
+import io.qameta.allure.Description;
+
+public class MetricsRegistryTest {
+
+    @Description("Test Description: Verify that timer counts durations in cumulative buckets")
+    @Test(description = "Tests that the timer keeps count, sum, max and cumulative buckets of the durations")
+    public void testTimer() {
+        MetricsRegistry registry = new MetricsRegistry();
+        Timer timer = registry.timer("test_seconds", "operation", "test");
+
+        assertSame(registry.timer("test_seconds", "operation", "test"), timer);
+
+        timer.record(TimeUnit.MICROSECONDS.toNanos(300));
+        timer.record(TimeUnit.MILLISECONDS.toNanos(1));
+        timer.record(TimeUnit.MILLISECONDS.toNanos(20));
+        timer.record(TimeUnit.SECONDS.toNanos(60));
+
+        TimerSnapshot snapshot = registry.snapshot().getTimers().get(0);
+
+        assertEquals(snapshot.getCount(), 4);
+        assertEquals(snapshot.getSumSeconds(), 60.0213, 1e-9);
+        assertEquals(snapshot.getMaxSeconds(), 60.0);
+        assertEquals(snapshot.getBuckets().get("0.0005").longValue(), 1);
+        assertEquals(snapshot.getBuckets().get("0.001").longValue(), 2);
+        assertEquals(snapshot.getBuckets().get("0.025").longValue(), 3);
+        assertEquals(snapshot.getBuckets().get("10").longValue(), 3);
+        assertEquals(snapshot.getBuckets().get("+Inf").longValue(), 4);
+    }
+
+    @Description("Test Description: Verify the Prometheus text format of timers and gauges")
+    @Test(description = "Tests that timers are written as histograms and gauges are read on the snapshot")
+    public void testPrometheusFormat() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.timer("test_seconds", "operation", "test").record(TimeUnit.MILLISECONDS.toNanos(2));
+        registry.gauge("test_connections", () -> 3, "state", "active");
+        registry.gauge("test_broken", () -> {
+            throw new IllegalStateException("The source is not available");
+        });
+
+        MetricsSnapshot snapshot = registry.snapshot();
+        String text = PrometheusFormat.format(snapshot);
+
+        assertTrue(text.contains("# TYPE test_seconds histogram\n"));
+        assertTrue(text.contains("test_seconds_bucket{operation=\"test\",le=\"0.001\"} 0\n"));
+        assertTrue(text.contains("test_seconds_bucket{operation=\"test\",le=\"0.0025\"} 1\n"));
+        assertTrue(text.contains("test_seconds_bucket{operation=\"test\",le=\"+Inf\"} 1\n"));
+        assertTrue(text.contains("test_seconds_sum{operation=\"test\"} 0.002\n"));
+        assertTrue(text.contains("test_seconds_count{operation=\"test\"} 1\n"));
+        assertTrue(text.contains("# TYPE test_connections gauge\ntest_connections{state=\"active\"} 3\n"));
+        assertTrue(text.contains("test_broken NaN\n"));
+    }
+}
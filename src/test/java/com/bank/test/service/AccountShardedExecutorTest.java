@@ -0,0 +1,131 @@
+package com.bank.test.service;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.Test;
+
+import com.bank.dao.TransactionDao;
+import com.bank.db.DbUtils;
+import com.bank.exceptions.ObjectModificationException;
+import com.bank.model.Transaction;
+import com.bank.service.AccountShardedExecutor;
+
+import io.qameta.allure.Description;
+
+public class AccountShardedExecutorTest {
+
+    @Description("Test Description: Verify that transactions sharing a bank account are placed into the same shard")
+    @Test(description = "Tests that connected transactions are never split between different shards")
+    public void testConnectedTransactionsAreInTheSameShard() {
+        List<Transaction> transactions = Arrays.asList(
+                transaction(1L, 1L, 2L),
+                transaction(2L, 3L, 4L),
+                transaction(3L, 2L, 5L),
+                transaction(4L, 6L, 7L)
+        );
+
+        List<List<Transaction>> shards = AccountShardedExecutor.partition(transactions, 4);
+
+        assertEquals(shards.size(), 3);
+        assertTrue(shardOf(shards, 1L) == shardOf(shards, 3L));
+        assertTrue(shardOf(shards, 1L) != shardOf(shards, 2L));
+        assertTrue(shardOf(shards, 2L) != shardOf(shards, 4L));
+    }
+
+    @Description("Test Description: Verify that transactions of one bank account keep the serial execution order")
+    @Test(description = "Tests that connected transactions are ordered by ID inside of the shard")
+    public void testShardKeepsTransactionOrder() {
+        List<Transaction> transactions = Arrays.asList(
+                transaction(5L, 2L, 1L),
+                transaction(3L, 1L, 2L),
+                transaction(4L, 3L, 1L)
+        );
+
+        List<List<Transaction>> shards = AccountShardedExecutor.partition(transactions, 2);
+
+        assertEquals(shards.size(), 1);
+        assertEquals(shards.get(0).get(0).getId(), Long.valueOf(3L));
+        assertEquals(shards.get(0).get(1).getId(), Long.valueOf(4L));
+        assertEquals(shards.get(0).get(2).getId(), Long.valueOf(5L));
+    }
+
+    @Description("Test Description: Verify that sharded executor executes every provided transaction")
+    @Test(description = "Tests that every transaction is executed exactly once by the sharded executor")
+    public void testAllTransactionsAreExecuted() throws ObjectModificationException {
+        TransactionDao transactionDao = mock(TransactionDao.class);
+        AccountShardedExecutor executor = new AccountShardedExecutor(transactionDao, 3);
+
+        executor.execute(Arrays.asList(
+                transaction(1L, 1L, 2L),
+                transaction(2L, 3L, 4L),
+                transaction(3L, 5L, 6L),
+                transaction(4L, 2L, 3L)
+        ));
+        executor.shutdown();
+
+        for (long id = 1; id <= 4; id++) {
+            verify(transactionDao, times(1)).executeTransaction(id);
+        }
+    }
+
+    @Description("Test Description: Verify that shards are executed in parallel on their own database connections")
+    @Test(description = "Tests that every shard holds its own pooled connection at the same time as the others")
+    public void testShardsHoldConnectionsAtOnce() throws ObjectModificationException {
+        int shards = 4;
+        CountDownLatch allHeld = new CountDownLatch(shards);
+        AtomicInteger heldTogether = new AtomicInteger();
+
+        TransactionDao transactionDao = mock(TransactionDao.class);
+        doAnswer(invocation -> {
+            try (Connection con = DbUtils.getConnection()) {
+                allHeld.countDown();
+                if (allHeld.await(10, TimeUnit.SECONDS)) {
+                    heldTogether.incrementAndGet();
+                }
+            }
+            return null;
+        }).when(transactionDao).executeTransaction(anyLong());
+
+        AccountShardedExecutor executor = new AccountShardedExecutor(transactionDao, shards);
+        executor.execute(Arrays.asList(
+                transaction(1L, 1L, 2L),
+                transaction(2L, 3L, 4L),
+                transaction(3L, 5L, 6L),
+                transaction(4L, 7L, 8L)
+        ));
+        executor.shutdown();
+
+        assertEquals(heldTogether.get(), shards);
+    }
+
+    private static List<Transaction> shardOf(List<List<Transaction>> shards, Long transactionId) {
+        for (List<Transaction> shard : shards) {
+            for (Transaction transaction : shard) {
+                if (transaction.getId().equals(transactionId)) {
+                    return shard;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static Transaction transaction(Long id, Long from, Long to) {
+        Transaction transaction = new Transaction(from, to, BigDecimal.ONE);
+        transaction.setId(id);
+        return transaction;
+    }
+}
@@ -0,0 +1,130 @@
+package com.bank.test.service;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.testng.annotations.Test;
+
+import com.bank.dao.BankAccountDao;
+import com.bank.exceptions.ObjectModificationException;
+import com.bank.model.BankAccount;
+import com.bank.service.BankAccountCache;
+import com.bank.service.BankAccountCacheStatistics;
+import com.bank.service.BankAccountService;
+
+import io.qameta.allure.Description;
+
+public class BankAccountCacheTest {
+
+    @Description("Test Description: Verify that cached bank account is served without the loading")
+    @Test(description = "Tests that the second request of the same bank account is a cache hit")
+    public void testCacheHit() {
+        AtomicInteger loads = new AtomicInteger();
+        BankAccountCache cache = new BankAccountCache(10, 60_000);
+
+        cache.get(1L, id -> bankAccount(id, loads.incrementAndGet()));
+        BankAccount bankAccount = cache.get(1L, id -> bankAccount(id, loads.incrementAndGet()));
+
+        assertEquals(loads.get(), 1);
+        assertEquals(bankAccount.getBalance().compareTo(BigDecimal.ONE), 0);
+
+        BankAccountCacheStatistics statistics = cache.getStatistics();
+        assertEquals(statistics.getHits(), 1);
+        assertEquals(statistics.getMisses(), 1);
+        assertEquals(statistics.getHitRatio(), 0.5);
+    }
+
+    @Description("Test Description: Verify that cache entries are evicted by size and TTL")
+    @Test(description = "Tests that the least recently used and expired bank accounts are loaded again")
+    public void testEviction() {
+        AtomicLong clock = new AtomicLong();
+        AtomicInteger loads = new AtomicInteger();
+        BankAccountCache cache = new BankAccountCache(2, 1_000, clock::get);
+
+        cache.get(1L, id -> bankAccount(id, loads.incrementAndGet()));
+        cache.get(2L, id -> bankAccount(id, loads.incrementAndGet()));
+        cache.get(3L, id -> bankAccount(id, loads.incrementAndGet()));
+        assertEquals(cache.getStatistics().getCachedAccounts(), 2);
+
+        cache.get(1L, id -> bankAccount(id, loads.incrementAndGet()));
+        assertEquals(loads.get(), 4);
+
+        clock.addAndGet(2_000_000_000L);
+        cache.get(3L, id -> bankAccount(id, loads.incrementAndGet()));
+        assertEquals(loads.get(), 5);
+        assertEquals(cache.getStatistics().getEvictions(), 3);
+    }
+
+    @Description("Test Description: Verify that the value loaded during the change is not cached")
+    @Test(description = "Tests that the bank account changed during the loading is loaded again on the next request")
+    public void testStalePutIsSkipped() {
+        AtomicInteger loads = new AtomicInteger();
+        BankAccountCache cache = new BankAccountCache(10, 60_000);
+
+        cache.get(1L, id -> {
+            cache.accountsChanged(Collections.singletonList(id));
+            return bankAccount(id, loads.incrementAndGet());
+        });
+        BankAccount bankAccount = cache.get(1L, id -> bankAccount(id, loads.incrementAndGet()));
+
+        assertEquals(loads.get(), 2);
+        assertEquals(bankAccount.getBalance().compareTo(BigDecimal.valueOf(2)), 0);
+        assertNull(cache.get(100L, id -> null));
+    }
+
+    @Description("Test Description: Verify that the cache used by many threads keeps its size and statistics")
+    @Test(description = "Tests that concurrent hits, loads and evictions keep the cache within its maximum size")
+    public void testConcurrentAccess() throws InterruptedException {
+        int threads = 8;
+        int requestsPerThread = 10_000;
+        BankAccountCache cache = new BankAccountCache(100, 60_000);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                for (int j = 0; j < requestsPerThread; j++) {
+                    long id = ThreadLocalRandom.current().nextInt(300);
+                    assertEquals(cache.get(id, key -> bankAccount(key, 1)).getId(), Long.valueOf(id));
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+
+        BankAccountCacheStatistics statistics = cache.getStatistics();
+        assertTrue(statistics.getCachedAccounts() <= 100);
+        assertEquals(statistics.getHits() + statistics.getMisses(), (long) threads * requestsPerThread);
+        assertTrue(statistics.getHits() > 0);
+    }
+
+    @Description("Test Description: Verify that bank account changes invalidate the service cache")
+    @Test(description = "Tests that the bank account read after the update contains the new owner name")
+    public void testServiceCacheInvalidation() throws ObjectModificationException {
+        BankAccountService bankAccountService = BankAccountService.getInstance();
+        BankAccount bankAccount = bankAccountService.createBankAccount(
+                new BankAccount("Cached Owner", BigDecimal.TEN, BigDecimal.ZERO));
+
+        assertEquals(bankAccountService.getBankAccountById(bankAccount.getId()).getOwnerName(), "Cached Owner");
+
+        bankAccount.setOwnerName("Renamed Owner");
+        bankAccountService.updateBankAccount(bankAccount);
+
+        assertEquals(bankAccountService.getBankAccountById(bankAccount.getId()).getOwnerName(), "Renamed Owner");
+        assertEquals(BankAccountDao.getInstance().getBankAccountById(bankAccount.getId()).getOwnerName(),
+                "Renamed Owner");
+    }
+
+    private static BankAccount bankAccount(Long id, int balance) {
+        return new BankAccount(id, "Owner " + id, BigDecimal.valueOf(balance), BigDecimal.ZERO);
+    }
+}
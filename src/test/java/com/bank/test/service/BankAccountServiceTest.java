@@ -0,0 +1,44 @@
+package com.bank.test.service;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.bank.exceptions.ObjectModificationException;
+import com.bank.model.BankAccount;
+import com.bank.model.BankAccountBulkResult;
+import com.bank.service.BankAccountService;
+
+import io.qameta.allure.Description;
+
+public class BankAccountServiceTest {
+
+    @Description("Test Description: Verify bulk creation of bank accounts chunk by chunk")
+    @Test(description = "Tests that bank accounts are created by several chunks and their IDs are returned in the request order")
+    public void testCreateBankAccountsInChunks() throws ObjectModificationException {
+        BankAccountService bankAccountService = BankAccountService.getInstance();
+        List<BankAccount> bankAccounts = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            bankAccounts.add(new BankAccount("Chunked " + i, BigDecimal.valueOf(i), BigDecimal.ZERO));
+        }
+
+        BankAccountBulkResult result = bankAccountService.createBankAccounts(bankAccounts, 3);
+
+        assertNull(result.getError());
+        assertEquals(result.getIds().size(), 7);
+        for (int i = 0; i < 7; i++) {
+            BankAccount created = bankAccountService.getBankAccountById(result.getIds().get(i));
+            assertEquals(created.getOwnerName(), "Chunked " + i);
+            assertEquals(created.getBalance().compareTo(BigDecimal.valueOf(i)), 0);
+            if (i > 0) {
+                assertTrue(result.getIds().get(i - 1) < result.getIds().get(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.bank.test.service;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import org.testng.annotations.Test;
+
+import com.bank.service.IdempotencyIndex;
+
+import io.qameta.allure.Description;
+
+public class IdempotencyIndexTest {
+
+    @Description ( "Test Description: Verify the least recently used idempotency key is evicted")
+	@Test(description="Tests that the index keeps only the most recently used keys once it is full")
+    public void testLeastRecentlyUsedKeyEviction() {
+        IdempotencyIndex index = new IdempotencyIndex(2);
+
+        index.put("a", 1L);
+        index.put("b", 2L);
+        assertEquals(index.get("a"), Long.valueOf(1L));
+        index.put("c", 3L);
+
+        assertEquals(index.size(), 2);
+        assertEquals(index.get("a"), Long.valueOf(1L));
+        assertNull(index.get("b"));
+        assertEquals(index.get("c"), Long.valueOf(3L));
+    }
+
+    @Description ( "Test Description: Verify the disabled index keeps nothing")
+	@Test(description="Tests that the index of size 0 does not keep the keys")
+    public void testDisabledIndex() {
+        IdempotencyIndex index = new IdempotencyIndex(0);
+
+        index.put("a", 1L);
+
+        assertNull(index.get("a"));
+        assertEquals(index.size(), 0);
+    }
+}
@@ -4,9 +4,12 @@ package com.bank.test.service;
  import org.testng.annotations.Test;
  import com.bank.dao.BankAccountDao;
 import com.bank.dao.TransactionDao;
+import com.bank.exceptions.ImpossibleOperationExecution;
 import com.bank.exceptions.ObjectModificationException;
 import com.bank.model.Transaction;
 import com.bank.model.TransactionStatus;
+import com.bank.service.ExecutionMode;
+import com.bank.service.ExecutorSettings;
 import com.bank.service.TransactionsService;
 
 import io.qameta.allure.Description;
@@ -123,4 +126,45 @@ public class TransactionsServiceTest {
 
         assertEquals(transaction.getStatus(), TransactionStatus.SUCCEED);
     }
+
+    @Description ( "Test Description: Verify that created transaction is executed right away in event driven mode")
+   	@Test (description= "Tests that event driven service executes the created transaction without waiting for the scheduled scan" )
+    public void testEventDrivenTransactionExecution() throws ObjectModificationException {
+        Long TRANSACTION_ID = 321L;
+
+        TransactionDao transactionDto = mock(TransactionDao.class);
+
+        Transaction transaction = new Transaction(
+                BankAccountDao.JYOTI,
+                BankAccountDao.RANJAN,
+                BigDecimal.TEN
+        );
+        transaction.setId(TRANSACTION_ID);
+
+        when(transactionDto.createTransaction(any())).thenReturn(transaction);
+
+        TransactionsService transactionsService = new TransactionsService(transactionDto,
+                ExecutorSettings.builder().eventDriven(true).build());
+        transactionsService.createTransaction(transaction);
+
+        verify(transactionDto, timeout(2000)).executeTransaction(TRANSACTION_ID);
+    }
+
+    @Description ( "Test Description: Verify that the broken transaction does not stop the execution of the others")
+   	@Test (description= "Tests that serial fallback of the batched execution goes on once some transaction could not be executed" )
+    public void testBrokenTransactionDoesNotStopBatchFallback() throws ObjectModificationException {
+        TransactionDao transactionDto = mock(TransactionDao.class);
+
+        when(transactionDto.executeTransactionsBatch(anyInt())).thenThrow(
+                new ImpossibleOperationExecution(new IllegalStateException("broken batch")));
+        when(transactionDto.getAllTransactionIdsByStatus(TransactionStatus.PLANNED)).thenReturn(Arrays.asList(1L, 2L));
+        doThrow(new ImpossibleOperationExecution(new IllegalStateException("broken transaction")))
+                .when(transactionDto).executeTransaction(1L);
+
+        TransactionsService transactionsService = new TransactionsService(transactionDto,
+                ExecutorSettings.builder().executionMode(ExecutionMode.BATCHED).build());
+        transactionsService.executeTransactions();
+
+        verify(transactionDto).executeTransaction(2L);
+    }
 }